@@ -31,6 +31,7 @@ import org.apache.oozie.client.BulkResponse;
 import org.apache.oozie.client.BundleJob;
 import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.client.JobsPage;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.OozieClient.SYSTEM_MODE;
 import org.apache.oozie.client.OozieClientException;
@@ -105,6 +106,7 @@ public class OozieCLI {
     public static final String CONFIG_OPTION = "config";
     public static final String SUBMIT_OPTION = "submit";
     public static final String OFFSET_OPTION = "offset";
+    public static final String CURSOR_OPTION = "cursor";
     public static final String START_OPTION = "start";
     public static final String RUN_OPTION = "run";
     public static final String DRYRUN_OPTION = "dryrun";
@@ -133,6 +135,10 @@ public class OozieCLI {
     public static final String DO_AS_OPTION = "doas";
 
     public static final String LEN_OPTION = "len";
+
+    private static final int DEFAULT_JOBS_LEN = 50;
+
+    private static final int JOBS_PAGE_LEN = 500;
     public static final String FILTER_OPTION = "filter";
     public static final String JOBTYPE_OPTION = "jobtype";
     public static final String SYSTEM_MODE_OPTION = "systemmode";
@@ -461,6 +467,8 @@ public class OozieCLI {
     protected Options createJobsOptions() {
         Option oozie = new Option(OOZIE_OPTION, true, "Oozie URL");
         Option start = new Option(OFFSET_OPTION, true, "jobs offset (default '1')");
+        Option cursor = new Option(CURSOR_OPTION, false,
+                "list the jobs following the server cursors instead of an offset");
         Option jobtype = new Option(JOBTYPE_OPTION, true,
                 "job type ('Supported in Oozie-2.0 or later versions ONLY - 'coordinator' or 'bundle' or 'wf'(default))");
         Option len = new Option(LEN_OPTION, true, "number of jobs (default '100')");
@@ -497,6 +505,7 @@ public class OozieCLI {
         jobsOptions.addOption(resume);
         jobsOptions.addOption(timezone);
         jobsOptions.addOption(start);
+        jobsOptions.addOption(cursor);
         jobsOptions.addOption(len);
         jobsOptions.addOption(oozie);
         jobsOptions.addOption(filter);
@@ -1614,15 +1623,35 @@ public class OozieCLI {
         System.out.println();
     }
 
+    /**
+     * Lists jobs page by page, following the cursors returned by the server.
+     */
+    private abstract static class JobsPager<T> {
+
+        abstract JobsPage<T> getPage(String cursor, int pageLen) throws OozieClientException;
+
+        List<T> getJobs(int len) throws OozieClientException {
+            len = (len < 1) ? DEFAULT_JOBS_LEN : len;
+            List<T> jobs = new ArrayList<T>();
+            String cursor = null;
+            do {
+                JobsPage<T> page = getPage(cursor, Math.min(len - jobs.size(), JOBS_PAGE_LEN));
+                jobs.addAll(page.getJobs());
+                cursor = page.getNextCursor();
+            } while (cursor != null && jobs.size() < len);
+            return jobs;
+        }
+    }
+
     private void jobsCommand(CommandLine commandLine) throws IOException, OozieCLIException {
-        XOozieClient wc = createXOozieClient(commandLine);
+        final XOozieClient wc = createXOozieClient(commandLine);
 
         List<String> options = new ArrayList<String>();
         for (Option option : commandLine.getOptions()) {
             options.add(option.getOpt());
         }
 
-        String filter = commandLine.getOptionValue(FILTER_OPTION);
+        final String filter = commandLine.getOptionValue(FILTER_OPTION);
         String s = commandLine.getOptionValue(OFFSET_OPTION);
         int start = Integer.parseInt((s != null) ? s : "0");
         s = commandLine.getOptionValue(LEN_OPTION);
@@ -1646,13 +1675,34 @@ public class OozieCLI {
                 printBulkJobs(wc.getBulkInfo(bulkFilterString, start, len), timeZoneId, commandLine.hasOption(VERBOSE_OPTION));
             }
             else if (jobtype.toLowerCase().contains("wf")) {
-                printJobs(wc.getJobsInfo(filter, start, len), timeZoneId, commandLine.hasOption(VERBOSE_OPTION));
+                List<WorkflowJob> jobs = (!options.contains(CURSOR_OPTION)) ? wc.getJobsInfo(filter, start, len)
+                        : new JobsPager<WorkflowJob>() {
+                            @Override
+                            JobsPage<WorkflowJob> getPage(String cursor, int pageLen) throws OozieClientException {
+                                return wc.getJobsPage(filter, cursor, pageLen, false);
+                            }
+                        }.getJobs(len);
+                printJobs(jobs, timeZoneId, commandLine.hasOption(VERBOSE_OPTION));
             }
             else if (jobtype.toLowerCase().startsWith("coord")) {
-                printCoordJobs(wc.getCoordJobsInfo(filter, start, len), timeZoneId, commandLine.hasOption(VERBOSE_OPTION));
+                List<CoordinatorJob> jobs = (!options.contains(CURSOR_OPTION)) ? wc.getCoordJobsInfo(filter, start, len)
+                        : new JobsPager<CoordinatorJob>() {
+                            @Override
+                            JobsPage<CoordinatorJob> getPage(String cursor, int pageLen) throws OozieClientException {
+                                return wc.getCoordJobsPage(filter, cursor, pageLen, false);
+                            }
+                        }.getJobs(len);
+                printCoordJobs(jobs, timeZoneId, commandLine.hasOption(VERBOSE_OPTION));
             }
             else if (jobtype.toLowerCase().startsWith("bundle")) {
-                printBundleJobs(wc.getBundleJobsInfo(filter, start, len), timeZoneId, commandLine.hasOption(VERBOSE_OPTION));
+                List<BundleJob> jobs = (!options.contains(CURSOR_OPTION)) ? wc.getBundleJobsInfo(filter, start, len)
+                        : new JobsPager<BundleJob>() {
+                            @Override
+                            JobsPage<BundleJob> getPage(String cursor, int pageLen) throws OozieClientException {
+                                return wc.getBundleJobsPage(filter, cursor, pageLen, false);
+                            }
+                        }.getJobs(len);
+                printBundleJobs(jobs, timeZoneId, commandLine.hasOption(VERBOSE_OPTION));
             }
 
         }
@@ -0,0 +1,263 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Connection wrapper decoding gzip encoded responses and releasing the connection once the response is processed.
+ * <p>
+ * The JDK keeps a connection open for the next request to the same server only once its response stream is closed
+ * after being read; the response streams handed out by this connection are closed by {@link #release()}, so the
+ * many small requests of a client polling job status reuse one connection instead of opening one each.
+ * <p>
+ * Like any <code>HttpURLConnection</code>, setting request properties once the request is sent fails with an
+ * <code>IllegalStateException</code>.
+ */
+class KeepAliveHttpURLConnection extends HttpURLConnection {
+    static final String ACCEPT_ENCODING = "Accept-Encoding";
+    static final String GZIP = "gzip";
+
+    private final HttpURLConnection conn;
+    private final List<InputStream> streams = new ArrayList<InputStream>();
+    private InputStream inputStream;
+    private InputStream errorStream;
+
+    KeepAliveHttpURLConnection(HttpURLConnection conn, boolean compression) {
+        super(conn.getURL());
+        this.conn = conn;
+        if (compression) {
+            conn.setRequestProperty(ACCEPT_ENCODING, GZIP);
+        }
+    }
+
+    private boolean isGzip() {
+        return GZIP.equalsIgnoreCase(conn.getContentEncoding());
+    }
+
+    private InputStream track(InputStream is) throws IOException {
+        if (is != null) {
+            if (isGzip()) {
+                is = new GZIPInputStream(is);
+            }
+            synchronized (streams) {
+                streams.add(is);
+            }
+        }
+        return is;
+    }
+
+    /**
+     * Close the response streams read, the JDK then keeps the connection for the next request.
+     */
+    void release() {
+        synchronized (streams) {
+            for (InputStream is : streams) {
+                try {
+                    is.close();
+                }
+                catch (IOException ex) {
+                    // the connection is not reused
+                }
+            }
+            streams.clear();
+        }
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        connected = true;
+        if (inputStream == null) {
+            inputStream = track(conn.getInputStream());
+        }
+        return inputStream;
+    }
+
+    @Override
+    public synchronized InputStream getErrorStream() {
+        if (errorStream == null) {
+            try {
+                errorStream = track(conn.getErrorStream());
+            }
+            catch (IOException ex) {
+                return null;
+            }
+        }
+        return errorStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        return conn.getOutputStream();
+    }
+
+    @Override
+    public void connect() throws IOException {
+        conn.connect();
+        connected = true;
+    }
+
+    @Override
+    public void disconnect() {
+        conn.disconnect();
+    }
+
+    @Override
+    public boolean usingProxy() {
+        return conn.usingProxy();
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+        connected = true;
+        return conn.getResponseCode();
+    }
+
+    @Override
+    public String getResponseMessage() throws IOException {
+        return conn.getResponseMessage();
+    }
+
+    @Override
+    public void setRequestMethod(String method) throws ProtocolException {
+        conn.setRequestMethod(method);
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return conn.getRequestMethod();
+    }
+
+    @Override
+    public void setRequestProperty(String key, String value) {
+        if (connected) {
+            throw new IllegalStateException("Already connected");
+        }
+        conn.setRequestProperty(key, value);
+    }
+
+    @Override
+    public void addRequestProperty(String key, String value) {
+        if (connected) {
+            throw new IllegalStateException("Already connected");
+        }
+        conn.addRequestProperty(key, value);
+    }
+
+    @Override
+    public String getRequestProperty(String key) {
+        return conn.getRequestProperty(key);
+    }
+
+    @Override
+    public Map<String, List<String>> getRequestProperties() {
+        return conn.getRequestProperties();
+    }
+
+    @Override
+    public void setDoOutput(boolean doOutput) {
+        conn.setDoOutput(doOutput);
+    }
+
+    @Override
+    public boolean getDoOutput() {
+        return conn.getDoOutput();
+    }
+
+    @Override
+    public void setConnectTimeout(int timeout) {
+        conn.setConnectTimeout(timeout);
+    }
+
+    @Override
+    public int getConnectTimeout() {
+        return conn.getConnectTimeout();
+    }
+
+    @Override
+    public void setReadTimeout(int timeout) {
+        conn.setReadTimeout(timeout);
+    }
+
+    @Override
+    public int getReadTimeout() {
+        return conn.getReadTimeout();
+    }
+
+    @Override
+    public void setChunkedStreamingMode(int chunkLength) {
+        conn.setChunkedStreamingMode(chunkLength);
+    }
+
+    @Override
+    public void setFixedLengthStreamingMode(int contentLength) {
+        conn.setFixedLengthStreamingMode(contentLength);
+    }
+
+    @Override
+    public void setInstanceFollowRedirects(boolean followRedirects) {
+        conn.setInstanceFollowRedirects(followRedirects);
+    }
+
+    @Override
+    public boolean getInstanceFollowRedirects() {
+        return conn.getInstanceFollowRedirects();
+    }
+
+    @Override
+    public String getHeaderField(String name) {
+        return conn.getHeaderField(name);
+    }
+
+    @Override
+    public String getHeaderFieldKey(int n) {
+        return conn.getHeaderFieldKey(n);
+    }
+
+    @Override
+    public String getHeaderField(int n) {
+        return conn.getHeaderField(n);
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaderFields() {
+        return conn.getHeaderFields();
+    }
+
+    @Override
+    public String getContentType() {
+        return conn.getContentType();
+    }
+
+    /**
+     * The length of a gzip encoded body is the length of the compressed body, it is not returned.
+     */
+    @Override
+    public int getContentLength() {
+        return isGzip() ? -1 : conn.getContentLength();
+    }
+}
@@ -37,6 +37,8 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -45,10 +47,12 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.Reader;
+import java.io.SequenceInputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -245,6 +249,20 @@ public class OozieClient {
     private boolean validatedVersion = false;
     private JSONArray supportedVersions;
     private final Map<String, String> headers = new HashMap<String, String>();
+    private boolean compression = true;
+    private boolean keepAlive = false;
+    private boolean responseCaching = false;
+
+    private static final long RESPONSE_CACHE_MAX_SIZE = 8 * 1024 * 1024;
+    private static final int RESPONSE_CACHE_MAX_ENTRY_SIZE = 1024 * 1024;
+
+    /**
+     * Last responses with an entity tag, by URL and user, revalidated with <code>If-None-Match</code> requests. Least
+     * recently used first, the bodies take up to {@link #RESPONSE_CACHE_MAX_SIZE} bytes.
+     */
+    private final LinkedHashMap<String, CachedResponse> responseCache =
+            new LinkedHashMap<String, CachedResponse>(16, 0.75f, true);
+    private long responseCacheSize = 0;
 
     private static final ThreadLocal<String> USER_NAME_TL = new ThreadLocal<String>();
 
@@ -336,6 +354,64 @@ public class OozieClient {
         this.retryCount = retryCount;
     }
 
+    /**
+     * Return whether the client asks for gzip compressed responses.
+     *
+     * @return <code>true</code> if responses are requested with gzip compression.
+     */
+    public boolean isCompression() {
+        return compression;
+    }
+
+    /**
+     * Set whether the client asks for gzip compressed responses, enabled by default. Servers not supporting it send
+     * responses uncompressed.
+     *
+     * @param compression <code>true</code> to request gzip compressed responses.
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Return whether the client releases the connection of each request for the next one to the same server.
+     *
+     * @return <code>true</code> if connections are kept alive.
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Set whether the client closes the response streams once each request is processed, so that the JDK keeps the
+     * connection open for the next request to the same server, disabled by default.
+     *
+     * @param keepAlive <code>true</code> to keep connections alive.
+     */
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Return whether the client caches the responses having an entity tag and revalidates them.
+     *
+     * @return <code>true</code> if the responses are cached.
+     */
+    public boolean isResponseCaching() {
+        return responseCaching;
+    }
+
+    /**
+     * Set whether the client caches the last responses having an entity tag and revalidates them with conditional
+     * requests, disabled by default. It pays off for clients polling the same jobs or job listings, the server then
+     * answers <code>304 Not Modified</code> without loading them.
+     *
+     * @param responseCaching <code>true</code> to cache the responses.
+     */
+    public void setResponseCaching(boolean responseCaching) {
+        this.responseCaching = responseCaching;
+    }
+
     private String getBaseURLForVersion(long protocolVersion) throws OozieClientException {
         try {
             if (supportedVersions == null) {
@@ -554,6 +630,193 @@ public class OozieClient {
         return conn;
     }
 
+    private static class CachedResponse {
+        private final String eTag;
+        private final byte[] body;
+
+        CachedResponse(String eTag, byte[] body) {
+            this.eTag = eTag;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Return the key of the cached response of a URL. The responses depend on the authenticated user, the impersonated
+     * one and the custom headers.
+     */
+    private String getResponseCacheKey(String url) {
+        String doAsUserName = USER_NAME_TL.get();
+        return System.getProperty("user.name") + "\n" + ((doAsUserName != null) ? doAsUserName : "") + "\n"
+                + headers + "\n" + url;
+    }
+
+    private CachedResponse getCachedResponse(String key) {
+        synchronized (responseCache) {
+            return responseCache.get(key);
+        }
+    }
+
+    private void putCachedResponse(String key, CachedResponse response) {
+        synchronized (responseCache) {
+            CachedResponse previous = responseCache.put(key, response);
+            responseCacheSize += response.body.length - ((previous != null) ? previous.body.length : 0);
+            Iterator<CachedResponse> it = responseCache.values().iterator();
+            while (responseCacheSize > RESPONSE_CACHE_MAX_SIZE && it.hasNext()) {
+                responseCacheSize -= it.next().body.length;
+                it.remove();
+            }
+        }
+    }
+
+    private void removeCachedResponse(String key) {
+        synchronized (responseCache) {
+            CachedResponse previous = responseCache.remove(key);
+            if (previous != null) {
+                responseCacheSize -= previous.body.length;
+            }
+        }
+    }
+
+    /**
+     * Send a GET request revalidating the cached response of the URL, if any, when response caching is enabled.
+     * <p>
+     * When the server answers <code>304 Not Modified</code> the cached body is returned as a <code>200 OK</code>
+     * response, so callables do not have to know about entity tags. Without a cached response the request carries an
+     * entity tag matching nothing, so that the server sends the entity tag of the response.
+     *
+     * @param url request URL.
+     * @param conn connection of the request, not yet connected.
+     * @return the connection to read the response from.
+     * @throws IOException thrown if the request failed.
+     */
+    private HttpURLConnection getConditionalResponse(String url, HttpURLConnection conn) throws IOException {
+        if (!responseCaching) {
+            return conn;
+        }
+        String key = getResponseCacheKey(url);
+        CachedResponse cached = getCachedResponse(key);
+        try {
+            conn.setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER,
+                    (cached != null) ? cached.eTag : RestConstants.NO_ETAG);
+        }
+        catch (IllegalStateException ex) {
+            // already connected by the authentication, the request is sent unconditionally
+            cached = null;
+        }
+        int status = conn.getResponseCode();
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            return new CachedResponseConnection(conn, new ByteArrayInputStream(cached.body));
+        }
+        String eTag = conn.getHeaderField(RestConstants.ETAG_HEADER);
+        if (status == HttpURLConnection.HTTP_OK && eTag != null) {
+            // the body is buffered up to the size limit, larger responses are streamed and not cached
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            InputStream is = conn.getInputStream();
+            int read = 0;
+            try {
+                byte[] buffer = new byte[8192];
+                while (body.size() <= RESPONSE_CACHE_MAX_ENTRY_SIZE && (read = is.read(buffer)) >= 0) {
+                    body.write(buffer, 0, read);
+                }
+            }
+            catch (IOException ex) {
+                is.close();
+                throw ex;
+            }
+            if (read >= 0) {
+                removeCachedResponse(key);
+                return new CachedResponseConnection(conn,
+                        new SequenceInputStream(new ByteArrayInputStream(body.toByteArray()), is));
+            }
+            is.close();
+            putCachedResponse(key, new CachedResponse(eTag, body.toByteArray()));
+            return new CachedResponseConnection(conn, new ByteArrayInputStream(body.toByteArray()));
+        }
+        removeCachedResponse(key);
+        return new CachedResponseConnection(conn, null);
+    }
+
+    /**
+     * Completed connection answering with the actual response, or with a body already read, at least partly, and the
+     * headers of the actual response. The request being already sent, request properties set by callables are
+     * ignored.
+     */
+    private static class CachedResponseConnection extends HttpURLConnection {
+        private final HttpURLConnection conn;
+        private final InputStream body;
+
+        CachedResponseConnection(HttpURLConnection conn, InputStream body) {
+            super(conn.getURL());
+            this.conn = conn;
+            this.body = body;
+            connected = true;
+        }
+
+        @Override
+        public void connect() throws IOException {
+        }
+
+        @Override
+        public void setRequestProperty(String key, String value) {
+            // the request is already sent
+        }
+
+        @Override
+        public void addRequestProperty(String key, String value) {
+            // the request is already sent
+        }
+
+        @Override
+        public void disconnect() {
+            conn.disconnect();
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return conn.usingProxy();
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            return (body != null) ? HTTP_OK : conn.getResponseCode();
+        }
+
+        @Override
+        public String getResponseMessage() throws IOException {
+            return (body != null) ? "OK" : conn.getResponseMessage();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return (body != null) ? body : conn.getInputStream();
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return (body != null) ? null : conn.getErrorStream();
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            return conn.getHeaderField(name);
+        }
+
+        @Override
+        public String getHeaderFieldKey(int n) {
+            return conn.getHeaderFieldKey(n);
+        }
+
+        @Override
+        public String getHeaderField(int n) {
+            return conn.getHeaderField(n);
+        }
+
+        @Override
+        public Map<String, List<String>> getHeaderFields() {
+            return conn.getHeaderFields();
+        }
+    }
+
     protected abstract class ClientCallable<T> implements Callable<T> {
         private final String method;
         private final String collection;
@@ -580,7 +843,21 @@ public class OozieClient {
                     if (getDebugMode() > 0) {
                         System.out.println(method + " " + url);
                     }
-                    return call(createRetryableConnection(url, method));
+                    HttpURLConnection conn = createRetryableConnection(url, method);
+                    if (compression || keepAlive) {
+                        conn = new KeepAliveHttpURLConnection(conn, compression);
+                    }
+                    try {
+                        if (method.equals("GET")) {
+                            return call(getConditionalResponse(url.toString(), conn));
+                        }
+                        return call(conn);
+                    }
+                    finally {
+                        if (keepAlive) {
+                            ((KeepAliveHttpURLConnection) conn).release();
+                        }
+                    }
                 }
                 else {
                     System.out.println("Option not supported in target server. Supported only on Oozie-2.0 or greater."
@@ -757,11 +1034,16 @@ public class OozieClient {
     private class JobsAction extends ClientCallable<JSONObject> {
 
         JobsAction(String action, String filter, String jobType, int start, int len) {
+            this(action, filter, jobType, start, len, false);
+        }
+
+        JobsAction(String action, String filter, String jobType, int start, int len, boolean async) {
             super("PUT", RestConstants.JOBS, "",
                     prepareParams(RestConstants.ACTION_PARAM, action,
                             RestConstants.JOB_FILTER_PARAM, filter, RestConstants.JOBTYPE_PARAM, jobType,
                             RestConstants.OFFSET_PARAM, Integer.toString(start),
-                            RestConstants.LEN_PARAM, Integer.toString(len)));
+                            RestConstants.LEN_PARAM, Integer.toString(len),
+                            RestConstants.JOBS_ASYNC_PARAM, async ? "true" : null));
         }
 
         @Override
@@ -778,6 +1060,28 @@ public class OozieClient {
             return null;
         }
     }
+
+    private class BulkOperationInfo extends ClientCallable<JSONObject> {
+
+        BulkOperationInfo(String operationId) {
+            super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_BULK_OPERATION_PARAM, operationId));
+        }
+
+        @Override
+        protected JSONObject call(HttpURLConnection conn) throws IOException, OozieClientException {
+            conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
+            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
+                Reader reader = new InputStreamReader(conn.getInputStream());
+                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                return (JSONObject) json.get(JsonTags.BULK_OPERATION);
+            }
+            else {
+                handleError(conn);
+            }
+            return null;
+        }
+    }
+
     /**
      * Update coord definition.
      *
@@ -933,6 +1237,36 @@ public class OozieClient {
         return new JobsAction(actionType, filter, jobType, start, len).call();
     }
 
+    /**
+     * Start a bulk kill, suspend or resume of jobs, without waiting for the jobs to be modified.
+     *
+     * @param actionType kill, suspend or resume
+     * @param filter filter of the jobs
+     * @param jobType wf, coord or bundle
+     * @param start offset of the first job
+     * @param len maximum number of jobs
+     * @return the bulk operation, its id is the <code>id</code> field
+     * @throws OozieClientException thrown if the operation could not be started
+     */
+    public JSONObject startBulkModifyJobs(String actionType, String filter, String jobType, int start, int len)
+            throws OozieClientException {
+        JSONObject json = new JobsAction(actionType, filter, jobType, start, len, true).call();
+        return (json != null) ? (JSONObject) json.get(JsonTags.BULK_OPERATION) : null;
+    }
+
+    /**
+     * Return the progress of a bulk operation started with
+     * {@link #startBulkModifyJobs(String, String, String, int, int)}.
+     *
+     * @param operationId the bulk operation id
+     * @return the bulk operation, with its <code>status</code>, <code>total</code>, <code>completed</code> and
+     *         <code>failed</code> counts
+     * @throws OozieClientException thrown if the operation does not exist on the server
+     */
+    public JSONObject getBulkOperation(String operationId) throws OozieClientException {
+        return new BulkOperationInfo(operationId).call();
+    }
+
     public JSONObject killJobs(String filter, String jobType, int start, int len)
             throws OozieClientException {
         return bulkModifyJobs("kill", filter, jobType, start, len);
@@ -1470,13 +1804,8 @@ public class OozieClient {
         @Override
         protected List<WorkflowJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
-                JSONArray workflows = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
-                if (workflows == null) {
-                    workflows = new JSONArray();
-                }
-                return JsonToBean.createWorkflowJobList(workflows);
+                Reader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
+                return JsonToBean.parseWorkflowJobList(reader, JsonTags.WORKFLOWS_JOBS, null);
             }
             else {
                 handleError(conn);
@@ -1607,13 +1936,8 @@ public class OozieClient {
         protected List<WorkflowJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
-                JSONArray workflows = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
-                if (workflows == null) {
-                    workflows = new JSONArray();
-                }
-                return JsonToBean.createWorkflowJobList(workflows);
+                Reader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
+                return JsonToBean.parseWorkflowJobList(reader, JsonTags.WORKFLOWS_JOBS, null);
             }
             else {
                 handleError(conn);
@@ -1634,13 +1958,8 @@ public class OozieClient {
         protected List<CoordinatorJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
-                JSONArray jobs = (JSONArray) json.get(JsonTags.COORDINATOR_JOBS);
-                if (jobs == null) {
-                    jobs = new JSONArray();
-                }
-                return JsonToBean.createCoordinatorJobList(jobs);
+                Reader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
+                return JsonToBean.parseCoordinatorJobList(reader, JsonTags.COORDINATOR_JOBS, null);
             }
             else {
                 handleError(conn);
@@ -1661,13 +1980,40 @@ public class OozieClient {
         protected List<BundleJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
-                JSONArray jobs = (JSONArray) json.get(JsonTags.BUNDLE_JOBS);
-                if (jobs == null) {
-                    jobs = new JSONArray();
-                }
-                return JsonToBean.createBundleJobList(jobs);
+                Reader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
+                return JsonToBean.parseBundleJobList(reader, JsonTags.BUNDLE_JOBS, null);
+            }
+            else {
+                handleError(conn);
+            }
+            return null;
+        }
+    }
+
+    private abstract class JobsPageStatus<T> extends ClientCallable<JobsPage<T>> {
+        private final Object jobsTag;
+
+        JobsPageStatus(String jobType, Object jobsTag, String filter, String cursor, int len, boolean count) {
+            super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_FILTER_PARAM, filter,
+                    RestConstants.JOBTYPE_PARAM, jobType, RestConstants.JOBS_CURSOR_PARAM, (cursor != null) ? cursor : "",
+                    RestConstants.LEN_PARAM, Integer.toString(len), RestConstants.JOBS_COUNT_PARAM,
+                    Boolean.toString(count)));
+            this.jobsTag = jobsTag;
+        }
+
+        protected abstract List<T> parseJobList(Reader reader, Object jobsTag, Map<String, Object> fields)
+                throws IOException;
+
+        @Override
+        protected JobsPage<T> call(HttpURLConnection conn) throws IOException, OozieClientException {
+            conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
+            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
+                Reader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
+                Map<String, Object> fields = new HashMap<String, Object>();
+                List<T> jobs = parseJobList(reader, jobsTag, fields);
+                Long total = (Long) fields.get(JsonTags.WORKFLOWS_TOTAL);
+                return new JobsPage<T>(jobs, (String) fields.get(JsonTags.JOBS_NEXT_CURSOR),
+                        (total != null) ? total.intValue() : -1);
             }
             else {
                 handleError(conn);
@@ -1687,13 +2033,8 @@ public class OozieClient {
         protected List<BulkResponse> call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
-                JSONArray results = (JSONArray) json.get(JsonTags.BULK_RESPONSES);
-                if (results == null) {
-                    results = new JSONArray();
-                }
-                return JsonToBean.createBulkResponseList(results);
+                Reader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
+                return JsonToBean.parseBulkResponseList(reader, JsonTags.BULK_RESPONSES, null);
             }
             else {
                 handleError(conn);
@@ -1861,6 +2202,30 @@ public class OozieClient {
         return new JobsStatus(filter, start, len).call();
     }
 
+    /**
+     * Return a page of the workflow jobs that match the filter, using keyset pagination.
+     * <p>
+     * Unlike offset pagination, getting a page does not get slower the further it is in the listing, and pages do
+     * not skip or repeat jobs when jobs are created while paging.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param cursor cursor returned with the previous page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @param count whether to count all the jobs matching the filter, which is slower.
+     * @return a page of workflow jobs info, without node details.
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public JobsPage<WorkflowJob> getJobsPage(String filter, String cursor, int len, boolean count)
+            throws OozieClientException {
+        return new JobsPageStatus<WorkflowJob>("wf", JsonTags.WORKFLOWS_JOBS, filter, cursor, len, count) {
+            @Override
+            protected List<WorkflowJob> parseJobList(Reader reader, Object jobsTag, Map<String, Object> fields)
+                    throws IOException {
+                return JsonToBean.parseWorkflowJobList(reader, jobsTag, fields);
+            }
+        }.call();
+    }
+
     /**
      * Return the info of the workflow jobs that match the filter.
      * <p>
@@ -2360,6 +2725,48 @@ public class OozieClient {
         return new BundleJobsStatus(filter, start, len).call();
     }
 
+    /**
+     * Return a page of the coordinator jobs that match the filter, using keyset pagination.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param cursor cursor returned with the previous page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @param count whether to count all the jobs matching the filter, which is slower.
+     * @return a page of coordinator jobs info
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public JobsPage<CoordinatorJob> getCoordJobsPage(String filter, String cursor, int len, boolean count)
+            throws OozieClientException {
+        return new JobsPageStatus<CoordinatorJob>("coord", JsonTags.COORDINATOR_JOBS, filter, cursor, len, count) {
+            @Override
+            protected List<CoordinatorJob> parseJobList(Reader reader, Object jobsTag, Map<String, Object> fields)
+                    throws IOException {
+                return JsonToBean.parseCoordinatorJobList(reader, jobsTag, fields);
+            }
+        }.call();
+    }
+
+    /**
+     * Return a page of the bundle jobs that match the filter, using keyset pagination.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param cursor cursor returned with the previous page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @param count whether to count all the jobs matching the filter, which is slower.
+     * @return a page of bundle jobs info
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public JobsPage<BundleJob> getBundleJobsPage(String filter, String cursor, int len, boolean count)
+            throws OozieClientException {
+        return new JobsPageStatus<BundleJob>("bundle", JsonTags.BUNDLE_JOBS, filter, cursor, len, count) {
+            @Override
+            protected List<BundleJob> parseJobList(Reader reader, Object jobsTag, Map<String, Object> fields)
+                    throws IOException {
+                return JsonToBean.parseBundleJobList(reader, jobsTag, fields);
+            }
+        }.call();
+    }
+
     public List<BulkResponse> getBulkInfo(String filter, int start, int len) throws OozieClientException {
         return new BulkResponseStatus(filter, start, len).call();
     }
@@ -2446,6 +2853,73 @@ public class OozieClient {
         }
     }
 
+    /**
+     * Wait until some of the given workflow, coordinator or bundle jobs reach one of the given statuses.
+     * <p>
+     * The server holds the request until a watched job changes, instead of the client polling the status of each job.
+     * The jobs already in one of the statuses are returned right away. The server may answer before the timeout
+     * passes; the jobs are then watched again for the remaining time.
+     *
+     * @param jobIds ids of the jobs to watch.
+     * @param statuses statuses to wait for, <code>null</code> or empty for the terminal statuses.
+     * @param timeout maximum time to wait, in milliseconds, 0 to return right away.
+     * @return the status of the jobs which reached one of the statuses, by job id, empty if the timeout passed.
+     * @throws OozieClientException thrown if the jobs could not be watched.
+     */
+    public Map<String, String> waitFor(Collection<String> jobIds, Collection<String> statuses, long timeout)
+            throws OozieClientException {
+        if (jobIds == null || jobIds.isEmpty()) {
+            throw new IllegalArgumentException("jobIds cannot be empty");
+        }
+        long end = System.currentTimeMillis() + timeout;
+        while (true) {
+            long remaining = Math.max(0, end - System.currentTimeMillis());
+            Map<String, String> reached = new WatchJobs(jobIds, statuses, remaining).call();
+            if (!reached.isEmpty() || System.currentTimeMillis() >= end) {
+                return reached;
+            }
+        }
+    }
+
+    private class WatchJobs extends ClientCallable<Map<String, String>> {
+
+        WatchJobs(Collection<String> jobIds, Collection<String> statuses, long timeout) {
+            super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_WATCH_PARAM, join(jobIds),
+                    RestConstants.JOBS_WATCH_STATUS_PARAM, (statuses != null) ? join(statuses) : "",
+                    RestConstants.JOBS_WATCH_TIMEOUT_PARAM, Long.toString((timeout + 999) / 1000)));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Map<String, String> call(HttpURLConnection conn) throws IOException, OozieClientException {
+            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
+                Reader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
+                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                JSONObject jobs = (JSONObject) json.get(JsonTags.WATCH_JOBS);
+                if (jobs == null) {
+                    throw new OozieClientException(OozieClientException.UNSUPPORTED_VERSION,
+                            "Job watches are not supported by the server");
+                }
+                return new LinkedHashMap<String, String>(jobs);
+            }
+            else {
+                handleError(conn);
+            }
+            return null;
+        }
+    }
+
+    private static String join(Collection<String> values) {
+        StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+
     private class GetQueueDump extends ClientCallable<List<String>> {
         GetQueueDump() {
             super("GET", RestConstants.ADMIN, RestConstants.ADMIN_QUEUE_DUMP_RESOURCE, prepareParams());
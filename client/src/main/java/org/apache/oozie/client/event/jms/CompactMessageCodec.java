@@ -0,0 +1,278 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client.event.jms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Date;
+
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.event.message.CoordinatorActionMessage;
+import org.apache.oozie.client.event.message.EventMessage;
+import org.apache.oozie.client.event.message.SLAMessage;
+import org.apache.oozie.client.event.message.WorkflowJobMessage;
+
+/**
+ * Compact binary encoding of the event message bodies, sent in JMS bytes messages with the
+ * {@link JMSHeaderConstants#MESSAGE_FORMAT} property set to {@link #MESSAGE_FORMAT}.
+ * <p>
+ * Like the JSON body, the encoded body only holds the fields that are not JMS selector properties. A body starts
+ * with a magic byte, the format version and the message kind, followed by the fields of the kind in a fixed order.
+ * Strings and enums are written as UTF-8 bytes prefixed with their length plus one, durations and dates, as
+ * milliseconds since the epoch, as zig-zag variable length integers. A null string or enum is written as a zero
+ * length prefix and a null date as a zero, non null dates being written as their encoded value plus one.
+ * <p>
+ * Fields may only be added at the end of a kind, together with a version increase. Decoders ignore the trailing
+ * fields they do not know, so older clients can still read messages of a newer version.
+ */
+public final class CompactMessageCodec {
+
+    public static final String MESSAGE_FORMAT = "compact";
+
+    static final byte MAGIC = (byte) 0x4F;
+    static final byte VERSION = 1;
+
+    static final byte WORKFLOW_JOB = 1;
+    static final byte COORDINATOR_ACTION = 2;
+    static final byte SLA = 3;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private CompactMessageCodec() {
+    }
+
+    /**
+     * Encode an event message body.
+     *
+     * @param message the workflow job, coordinator action or SLA message
+     * @return the encoded body
+     */
+    public static byte[] encode(EventMessage message) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            if (message instanceof WorkflowJobMessage) {
+                WorkflowJobMessage msg = (WorkflowJobMessage) message;
+                out.writeByte(WORKFLOW_JOB);
+                writeString(out, msg.getId());
+                writeString(out, msg.getParentId());
+                writeDate(out, msg.getStartTime());
+                writeDate(out, msg.getEndTime());
+                writeEnum(out, msg.getStatus());
+                writeString(out, msg.getErrorCode());
+                writeString(out, msg.getErrorMessage());
+            }
+            else if (message instanceof CoordinatorActionMessage) {
+                CoordinatorActionMessage msg = (CoordinatorActionMessage) message;
+                out.writeByte(COORDINATOR_ACTION);
+                writeString(out, msg.getId());
+                writeString(out, msg.getParentId());
+                writeDate(out, msg.getStartTime());
+                writeDate(out, msg.getEndTime());
+                writeEnum(out, msg.getStatus());
+                writeDate(out, msg.getNominalTime());
+                writeString(out, msg.getMissingDependency());
+                writeString(out, msg.getErrorCode());
+                writeString(out, msg.getErrorMessage());
+            }
+            else if (message instanceof SLAMessage) {
+                SLAMessage msg = (SLAMessage) message;
+                out.writeByte(SLA);
+                writeString(out, msg.getId());
+                writeString(out, msg.getParentId());
+                writeDate(out, msg.getNominalTime());
+                writeDate(out, msg.getExpectedStartTime());
+                writeDate(out, msg.getActualStartTime());
+                writeDate(out, msg.getExpectedEndTime());
+                writeDate(out, msg.getActualEndTime());
+                writeVarLong(out, zigZag(msg.getExpectedDuration()));
+                writeVarLong(out, zigZag(msg.getActualDuration()));
+                writeString(out, msg.getNotificationMessage());
+                writeString(out, msg.getUpstreamApps());
+            }
+            else {
+                throw new IllegalArgumentException("Compact encoding of " + message.getClass().getName()
+                        + " is not supported");
+            }
+            out.flush();
+            return bytes.toByteArray();
+        }
+        catch (IOException ex) {
+            // writing to a byte array does not fail
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Decode an event message body.
+     *
+     * @param body the encoded body
+     * @param clazz expected message class
+     * @return the message, without the fields carried as JMS selector properties
+     */
+    public static <T> T decode(byte[] body, Class<T> clazz) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            if (in.readByte() != MAGIC) {
+                throw new IllegalArgumentException("Not a compact encoded message body");
+            }
+            byte version = in.readByte();
+            if (version < 1) {
+                throw new IllegalArgumentException("Unsupported compact message version [" + version + "]");
+            }
+            byte kind = in.readByte();
+            Object message;
+            switch (kind) {
+                case WORKFLOW_JOB: {
+                    WorkflowJobMessage msg = new WorkflowJobMessage();
+                    msg.setId(readString(in));
+                    msg.setParentId(readString(in));
+                    msg.setStartTime(readDate(in));
+                    msg.setEndTime(readDate(in));
+                    msg.setStatus(readEnum(in, WorkflowJob.Status.class));
+                    msg.setErrorCode(readString(in));
+                    msg.setErrorMessage(readString(in));
+                    message = msg;
+                    break;
+                }
+                case COORDINATOR_ACTION: {
+                    CoordinatorActionMessage msg = new CoordinatorActionMessage();
+                    msg.setId(readString(in));
+                    msg.setParentId(readString(in));
+                    msg.setStartTime(readDate(in));
+                    msg.setEndTime(readDate(in));
+                    msg.setStatus(readEnum(in, CoordinatorAction.Status.class));
+                    msg.setNominalTime(readDate(in));
+                    msg.setMissingDependency(readString(in));
+                    msg.setErrorCode(readString(in));
+                    msg.setErrorMessage(readString(in));
+                    message = msg;
+                    break;
+                }
+                case SLA: {
+                    SLAMessage msg = new SLAMessage();
+                    msg.setId(readString(in));
+                    msg.setParentId(readString(in));
+                    msg.setNominalTime(readDate(in));
+                    msg.setExpectedStartTime(readDate(in));
+                    msg.setActualStartTime(readDate(in));
+                    msg.setExpectedEndTime(readDate(in));
+                    msg.setActualEndTime(readDate(in));
+                    msg.setExpectedDuration(unZigZag(readVarLong(in)));
+                    msg.setActualDuration(unZigZag(readVarLong(in)));
+                    msg.setNotificationMessage(readString(in));
+                    msg.setUpstreamApps(readString(in));
+                    message = msg;
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown compact message kind [" + kind + "]");
+            }
+            if (!clazz.isInstance(message)) {
+                throw new IllegalArgumentException("Compact message body is a " + message.getClass().getName()
+                        + ", expected " + clazz.getName());
+            }
+            return clazz.cast(message);
+        }
+        catch (EOFException ex) {
+            throw new IllegalArgumentException("Truncated compact message body", ex);
+        }
+        catch (IOException ex) {
+            throw new IllegalArgumentException("Could not decode compact message body", ex);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+        }
+        else {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarLong(out, bytes.length + 1);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > in.available()) {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        writeString(out, value == null ? null : value.name());
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream in, Class<E> clazz) throws IOException {
+        String name = readString(in);
+        return name == null ? null : Enum.valueOf(clazz, name);
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException {
+        writeVarLong(out, value == null ? 0 : zigZag(value.getTime()) + 1);
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        return value == 0 ? null : new Date(unZigZag(value - 1));
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+}
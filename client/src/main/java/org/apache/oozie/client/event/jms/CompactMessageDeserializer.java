@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client.event.jms;
+
+/**
+ * Message deserializer to convert from the compact binary encoding to java object
+ */
+public class CompactMessageDeserializer extends MessageDeserializer {
+
+    @Override
+    public <T> T getDeserializedObject(String messageBody, Class<T> clazz) {
+        throw new IllegalArgumentException("Compact encoded messages are sent as JMS bytes messages");
+    }
+
+    @Override
+    public <T> T getDeserializedObject(byte[] bytes, Class<T> clazz) {
+        return CompactMessageCodec.decode(bytes, clazz);
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+}
@@ -20,11 +20,12 @@ package org.apache.oozie.client.event.jms;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.jms.JMSException;
 import javax.jms.Message;
-import javax.jms.TextMessage;
 
 import org.apache.oozie.client.event.message.EventMessage;
 
@@ -33,18 +34,17 @@ import org.apache.oozie.client.event.message.EventMessage;
  */
 public class JMSMessagingUtils {
     private static final String DESERIALIZER_PROP = "oozie.msg.deserializer.";
-    private static MessageDeserializer deserializer;
-    private static Properties jmsDeserializerInfo;
+    private static final Map<String, MessageDeserializer> deserializers =
+            new ConcurrentHashMap<String, MessageDeserializer>();
+    private static Properties jmsDeserializerInfo = new Properties();
     private static final String CLIENT_PROPERTIES = "oozie_client.properties";
 
     static {
         InputStream is = JMSMessagingUtils.class.getClassLoader().getResourceAsStream(CLIENT_PROPERTIES);
         if (is == null) {
-            System.out.println("Using default JSON Deserializer");
-            deserializer = new JSONMessageDeserializer();
+            System.out.println("Using default Deserializers");
         }
         else {
-            jmsDeserializerInfo = new Properties();
             try {
                 jmsDeserializerInfo.load(is);
                 is.close();
@@ -69,9 +69,14 @@ public class JMSMessagingUtils {
         if (msg == null) {
             throw new IllegalArgumentException("Could not extract EventMessage as JMS message is null");
         }
+        String msgFormat = msg.getStringProperty(JMSHeaderConstants.MESSAGE_FORMAT);
+        if (msgFormat == null) {
+            msgFormat = "json";
+        }
+        MessageDeserializer deserializer = deserializers.get(msgFormat);
         if (deserializer == null) {
-            String msgFormat = msg.getStringProperty(JMSHeaderConstants.MESSAGE_FORMAT);
             deserializer = getDeserializer(msgFormat);
+            deserializers.put(msgFormat, deserializer);
         }
         return deserializer.getEventMessage(msg);
     }
@@ -79,6 +84,9 @@ public class JMSMessagingUtils {
     private static MessageDeserializer getDeserializer(String msgFormat) throws IOException {
         String deserializerString = (String) jmsDeserializerInfo.get(DESERIALIZER_PROP + msgFormat);
         if (deserializerString == null) {
+            if (CompactMessageCodec.MESSAGE_FORMAT.equals(msgFormat)) {
+                return new CompactMessageDeserializer();
+            }
             return new JSONMessageDeserializer();
         }
         else {
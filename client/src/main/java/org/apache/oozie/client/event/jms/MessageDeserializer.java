@@ -24,6 +24,7 @@ import org.apache.oozie.client.event.message.EventMessage;
 import org.apache.oozie.client.event.message.WorkflowJobMessage;
 import org.apache.oozie.client.event.message.SLAMessage;
 import org.apache.oozie.AppType;
+import javax.jms.BytesMessage;
 import javax.jms.Message;
 import javax.jms.TextMessage;
 import javax.jms.JMSException;
@@ -42,29 +43,45 @@ public abstract class MessageDeserializer {
      */
     @SuppressWarnings("unchecked")
     public <T extends EventMessage> T getEventMessage(Message message) throws JMSException {
-        TextMessage textMessage = (TextMessage) message;
-        String appTypeString = textMessage.getStringProperty(JMSHeaderConstants.APP_TYPE);
-        String msgType = textMessage.getStringProperty(JMSHeaderConstants.MESSAGE_TYPE);
-        String messageBody = textMessage.getText();
+        String appTypeString = message.getStringProperty(JMSHeaderConstants.APP_TYPE);
+        String msgType = message.getStringProperty(JMSHeaderConstants.MESSAGE_TYPE);
+        String messageBody = null;
+        byte[] messageBytes = null;
+        if ((message instanceof BytesMessage) != isBinary()) {
+            throw new IllegalArgumentException("Message deserializer " + getClass().getName() + " does not read JMS "
+                    + (isBinary() ? "text" : "bytes") + " messages, check the deserializer configured for the "
+                    + message.getStringProperty(JMSHeaderConstants.MESSAGE_FORMAT) + " message format");
+        }
+        if (message instanceof BytesMessage) {
+            BytesMessage bytesMessage = (BytesMessage) message;
+            messageBytes = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(messageBytes);
+        }
+        else {
+            messageBody = ((TextMessage) message).getText();
+        }
         T eventMsg = null;
 
-        if (appTypeString == null || appTypeString.isEmpty() || messageBody == null || messageBody.isEmpty()) {
+        if (appTypeString == null || appTypeString.isEmpty()
+                || (messageBytes == null && (messageBody == null || messageBody.isEmpty()))
+                || (messageBytes != null && messageBytes.length == 0)) {
             throw new IllegalArgumentException("Could not extract OozieEventMessage. "
                     + "AppType and/or MessageBody is null/empty." + "Apptype is " + appTypeString + " MessageBody is "
-                    + messageBody);
+                    + (messageBytes != null ? messageBytes.length + " bytes" : messageBody));
         }
 
         if (MessageType.valueOf(msgType) == MessageType.JOB) {
             switch (AppType.valueOf(appTypeString)) {
                 case WORKFLOW_JOB:
-                    WorkflowJobMessage wfJobMsg = getDeserializedObject(messageBody, WorkflowJobMessage.class);
-                    wfJobMsg.setProperties(textMessage);
+                    WorkflowJobMessage wfJobMsg = getDeserializedObject(messageBody, messageBytes,
+                            WorkflowJobMessage.class);
+                    wfJobMsg.setProperties(message);
                     eventMsg = (T) wfJobMsg;
                     break;
                 case COORDINATOR_ACTION:
-                    CoordinatorActionMessage caActionMsg = getDeserializedObject(messageBody,
+                    CoordinatorActionMessage caActionMsg = getDeserializedObject(messageBody, messageBytes,
                             CoordinatorActionMessage.class);
-                    caActionMsg.setProperties(textMessage);
+                    caActionMsg.setProperties(message);
                     eventMsg = (T) caActionMsg;
                     break;
                 default:
@@ -73,14 +90,39 @@ public abstract class MessageDeserializer {
             }
         }
         else if (MessageType.valueOf(msgType) == MessageType.SLA) {
-            SLAMessage SLAMsg = getDeserializedObject(messageBody, SLAMessage.class);
-            SLAMsg.setProperties(textMessage);
+            SLAMessage SLAMsg = getDeserializedObject(messageBody, messageBytes, SLAMessage.class);
+            SLAMsg.setProperties(message);
             eventMsg = (T) SLAMsg;
         }
 
         return eventMsg;
     }
 
+    /**
+     * Whether the deserializer reads binary bodies, sent as JMS bytes messages, instead of text messages
+     *
+     * @return true if {@link #getDeserializedObject(byte[], Class)} is implemented
+     */
+    public boolean isBinary() {
+        return false;
+    }
+
+    private <T> T getDeserializedObject(String messageBody, byte[] messageBytes, Class<T> clazz) {
+        return messageBytes != null ? getDeserializedObject(messageBytes, clazz)
+                : getDeserializedObject(messageBody, clazz);
+    }
+
+    /**
+     * Deserialize the body of a JMS bytes message, only supported by binary formats
+     *
+     * @param bytes the message body
+     * @param clazz the message class
+     * @return the message object
+     */
+    protected <T> T getDeserializedObject(byte[] bytes, Class<T> clazz) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support JMS bytes messages");
+    }
+
     protected abstract <T> T getDeserializedObject(String s, Class<T> clazz);
 
 }
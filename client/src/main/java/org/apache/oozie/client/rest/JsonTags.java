@@ -31,6 +31,16 @@ public interface JsonTags {
     String UNIQUE_MAP_DUMP = "uniqueMapDump";
     String UNIQUE_ENTRY_DUMP = "uniqueEntryDump";
 
+    String LOCKS = "locks";
+    String LOCKS_COUNT = "lockCount";
+    String LOCKS_CONTENDED = "contended";
+    String LOCK_RESOURCE = "resource";
+    String LOCK_TYPE = "type";
+    String LOCK_WAITS = "waits";
+    String LOCK_TIMEOUTS = "timeouts";
+    String LOCK_WAIT_TIME = "waitTime";
+    String LOCK_MAX_WAIT_TIME = "maxWaitTime";
+
     String SHARELIB_LIB_UPDATE = "sharelibUpdate";
     String SHARELIB_LIB = "sharelib";
     String SHARELIB_LIB_NAME = "name";
@@ -65,6 +75,7 @@ public interface JsonTags {
     String WORKFLOWS_TOTAL = "total";
     String WORKFLOWS_OFFSET = "offset";
     String WORKFLOWS_LEN = "len";
+    String JOBS_NEXT_CURSOR = "nextCursor";
 
     String WORKFLOW_ACTION_ID = "id";
     String WORKFLOW_ACTION_NAME = "name";
@@ -233,6 +244,20 @@ public interface JsonTags {
     Object BULK_RESPONSE_OFFSET = "offset";
     Object BULK_RESPONSE_LEN = "len";
 
+    String BULK_OPERATION = "bulkOperation";
+    String BULK_OPERATION_ID = "id";
+    String BULK_OPERATION_NAME = "name";
+    String BULK_OPERATION_STATUS = "status";
+    String BULK_OPERATION_TOTAL = "total";
+    String BULK_OPERATION_COMPLETED = "completed";
+    String BULK_OPERATION_FAILED = "failed";
+    String BULK_OPERATION_START_TIME = "startTime";
+    String BULK_OPERATION_END_TIME = "endTime";
+    String BULK_OPERATION_ERRORS = "errors";
+
+    String WATCH_JOBS = "watchedJobs";
+    String WATCH_TIMED_OUT = "timedOut";
+
     String AVAILABLE_TIME_ZONES = "available-timezones";
     String TIME_ZOME_DISPLAY_NAME = "timezoneDisplayName";
     String TIME_ZONE_ID = "timezoneId";
@@ -31,13 +31,19 @@ import org.apache.oozie.AppType;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -493,4 +499,189 @@ public class JsonToBean {
         return list;
     }
 
+    /**
+     * Parses a list of workflow job beans from a JSON object, creating the beans as the elements of the list are
+     * parsed.
+     *
+     * @param reader reader of the JSON object.
+     * @param listName name of the list in the JSON object.
+     * @param fields map the other fields of the JSON object are put in, <code>null</code> to ignore them.
+     * @return the list of workflow job beans, empty if the JSON object does not have the list.
+     * @throws IOException thrown if the JSON object could not be read or parsed.
+     */
+    public static List<WorkflowJob> parseWorkflowJobList(Reader reader, Object listName, Map<String, Object> fields)
+            throws IOException {
+        return parseList(reader, listName, fields, WorkflowJob.class, WF_JOB);
+    }
+
+    /**
+     * Parses a list of coordinator job beans from a JSON object, creating the beans as the elements of the list are
+     * parsed.
+     *
+     * @param reader reader of the JSON object.
+     * @param listName name of the list in the JSON object.
+     * @param fields map the other fields of the JSON object are put in, <code>null</code> to ignore them.
+     * @return the list of coordinator job beans, empty if the JSON object does not have the list.
+     * @throws IOException thrown if the JSON object could not be read or parsed.
+     */
+    public static List<CoordinatorJob> parseCoordinatorJobList(Reader reader, Object listName,
+            Map<String, Object> fields) throws IOException {
+        return parseList(reader, listName, fields, CoordinatorJob.class, COORD_JOB);
+    }
+
+    /**
+     * Parses a list of bundle job beans from a JSON object, creating the beans as the elements of the list are
+     * parsed.
+     *
+     * @param reader reader of the JSON object.
+     * @param listName name of the list in the JSON object.
+     * @param fields map the other fields of the JSON object are put in, <code>null</code> to ignore them.
+     * @return the list of bundle job beans, empty if the JSON object does not have the list.
+     * @throws IOException thrown if the JSON object could not be read or parsed.
+     */
+    public static List<BundleJob> parseBundleJobList(Reader reader, Object listName, Map<String, Object> fields)
+            throws IOException {
+        return parseList(reader, listName, fields, BundleJob.class, BUNDLE_JOB);
+    }
+
+    /**
+     * Parses a list of bulk response beans from a JSON object, creating the beans as the elements of the list are
+     * parsed.
+     *
+     * @param reader reader of the JSON object.
+     * @param listName name of the list in the JSON object.
+     * @param fields map the other fields of the JSON object are put in, <code>null</code> to ignore them.
+     * @return the list of bulk response beans, empty if the JSON object does not have the list.
+     * @throws IOException thrown if the JSON object could not be read or parsed.
+     */
+    public static List<BulkResponse> parseBulkResponseList(Reader reader, Object listName, Map<String, Object> fields)
+            throws IOException {
+        return parseList(reader, listName, fields, BulkResponse.class, BULK_RESPONSE);
+    }
+
+    private static <T> List<T> parseList(Reader reader, Object listName, Map<String, Object> fields, Class<T> type,
+            Map<String, Property> mapping) throws IOException {
+        ListContentHandler<T> handler = new ListContentHandler<T>(listName, fields, type, mapping);
+        try {
+            new JSONParser().parse(reader, handler);
+        }
+        catch (ParseException ex) {
+            throw new IOException("Invalid JSON response, " + ex, ex);
+        }
+        return handler.list;
+    }
+
+    /**
+     * JSON parser handler building the elements of one list of a JSON object, one at a time, and converting each
+     * to a bean when it is complete. The other fields of the object are built as JSON values.
+     */
+    @SuppressWarnings("unchecked")
+    private static class ListContentHandler<T> implements ContentHandler {
+        private final Object listName;
+        private final Map<String, Object> fields;
+        private final Class<T> type;
+        private final Map<String, Property> mapping;
+        private final List<T> list = new ArrayList<T>();
+        private final LinkedList<Object> values = new LinkedList<Object>();
+        private final LinkedList<String> keys = new LinkedList<String>();
+        private int depth;
+        private boolean inList;
+
+        ListContentHandler(Object listName, Map<String, Object> fields, Class<T> type,
+                Map<String, Property> mapping) {
+            this.listName = listName;
+            this.fields = fields;
+            this.type = type;
+            this.mapping = mapping;
+        }
+
+        @Override
+        public void startJSON() {
+        }
+
+        @Override
+        public void endJSON() {
+        }
+
+        @Override
+        public boolean startObject() {
+            depth++;
+            if (depth > 1) {
+                values.addFirst(new JSONObject());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            depth--;
+            if (depth > 0) {
+                addValue(values.removeFirst());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            keys.addFirst(key);
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            keys.removeFirst();
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            depth++;
+            if (depth == 2 && listName.equals(keys.peekFirst())) {
+                inList = true;
+            }
+            else {
+                values.addFirst(new JSONArray());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            depth--;
+            if (inList && depth == 1) {
+                inList = false;
+            }
+            else {
+                addValue(values.removeFirst());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            addValue(value);
+            return true;
+        }
+
+        private void addValue(Object value) {
+            if (values.isEmpty()) {
+                if (inList) {
+                    if (value instanceof JSONObject) {
+                        list.add(type.cast(Proxy.newProxyInstance(JsonToBean.class.getClassLoader(),
+                                new Class[]{type}, new JsonInvocationHandler(mapping, (JSONObject) value))));
+                    }
+                }
+                else if (fields != null && depth == 1) {
+                    fields.put(keys.peekFirst(), value);
+                }
+            }
+            else if (values.peekFirst() instanceof JSONObject) {
+                ((JSONObject) values.peekFirst()).put(keys.peekFirst(), value);
+            }
+            else {
+                ((JSONArray) values.peekFirst()).add(value);
+            }
+        }
+    }
+
 }
@@ -131,6 +131,22 @@ public interface RestConstants {
 
     String JOBS_EXTERNAL_ID_PARAM = "external-id";
 
+    String JOBS_CURSOR_PARAM = "cursor";
+
+    String JOBS_COUNT_PARAM = "count";
+
+    String JOBS_ASYNC_PARAM = "async";
+
+    String JOBS_BULK_OPERATION_PARAM = "operation";
+
+    String JOBS_WATCH_PARAM = "watch";
+
+    String JOBS_WATCH_STATUS_PARAM = "watch-status";
+
+    String JOBS_WATCH_TIMEOUT_PARAM = "watch-timeout";
+
+    String FIELDS_PARAM = "fields";
+
     String ADMIN_STATUS_RESOURCE = "status";
 
     String ADMIN_SAFE_MODE_PARAM = "safemode";
@@ -153,10 +169,22 @@ public interface RestConstants {
 
     String ADMIN_METRICS_RESOURCE = "metrics";
 
+    String ADMIN_LOCKS_RESOURCE = "locks";
+
     String OOZIE_ERROR_CODE = "oozie-error-code";
 
     String OOZIE_ERROR_MESSAGE = "oozie-error-message";
 
+    String ETAG_HEADER = "ETag";
+
+    String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    /**
+     * Entity tag matching no response, sent in the <code>If-None-Match</code> header by the clients able to revalidate
+     * a response they don't have yet, so that the server computes the entity tags of the job listings only for them.
+     */
+    String NO_ETAG = "\"\"";
+
     String JOBTYPE_PARAM = "jobtype";
 
     String SLA_GT_SEQUENCE_ID = "gt-sequence-id";
@@ -18,6 +18,8 @@
 
 package org.apache.oozie.client.rest;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -181,6 +183,41 @@ public class TestJsonToBean extends TestCase {
         assertEquals("j2", list.get(1).getId());
     }
 
+    @SuppressWarnings("unchecked")
+    public void testStreamParseWorkflowJobs() throws Exception {
+        JSONObject json = new JSONObject();
+        json.put(JsonTags.WORKFLOWS_TOTAL, (long) 10);
+        json.put(JsonTags.WORKFLOWS_JOBS, createJsonWorkflowJobList());
+        json.put(JsonTags.JOBS_NEXT_CURSOR, "cursor");
+        Map<String, Object> fields = new HashMap<String, Object>();
+        List<WorkflowJob> list = JsonToBean.parseWorkflowJobList(new StringReader(json.toJSONString()),
+                JsonTags.WORKFLOWS_JOBS, fields);
+
+        assertEquals(2, list.size());
+        assertEquals("j1", list.get(0).getId());
+        assertEquals("j2", list.get(1).getId());
+        assertEquals(WorkflowJob.Status.PREP, list.get(0).getStatus());
+        assertEquals(JsonUtils.parseDateRfc822(START_TIME), list.get(0).getStartTime());
+        assertEquals(2, list.get(1).getActions().size());
+        assertEquals("a2", list.get(1).getActions().get(1).getId());
+        assertEquals(10L, fields.get(JsonTags.WORKFLOWS_TOTAL));
+        assertEquals("cursor", fields.get(JsonTags.JOBS_NEXT_CURSOR));
+        assertFalse(fields.containsKey(JsonTags.WORKFLOWS_JOBS));
+    }
+
+    public void testStreamParseMissingList() throws Exception {
+        List<WorkflowJob> list = JsonToBean.parseWorkflowJobList(new StringReader("{\"total\":0}"),
+                JsonTags.WORKFLOWS_JOBS, null);
+        assertTrue(list.isEmpty());
+        try {
+            JsonToBean.parseWorkflowJobList(new StringReader("{\"workflows\":[{"), JsonTags.WORKFLOWS_JOBS, null);
+            fail();
+        }
+        catch (IOException ex) {
+            // expected
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private JSONObject createJsonCoordinatorAction() {
         JSONObject json = new JSONObject();
@@ -444,6 +481,19 @@ public class TestJsonToBean extends TestCase {
         assertEquals("cj2", list.get(1).getCoordinator().getId());
     }
 
+    @SuppressWarnings("unchecked")
+    public void testStreamParseBulkResponseList() throws Exception {
+        JSONObject json = new JSONObject();
+        json.put(JsonTags.BULK_RESPONSES, createJsonBulkResponseList());
+        List<BulkResponse> list = JsonToBean.parseBulkResponseList(new StringReader(json.toJSONString()),
+                JsonTags.BULK_RESPONSES, null);
+
+        assertEquals(2, list.size());
+        assertEquals("cj1", list.get(0).getCoordinator().getId());
+        assertEquals("cj2", list.get(1).getCoordinator().getId());
+        assertEquals("action-id", list.get(0).getAction().getId());
+    }
+
     public void testWorkflowActionMappings() throws Exception {
         _testMappings(JsonToBean.WF_ACTION, WorkflowAction.class, true);
     }
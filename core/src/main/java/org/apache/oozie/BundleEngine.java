@@ -53,9 +53,14 @@ import org.apache.oozie.command.bundle.BundleStartXCommand;
 import org.apache.oozie.command.bundle.BundleSubmitXCommand;
 import org.apache.oozie.executor.jpa.BundleJobQueryExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.JobsVersionGetJPAExecutor;
+import org.apache.oozie.service.BulkOperationService;
 import org.apache.oozie.service.DagXLogInfoService;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.JobUtils;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.util.JobsFilterUtils;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
@@ -350,6 +355,48 @@ public class BundleEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Get a page of bundle jobs, for keyset pagination
+     *
+     * @param filter the filter string
+     * @param cursor position of the page in the listing
+     * @param len total length to get
+     * @param count whether to count all matching jobs, the total is -1 otherwise
+     * @return bundle job info
+     * @throws BundleEngineException thrown if failed to get bundle job info
+     */
+    public BundleJobInfo getBundleJobs(String filter, JobsCursor cursor, int len, boolean count)
+            throws BundleEngineException {
+        Map<String, List<String>> filterList = parseFilter(filter);
+
+        try {
+            return new BundleJobsXCommand(filterList, cursor, len, count).call();
+        }
+        catch (CommandException ex) {
+            throw new BundleEngineException(ex);
+        }
+    }
+
+    /**
+     * Get the version of the listing of the bundle jobs matching a filter, which changes whenever a job of the listing
+     * is created, modified or purged. It is much cheaper to get than the listing
+     *
+     * @param filter the filter string
+     * @return the version of the listing
+     * @throws BundleEngineException thrown if failed to get the version
+     */
+    public String getBundleJobsVersion(String filter) throws BundleEngineException {
+        Map<String, List<String>> filterList = parseFilter(filter);
+
+        try {
+            return Services.get().get(JPAService.class).execute(
+                    new JobsVersionGetJPAExecutor(JobsVersionGetJPAExecutor.JobType.BUNDLE, filterList));
+        }
+        catch (JPAExecutorException ex) {
+            throw new BundleEngineException(ex);
+        }
+    }
+
     /**
      * Parse filter string to a map with key = filter name and values = filter values
      *
@@ -587,4 +634,27 @@ public class BundleEngine extends BaseEngine {
             throw new BundleEngineException(ex);
         }
     }
+
+    /**
+     * Start the kill, suspend or resume of the bundle jobs matching a filter, without waiting for the bundle jobs to be
+     * modified.
+     *
+     * @param filter Filter for the jobs, can be name, user, group, status, id or combination of any
+     * @param start Offset for the jobs
+     * @param len maximum number of jobs
+     * @param operation the type of operation to perform, it can be kill, suspend or resume
+     * @return the bulk operation modifying the jobs
+     * @throws BundleEngineException thrown if the jobs could not be listed or the operation could not be started
+     */
+    public BulkOperationService.Operation startBulkOperation(String filter, int start, int len,
+            OperationType operation) throws BundleEngineException {
+        try {
+            BulkBundleXCommand command = new BulkBundleXCommand(parseFilter(filter), start, len, operation, true);
+            command.call();
+            return command.getBulkOperation();
+        }
+        catch (CommandException ex) {
+            throw new BundleEngineException(ex);
+        }
+    }
 }
@@ -41,9 +41,10 @@ import org.apache.hadoop.io.Writable;
 import org.apache.oozie.client.BundleJob;
 import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.client.Job;
-import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.JsonFieldWriter;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.JsonUtils;
+import org.apache.oozie.client.rest.StreamingJsonBean;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.WritableUtils;
 import org.apache.openjpa.persistence.jdbc.Index;
@@ -97,6 +98,10 @@ import org.json.simple.JSONObject;
 
         @NamedQuery(name = "GET_COMPLETED_BUNDLE_JOBS_OLDER_THAN", query = "select w.id from BundleJobBean w where ( w.statusStr = 'SUCCEEDED' OR w.statusStr = 'FAILED' OR w.statusStr = 'KILLED' OR w.statusStr = 'DONEWITHERROR') AND w.lastModifiedTimestamp <= :lastModTime order by w.lastModifiedTimestamp"),
 
+        @NamedQuery(name = "GET_COMPLETED_BUNDLE_JOBS_OLDER_THAN_AFTER_ID", query = "select w.id from BundleJobBean w where w.statusStr IN ('SUCCEEDED', 'FAILED', 'KILLED', 'DONEWITHERROR') AND w.lastModifiedTimestamp <= :lastModTime and w.id > :id order by w.id"),
+
+        @NamedQuery(name = "GET_COMPLETED_BUNDLE_JOBS_OLDER_THAN_COUNT_AFTER_ID", query = "select count(w) from BundleJobBean w where w.statusStr IN ('SUCCEEDED', 'FAILED', 'KILLED', 'DONEWITHERROR') AND w.lastModifiedTimestamp <= :lastModTime and w.id > :id"),
+
         @NamedQuery(name = "BULK_MONITOR_BUNDLE_QUERY", query = "SELECT b.id, b.appName, b.statusStr, b.user FROM BundleJobBean b"),
 
         // Join query
@@ -112,7 +117,7 @@ import org.json.simple.JSONObject;
 
         @NamedQuery(name = "GET_BUNDLE_JOB_FOR_USER", query = "select w.user from BundleJobBean w where w.id = :id") })
 @Table(name = "BUNDLE_JOBS")
-public class BundleJobBean implements Writable, BundleJob, JsonBean {
+public class BundleJobBean implements Writable, BundleJob, StreamingJsonBean {
 
     @Id
     private String id;
@@ -539,30 +544,31 @@ public class BundleJobBean implements Writable, BundleJob, JsonBean {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public JSONObject toJSONObject(String timeZoneId) {
-        JSONObject json = new JSONObject();
-        json.put(JsonTags.BUNDLE_JOB_PATH, appPath);
-        json.put(JsonTags.BUNDLE_JOB_NAME, appName);
-        json.put(JsonTags.BUNDLE_JOB_ID, id);
-        json.put(JsonTags.BUNDLE_JOB_EXTERNAL_ID, externalId);
-        json.put(JsonTags.BUNDLE_JOB_CONF, getConf());
-        json.put(JsonTags.BUNDLE_JOB_STATUS, getStatus().toString());
-        json.put(JsonTags.BUNDLE_JOB_TIMEUNIT, getTimeUnit().toString());
-        json.put(JsonTags.BUNDLE_JOB_TIMEOUT, timeOut);
-        json.put(JsonTags.BUNDLE_JOB_KICKOFF_TIME, JsonUtils.formatDateRfc822(getKickoffTime(), timeZoneId));
-        json.put(JsonTags.BUNDLE_JOB_START_TIME, JsonUtils.formatDateRfc822(getStartTime(), timeZoneId));
-        json.put(JsonTags.BUNDLE_JOB_END_TIME, JsonUtils.formatDateRfc822(getEndTime(), timeZoneId));
-        json.put(JsonTags.BUNDLE_JOB_PAUSE_TIME, JsonUtils.formatDateRfc822(getPauseTime(), timeZoneId));
-        json.put(JsonTags.BUNDLE_JOB_CREATED_TIME, JsonUtils.formatDateRfc822(getCreatedTime(), timeZoneId));
-        json.put(JsonTags.BUNDLE_JOB_USER, getUser());
-        json.put(JsonTags.BUNDLE_JOB_GROUP, getGroup());
-        json.put(JsonTags.BUNDLE_JOB_ACL, getAcl());
-        json.put(JsonTags.BUNDLE_JOB_CONSOLE_URL, getConsoleUrl());
-        json.put(JsonTags.BUNDLE_COORDINATOR_JOBS, CoordinatorJobBean.toJSONArray(coordJobs, timeZoneId));
-        json.put(JsonTags.TO_STRING, toString());
-
-        return json;
+        return JsonFieldWriter.toJSONObject(this, timeZoneId);
+    }
+
+    @Override
+    public void writeJSONFields(JsonFieldWriter writer, String timeZoneId) {
+        writer.write(JsonTags.BUNDLE_JOB_PATH, appPath);
+        writer.write(JsonTags.BUNDLE_JOB_NAME, appName);
+        writer.write(JsonTags.BUNDLE_JOB_ID, id);
+        writer.write(JsonTags.BUNDLE_JOB_EXTERNAL_ID, externalId);
+        writer.write(JsonTags.BUNDLE_JOB_CONF, getConf());
+        writer.write(JsonTags.BUNDLE_JOB_STATUS, getStatus().toString());
+        writer.write(JsonTags.BUNDLE_JOB_TIMEUNIT, getTimeUnit().toString());
+        writer.write(JsonTags.BUNDLE_JOB_TIMEOUT, timeOut);
+        writer.write(JsonTags.BUNDLE_JOB_KICKOFF_TIME, JsonUtils.formatDateRfc822(getKickoffTime(), timeZoneId));
+        writer.write(JsonTags.BUNDLE_JOB_START_TIME, JsonUtils.formatDateRfc822(getStartTime(), timeZoneId));
+        writer.write(JsonTags.BUNDLE_JOB_END_TIME, JsonUtils.formatDateRfc822(getEndTime(), timeZoneId));
+        writer.write(JsonTags.BUNDLE_JOB_PAUSE_TIME, JsonUtils.formatDateRfc822(getPauseTime(), timeZoneId));
+        writer.write(JsonTags.BUNDLE_JOB_CREATED_TIME, JsonUtils.formatDateRfc822(getCreatedTime(), timeZoneId));
+        writer.write(JsonTags.BUNDLE_JOB_USER, getUser());
+        writer.write(JsonTags.BUNDLE_JOB_GROUP, getGroup());
+        writer.write(JsonTags.BUNDLE_JOB_ACL, getAcl());
+        writer.write(JsonTags.BUNDLE_JOB_CONSOLE_URL, getConsoleUrl());
+        writer.write(JsonTags.BUNDLE_COORDINATOR_JOBS, coordJobs, timeZoneId);
+        writer.write(JsonTags.TO_STRING, toString());
     }
 
     @Override
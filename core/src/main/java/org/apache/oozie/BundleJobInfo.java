@@ -20,10 +20,13 @@ package org.apache.oozie;
 
 import java.util.List;
 
+import org.apache.oozie.util.JobsCursor;
+
 public class BundleJobInfo {
     private int start;
     private int len;
     private int total;
+    private JobsCursor nextCursor;
     private List<BundleJobBean> jobs;
 
     /**
@@ -83,4 +86,22 @@ public class BundleJobInfo {
         return total;
     }
 
+    /**
+     * Return the cursor after the bundle jobs being returned, when listed with keyset pagination. <p> For pagination
+     * purposes.
+     *
+     * @return the cursor after the bundle jobs being returned, <code>null</code> if there are no more bundle jobs.
+     */
+    public JobsCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Set the cursor after the bundle jobs being returned.
+     *
+     * @param nextCursor the cursor, <code>null</code> if there are no more bundle jobs.
+     */
+    public void setNextCursor(JobsCursor nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
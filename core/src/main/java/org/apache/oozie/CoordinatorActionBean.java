@@ -38,9 +38,10 @@ import javax.persistence.Transient;
 
 import org.apache.hadoop.io.Writable;
 import org.apache.oozie.client.CoordinatorAction;
-import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.JsonFieldWriter;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.JsonUtils;
+import org.apache.oozie.client.rest.StreamingJsonBean;
 import org.apache.oozie.coord.input.dependency.CoordInputDependency;
 import org.apache.oozie.coord.input.dependency.CoordInputDependencyFactory;
 import org.apache.oozie.util.DateUtils;
@@ -171,7 +172,7 @@ import org.json.simple.JSONObject;
 
 @Table(name = "COORD_ACTIONS")
 public class CoordinatorActionBean implements
-        Writable,CoordinatorAction,JsonBean {
+        Writable,CoordinatorAction,StreamingJsonBean {
 
     @Id
     private String id;
@@ -747,36 +748,38 @@ public class CoordinatorActionBean implements
         this.errorMessage = errorMessage;
     }
 
-    @SuppressWarnings("unchecked")
     public JSONObject toJSONObject(String timeZoneId) {
-        JSONObject json = new JSONObject();
-        json.put(JsonTags.COORDINATOR_ACTION_ID, id);
-        json.put(JsonTags.COORDINATOR_JOB_ID, jobId);
-        json.put(JsonTags.COORDINATOR_ACTION_TYPE, type);
-        json.put(JsonTags.COORDINATOR_ACTION_NUMBER, actionNumber);
-        json.put(JsonTags.COORDINATOR_ACTION_CREATED_CONF, getCreatedConf());
-        json.put(JsonTags.COORDINATOR_ACTION_CREATED_TIME, JsonUtils.formatDateRfc822(getCreatedTime(), timeZoneId));
-        json.put(JsonTags.COORDINATOR_ACTION_NOMINAL_TIME, JsonUtils.formatDateRfc822(getNominalTime(), timeZoneId));
-        json.put(JsonTags.COORDINATOR_ACTION_EXTERNALID, externalId);
-        // json.put(JsonTags.COORDINATOR_ACTION_START_TIME, JsonUtils
+        return JsonFieldWriter.toJSONObject(this, timeZoneId);
+    }
+
+    @Override
+    public void writeJSONFields(JsonFieldWriter writer, String timeZoneId) {
+        writer.write(JsonTags.COORDINATOR_ACTION_ID, id);
+        writer.write(JsonTags.COORDINATOR_JOB_ID, jobId);
+        writer.write(JsonTags.COORDINATOR_ACTION_TYPE, type);
+        writer.write(JsonTags.COORDINATOR_ACTION_NUMBER, actionNumber);
+        writer.write(JsonTags.COORDINATOR_ACTION_CREATED_CONF, getCreatedConf());
+        writer.write(JsonTags.COORDINATOR_ACTION_CREATED_TIME, JsonUtils.formatDateRfc822(getCreatedTime(), timeZoneId));
+        writer.write(JsonTags.COORDINATOR_ACTION_NOMINAL_TIME, JsonUtils.formatDateRfc822(getNominalTime(), timeZoneId));
+        writer.write(JsonTags.COORDINATOR_ACTION_EXTERNALID, externalId);
+        // writer.write(JsonTags.COORDINATOR_ACTION_START_TIME, JsonUtils
         // .formatDateRfc822(startTime), timeZoneId);
-        json.put(JsonTags.COORDINATOR_ACTION_STATUS, statusStr);
-        json.put(JsonTags.COORDINATOR_ACTION_RUNTIME_CONF, getRunConf());
-        json.put(JsonTags.COORDINATOR_ACTION_LAST_MODIFIED_TIME,
+        writer.write(JsonTags.COORDINATOR_ACTION_STATUS, statusStr);
+        writer.write(JsonTags.COORDINATOR_ACTION_RUNTIME_CONF, getRunConf());
+        writer.write(JsonTags.COORDINATOR_ACTION_LAST_MODIFIED_TIME,
                 JsonUtils.formatDateRfc822(getLastModifiedTime(), timeZoneId));
-        // json.put(JsonTags.COORDINATOR_ACTION_START_TIME, JsonUtils
+        // writer.write(JsonTags.COORDINATOR_ACTION_START_TIME, JsonUtils
         // .formatDateRfc822(startTime), timeZoneId);
-        // json.put(JsonTags.COORDINATOR_ACTION_END_TIME, JsonUtils
+        // writer.write(JsonTags.COORDINATOR_ACTION_END_TIME, JsonUtils
         // .formatDateRfc822(endTime), timeZoneId);
-        json.put(JsonTags.COORDINATOR_ACTION_MISSING_DEPS, getPullInputDependencies().getMissingDependencies());
-        json.put(JsonTags.COORDINATOR_ACTION_PUSH_MISSING_DEPS, getPushInputDependencies().getMissingDependencies());
-        json.put(JsonTags.COORDINATOR_ACTION_EXTERNAL_STATUS, externalStatus);
-        json.put(JsonTags.COORDINATOR_ACTION_TRACKER_URI, trackerUri);
-        json.put(JsonTags.COORDINATOR_ACTION_CONSOLE_URL, consoleUrl);
-        json.put(JsonTags.COORDINATOR_ACTION_ERROR_CODE, errorCode);
-        json.put(JsonTags.COORDINATOR_ACTION_ERROR_MESSAGE, errorMessage);
-        json.put(JsonTags.TO_STRING, toString());
-        return json;
+        writer.write(JsonTags.COORDINATOR_ACTION_MISSING_DEPS, getPullInputDependencies().getMissingDependencies());
+        writer.write(JsonTags.COORDINATOR_ACTION_PUSH_MISSING_DEPS, getPushInputDependencies().getMissingDependencies());
+        writer.write(JsonTags.COORDINATOR_ACTION_EXTERNAL_STATUS, externalStatus);
+        writer.write(JsonTags.COORDINATOR_ACTION_TRACKER_URI, trackerUri);
+        writer.write(JsonTags.COORDINATOR_ACTION_CONSOLE_URL, consoleUrl);
+        writer.write(JsonTags.COORDINATOR_ACTION_ERROR_CODE, errorCode);
+        writer.write(JsonTags.COORDINATOR_ACTION_ERROR_MESSAGE, errorMessage);
+        writer.write(JsonTags.TO_STRING, toString());
     }
 
     /**
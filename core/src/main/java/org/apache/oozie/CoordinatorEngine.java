@@ -65,14 +65,18 @@ import org.apache.oozie.dependency.ActionDependency;
 import org.apache.oozie.executor.jpa.CoordActionQueryExecutor;
 import org.apache.oozie.executor.jpa.CoordJobQueryExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.JobsVersionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
+import org.apache.oozie.service.BulkOperationService;
 import org.apache.oozie.service.DagXLogInfoService;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.XLogStreamingService;
 import org.apache.oozie.util.CoordActionsInDateRange;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.JobUtils;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.util.Pair;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
@@ -636,6 +640,48 @@ public class CoordinatorEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Return a page of coordinator jobs, for keyset pagination.
+     *
+     * @param filter
+     * @param cursor position of the page in the listing
+     * @param len
+     * @param count whether to count all matching jobs, the total is -1 otherwise
+     * @return CoordinatorJobInfo
+     * @throws CoordinatorEngineException
+     */
+    public CoordinatorJobInfo getCoordJobs(String filter, JobsCursor cursor, int len, boolean count)
+            throws CoordinatorEngineException {
+        Map<String, List<String>> filterList = parseJobsFilter(filter);
+
+        try {
+            return new CoordJobsXCommand(filterList, cursor, len, count).call();
+        }
+        catch (CommandException ex) {
+            throw new CoordinatorEngineException(ex);
+        }
+    }
+
+    /**
+     * Return the version of the listing of the coordinator jobs matching a filter, which changes whenever a job of the
+     * listing is created, modified or purged. It is much cheaper to get than the listing.
+     *
+     * @param filter
+     * @return the version of the listing
+     * @throws CoordinatorEngineException
+     */
+    public String getCoordJobsVersion(String filter) throws CoordinatorEngineException {
+        Map<String, List<String>> filterList = parseJobsFilter(filter);
+
+        try {
+            return Services.get().get(JPAService.class).execute(
+                    new JobsVersionGetJPAExecutor(JobsVersionGetJPAExecutor.JobType.COORDINATOR, filterList));
+        }
+        catch (JPAExecutorException ex) {
+            throw new CoordinatorEngineException(ex);
+        }
+    }
+
     // Parses the filter string (e.g status=RUNNING;status=WAITING) and returns a list of status values
     public Map<Pair<String, FILTER_COMPARATORS>, List<Object>> parseJobFilter(String filter) throws
         CoordinatorEngineException {
@@ -986,6 +1032,29 @@ public class CoordinatorEngine extends BaseEngine {
             throw new CoordinatorEngineException(ex);
         }
     }
+
+    /**
+     * Start the kill, suspend or resume of the coordinator jobs matching a filter, without waiting for the coordinator
+     * jobs to be modified.
+     *
+     * @param filter Filter for the jobs, can be name, user, group, status, id or combination of any
+     * @param start Offset for the jobs
+     * @param length maximum number of jobs
+     * @param operation the type of operation to perform, it can be kill, suspend or resume
+     * @return the bulk operation modifying the jobs
+     * @throws CoordinatorEngineException thrown if the jobs could not be listed or the operation could not be started
+     */
+    public BulkOperationService.Operation startBulkOperation(String filter, int start, int length,
+            OperationType operation) throws CoordinatorEngineException {
+        try {
+            BulkCoordXCommand command = new BulkCoordXCommand(parseJobsFilter(filter), start, length, operation, true);
+            command.call();
+            return command.getBulkOperation();
+        }
+        catch (CommandException ex) {
+            throw new CoordinatorEngineException(ex);
+        }
+    }
     /**
      * Get coord action missing dependencies
      * @param id jobID
@@ -42,9 +42,10 @@ import javax.persistence.Transient;
 import org.apache.hadoop.io.Writable;
 import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.client.CoordinatorJob;
-import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.JsonFieldWriter;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.JsonUtils;
+import org.apache.oozie.client.rest.StreamingJsonBean;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.WritableUtils;
 import org.apache.openjpa.persistence.jdbc.Index;
@@ -113,7 +114,7 @@ import org.json.simple.JSONObject;
         //TODO need to remove.
         @NamedQuery(name = "GET_COORD_JOBS_OLDER_THAN", query = "select OBJECT(w) from CoordinatorJobBean w where w.startTimestamp <= :matTime AND (w.statusStr = 'PREP' OR w.statusStr = 'RUNNING' or w.statusStr = 'RUNNINGWITHERROR') AND (w.nextMaterializedTimestamp < :matTime OR w.nextMaterializedTimestamp IS NULL) AND (w.nextMaterializedTimestamp IS NULL OR (w.endTimestamp > w.nextMaterializedTimestamp AND (w.pauseTimestamp IS NULL OR w.pauseTimestamp > w.nextMaterializedTimestamp))) order by w.lastModifiedTimestamp"),
 
-        @NamedQuery(name = "GET_COORD_JOBS_OLDER_FOR_MATERIALIZATION", query = "select w.id from CoordinatorJobBean w where w.startTimestamp <= :matTime AND (w.statusStr = 'PREP' OR w.statusStr = 'RUNNING' or w.statusStr = 'RUNNINGWITHERROR') AND (w.nextMaterializedTimestamp < :matTime OR w.nextMaterializedTimestamp IS NULL) AND (w.nextMaterializedTimestamp IS NULL OR (w.endTimestamp > w.nextMaterializedTimestamp AND (w.pauseTimestamp IS NULL OR w.pauseTimestamp > w.nextMaterializedTimestamp))) and w.matThrottling > ( select count(a.jobId) from CoordinatorActionBean a where a.jobId = w.id and a.statusStr = 'WAITING') order by w.lastModifiedTimestamp"),
+        @NamedQuery(name = "GET_COORD_JOBS_OLDER_FOR_MATERIALIZATION", query = "select w.id, w.nextMaterializedTimestamp, w.startTimestamp, COALESCE(w.nextMaterializedTimestamp, w.startTimestamp) AS dueTime from CoordinatorJobBean w where w.startTimestamp <= :matTime AND (w.statusStr = 'PREP' OR w.statusStr = 'RUNNING' or w.statusStr = 'RUNNINGWITHERROR') AND (w.nextMaterializedTimestamp < :matTime OR w.nextMaterializedTimestamp IS NULL) AND (w.nextMaterializedTimestamp IS NULL OR (w.endTimestamp > w.nextMaterializedTimestamp AND (w.pauseTimestamp IS NULL OR w.pauseTimestamp > w.nextMaterializedTimestamp))) and w.matThrottling > ( select count(a.jobId) from CoordinatorActionBean a where a.jobId = w.id and a.statusStr = 'WAITING') order by dueTime, w.lastModifiedTimestamp"),
 
         @NamedQuery(name = "GET_COORD_JOBS_OLDER_THAN_STATUS", query = "select OBJECT(w) from CoordinatorJobBean w where w.statusStr = :status AND w.lastModifiedTimestamp <= :lastModTime order by w.lastModifiedTimestamp"),
 
@@ -121,6 +122,10 @@ import org.json.simple.JSONObject;
 
         @NamedQuery(name = "GET_COMPLETED_COORD_JOBS_WITH_NO_PARENT_OLDER_THAN_STATUS", query = "select w.id from CoordinatorJobBean w where ( w.statusStr = 'SUCCEEDED' OR w.statusStr = 'FAILED' or w.statusStr = 'KILLED' or w.statusStr = 'DONEWITHERROR') AND w.lastModifiedTimestamp <= :lastModTime and w.bundleId is null order by w.lastModifiedTimestamp"),
 
+        @NamedQuery(name = "GET_COMPLETED_COORD_JOBS_WITH_NO_PARENT_OLDER_THAN_AFTER_ID", query = "select w.id from CoordinatorJobBean w where w.statusStr IN ('SUCCEEDED', 'FAILED', 'KILLED', 'DONEWITHERROR') AND w.lastModifiedTimestamp <= :lastModTime and w.bundleId is null and w.id > :id order by w.id"),
+
+        @NamedQuery(name = "GET_COMPLETED_COORD_JOBS_WITH_NO_PARENT_OLDER_THAN_COUNT_AFTER_ID", query = "select count(w) from CoordinatorJobBean w where w.statusStr IN ('SUCCEEDED', 'FAILED', 'KILLED', 'DONEWITHERROR') AND w.lastModifiedTimestamp <= :lastModTime and w.bundleId is null and w.id > :id"),
+
         @NamedQuery(name = "GET_COORD_JOBS_UNPAUSED", query = "select OBJECT(w) from CoordinatorJobBean w where w.statusStr = 'RUNNING' OR w.statusStr = 'RUNNINGWITHERROR' OR w.statusStr = 'PREP' order by w.lastModifiedTimestamp"),
 
         @NamedQuery(name = "GET_COORD_JOBS_PAUSED", query = "select OBJECT(w) from CoordinatorJobBean w where w.statusStr = 'PAUSED' OR w.statusStr = 'PAUSEDWITHERROR' OR w.statusStr = 'PREPPAUSED' order by w.lastModifiedTimestamp"),
@@ -153,7 +158,7 @@ import org.json.simple.JSONObject;
 
 })
 @Table(name = "COORD_JOBS")
-public class CoordinatorJobBean implements Writable, CoordinatorJob, JsonBean {
+public class CoordinatorJobBean implements Writable, CoordinatorJob, StreamingJsonBean {
 
     @Id
     private String id;
@@ -1095,38 +1100,39 @@ public class CoordinatorJobBean implements Writable, CoordinatorJob, JsonBean {
         return toJSONObject("GMT");
     }
 
-    @SuppressWarnings("unchecked")
     public JSONObject toJSONObject(String timeZoneId) {
-        JSONObject json = new JSONObject();
-        json.put(JsonTags.COORDINATOR_JOB_PATH, getAppPath());
-        json.put(JsonTags.COORDINATOR_JOB_NAME, getAppName());
-        json.put(JsonTags.COORDINATOR_JOB_ID, getId());
-        json.put(JsonTags.COORDINATOR_JOB_EXTERNAL_ID, getExternalId());
-        json.put(JsonTags.COORDINATOR_JOB_BUNDLE_ID, getBundleId());
-        json.put(JsonTags.COORDINATOR_JOB_CONF, getConf());
-        json.put(JsonTags.COORDINATOR_JOB_STATUS, getStatus().toString());
-        json.put(JsonTags.COORDINATOR_JOB_EXECUTIONPOLICY, getExecutionOrder().toString());
-        json.put(JsonTags.COORDINATOR_JOB_FREQUENCY, getFrequency());
-        json.put(JsonTags.COORDINATOR_JOB_TIMEUNIT, getTimeUnit().toString());
-        json.put(JsonTags.COORDINATOR_JOB_TIMEZONE, getTimeZone());
-        json.put(JsonTags.COORDINATOR_JOB_CONCURRENCY, getConcurrency());
-        json.put(JsonTags.COORDINATOR_JOB_TIMEOUT, getTimeout());
-        json.put(JsonTags.COORDINATOR_JOB_LAST_ACTION_TIME, JsonUtils.formatDateRfc822(getLastActionTime(), timeZoneId));
-        json.put(JsonTags.COORDINATOR_JOB_NEXT_MATERIALIZED_TIME,
+        return JsonFieldWriter.toJSONObject(this, timeZoneId);
+    }
+
+    @Override
+    public void writeJSONFields(JsonFieldWriter writer, String timeZoneId) {
+        writer.write(JsonTags.COORDINATOR_JOB_PATH, getAppPath());
+        writer.write(JsonTags.COORDINATOR_JOB_NAME, getAppName());
+        writer.write(JsonTags.COORDINATOR_JOB_ID, getId());
+        writer.write(JsonTags.COORDINATOR_JOB_EXTERNAL_ID, getExternalId());
+        writer.write(JsonTags.COORDINATOR_JOB_BUNDLE_ID, getBundleId());
+        writer.write(JsonTags.COORDINATOR_JOB_CONF, getConf());
+        writer.write(JsonTags.COORDINATOR_JOB_STATUS, getStatus().toString());
+        writer.write(JsonTags.COORDINATOR_JOB_EXECUTIONPOLICY, getExecutionOrder().toString());
+        writer.write(JsonTags.COORDINATOR_JOB_FREQUENCY, getFrequency());
+        writer.write(JsonTags.COORDINATOR_JOB_TIMEUNIT, getTimeUnit().toString());
+        writer.write(JsonTags.COORDINATOR_JOB_TIMEZONE, getTimeZone());
+        writer.write(JsonTags.COORDINATOR_JOB_CONCURRENCY, getConcurrency());
+        writer.write(JsonTags.COORDINATOR_JOB_TIMEOUT, getTimeout());
+        writer.write(JsonTags.COORDINATOR_JOB_LAST_ACTION_TIME, JsonUtils.formatDateRfc822(getLastActionTime(), timeZoneId));
+        writer.write(JsonTags.COORDINATOR_JOB_NEXT_MATERIALIZED_TIME,
                 JsonUtils.formatDateRfc822(getNextMaterializedTime(), timeZoneId));
-        json.put(JsonTags.COORDINATOR_JOB_START_TIME, JsonUtils.formatDateRfc822(getStartTime(), timeZoneId));
-        json.put(JsonTags.COORDINATOR_JOB_END_TIME, JsonUtils.formatDateRfc822(getEndTime(), timeZoneId));
-        json.put(JsonTags.COORDINATOR_JOB_PAUSE_TIME, JsonUtils.formatDateRfc822(getPauseTime(), timeZoneId));
-        json.put(JsonTags.COORDINATOR_JOB_USER, getUser());
-        json.put(JsonTags.COORDINATOR_JOB_GROUP, getGroup());
-        json.put(JsonTags.COORDINATOR_JOB_ACL, getAcl());
-        json.put(JsonTags.COORDINATOR_JOB_CONSOLE_URL, getConsoleUrl());
-        json.put(JsonTags.COORDINATOR_JOB_MAT_THROTTLING, getMatThrottling());
-        json.put(JsonTags.COORDINATOR_ACTIONS, CoordinatorActionBean.toJSONArray(actions, timeZoneId));
-        json.put(JsonTags.TO_STRING,toString());
-        json.put(JsonTags.COORDINATOR_JOB_NUM_ACTION, numActions);
-
-        return json;
+        writer.write(JsonTags.COORDINATOR_JOB_START_TIME, JsonUtils.formatDateRfc822(getStartTime(), timeZoneId));
+        writer.write(JsonTags.COORDINATOR_JOB_END_TIME, JsonUtils.formatDateRfc822(getEndTime(), timeZoneId));
+        writer.write(JsonTags.COORDINATOR_JOB_PAUSE_TIME, JsonUtils.formatDateRfc822(getPauseTime(), timeZoneId));
+        writer.write(JsonTags.COORDINATOR_JOB_USER, getUser());
+        writer.write(JsonTags.COORDINATOR_JOB_GROUP, getGroup());
+        writer.write(JsonTags.COORDINATOR_JOB_ACL, getAcl());
+        writer.write(JsonTags.COORDINATOR_JOB_CONSOLE_URL, getConsoleUrl());
+        writer.write(JsonTags.COORDINATOR_JOB_MAT_THROTTLING, getMatThrottling());
+        writer.write(JsonTags.COORDINATOR_ACTIONS, actions, timeZoneId);
+        writer.write(JsonTags.TO_STRING,toString());
+        writer.write(JsonTags.COORDINATOR_JOB_NUM_ACTION, numActions);
     }
 
 }
@@ -57,12 +57,16 @@ import org.apache.oozie.command.wf.SuspendXCommand;
 import org.apache.oozie.command.wf.WorkflowActionInfoXCommand;
 import org.apache.oozie.command.wf.WorkflowActionRetryInfoXCommand;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.JobsVersionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
+import org.apache.oozie.service.BulkOperationService;
 import org.apache.oozie.service.CallableQueueService;
 import org.apache.oozie.service.DagXLogInfoService;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.XLogService;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XConfiguration;
@@ -547,6 +551,45 @@ public class DagEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Return the info about a page of jobs, for keyset pagination.
+     *
+     * @param filter job filter. Refer to the {@link org.apache.oozie.client.OozieClient} for the filter syntax.
+     * @param cursor position of the page in the listing.
+     * @param len number of jobs to return.
+     * @param count whether to count all matching jobs, the total is -1 otherwise.
+     * @return job info for the page, the jobs don't contain node action information.
+     * @throws DagEngineException thrown if the jobs info could not be obtained.
+     */
+    public WorkflowsInfo getJobs(String filter, JobsCursor cursor, int len, boolean count) throws DagEngineException {
+        Map<String, List<String>> filterList = parseFilter(filter);
+        try {
+            return new JobsXCommand(filterList, cursor, len, count).call();
+        }
+        catch (CommandException dce) {
+            throw new DagEngineException(dce);
+        }
+    }
+
+    /**
+     * Return the version of the listing of the jobs matching a filter, which changes whenever a job of the listing is
+     * created, modified or purged. It is much cheaper to get than the listing.
+     *
+     * @param filter job filter. Refer to the {@link org.apache.oozie.client.OozieClient} for the filter syntax.
+     * @return the version of the listing.
+     * @throws DagEngineException thrown if the version could not be obtained.
+     */
+    public String getJobsVersion(String filter) throws DagEngineException {
+        Map<String, List<String>> filterList = parseFilter(filter);
+        try {
+            return Services.get().get(JPAService.class).execute(
+                    new JobsVersionGetJPAExecutor(JobsVersionGetJPAExecutor.JobType.WORKFLOW, filterList));
+        }
+        catch (JPAExecutorException ex) {
+            throw new DagEngineException(ex);
+        }
+    }
+
     /**
      * Return the workflow Job ID for an external ID. <p> This is reverse lookup for recovery purposes.
      *
@@ -711,4 +754,27 @@ public class DagEngine extends BaseEngine {
             throw new DagEngineException(ex);
         }
     }
+
+    /**
+     * Start the kill, suspend or resume of the workflows matching a filter, without waiting for the workflows to be
+     * modified.
+     *
+     * @param filter Filter for the jobs, can be name, user, group, status, id or combination of any
+     * @param start Offset for the jobs
+     * @param len maximum number of jobs
+     * @param operation the type of operation to perform, it can be kill, suspend or resume
+     * @return the bulk operation modifying the jobs
+     * @throws DagEngineException thrown if the jobs could not be listed or the operation could not be started
+     */
+    public BulkOperationService.Operation startBulkOperation(String filter, int start, int len,
+            OperationType operation) throws DagEngineException {
+        try {
+            BulkWorkflowXCommand command = new BulkWorkflowXCommand(parseFilter(filter), start, len, operation, true);
+            command.call();
+            return command.getBulkOperation();
+        }
+        catch (CommandException ex) {
+            throw new DagEngineException(ex);
+        }
+    }
 }
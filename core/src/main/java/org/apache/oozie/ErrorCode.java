@@ -224,6 +224,11 @@ public enum ErrorCode {
     E1101(XLog.STD, "SLA <{0}> cannot be empty."),
 
     E1102(XLog.STD, "Invalid operation [{0}] for bulk command"),
+    E1103(XLog.STD, "Bulk operation [{0}] does not exist"),
+    E1104(XLog.OPS, "Bulk operation [{0}] could not be queued"),
+    E1105(XLog.STD, "Interrupted while waiting for bulk operation [{0}]"),
+    E1106(XLog.STD, "Too many jobs to watch [{0}], the limit is [{1}]"),
+    E1107(XLog.OPS, "Too many open job watches, the limit is [{0}]"),
 
     E1201(XLog.STD, "State [{0}] is invalid for job [{1}]."),
 
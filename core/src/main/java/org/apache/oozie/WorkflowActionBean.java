@@ -38,9 +38,10 @@ import javax.persistence.Table;
 
 import org.apache.hadoop.io.Writable;
 import org.apache.oozie.client.WorkflowAction;
-import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.JsonFieldWriter;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.JsonUtils;
+import org.apache.oozie.client.rest.StreamingJsonBean;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.PropertiesUtils;
@@ -112,7 +113,7 @@ import org.json.simple.JSONObject;
 
     @NamedQuery(name = "GET_ACTIONS_FOR_WORKFLOW_RERUN", query = "select a.id, a.name, a.statusStr, a.endTimestamp, a.type from WorkflowActionBean a where a.wfId = :wfId order by a.startTimestamp") })
 @Table(name = "WF_ACTIONS")
-public class WorkflowActionBean implements Writable, WorkflowAction, JsonBean {
+public class WorkflowActionBean implements Writable, WorkflowAction, StreamingJsonBean {
     @Id
     private String id;
 
@@ -839,34 +840,35 @@ public class WorkflowActionBean implements Writable, WorkflowAction, JsonBean {
         return toJSONObject("GMT");
     }
 
-    @SuppressWarnings("unchecked")
     public JSONObject toJSONObject(String timeZoneId) {
-        JSONObject json = new JSONObject();
-        json.put(JsonTags.WORKFLOW_ACTION_ID, id);
-        json.put(JsonTags.WORKFLOW_ACTION_NAME, name);
-        json.put(JsonTags.WORKFLOW_ACTION_AUTH, cred);
-        json.put(JsonTags.WORKFLOW_ACTION_TYPE, type);
-        json.put(JsonTags.WORKFLOW_ACTION_CONF, getConf());
-        json.put(JsonTags.WORKFLOW_ACTION_STATUS, statusStr);
-        json.put(JsonTags.WORKFLOW_ACTION_RETRIES, (long) retries);
-        json.put(JsonTags.WORKFLOW_ACTION_START_TIME, JsonUtils.formatDateRfc822(getStartTime(), timeZoneId));
-        json.put(JsonTags.WORKFLOW_ACTION_END_TIME, JsonUtils.formatDateRfc822(getEndTime(), timeZoneId));
-        json.put(JsonTags.WORKFLOW_ACTION_TRANSITION, transition);
-        json.put(JsonTags.WORKFLOW_ACTION_DATA, getData());
-        json.put(JsonTags.WORKFLOW_ACTION_STATS, getStats());
-        json.put(JsonTags.WORKFLOW_ACTION_EXTERNAL_CHILD_IDS, getExternalChildIDs());
-        json.put(JsonTags.WORKFLOW_ACTION_EXTERNAL_ID, externalId);
-        json.put(JsonTags.WORKFLOW_ACTION_EXTERNAL_STATUS, externalStatus);
-        json.put(JsonTags.WORKFLOW_ACTION_TRACKER_URI, trackerUri);
-        json.put(JsonTags.WORKFLOW_ACTION_CONSOLE_URL, consoleUrl);
-        json.put(JsonTags.WORKFLOW_ACTION_ERROR_CODE, errorCode);
-        json.put(JsonTags.WORKFLOW_ACTION_ERROR_MESSAGE, errorMessage);
-        json.put(JsonTags.TO_STRING, toString());
-        json.put(JsonTags.WORKFLOW_ACTION_USER_RETRY_INTERVAL, userRetryInterval);
-        json.put(JsonTags.WORKFLOW_ACTION_USER_RETRY_COUNT, userRetryCount);
-        json.put(JsonTags.WORKFLOW_ACTION_USER_RETRY_MAX, userRetryMax);
-        json.put(JsonTags.WORKFLOW_ACTION_CRED, cred);
-        return json;
+        return JsonFieldWriter.toJSONObject(this, timeZoneId);
+    }
+
+    @Override
+    public void writeJSONFields(JsonFieldWriter writer, String timeZoneId) {
+        writer.write(JsonTags.WORKFLOW_ACTION_ID, id);
+        writer.write(JsonTags.WORKFLOW_ACTION_NAME, name);
+        writer.write(JsonTags.WORKFLOW_ACTION_AUTH, cred);
+        writer.write(JsonTags.WORKFLOW_ACTION_TYPE, type);
+        writer.write(JsonTags.WORKFLOW_ACTION_CONF, getConf());
+        writer.write(JsonTags.WORKFLOW_ACTION_STATUS, statusStr);
+        writer.write(JsonTags.WORKFLOW_ACTION_RETRIES, (long) retries);
+        writer.write(JsonTags.WORKFLOW_ACTION_START_TIME, JsonUtils.formatDateRfc822(getStartTime(), timeZoneId));
+        writer.write(JsonTags.WORKFLOW_ACTION_END_TIME, JsonUtils.formatDateRfc822(getEndTime(), timeZoneId));
+        writer.write(JsonTags.WORKFLOW_ACTION_TRANSITION, transition);
+        writer.write(JsonTags.WORKFLOW_ACTION_DATA, getData());
+        writer.write(JsonTags.WORKFLOW_ACTION_STATS, getStats());
+        writer.write(JsonTags.WORKFLOW_ACTION_EXTERNAL_CHILD_IDS, getExternalChildIDs());
+        writer.write(JsonTags.WORKFLOW_ACTION_EXTERNAL_ID, externalId);
+        writer.write(JsonTags.WORKFLOW_ACTION_EXTERNAL_STATUS, externalStatus);
+        writer.write(JsonTags.WORKFLOW_ACTION_TRACKER_URI, trackerUri);
+        writer.write(JsonTags.WORKFLOW_ACTION_CONSOLE_URL, consoleUrl);
+        writer.write(JsonTags.WORKFLOW_ACTION_ERROR_CODE, errorCode);
+        writer.write(JsonTags.WORKFLOW_ACTION_ERROR_MESSAGE, errorMessage);
+        writer.write(JsonTags.TO_STRING, toString());
+        writer.write(JsonTags.WORKFLOW_ACTION_USER_RETRY_INTERVAL, userRetryInterval);
+        writer.write(JsonTags.WORKFLOW_ACTION_USER_RETRY_COUNT, userRetryCount);
+        writer.write(JsonTags.WORKFLOW_ACTION_USER_RETRY_MAX, userRetryMax);
     }
 
     @Override
@@ -21,9 +21,10 @@ package org.apache.oozie;
 import org.apache.hadoop.io.Writable;
 import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.client.WorkflowJob;
-import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.JsonFieldWriter;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.JsonUtils;
+import org.apache.oozie.client.rest.StreamingJsonBean;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.WritableUtils;
 import org.apache.oozie.workflow.WorkflowInstance;
@@ -83,8 +84,16 @@ import java.util.List;
 
     @NamedQuery(name = "GET_COMPLETED_WORKFLOWS_WITH_NO_PARENT_OLDER_THAN", query = "select w.id from WorkflowJobBean w where w.endTimestamp < :endTime and w.parentId is null"),
 
+    @NamedQuery(name = "GET_COMPLETED_WORKFLOWS_WITH_NO_PARENT_OLDER_THAN_AFTER_ID", query = "select w.id from WorkflowJobBean w where w.endTimestamp < :endTime and w.parentId is null and w.id > :id order by w.id"),
+
+    @NamedQuery(name = "GET_COMPLETED_WORKFLOWS_WITH_NO_PARENT_OLDER_THAN_COUNT_AFTER_ID", query = "select count(w) from WorkflowJobBean w where w.endTimestamp < :endTime and w.parentId is null and w.id > :id"),
+
     @NamedQuery(name = "GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN", query = "select w.id, w.parentId from WorkflowJobBean w where w.endTimestamp < :endTime and w.parentId like '%C@%'"),
 
+    @NamedQuery(name = "GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN_AFTER_ID", query = "select w.id, w.parentId from WorkflowJobBean w where w.endTimestamp < :endTime and w.parentId like '%C@%' and w.id > :id order by w.id"),
+
+    @NamedQuery(name = "GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN_COUNT_AFTER_ID", query = "select count(w) from WorkflowJobBean w where w.endTimestamp < :endTime and w.parentId like '%C@%' and w.id > :id"),
+
     @NamedQuery(name = "GET_WORKFLOW", query = "select OBJECT(w) from WorkflowJobBean w where w.id = :id"),
 
     @NamedQuery(name = "GET_WORKFLOW_STARTTIME", query = "select w.id, w.startTimestamp from WorkflowJobBean w where w.id = :id"),
@@ -130,7 +139,7 @@ import java.util.List;
     @NamedQuery(name = "GET_WORKFLOWS_PARENT_COORD_RERUN", query = "select w.id, w.statusStr, w.startTimestamp, w.endTimestamp "
             + "from WorkflowJobBean w where w.parentId = :parentId order by w.createdTimestamp")})
 @Table(name = "WF_JOBS")
-public class WorkflowJobBean implements Writable, WorkflowJob, JsonBean {
+public class WorkflowJobBean implements Writable, WorkflowJob, StreamingJsonBean {
 
     @Id
     private String id;
@@ -467,28 +476,30 @@ public class WorkflowJobBean implements Writable, WorkflowJob, JsonBean {
         return toJSONObject("GMT");
     }
 
-    @SuppressWarnings("unchecked")
     public JSONObject toJSONObject(String timeZoneId) {
-        JSONObject json = new JSONObject();
-        json.put(JsonTags.WORKFLOW_APP_PATH, getAppPath());
-        json.put(JsonTags.WORKFLOW_APP_NAME, getAppName());
-        json.put(JsonTags.WORKFLOW_ID, getId());
-        json.put(JsonTags.WORKFLOW_EXTERNAL_ID, getExternalId());
-        json.put(JsonTags.WORKFLOW_PARENT_ID, getParentId());
-        json.put(JsonTags.WORKFLOW_CONF, getConf());
-        json.put(JsonTags.WORKFLOW_STATUS, getStatus().toString());
-        json.put(JsonTags.WORKFLOW_LAST_MOD_TIME, JsonUtils.formatDateRfc822(getLastModifiedTime(), timeZoneId));
-        json.put(JsonTags.WORKFLOW_CREATED_TIME, JsonUtils.formatDateRfc822(getCreatedTime(), timeZoneId));
-        json.put(JsonTags.WORKFLOW_START_TIME, JsonUtils.formatDateRfc822(getStartTime(), timeZoneId));
-        json.put(JsonTags.WORKFLOW_END_TIME, JsonUtils.formatDateRfc822(getEndTime(), timeZoneId));
-        json.put(JsonTags.WORKFLOW_USER, getUser());
-        json.put(JsonTags.WORKFLOW_GROUP, getGroup());
-        json.put(JsonTags.WORKFLOW_ACL, getAcl());
-        json.put(JsonTags.WORKFLOW_RUN, (long) getRun());
-        json.put(JsonTags.WORKFLOW_CONSOLE_URL, getConsoleUrl());
-        json.put(JsonTags.WORKFLOW_ACTIONS, WorkflowActionBean.toJSONArray(actions, timeZoneId));
-        json.put(JsonTags.TO_STRING, toString());
-        return json;
+        return JsonFieldWriter.toJSONObject(this, timeZoneId);
+    }
+
+    @Override
+    public void writeJSONFields(JsonFieldWriter writer, String timeZoneId) {
+        writer.write(JsonTags.WORKFLOW_APP_PATH, getAppPath());
+        writer.write(JsonTags.WORKFLOW_APP_NAME, getAppName());
+        writer.write(JsonTags.WORKFLOW_ID, getId());
+        writer.write(JsonTags.WORKFLOW_EXTERNAL_ID, getExternalId());
+        writer.write(JsonTags.WORKFLOW_PARENT_ID, getParentId());
+        writer.write(JsonTags.WORKFLOW_CONF, getConf());
+        writer.write(JsonTags.WORKFLOW_STATUS, getStatus().toString());
+        writer.write(JsonTags.WORKFLOW_LAST_MOD_TIME, JsonUtils.formatDateRfc822(getLastModifiedTime(), timeZoneId));
+        writer.write(JsonTags.WORKFLOW_CREATED_TIME, JsonUtils.formatDateRfc822(getCreatedTime(), timeZoneId));
+        writer.write(JsonTags.WORKFLOW_START_TIME, JsonUtils.formatDateRfc822(getStartTime(), timeZoneId));
+        writer.write(JsonTags.WORKFLOW_END_TIME, JsonUtils.formatDateRfc822(getEndTime(), timeZoneId));
+        writer.write(JsonTags.WORKFLOW_USER, getUser());
+        writer.write(JsonTags.WORKFLOW_GROUP, getGroup());
+        writer.write(JsonTags.WORKFLOW_ACL, getAcl());
+        writer.write(JsonTags.WORKFLOW_RUN, (long) getRun());
+        writer.write(JsonTags.WORKFLOW_CONSOLE_URL, getConsoleUrl());
+        writer.write(JsonTags.WORKFLOW_ACTIONS, actions, timeZoneId);
+        writer.write(JsonTags.TO_STRING, toString());
     }
 
     public String getAppPath() {
@@ -20,6 +20,8 @@ package org.apache.oozie;
 
 import java.util.List;
 
+import org.apache.oozie.util.JobsCursor;
+
 /**
  * Bean that contains the result for a workflows query.
  */
@@ -27,6 +29,7 @@ public class WorkflowsInfo {
     private int start;
     private int len;
     private int total;
+    private JobsCursor nextCursor;
     private List<WorkflowJobBean> workflows;
 
     /**
@@ -80,4 +83,22 @@ public class WorkflowsInfo {
         return total;
     }
 
+    /**
+     * Return the cursor after the workflows being returned, when listed with keyset pagination. <p> For pagination
+     * purposes.
+     *
+     * @return the cursor after the workflows being returned, <code>null</code> if there are no more workflows.
+     */
+    public JobsCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Set the cursor after the workflows being returned.
+     *
+     * @param nextCursor the cursor, <code>null</code> if there are no more workflows.
+     */
+    public void setNextCursor(JobsCursor nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
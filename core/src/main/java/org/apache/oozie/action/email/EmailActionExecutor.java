@@ -56,6 +56,7 @@ import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.HadoopAccessorService;
+import org.apache.oozie.service.SMTPTransportService;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.XmlUtils;
 import org.jdom.Element;
@@ -197,6 +198,11 @@ public class EmailActionExecutor extends ActionExecutor {
         properties.setProperty("mail.smtp.timeout", timeoutMillisInt.toString());
         properties.setProperty("mail.smtp.writetimeout", timeoutMillisInt.toString());
 
+        if (smtpAuthBool) {
+            // identifies the account of the session when reusing SMTP connections
+            properties.setProperty("mail.smtp.user", smtpUser);
+        }
+
         Session session;
         // Do not use default instance (i.e. Session.getDefaultInstance)
         // (cause it may lead to issues when used second time).
@@ -290,7 +296,7 @@ public class EmailActionExecutor extends ActionExecutor {
         try {
             // Send over SMTP Transport
             // (Session+Message has adequate details.)
-            Transport.send(message);
+            send(session, message);
         } catch (NoSuchProviderException e) {
             throw new ActionExecutorException(ErrorType.ERROR, "EM006", "Could not find an SMTP transport provider to email.", e);
         } catch (MessagingException e) {
@@ -298,6 +304,24 @@ public class EmailActionExecutor extends ActionExecutor {
         }
     }
 
+    /**
+     * Send a message, over a pooled SMTP connection if the {@link SMTPTransportService} is available.
+     *
+     * @param session mail session of the message
+     * @param message message to send
+     * @throws MessagingException thrown if the message could not be sent
+     */
+    public static void send(Session session, Message message) throws MessagingException {
+        SMTPTransportService transportService = Services.get() != null
+                ? Services.get().get(SMTPTransportService.class) : null;
+        if (transportService != null) {
+            transportService.send(session, message);
+        }
+        else {
+            Transport.send(message);
+        }
+    }
+
     @Override
     public void end(Context context, WorkflowAction action) throws ActionExecutorException {
         String externalStatus = action.getExternalStatus();
@@ -27,19 +27,24 @@ import java.net.URISyntaxException;
 import java.net.UnknownHostException;
 import java.security.PrivilegedExceptionAction;
 import java.text.MessageFormat;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.filecache.DistributedCache;
 import org.apache.hadoop.fs.FileStatus;
@@ -68,6 +73,7 @@ import org.apache.oozie.command.coord.CoordActionStartXCommand;
 import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
+import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.ShareLibService;
 import org.apache.oozie.service.URIHandlerService;
@@ -75,6 +81,7 @@ import org.apache.oozie.service.UserGroupInformationService;
 import org.apache.oozie.service.WorkflowAppService;
 import org.apache.oozie.util.ELEvaluationException;
 import org.apache.oozie.util.ELEvaluator;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.JobUtils;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.PropertiesUtils;
@@ -108,6 +115,7 @@ public class JavaActionExecutor extends ActionExecutor {
     public static final String HADOOP_REDUCE_JAVA_OPTS = "mapreduce.reduce.java.opts";
     public static final String HADOOP_CHILD_JAVA_ENV = "mapred.child.env";
     public static final String HADOOP_MAP_JAVA_ENV = "mapreduce.map.env";
+    public static final String HADOOP_REDUCE_JAVA_ENV = "mapreduce.reduce.env";
     public static final String YARN_AM_RESOURCE_MB = "yarn.app.mapreduce.am.resource.mb";
     public static final String YARN_AM_COMMAND_OPTS = "yarn.app.mapreduce.am.command-opts";
     public static final String YARN_AM_ENV = "yarn.app.mapreduce.am.env";
@@ -127,6 +135,42 @@ public class JavaActionExecutor extends ActionExecutor {
     public static final String HADOOP_JOB_CLASSLOADER = "mapreduce.job.classloader";
     public static final String HADOOP_USER_CLASSPATH_FIRST = "mapreduce.user.classpath.first";
     public static final String OOZIE_CREDENTIALS_SKIP = "oozie.credentials.skip";
+    /**
+     * Number of job-xml files kept parsed in memory, 0 disables the cache
+     */
+    public static final String CONF_JOB_XML_CACHE_SIZE = "oozie.action.job-xml.cache.size";
+    private static final String INSTRUMENTATION_GROUP = "action.submit";
+    private static final int MAX_SHARELIB_CLASSPATH_CACHE_SIZE = 1000;
+
+    // job-xml files, pretty printed without comments, by user and path
+    private static final Map<String, JobXml> JOB_XML_CACHE = new LinkedHashMap<String, JobXml>(16, 0.75f, true);
+    // resolved action sharelib jars by action type, sharelib names and action conf file names
+    private static final ConcurrentHashMap<String, ShareLibClasspath> SHARELIB_CLASSPATH_CACHE =
+            new ConcurrentHashMap<String, ShareLibClasspath>();
+
+    private static class JobXml {
+        private final long modificationTime;
+        private final String xml;
+
+        JobXml(long modificationTime, String xml) {
+            this.modificationTime = modificationTime;
+            this.xml = xml;
+        }
+    }
+
+    private static class ShareLibClasspath {
+        private final long generation;
+        // jars to add to the distributed cache
+        private final List<Path> libPaths = new ArrayList<Path>();
+        // consolidated sharelib archives, holding the jars of their sharelib that are not in libPaths
+        private final List<Path> archives = new ArrayList<Path>();
+        // sharelib names and paths of the configuration files to inject into the action configuration
+        private final List<Map.Entry<String, Path>> confFiles = new ArrayList<Map.Entry<String, Path>>();
+
+        ShareLibClasspath(long generation) {
+            this.generation = generation;
+        }
+    }
 
     public XConfiguration workflowConf = null;
 
@@ -493,11 +537,10 @@ public class JavaActionExecutor extends ActionExecutor {
               }
               filesystemsMap.put(path.toUri().getAuthority(), fs);
             }
-            Configuration jobXmlConf = new XConfiguration(fs.open(path));
+            String jobXmlString = readJobXml(context.getWorkflow().getUser(), fs, path);
+            Configuration jobXmlConf = new XConfiguration(new StringReader(jobXmlString));
             try {
-                String jobXmlConfString = XmlUtils.prettyPrint(jobXmlConf).toString();
-                jobXmlConfString = XmlUtils.removeComments(jobXmlConfString);
-                jobXmlConfString = context.getELEvaluator().evaluate(jobXmlConfString, String.class);
+                String jobXmlConfString = context.getELEvaluator().evaluate(jobXmlString, String.class);
                 jobXmlConf = new XConfiguration(new StringReader(jobXmlConfString));
             }
             catch (ELEvaluationException ex) {
@@ -527,6 +570,47 @@ public class JavaActionExecutor extends ActionExecutor {
         }
     }
 
+    /**
+     * Read a job-xml file, pretty printed and without comments. The file is read again only when its modification
+     * time changes.
+     *
+     * @param user user reading the file
+     * @param fs file system of the file
+     * @param path path of the file
+     * @return the job-xml file content
+     * @throws IOException thrown if the file could not be read
+     */
+    private static String readJobXml(String user, FileSystem fs, Path path) throws IOException {
+        int cacheSize = ConfigurationService.getInt(CONF_JOB_XML_CACHE_SIZE);
+        if (cacheSize <= 0) {
+            return parseJobXml(fs, path);
+        }
+        // the user is part of the key, a user must not get a file it can't read from the cache
+        String key = user + "@" + fs.makeQualified(path);
+        long modificationTime = fs.getFileStatus(path).getModificationTime();
+        synchronized (JOB_XML_CACHE) {
+            JobXml jobXml = JOB_XML_CACHE.get(key);
+            if (jobXml != null && jobXml.modificationTime == modificationTime) {
+                return jobXml.xml;
+            }
+        }
+        String xml = parseJobXml(fs, path);
+        synchronized (JOB_XML_CACHE) {
+            JOB_XML_CACHE.put(key, new JobXml(modificationTime, xml));
+            Iterator<String> it = JOB_XML_CACHE.keySet().iterator();
+            while (JOB_XML_CACHE.size() > cacheSize) {
+                it.next();
+                it.remove();
+            }
+        }
+        return xml;
+    }
+
+    private static String parseJobXml(FileSystem fs, Path path) throws IOException {
+        Configuration jobXmlConf = new XConfiguration(fs.open(path));
+        return XmlUtils.removeComments(XmlUtils.prettyPrint(jobXmlConf).toString());
+    }
+
     Configuration setupActionConf(Configuration actionConf, Context context, Element actionXml, Path appPath)
             throws ActionExecutorException {
         try {
@@ -672,69 +756,27 @@ public class JavaActionExecutor extends ActionExecutor {
 
     protected void addShareLib(Configuration conf, String[] actionShareLibNames)
             throws ActionExecutorException {
-        Set<String> confSet = new HashSet<String>(Arrays.asList(getShareLibFilesForActionConf() == null ? new String[0]
-                : getShareLibFilesForActionConf()));
-
-        Set<Path> sharelibList = new HashSet<Path>();
-
         if (actionShareLibNames != null) {
             try {
                 ShareLibService shareLibService = Services.get().get(ShareLibService.class);
                 FileSystem fs = shareLibService.getFileSystem();
                 if (fs != null) {
-                    for (String actionShareLibName : actionShareLibNames) {
-                        List<Path> listOfPaths = shareLibService.getShareLibJars(actionShareLibName);
-                        if (listOfPaths != null && !listOfPaths.isEmpty()) {
-                            for (Path actionLibPath : listOfPaths) {
-                                String fragmentName = new URI(actionLibPath.toString()).getFragment();
-                                String fileName = fragmentName == null ? actionLibPath.getName() : fragmentName;
-                                if (confSet.contains(fileName)) {
-                                    Configuration jobXmlConf = shareLibService.getShareLibConf(actionShareLibName,
-                                            actionLibPath);
-                                    if (jobXmlConf != null) {
-                                        checkForDisallowedProps(jobXmlConf, actionLibPath.getName());
-                                        XConfiguration.injectDefaults(jobXmlConf, conf);
-                                        LOG.trace("Adding properties of " + actionLibPath + " to job conf");
-                                    }
-                                }
-                                else {
-                                    // Filtering out duplicate jars or files
-                                    sharelibList.add(new Path(actionLibPath.toUri()) {
-                                        @Override
-                                        public int hashCode() {
-                                            return getName().hashCode();
-                                        }
-                                        @Override
-                                        public String getName() {
-                                            try {
-                                                return (new URI(toString())).getFragment() == null ? new Path(toUri()).getName()
-                                                        : (new URI(toString())).getFragment();
-                                            }
-                                            catch (URISyntaxException e) {
-                                                throw new RuntimeException(e);
-                                            }
-                                        }
-                                        @Override
-                                        public boolean equals(Object input) {
-                                            if (input == null) {
-                                                return false;
-                                            }
-                                            if (input == this) {
-                                                return true;
-                                            }
-                                            if (!(input instanceof Path)) {
-                                                return false;
-                                            }
-                                            return getName().equals(((Path) input).getName());
-                                        }
-                                    });
-                                }
-                            }
+                    ShareLibClasspath classpath = getShareLibClasspath(shareLibService, actionShareLibNames);
+                    for (Map.Entry<String, Path> confFile : classpath.confFiles) {
+                        Configuration jobXmlConf = shareLibService.getShareLibConf(confFile.getKey(),
+                                confFile.getValue());
+                        if (jobXmlConf != null) {
+                            checkForDisallowedProps(jobXmlConf, confFile.getValue().getName());
+                            XConfiguration.injectDefaults(jobXmlConf, conf);
+                            LOG.trace("Adding properties of " + confFile.getValue() + " to job conf");
                         }
                     }
-                }
-                for (Path libPath : sharelibList) {
-                    addToCache(conf, libPath, libPath.toUri().getPath(), false);
+                    for (Path libPath : classpath.libPaths) {
+                        addToCache(conf, libPath, libPath.toUri().getPath(), false);
+                    }
+                    for (Path archive : classpath.archives) {
+                        addShareLibArchive(conf, archive);
+                    }
                 }
             }
             catch (URISyntaxException ex) {
@@ -748,6 +790,110 @@ public class JavaActionExecutor extends ActionExecutor {
         }
     }
 
+    /**
+     * Resolve the sharelib jars and configuration files of the action. The result only depends on the action type,
+     * the sharelib names and the sharelib, so it is cached until the sharelib is reloaded.
+     */
+    private ShareLibClasspath getShareLibClasspath(ShareLibService shareLibService, String[] actionShareLibNames)
+            throws IOException, URISyntaxException {
+        String[] actionConfFiles = getShareLibFilesForActionConf();
+        String key = getType() + "|" + StringUtils.join(actionShareLibNames, ",") + "|"
+                + (actionConfFiles == null ? "" : StringUtils.join(actionConfFiles, ","));
+        // read before looking up the jars, so a concurrent reload invalidates what is computed here
+        long generation = shareLibService.getShareLibGeneration();
+        List<List<Path>> shareLibJars = new ArrayList<List<Path>>(actionShareLibNames.length);
+        for (String actionShareLibName : actionShareLibNames) {
+            shareLibJars.add(shareLibService.getShareLibJars(actionShareLibName));
+        }
+        ShareLibClasspath classpath = SHARELIB_CLASSPATH_CACHE.get(key);
+        if (classpath != null && classpath.generation == shareLibService.getShareLibGeneration()) {
+            return classpath;
+        }
+
+        Set<String> confSet = new HashSet<String>(Arrays.asList(actionConfFiles == null ? new String[0]
+                : actionConfFiles));
+        Set<Path> sharelibList = new LinkedHashSet<Path>();
+        classpath = new ShareLibClasspath(generation);
+        for (int i = 0; i < actionShareLibNames.length; i++) {
+            List<Path> listOfPaths = shareLibJars.get(i);
+            Path archive = useConsolidatedArchives() ? shareLibService.getConsolidatedArchive(actionShareLibNames[i])
+                    : null;
+            if (archive != null) {
+                classpath.archives.add(archive);
+            }
+            if (listOfPaths != null && !listOfPaths.isEmpty()) {
+                for (Path actionLibPath : listOfPaths) {
+                    String fragmentName = new URI(actionLibPath.toString()).getFragment();
+                    String fileName = fragmentName == null ? actionLibPath.getName() : fragmentName;
+                    if (confSet.contains(fileName)) {
+                        classpath.confFiles.add(new AbstractMap.SimpleImmutableEntry<String, Path>(
+                                actionShareLibNames[i], actionLibPath));
+                    }
+                    else if (archive != null && ShareLibService.isConsolidatedJar(actionLibPath)) {
+                        // shipped in the consolidated archive
+                        continue;
+                    }
+                    else {
+                        // Filtering out duplicate jars or files
+                        sharelibList.add(new Path(actionLibPath.toUri()) {
+                            @Override
+                            public int hashCode() {
+                                return getName().hashCode();
+                            }
+                            @Override
+                            public String getName() {
+                                try {
+                                    return (new URI(toString())).getFragment() == null ? new Path(toUri()).getName()
+                                            : (new URI(toString())).getFragment();
+                                }
+                                catch (URISyntaxException e) {
+                                    throw new RuntimeException(e);
+                                }
+                            }
+                            @Override
+                            public boolean equals(Object input) {
+                                if (input == null) {
+                                    return false;
+                                }
+                                if (input == this) {
+                                    return true;
+                                }
+                                if (!(input instanceof Path)) {
+                                    return false;
+                                }
+                                return getName().equals(((Path) input).getName());
+                            }
+                        });
+                    }
+                }
+            }
+        }
+        classpath.libPaths.addAll(sharelibList);
+        if (SHARELIB_CLASSPATH_CACHE.size() >= MAX_SHARELIB_CLASSPATH_CACHE_SIZE) {
+            SHARELIB_CLASSPATH_CACHE.clear();
+        }
+        SHARELIB_CLASSPATH_CACHE.put(key, classpath);
+        return classpath;
+    }
+
+    /**
+     * Add a consolidated sharelib archive to the distributed cache, and its jars to the classpath of the tasks. YARN
+     * localizes the archive as a single resource and unpacks it in a directory of the task working directory.
+     */
+    private void addShareLibArchive(Configuration conf, Path archive) throws URISyntaxException {
+        URI uri = archive.toUri();
+        String linkName = archive.getName().substring(0, archive.getName().lastIndexOf('.'));
+        DistributedCache.addCacheArchive(new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), null, linkName),
+                conf);
+        DistributedCache.createSymlink(conf);
+        // the env settings of the tasks append to their classpath, mapred.child.env is only used when they are unset
+        String classpath = "CLASSPATH=$PWD/" + linkName + "/*";
+        for (String envKey : new String[]{HADOOP_MAP_JAVA_ENV, HADOOP_REDUCE_JAVA_ENV}) {
+            String env = conf.get(envKey, conf.get(HADOOP_CHILD_JAVA_ENV));
+            conf.set(envKey, (env == null || env.trim().isEmpty()) ? classpath : env + "," + classpath);
+        }
+    }
+
     protected void addSystemShareLibForAction(Configuration conf) throws ActionExecutorException {
         ShareLibService shareLibService = Services.get().get(ShareLibService.class);
         // ShareLibService is null for test cases
@@ -1083,10 +1229,17 @@ public class JavaActionExecutor extends ActionExecutor {
             Element actionXml = XmlUtils.parseXml(action.getConf());
 
             // action job configuration
+            Instrumentation.Cron cron = new Instrumentation.Cron();
+            cron.start();
             Configuration actionConf = loadHadoopDefaultResources(context, actionXml);
             setupActionConf(actionConf, context, actionXml, appPathRoot);
+            addSubmitCron("conf", cron);
+
             LOG.debug("Setting LibFilesArchives ");
+            cron = new Instrumentation.Cron();
+            cron.start();
             setLibFilesArchives(context, actionXml, appPathRoot, actionConf);
+            addSubmitCron("libs", cron);
 
             String jobName = actionConf.get(HADOOP_JOB_NAME);
             if (jobName == null || jobName.isEmpty()) {
@@ -1109,6 +1262,8 @@ public class JavaActionExecutor extends ActionExecutor {
             }
 
             // Setting the credential properties in launcher conf
+            cron = new Instrumentation.Cron();
+            cron.start();
             JobConf credentialsConf = null;
             HashMap<String, CredentialsProperties> credentialsProperties = setCredentialPropertyToActionConf(context,
                     action, actionConf);
@@ -1127,9 +1282,17 @@ public class JavaActionExecutor extends ActionExecutor {
                 }
             }
 
+            addSubmitCron("credentials", cron);
+
+            cron = new Instrumentation.Cron();
+            cron.start();
             JobConf launcherJobConf = createLauncherConf(actionFs, context, action, actionXml, actionConf);
+            addSubmitCron("launcher-conf", cron);
+            addSubmitCounter("localized.resources", getLocalizedResourceCount(launcherJobConf));
 
             LOG.debug("Creating Job Client for action " + action.getId());
+            cron = new Instrumentation.Cron();
+            cron.start();
             jobClient = createJobClient(context, launcherJobConf);
             String launcherId = LauncherMapperHelper.getRecoveryId(launcherJobConf, context.getActionDir(), context
                     .getRecoveryId());
@@ -1186,6 +1349,8 @@ public class JavaActionExecutor extends ActionExecutor {
                 LOG.debug("After submission get the launcherId " + launcherId);
             }
 
+            addSubmitCron("submit", cron);
+
             String jobTracker = launcherJobConf.get(HADOOP_JOB_TRACKER);
             String consoleUrl = runningJob.getTrackingURL();
             context.setStartData(launcherId, jobTracker, consoleUrl);
@@ -1210,6 +1375,37 @@ public class JavaActionExecutor extends ActionExecutor {
             }
         }
     }
+
+    /**
+     * Stop the cron of a launcher submission stage and add it to the instrumentation.
+     *
+     * @param stage submission stage
+     * @param cron cron of the stage
+     */
+    private void addSubmitCron(String stage, Instrumentation.Cron cron) {
+        cron.stop();
+        InstrumentationService instrumentationService = Services.get().get(InstrumentationService.class);
+        if (instrumentationService != null) {
+            instrumentationService.get().addCron(INSTRUMENTATION_GROUP, getType() + "." + stage, cron);
+        }
+    }
+
+    private void addSubmitCounter(String name, long count) {
+        InstrumentationService instrumentationService = Services.get().get(InstrumentationService.class);
+        if (instrumentationService != null) {
+            instrumentationService.get().incr(INSTRUMENTATION_GROUP, getType() + "." + name, count);
+        }
+    }
+
+    /**
+     * Return the number of files and archives the launcher job localizes from the distributed cache.
+     */
+    static int getLocalizedResourceCount(Configuration conf) throws IOException {
+        URI[] files = DistributedCache.getCacheFiles(conf);
+        URI[] archives = DistributedCache.getCacheArchives(conf);
+        return (files == null ? 0 : files.length) + (archives == null ? 0 : archives.length);
+    }
+
     private boolean needInjectCredentials() {
         boolean methodExists = true;
 
@@ -1447,7 +1643,7 @@ public class JavaActionExecutor extends ActionExecutor {
             if (runningJob.isComplete()) {
                 Path actionDir = context.getActionDir();
                 String newId = null;
-                // load sequence file into object
+                // load action data file into object
                 Map<String, String> actionData = LauncherMapperHelper.getActionData(actionFs, actionDir, jobConf);
                 if (actionData.containsKey(LauncherMapper.ACTION_DATA_NEW_ID)) {
                     newId = actionData.get(LauncherMapper.ACTION_DATA_NEW_ID);
@@ -1482,10 +1678,7 @@ public class JavaActionExecutor extends ActionExecutor {
                     }
                 }
                 if (runningJob.isComplete()) {
-                    // fetching action output and stats for the Map-Reduce action.
-                    if (newId != null) {
-                        actionData = LauncherMapperHelper.getActionData(actionFs, context.getActionDir(), jobConf);
-                    }
+                    // action output and stats were already loaded with the id swap, the launcher writes them at once
                     LOG.info(XLog.STD, "action completed, external ID [{0}]",
                             action.getExternalId());
                     if (LauncherMapperHelper.isMainSuccessful(runningJob)) {
@@ -1723,6 +1916,16 @@ public class JavaActionExecutor extends ActionExecutor {
         return null;
     }
 
+    /**
+     * Return whether the action can use the consolidated sharelib archives. Actions whose main class needs the
+     * sharelib jars as individual cache files return <code>false</code>, they then get the jars one by one.
+     *
+     * @return <code>true</code> if the action can use the consolidated sharelib archives
+     */
+    protected boolean useConsolidatedArchives() {
+        return true;
+    }
+
     /**
      * Sets some data for the action on completion
      *
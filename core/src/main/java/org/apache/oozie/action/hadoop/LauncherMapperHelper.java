@@ -19,6 +19,7 @@
 package org.apache.oozie.action.hadoop;
 
 import java.io.BufferedReader;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -242,7 +243,16 @@ public class LauncherMapperHelper {
     }
 
     /**
-     * Get the sequence file path storing all action data
+     * Get the file path storing all action data
+     * @param actionDir
+     * @return
+     */
+    public static Path getActionDataFilePath(Path actionDir) {
+        return new Path(actionDir, LauncherMapper.ACTION_DATA_FILE);
+    }
+
+    /**
+     * Get the sequence file path storing all action data, written by launchers of older releases
      * @param actionDir
      * @return
      */
@@ -251,7 +261,7 @@ public class LauncherMapperHelper {
     }
 
     /**
-     * Utility function to load the contents of action data sequence file into
+     * Utility function to load the contents of action data file into
      * memory object
      *
      * @param fs Action Filesystem
@@ -269,17 +279,28 @@ public class LauncherMapperHelper {
         return ugi.doAs(new PrivilegedExceptionAction<Map<String, String>>() {
             @Override
             public Map<String, String> run() throws IOException {
+                // a single open, the file not being there is how a launcher of an older release is detected
+                InputStream dataFile = null;
+                try {
+                    dataFile = fs.open(getActionDataFilePath(actionDir));
+                    return LauncherMapper.readActionData(dataFile);
+                }
+                catch (FileNotFoundException ex) {
+                    // written by a launcher of an older release
+                }
+                finally {
+                    IOUtils.closeSafely(dataFile);
+                }
                 Map<String, String> ret = new HashMap<String, String>();
-                Path seqFilePath = getActionDataSequenceFilePath(actionDir);
-                if (fs.exists(seqFilePath)) {
-                    SequenceFile.Reader seqFile = new SequenceFile.Reader(fs, seqFilePath, conf);
+                SequenceFile.Reader seqFile = null;
+                try {
+                    seqFile = new SequenceFile.Reader(fs, getActionDataSequenceFilePath(actionDir), conf);
                     Text key = new Text(), value = new Text();
                     while (seqFile.next(key, value)) {
                         ret.put(key.toString(), value.toString());
                     }
-                    seqFile.close();
                 }
-                else { // maintain backward-compatibility. to be deprecated
+                catch (FileNotFoundException ex) { // maintain backward-compatibility. to be deprecated
                     org.apache.hadoop.fs.FileStatus[] files = fs.listStatus(actionDir);
                     InputStream is;
                     BufferedReader reader = null;
@@ -323,6 +344,11 @@ public class LauncherMapperHelper {
                         }
                     }
                 }
+                finally {
+                    if (seqFile != null) {
+                        seqFile.close();
+                    }
+                }
                 return ret;
             }
         });
@@ -168,4 +168,15 @@ public class SparkActionExecutor extends JavaActionExecutor {
         return new String[] { "hive-site.xml" };
     }
 
+    /**
+     * SparkMain passes the cache files to spark-submit with --files and looks up the spark-yarn jar among them to set
+     * spark.yarn.jars; the jars in an archive would reach neither the driver nor the executors.
+     *
+     * @return <code>false</code>
+     */
+    @Override
+    protected boolean useConsolidatedArchives() {
+        return false;
+    }
+
 }
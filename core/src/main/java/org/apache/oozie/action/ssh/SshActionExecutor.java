@@ -23,9 +23,13 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.hadoop.util.StringUtils;
 
 import org.apache.oozie.client.WorkflowAction;
@@ -35,6 +39,7 @@ import org.apache.oozie.action.ActionExecutor;
 import org.apache.oozie.action.ActionExecutorException;
 import org.apache.oozie.service.CallbackService;
 import org.apache.oozie.service.ConfigurationService;
+import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.servlet.CallbackServlet;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.IOUtils;
@@ -58,6 +63,18 @@ public class SshActionExecutor extends ActionExecutor {
      */
     public static final String CONF_SSH_ALLOW_USER_AT_HOST = CONF_PREFIX + "ssh.allow.user.at.host";
 
+    /**
+     * Configuration parameter which specifies, in seconds, how long an idle multiplexed ssh master connection to a
+     * user@host is kept open. 0 disables connection multiplexing.
+     */
+    public static final String CONF_SSH_CONTROL_PERSIST = CONF_PREFIX + "ssh.control.persist";
+
+    /**
+     * Configuration parameter which specifies whether concurrent status checks of actions running on the same
+     * user@host are done in a single ssh invocation.
+     */
+    public static final String CONF_SSH_STATUS_BATCH = CONF_PREFIX + "ssh.status.batch";
+
     protected static final String SSH_COMMAND_OPTIONS =
             "-o PasswordAuthentication=no -o KbdInteractiveDevices=no -o StrictHostKeyChecking=no -o ConnectTimeout=20 ";
 
@@ -83,8 +100,41 @@ public class SshActionExecutor extends ActionExecutor {
 
     private static final String EXT_STATUS_VAR = "#status";
 
+    private static final String INSTRUMENTATION_GROUP = "action.ssh";
+
+    private static final int MAX_STATUS_BATCH = 100;
+
     private static int maxLen;
     private static boolean allowSshUserAtHost;
+    private static int controlPersist;
+    private static boolean batchStatus;
+    private static String multiplexOptions = "";
+
+    private static final Map<String, Long> lastConnectionUse = new ConcurrentHashMap<String, Long>();
+    private static final Map<String, StatusBatch> statusBatches = new ConcurrentHashMap<String, StatusBatch>();
+    private static final AtomicLong processCount = new AtomicLong();
+    private static final AtomicLong handshakeCount = new AtomicLong();
+    private static final AtomicLong statusBatchCount = new AtomicLong();
+
+    /**
+     * Status checks of the actions running on a user@host, waiting to be done in a single ssh invocation.
+     */
+    private static class StatusBatch {
+        private List<StatusRequest> pending = new ArrayList<StatusRequest>();
+        private boolean running;
+    }
+
+    private static class StatusRequest {
+        private final String pid;
+        private final String errorFile;
+        private Status status;
+        private boolean done;
+
+        StatusRequest(String pid, String errorFile) {
+            this.pid = pid;
+            this.errorFile = errorFile;
+        }
+    }
 
     protected SshActionExecutor() {
         super(ACTION_TYPE);
@@ -98,6 +148,8 @@ public class SshActionExecutor extends ActionExecutor {
         super.initActionType();
         maxLen = getOozieConf().getInt(CallbackServlet.CONF_MAX_DATA_LEN, 2 * 1024);
         allowSshUserAtHost = ConfigurationService.getBoolean(CONF_SSH_ALLOW_USER_AT_HOST);
+        controlPersist = ConfigurationService.getInt(CONF_SSH_CONTROL_PERSIST);
+        batchStatus = ConfigurationService.getBoolean(CONF_SSH_STATUS_BATCH);
         registerError(InterruptedException.class.getName(), ActionExecutorException.ErrorType.ERROR, "SH001");
         registerError(JDOMException.class.getName(), ActionExecutorException.ErrorType.ERROR, "SH002");
         initSshScripts();
@@ -127,10 +179,10 @@ public class SshActionExecutor extends ActionExecutor {
         if (status == Status.OK) {
             if (captureOutput) {
                 String outFile = getRemoteFileName(context, action, "stdout", false, true);
-                String dataCommand = SSH_COMMAND_BASE + action.getTrackerUri() + " cat " + outFile;
+                String dataCommand = getSshCommandBase() + action.getTrackerUri() + " cat " + outFile;
                 log.debug("Ssh command [{0}]", dataCommand);
                 try {
-                    Process process = Runtime.getRuntime().exec(dataCommand.split("\\s"));
+                    Process process = exec(action.getTrackerUri(), dataCommand.split("\\s"));
                     StringBuffer buffer = new StringBuffer();
                     boolean overflow = false;
                     drainBuffers(process, buffer, null, maxLen);
@@ -170,8 +222,8 @@ public class SshActionExecutor extends ActionExecutor {
      */
     @Override
     public void kill(Context context, WorkflowAction action) throws ActionExecutorException {
-        String command = "ssh " + action.getTrackerUri() + " kill  -KILL " + action.getExternalId();
-        int returnValue = getReturnValue(command);
+        String command = getSshCommandBase() + action.getTrackerUri() + " kill  -KILL " + action.getExternalId();
+        int returnValue = getReturnValue(action.getTrackerUri(), command);
         if (returnValue != 0) {
             throw new ActionExecutorException(ActionExecutorException.ErrorType.ERROR, "FAILED_TO_KILL", XLog.format(
                     "Unable to kill process {0} on {1}", action.getExternalId(), action.getTrackerUri()));
@@ -279,9 +331,9 @@ public class SshActionExecutor extends ActionExecutor {
     private String checkIfRunning(String host, final Context context, final WorkflowAction action) {
         String pid = null;
         String outFile = getRemoteFileName(context, action, "pid", false, false);
-        String getOutputCmd = SSH_COMMAND_BASE + host + " cat " + outFile;
+        String getOutputCmd = getSshCommandBase() + host + " cat " + outFile;
         try {
-            Process process = Runtime.getRuntime().exec(getOutputCmd.split("\\s"));
+            Process process = exec(host, getOutputCmd.split("\\s"));
             StringBuffer buffer = new StringBuffer();
             drainBuffers(process, buffer, null, maxLen);
             pid = getFirstLine(buffer);
@@ -330,8 +382,11 @@ public class SshActionExecutor extends ActionExecutor {
      * @throws InterruptedException if process does not run properly.
      */
     public int executeCommand(String command) throws IOException, InterruptedException {
-        Runtime runtime = Runtime.getRuntime();
-        Process p = runtime.exec(command.split("\\s"));
+        return executeCommand(null, command);
+    }
+
+    private int executeCommand(String host, String command) throws IOException, InterruptedException {
+        Process p = exec(host, command.split("\\s"));
 
         StringBuffer errorBuffer = new StringBuffer();
         int exitValue = drainBuffers(p, null, errorBuffer, maxLen);
@@ -371,14 +426,14 @@ public class SshActionExecutor extends ActionExecutor {
             throw new IOException("Required Local file " + file.getAbsolutePath() + " not present.");
         }
         String remoteDirLocation = getRemoteFileName(context, action, null, true, true);
-        String command = XLog.format("{0}{1}  mkdir -p {2} ", SSH_COMMAND_BASE, host, remoteDirLocation).toString();
-        executeCommand(command);
-        command = XLog.format("{0}{1}/ssh-base.sh {2}/ssh-wrapper.sh {3}:{4}", SCP_COMMAND_BASE, localDirLocation,
+        String command = XLog.format("{0}{1}  mkdir -p {2} ", getSshCommandBase(), host, remoteDirLocation).toString();
+        executeCommand(host, command);
+        command = XLog.format("{0}{1}/ssh-base.sh {2}/ssh-wrapper.sh {3}:{4}", getScpCommandBase(), localDirLocation,
                               localDirLocation, host, remoteDirLocation);
-        executeCommand(command);
-        command = XLog.format("{0}{1}  chmod +x {2}ssh-base.sh {3}ssh-wrapper.sh ", SSH_COMMAND_BASE, host,
+        executeCommand(host, command);
+        command = XLog.format("{0}{1}  chmod +x {2}ssh-base.sh {3}ssh-wrapper.sh ", getSshCommandBase(), host,
                               remoteDirLocation, remoteDirLocation);
-        executeCommand(command);
+        executeCommand(host, command);
         return remoteDirLocation;
     }
 
@@ -401,13 +456,12 @@ public class SshActionExecutor extends ActionExecutor {
                                WorkflowAction action, String recoveryId, boolean preserveArgs)
                                throws IOException, InterruptedException {
         XLog log = XLog.getLog(getClass());
-        Runtime runtime = Runtime.getRuntime();
         String callbackPost = ignoreOutput ? "_" : ConfigurationService.get(HTTP_COMMAND_OPTIONS).replace(" ", "%%%");
         String preserveArgsS = preserveArgs ? "PRESERVE_ARGS" : "FLATTEN_ARGS";
         // TODO check
         String callBackUrl = Services.get().get(CallbackService.class)
                 .createCallBackUrl(action.getId(), EXT_STATUS_VAR);
-        String command = XLog.format("{0}{1} {2}ssh-base.sh {3} {4} \"{5}\" \"{6}\" {7} {8} ", SSH_COMMAND_BASE, host, dirLocation,
+        String command = XLog.format("{0}{1} {2}ssh-base.sh {3} {4} \"{5}\" \"{6}\" {7} {8} ", getSshCommandBase(), host, dirLocation,
                 preserveArgsS, ConfigurationService.get(HTTP_COMMAND), callBackUrl, callbackPost, recoveryId, cmnd)
                 .toString();
         String[] commandArray = command.split("\\s");
@@ -421,7 +475,7 @@ public class SshActionExecutor extends ActionExecutor {
             System.arraycopy(args, 0, finalCommand, commandArray.length, args.length);
         }
         log.trace("Executing ssh command [{0}]", Arrays.toString(finalCommand));
-        Process p = runtime.exec(finalCommand);
+        Process p = exec(host, finalCommand);
         String pid = "";
 
         StringBuffer inputBuffer = new StringBuffer();
@@ -456,8 +510,8 @@ public class SshActionExecutor extends ActionExecutor {
         boolean deleteTmpDir = ConfigurationService.getBoolean(DELETE_TMP_DIR);
         if (deleteTmpDir) {
             String tmpDir = getRemoteFileName(context, action, null, true, false);
-            String removeTmpDirCmd = SSH_COMMAND_BASE + action.getTrackerUri() + " rm -rf " + tmpDir;
-            int retVal = getReturnValue(removeTmpDirCmd);
+            String removeTmpDirCmd = getSshCommandBase() + action.getTrackerUri() + " rm -rf " + tmpDir;
+            int retVal = getReturnValue(action.getTrackerUri(), removeTmpDirCmd);
             if (retVal != 0) {
                 XLog.getLog(getClass()).warn("Cannot delete temp dir {0}", tmpDir);
             }
@@ -467,15 +521,16 @@ public class SshActionExecutor extends ActionExecutor {
     /**
      * Get the return value of a process.
      *
+     * @param host user@host the command connects to.
      * @param command command to be executed.
      * @return zero if execution is successful and any non zero value for failure.
      * @throws ActionExecutorException
      */
-    private int getReturnValue(String command) throws ActionExecutorException {
+    private int getReturnValue(String host, String command) throws ActionExecutorException {
         int returnValue;
         Process ps = null;
         try {
-            ps = Runtime.getRuntime().exec(command.split("\\s"));
+            ps = exec(host, command.split("\\s"));
             returnValue = drainBuffers(ps, null, null, 0);
         }
         catch (IOException e) {
@@ -498,6 +553,16 @@ public class SshActionExecutor extends ActionExecutor {
         if (!path.exists()) {
             throw new RuntimeException(XLog.format("Not able to create required directory {0}", dirLocation));
         }
+        if (controlPersist > 0) {
+            // sockets of the multiplexed master connections, one per user@host
+            File controlDir = new File(path, "cm");
+            controlDir.mkdirs();
+            multiplexOptions = "-o ControlMaster=auto -o ControlPath=" + controlDir.getAbsolutePath()
+                    + "/%r@%h:%p -o ControlPersist=" + controlPersist + " ";
+        }
+        else {
+            multiplexOptions = "";
+        }
         try {
             IOUtils.copyCharStream(IOUtils.getResourceAsReader("ssh-base.sh", -1), new FileWriter(dirLocation
                     + "/ssh-base.sh"));
@@ -518,16 +583,27 @@ public class SshActionExecutor extends ActionExecutor {
      * @throws ActionExecutorException thrown if there is any error in getting status.
      */
     protected Status getActionStatus(Context context, WorkflowAction action) throws ActionExecutorException {
-        String command = SSH_COMMAND_BASE + action.getTrackerUri() + " ps -p " + action.getExternalId();
+        String errorFile = getRemoteFileName(context, action, "error", false, true);
+        if (batchStatus) {
+            try {
+                Status status = getBatchedStatus(action.getTrackerUri(), action.getExternalId(), errorFile);
+                if (status != null) {
+                    return status;
+                }
+            }
+            catch (Exception ex) {
+                throw convertException(ex);
+            }
+        }
+        String command = getSshCommandBase() + action.getTrackerUri() + " ps -p " + action.getExternalId();
         Status aStatus;
-        int returnValue = getReturnValue(command);
+        int returnValue = getReturnValue(action.getTrackerUri(), command);
         if (returnValue == 0) {
             aStatus = Status.RUNNING;
         }
         else {
-            String outFile = getRemoteFileName(context, action, "error", false, true);
-            String checkErrorCmd = SSH_COMMAND_BASE + action.getTrackerUri() + " ls " + outFile;
-            int retVal = getReturnValue(checkErrorCmd);
+            String checkErrorCmd = getSshCommandBase() + action.getTrackerUri() + " ls " + errorFile;
+            int retVal = getReturnValue(action.getTrackerUri(), checkErrorCmd);
             if (retVal == 0) {
                 aStatus = Status.ERROR;
             }
@@ -538,6 +614,189 @@ public class SshActionExecutor extends ActionExecutor {
         return aStatus;
     }
 
+    /**
+     * Get the status of an action, checking it together with the other actions of the same user@host waiting for a
+     * status check.
+     * <p>
+     * The first caller runs the check for all waiting actions in one ssh invocation. Callers arriving while a check is
+     * running wait for it to finish and then check together, so a status is never older than its request.
+     *
+     * @param host user@host the action runs on.
+     * @param pid process id of the action.
+     * @param errorFile remote file created if the action failed.
+     * @return status of the action, or null if it could not be determined by the batched check.
+     * @throws IOException thrown if the batched check could not be run.
+     * @throws InterruptedException thrown if interrupted while waiting for the batched check.
+     */
+    Status getBatchedStatus(String host, String pid, String errorFile) throws IOException, InterruptedException {
+        if (pid == null || !pid.matches("\\d+")) {
+            return null;
+        }
+        StatusBatch batch = statusBatches.get(host);
+        if (batch == null) {
+            synchronized (statusBatches) {
+                batch = statusBatches.get(host);
+                if (batch == null) {
+                    batch = new StatusBatch();
+                    statusBatches.put(host, batch);
+                }
+            }
+        }
+        StatusRequest request = new StatusRequest(pid, errorFile);
+        List<StatusRequest> requests;
+        synchronized (batch) {
+            batch.pending.add(request);
+            while (batch.running && !request.done) {
+                batch.wait();
+            }
+            if (request.done) {
+                return request.status;
+            }
+            batch.pending.remove(request);
+            int size = Math.min(batch.pending.size(), MAX_STATUS_BATCH - 1);
+            requests = new ArrayList<StatusRequest>(batch.pending.subList(0, size));
+            batch.pending.subList(0, size).clear();
+            requests.add(request);
+            batch.running = true;
+        }
+        try {
+            checkStatus(host, requests);
+        }
+        finally {
+            synchronized (batch) {
+                for (StatusRequest done : requests) {
+                    done.done = true;
+                }
+                batch.running = false;
+                batch.notifyAll();
+            }
+        }
+        return request.status;
+    }
+
+    /**
+     * Check the status of several actions on a user@host in one ssh invocation. Statuses not reported by the remote
+     * script are left unset.
+     */
+    private void checkStatus(String host, List<StatusRequest> requests) throws IOException {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < requests.size(); i++) {
+            StatusRequest request = requests.get(i);
+            script.append("if ps -p ").append(request.pid).append(" >/dev/null 2>&1; then echo ").append(i)
+                    .append(":RUNNING; elif ls '").append(request.errorFile.replace("'", "'\\''"))
+                    .append("' >/dev/null 2>&1; then echo ").append(i).append(":ERROR; else echo ").append(i)
+                    .append(":OK; fi; ");
+        }
+        List<String> command = new ArrayList<String>(Arrays.asList(getSshCommandBase().split("\\s")));
+        command.add(host);
+        command.add(script.toString());
+        statusBatchCount.incrementAndGet();
+        incrCounter("status.batches", 1);
+        incrCounter("status.checks", requests.size());
+        Process p = exec(host, command.toArray(new String[command.size()]));
+        StringBuffer inputBuffer = new StringBuffer();
+        int exitValue;
+        try {
+            exitValue = drainBuffers(p, inputBuffer, null, MAX_STATUS_BATCH * 16);
+        }
+        finally {
+            p.destroy();
+        }
+        if (exitValue != 0) {
+            XLog.getLog(getClass()).warn("Batched status check on [{0}] exited with [{1}]", host, exitValue);
+        }
+        for (String line : inputBuffer.toString().split("\n")) {
+            int index = line.indexOf(':');
+            if (index > 0) {
+                try {
+                    requests.get(Integer.parseInt(line.substring(0, index).trim())).status =
+                            Status.valueOf(line.substring(index + 1).trim());
+                }
+                catch (RuntimeException ex) {
+                    XLog.getLog(getClass()).debug("Ignoring status line [{0}] from [{1}]", line, host);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the ssh command prefix, including the connection multiplexing options if enabled.
+     *
+     * @return the ssh command prefix.
+     */
+    protected String getSshCommandBase() {
+        return SSH_COMMAND_BASE + multiplexOptions;
+    }
+
+    /**
+     * Return the scp command prefix, including the connection multiplexing options if enabled.
+     *
+     * @return the scp command prefix.
+     */
+    protected String getScpCommandBase() {
+        return SCP_COMMAND_BASE + multiplexOptions;
+    }
+
+    /**
+     * Fork a ssh or scp process, counting it and the ssh handshake it is expected to do.
+     * <p>
+     * With multiplexing, a handshake is only counted if the master connection to the user@host has been idle longer
+     * than its persist time.
+     */
+    private Process exec(String host, String[] command) throws IOException {
+        processCount.incrementAndGet();
+        incrCounter("processes", 1);
+        long now = System.currentTimeMillis();
+        Long lastUse = host == null ? null : lastConnectionUse.put(host, now);
+        if (controlPersist <= 0 || lastUse == null || now - lastUse > controlPersist * 1000L) {
+            handshakeCount.incrementAndGet();
+            incrCounter("handshakes", 1);
+        }
+        return startProcess(command);
+    }
+
+    /**
+     * Start a process for a command.
+     *
+     * @param command the command and its arguments.
+     * @return the started process.
+     * @throws IOException thrown if the process could not be started.
+     */
+    protected Process startProcess(String[] command) throws IOException {
+        return Runtime.getRuntime().exec(command);
+    }
+
+    private static void incrCounter(String name, long count) {
+        if (Services.get() != null) {
+            InstrumentationService instrumentationService = Services.get().get(InstrumentationService.class);
+            if (instrumentationService != null) {
+                instrumentationService.get().incr(INSTRUMENTATION_GROUP, name, count);
+            }
+        }
+    }
+
+    static long getProcessCount() {
+        return processCount.get();
+    }
+
+    static long getHandshakeCount() {
+        return handshakeCount.get();
+    }
+
+    static int getPendingStatusChecks(String host) {
+        StatusBatch batch = statusBatches.get(host);
+        if (batch == null) {
+            return 0;
+        }
+        synchronized (batch) {
+            return batch.pending.size();
+        }
+    }
+
+    static long getStatusBatchCount() {
+        return statusBatchCount.get();
+    }
+
     /**
      * Execute the callable.
      *
@@ -33,7 +33,7 @@ import org.json.simple.JSONObject;
  * Server-side implementation class of the client interface BulkResponse
  * Declares all the bulk request specific user parameters and handling as JSON object
  */
-public class BulkResponseImpl implements BulkResponse, JsonBean {
+public class BulkResponseImpl implements BulkResponse, StreamingJsonBean {
     private BundleJobBean bundle;
     private CoordinatorJobBean coordinator;
     private CoordinatorActionBean action;
@@ -73,15 +73,15 @@ public class BulkResponseImpl implements BulkResponse, JsonBean {
     /**
      * Construct JSON object using the bulk request object and the associated tags
      */
-    @SuppressWarnings("unchecked")
     public JSONObject toJSONObject(String timeZoneId) {
-        JSONObject json = new JSONObject();
-
-        json.put(JsonTags.BULK_RESPONSE_BUNDLE, bundle.toJSONObject());
-        json.put(JsonTags.BULK_RESPONSE_COORDINATOR, coordinator.toJSONObject());
-        json.put(JsonTags.BULK_RESPONSE_ACTION, action.toJSONObject());
+        return JsonFieldWriter.toJSONObject(this, timeZoneId);
+    }
 
-        return json;
+    @Override
+    public void writeJSONFields(JsonFieldWriter writer, String timeZoneId) {
+        writer.write(JsonTags.BULK_RESPONSE_BUNDLE, bundle, "GMT");
+        writer.write(JsonTags.BULK_RESPONSE_COORDINATOR, coordinator, "GMT");
+        writer.write(JsonTags.BULK_RESPONSE_ACTION, action, "GMT");
     }
 
     /* (non-Javadoc)
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client.rest;
+
+import java.util.List;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Receives the JSON fields of a {@link StreamingJsonBean}.
+ * <p>
+ * The same field list of a bean is used to build its JSONObject and to stream it with a {@link JsonStreamWriter}.
+ */
+public abstract class JsonFieldWriter {
+
+    /**
+     * Write a field with a JSON value: a string, number, boolean, <code>null</code> or json-simple value.
+     *
+     * @param name field name.
+     * @param value field value.
+     */
+    public abstract void write(String name, Object value);
+
+    /**
+     * Write a field holding a bean.
+     *
+     * @param name field name.
+     * @param bean field bean, written as <code>null</code> if <code>null</code>.
+     * @param timeZoneId the time zone to use for the bean.
+     */
+    public abstract void write(String name, JsonBean bean, String timeZoneId);
+
+    /**
+     * Write a field holding an array of beans.
+     *
+     * @param name field name.
+     * @param beans field beans, written as an empty array if <code>null</code>.
+     * @param timeZoneId the time zone to use for the beans.
+     */
+    public abstract void write(String name, List<? extends JsonBean> beans, String timeZoneId);
+
+    /**
+     * Build the JSONObject of a streaming bean.
+     *
+     * @param bean the bean.
+     * @param timeZoneId the time zone to use.
+     * @return the JSONObject for the bean.
+     */
+    public static JSONObject toJSONObject(StreamingJsonBean bean, String timeZoneId) {
+        JSONObjectWriter writer = new JSONObjectWriter();
+        bean.writeJSONFields(writer, timeZoneId);
+        return writer.json;
+    }
+
+    private static class JSONObjectWriter extends JsonFieldWriter {
+        private final JSONObject json = new JSONObject();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void write(String name, Object value) {
+            json.put(name, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void write(String name, JsonBean bean, String timeZoneId) {
+            json.put(name, (bean != null) ? bean.toJSONObject(timeZoneId) : null);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void write(String name, List<? extends JsonBean> beans, String timeZoneId) {
+            JSONArray array = new JSONArray();
+            if (beans != null) {
+                for (JsonBean bean : beans) {
+                    array.add(bean.toJSONObject(timeZoneId));
+                }
+            }
+            json.put(name, array);
+        }
+    }
+
+}
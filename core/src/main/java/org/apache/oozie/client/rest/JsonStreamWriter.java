@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client.rest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.simple.JSONValue;
+
+/**
+ * Writes JSON directly to a writer, without building a JSONObject tree.
+ * <p>
+ * {@link StreamingJsonBean} beans are written field by field, other beans are written from their JSONObject one at a
+ * time. If a set of fields is given, only those fields of the beans are written; the fields of the enclosing objects
+ * started with {@link #beginObject()} are always written.
+ */
+public class JsonStreamWriter extends JsonFieldWriter {
+    private final PrintWriter out;
+    private final Set<String> fields;
+    private final Deque<Boolean> firsts = new ArrayDeque<Boolean>();
+    private boolean first = true;
+    private int beanDepth;
+    private IOException error;
+
+    /**
+     * Create a JSON stream writer.
+     *
+     * @param out the writer to write to.
+     * @param fields fields of the beans to write, <code>null</code> to write all of them.
+     */
+    public JsonStreamWriter(Writer out, Set<String> fields) {
+        this.out = (out instanceof PrintWriter) ? (PrintWriter) out : new PrintWriter(out);
+        this.fields = fields;
+    }
+
+    /**
+     * Parse a comma separated list of fields.
+     *
+     * @param fields the fields, may be <code>null</code>.
+     * @return the set of fields, <code>null</code> if no field is given.
+     */
+    public static Set<String> parseFields(String fields) {
+        if (fields == null || fields.trim().length() == 0) {
+            return null;
+        }
+        Set<String> set = new HashSet<String>();
+        for (String field : Arrays.asList(fields.split(","))) {
+            if (field.trim().length() > 0) {
+                set.add(field.trim());
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Start an object whose fields are not filtered.
+     */
+    public void beginObject() {
+        separate();
+        begin('{');
+    }
+
+    /**
+     * End an object started with {@link #beginObject()}.
+     */
+    public void endObject() {
+        end('}');
+    }
+
+    /**
+     * Start a bean object, its fields are filtered.
+     */
+    public void beginBean() {
+        beginObject();
+        beanDepth++;
+    }
+
+    /**
+     * End a bean object started with {@link #beginBean()}.
+     */
+    public void endBean() {
+        beanDepth--;
+        endObject();
+    }
+
+    /**
+     * Start an array field of the current object.
+     *
+     * @param name field name.
+     * @return <code>false</code> if the field is filtered out, then the array must not be written nor ended.
+     */
+    public boolean beginArray(String name) {
+        if (!writeKey(name)) {
+            return false;
+        }
+        begin('[');
+        return true;
+    }
+
+    /**
+     * End an array started with {@link #beginArray(String)}.
+     */
+    public void endArray() {
+        end(']');
+    }
+
+    /**
+     * Write a bean as an object, or as an element if in an array.
+     *
+     * @param bean the bean.
+     * @param timeZoneId the time zone to use.
+     */
+    public void writeBean(JsonBean bean, String timeZoneId) {
+        if (bean == null) {
+            separate();
+            out.write("null");
+            return;
+        }
+        beginBean();
+        if (bean instanceof StreamingJsonBean) {
+            ((StreamingJsonBean) bean).writeJSONFields(this, timeZoneId);
+        }
+        else {
+            for (Object entry : bean.toJSONObject(timeZoneId).entrySet()) {
+                write(String.valueOf(((Map.Entry<?, ?>) entry).getKey()), ((Map.Entry<?, ?>) entry).getValue());
+            }
+        }
+        endBean();
+    }
+
+    @Override
+    public void write(String name, Object value) {
+        if (writeKey(name)) {
+            try {
+                JSONValue.writeJSONString(value, out);
+            }
+            catch (IOException ex) {
+                error = ex;
+            }
+        }
+    }
+
+    @Override
+    public void write(String name, JsonBean bean, String timeZoneId) {
+        if (writeKey(name)) {
+            first = true;
+            writeBean(bean, timeZoneId);
+            first = false;
+        }
+    }
+
+    @Override
+    public void write(String name, List<? extends JsonBean> beans, String timeZoneId) {
+        if (beginArray(name)) {
+            if (beans != null) {
+                for (JsonBean bean : beans) {
+                    writeBean(bean, timeZoneId);
+                }
+            }
+            endArray();
+        }
+    }
+
+    /**
+     * Flush the writer.
+     *
+     * @throws IOException thrown if the JSON could not be written.
+     */
+    public void flush() throws IOException {
+        out.flush();
+        if (error != null) {
+            throw error;
+        }
+        if (out.checkError()) {
+            throw new IOException("JSON stream could not be written");
+        }
+    }
+
+    private boolean writeKey(String name) {
+        if (beanDepth > 0 && fields != null && !fields.contains(name)) {
+            return false;
+        }
+        separate();
+        out.write('"');
+        out.write(JSONValue.escape(name));
+        out.write("\":");
+        return true;
+    }
+
+    private void separate() {
+        if (!first) {
+            out.write(',');
+        }
+        first = false;
+    }
+
+    private void begin(char c) {
+        out.write(c);
+        firsts.push(first);
+        first = true;
+    }
+
+    private void end(char c) {
+        out.write(c);
+        first = firsts.pop();
+    }
+
+}
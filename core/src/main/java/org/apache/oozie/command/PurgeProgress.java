@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.command;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the purge: the checkpoint of each purge phase, to resume an interrupted purge, and the deletion rate and
+ * backlog of the current or last purge run.
+ * <p>
+ * A phase walks the purgeable jobs in id order; its checkpoint is the id of the last job it processed, and it is
+ * cleared when the phase reaches the end, so the next run starts the phase from the beginning again.
+ */
+public class PurgeProgress {
+
+    /**
+     * Purge phases, in the order they run.
+     */
+    public enum Phase {
+        WORKFLOWS, COORD_ACTIONS, COORDINATORS, BUNDLES
+    }
+
+    private final ConcurrentMap<Phase, String> checkpoints = new ConcurrentHashMap<Phase, String>();
+    private final AtomicLong totalDeleted = new AtomicLong();
+    private final AtomicLong runDeleted = new AtomicLong();
+    private final AtomicLong backlog = new AtomicLong();
+    private volatile long runStart;
+    private volatile long runEnd;
+
+    /**
+     * Return the checkpoint of a phase.
+     *
+     * @param phase purge phase.
+     * @return the id of the last job processed by the phase, an empty string if the phase starts from the beginning.
+     */
+    public String getCheckpoint(Phase phase) {
+        String checkpoint = checkpoints.get(phase);
+        return (checkpoint != null) ? checkpoint : "";
+    }
+
+    /**
+     * Set the checkpoint of a phase.
+     *
+     * @param phase purge phase.
+     * @param id id of the last job processed by the phase, <code>null</code> to start the phase from the beginning.
+     */
+    public void setCheckpoint(Phase phase, String id) {
+        if (id == null) {
+            checkpoints.remove(phase);
+        }
+        else {
+            checkpoints.put(phase, id);
+        }
+    }
+
+    void startRun() {
+        runStart = System.currentTimeMillis();
+        runEnd = 0;
+        runDeleted.set(0);
+        backlog.set(0);
+    }
+
+    void endRun() {
+        runEnd = System.currentTimeMillis();
+    }
+
+    void addBacklog(long jobs) {
+        backlog.addAndGet(jobs);
+    }
+
+    void processed(long jobs) {
+        long remaining = backlog.addAndGet(-jobs);
+        if (remaining < 0) {
+            // jobs that became purgeable during the run
+            backlog.compareAndSet(remaining, 0);
+        }
+    }
+
+    void deleted(long rows) {
+        runDeleted.addAndGet(rows);
+        totalDeleted.addAndGet(rows);
+    }
+
+    /**
+     * Return the number of purgeable jobs the current or last run has not processed yet.
+     *
+     * @return the purge backlog.
+     */
+    public long getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * Return the number of jobs and coordinator actions deleted since the server started.
+     *
+     * @return the number of deleted jobs and coordinator actions.
+     */
+    public long getTotalDeleted() {
+        return totalDeleted.get();
+    }
+
+    /**
+     * Return the number of jobs and coordinator actions deleted by the current or last run.
+     *
+     * @return the number of deleted jobs and coordinator actions.
+     */
+    public long getRunDeleted() {
+        return runDeleted.get();
+    }
+
+    /**
+     * Return the deletion rate of the current or last run.
+     *
+     * @return the jobs and coordinator actions deleted per second.
+     */
+    public long getDeleteRate() {
+        if (runStart == 0) {
+            return 0;
+        }
+        long end = (runEnd != 0) ? runEnd : System.currentTimeMillis();
+        return runDeleted.get() * 1000 / Math.max(1, end - runStart);
+    }
+}
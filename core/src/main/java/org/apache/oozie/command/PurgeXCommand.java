@@ -20,7 +20,7 @@ package org.apache.oozie.command;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowJobBean;
-import org.apache.oozie.XException;
+import org.apache.oozie.command.PurgeProgress.Phase;
 import org.apache.oozie.executor.jpa.BundleJobsDeleteJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobsGetForPurgeJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordActionsDeleteJPAExecutor;
@@ -29,14 +29,19 @@ import org.apache.oozie.executor.jpa.CoordJobsCountNotForPurgeFromParentIdJPAExe
 import org.apache.oozie.executor.jpa.CoordJobsDeleteJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobsGetForPurgeJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobsGetFromParentIdJPAExecutor;
+import org.apache.oozie.executor.jpa.JPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.JobsCountForPurgeJPAExecutor;
+import org.apache.oozie.executor.jpa.JobsCountForPurgeJPAExecutor.Candidates;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
 import org.apache.oozie.executor.jpa.WorkflowJobsBasicInfoFromCoordParentIdJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobsBasicInfoFromWorkflowParentIdJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobsDeleteJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobsGetForPurgeJPAExecutor;
+import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.PurgeService;
 import org.apache.oozie.service.Services;
 import org.eclipse.jgit.util.StringUtils;
 
@@ -49,6 +54,11 @@ import java.util.List;
  * This class is used to purge workflows, coordinators, and bundles.  It takes into account the relationships between workflows and
  * coordinators, and coordinators and bundles.  It also only acts on 'limit' number of items at a time to not overtax the DB and in
  * case something gets rolled back.  Also, children are always deleted before their parents in case of a rollback.
+ * <p>
+ * The purgeable jobs are streamed in id order, 'limit' jobs at a time, and each chunk is purged with its children before the
+ * next one is loaded.  The id of the last job of a chunk is kept as a checkpoint in the {@link PurgeProgress}, a purge that
+ * stops half way resumes from there.  When a delete takes longer than the throttle latency, the purge waits as long before the
+ * next delete to leave room to the other database users.
  */
 public class PurgeXCommand extends XCommand<Void> {
     private JPAService jpaService = null;
@@ -57,10 +67,8 @@ public class PurgeXCommand extends XCommand<Void> {
     private int bundleOlderThan;
     private boolean purgeOldCoordAction = false;
     private final int limit;
-    private List<String> wfList;
-    private List<String> coordActionList;
-    private List<String> coordList;
-    private List<String> bundleList;
+    private final PurgeProgress progress;
+    private long throttleLatency;
     private int wfDel;
     private int coordDel;
     private int coordActionDel;
@@ -72,16 +80,18 @@ public class PurgeXCommand extends XCommand<Void> {
     }
 
     public PurgeXCommand(int wfOlderThan, int coordOlderThan, int bundleOlderThan, int limit, boolean purgeOldCoordAction) {
+        this(wfOlderThan, coordOlderThan, bundleOlderThan, limit, purgeOldCoordAction, new PurgeProgress());
+    }
+
+    public PurgeXCommand(int wfOlderThan, int coordOlderThan, int bundleOlderThan, int limit, boolean purgeOldCoordAction,
+            PurgeProgress progress) {
         super("purge", "purge", 0);
         this.wfOlderThan = wfOlderThan;
         this.coordOlderThan = coordOlderThan;
         this.bundleOlderThan = bundleOlderThan;
         this.purgeOldCoordAction = purgeOldCoordAction;
         this.limit = limit;
-        wfList = new ArrayList<String>();
-        coordActionList = new ArrayList<String>();
-        coordList = new ArrayList<String>();
-        bundleList = new ArrayList<String>();
+        this.progress = progress;
         wfDel = 0;
         coordDel = 0;
         bundleDel = 0;
@@ -92,48 +102,11 @@ public class PurgeXCommand extends XCommand<Void> {
      */
     @Override
     protected void loadState() throws CommandException {
-        try {
-            jpaService = Services.get().get(JPAService.class);
-
-            if (jpaService != null) {
-                // Get the lists of workflows, coordinators, and bundles that can be purged (and have no parents)
-                int size;
-                do {
-                    size = wfList.size();
-                    wfList.addAll(jpaService.execute(new WorkflowJobsGetForPurgeJPAExecutor(wfOlderThan, wfList.size(), limit)));
-                } while(size != wfList.size());
-                if (purgeOldCoordAction) {
-                    LOG.debug("Purging workflows of long running coordinators is turned on");
-                    do {
-                        size = coordActionList.size();
-                        long olderThan = wfOlderThan;
-                        List<WorkflowJobBean> jobBeans = WorkflowJobQueryExecutor.getInstance().getList(
-                                WorkflowJobQuery.GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN, olderThan,
-                                coordActionList.size(), limit);
-                        for (WorkflowJobBean bean : jobBeans) {
-                            coordActionList.add(bean.getParentId());
-                            wfList.add(bean.getId());
-                        }
-                    } while(size != coordActionList.size());
-                }
-                do {
-                    size = coordList.size();
-                    coordList.addAll(jpaService.execute(
-                            new CoordJobsGetForPurgeJPAExecutor(coordOlderThan, coordList.size(), limit)));
-                } while(size != coordList.size());
-                do {
-                    size = bundleList.size();
-                    bundleList.addAll(jpaService.execute(
-                            new BundleJobsGetForPurgeJPAExecutor(bundleOlderThan, bundleList.size(), limit)));
-                } while(size != bundleList.size());
-            }
-            else {
-                throw new CommandException(ErrorCode.E0610);
-            }
-        }
-        catch (XException ex) {
-            throw new CommandException(ex);
+        jpaService = Services.get().get(JPAService.class);
+        if (jpaService == null) {
+            throw new CommandException(ErrorCode.E0610);
         }
+        throttleLatency = ConfigurationService.getLong(PurgeService.PURGE_THROTTLE_LATENCY);
     }
 
     /* (non-Javadoc)
@@ -143,49 +116,137 @@ public class PurgeXCommand extends XCommand<Void> {
     protected Void execute() throws CommandException {
         LOG.info("STARTED Purge to purge Workflow Jobs older than [{0}] days, Coordinator Jobs older than [{1}] days, and Bundle"
                 + "jobs older than [{2}] days.", wfOlderThan, coordOlderThan, bundleOlderThan);
-
-        // Process parentless workflows to purge them and their children
-        if (!wfList.isEmpty()) {
-            try {
-                processWorkflows(wfList);
-            }
-            catch (JPAExecutorException je) {
-                throw new CommandException(je);
+        progress.startRun();
+        try {
+            countBacklog();
+            // Process parentless workflows to purge them and their children
+            purgeWorkflowsPhase();
+            // Process coordinator actions of long running coordinators and purge them
+            if (purgeOldCoordAction) {
+                LOG.debug("Purging workflows of long running coordinators is turned on");
+                purgeCoordActionsPhase();
             }
+            // Processs parentless coordinators to purge them and their children
+            purgeCoordinatorsPhase();
+            // Process bundles to purge them and their children
+            purgeBundlesPhase();
+        }
+        catch (JPAExecutorException je) {
+            throw new CommandException(je);
+        }
+        finally {
+            progress.endRun();
         }
 
-        // Process coordinator actions of long running coordinators and purge them
-        if (!coordActionList.isEmpty()) {
-            try {
-                purgeCoordActions(coordActionList);
-            }
-            catch (JPAExecutorException je) {
-                throw new CommandException(je);
-            }
+        LOG.info("ENDED Purge deleted [{0}] workflows, [{1}] coordinatorActions, [{2}] coordinators, [{3}] bundles",
+                wfDel, coordActionDel, coordDel, bundleDel);
+        return null;
+    }
+
+    /**
+     * Count the purgeable jobs not processed yet, from the checkpoint of each phase.
+     *
+     * @throws JPAExecutorException If a JPA executor has a problem
+     */
+    private void countBacklog() throws JPAExecutorException {
+        progress.addBacklog(jpaService.execute(new JobsCountForPurgeJPAExecutor(Candidates.WORKFLOWS, wfOlderThan,
+                progress.getCheckpoint(Phase.WORKFLOWS))));
+        if (purgeOldCoordAction) {
+            progress.addBacklog(jpaService.execute(new JobsCountForPurgeJPAExecutor(Candidates.COORD_WORKFLOWS,
+                    wfOlderThan, progress.getCheckpoint(Phase.COORD_ACTIONS))));
         }
-        // Processs parentless coordinators to purge them and their children
-        if (!coordList.isEmpty()) {
-            try {
-                processCoordinators(coordList);
-            }
-            catch (JPAExecutorException je) {
-                throw new CommandException(je);
+        progress.addBacklog(jpaService.execute(new JobsCountForPurgeJPAExecutor(Candidates.COORDINATORS, coordOlderThan,
+                progress.getCheckpoint(Phase.COORDINATORS))));
+        progress.addBacklog(jpaService.execute(new JobsCountForPurgeJPAExecutor(Candidates.BUNDLES, bundleOlderThan,
+                progress.getCheckpoint(Phase.BUNDLES))));
+    }
+
+    private void purgeWorkflowsPhase() throws JPAExecutorException {
+        List<String> wfs;
+        do {
+            wfs = jpaService.execute(new WorkflowJobsGetForPurgeJPAExecutor(wfOlderThan,
+                    progress.getCheckpoint(Phase.WORKFLOWS), limit));
+            processWorkflows(new ArrayList<String>(wfs));
+            checkpoint(Phase.WORKFLOWS, wfs);
+        } while (wfs.size() == limit);
+        progress.setCheckpoint(Phase.WORKFLOWS, null);
+    }
+
+    private void purgeCoordActionsPhase() throws JPAExecutorException {
+        List<WorkflowJobBean> jobBeans;
+        do {
+            jobBeans = WorkflowJobQueryExecutor.getInstance().getList(
+                    WorkflowJobQuery.GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN_AFTER_ID, (long) wfOlderThan,
+                    progress.getCheckpoint(Phase.COORD_ACTIONS), limit);
+            List<String> wfs = new ArrayList<String>();
+            List<String> coordActions = new ArrayList<String>();
+            for (WorkflowJobBean bean : jobBeans) {
+                coordActions.add(bean.getParentId());
+                wfs.add(bean.getId());
             }
+            processWorkflows(wfs);
+            purgeCoordActions(coordActions);
+            checkpoint(Phase.COORD_ACTIONS, wfs);
+        } while (jobBeans.size() == limit);
+        progress.setCheckpoint(Phase.COORD_ACTIONS, null);
+    }
+
+    private void purgeCoordinatorsPhase() throws JPAExecutorException {
+        List<String> coords;
+        do {
+            coords = jpaService.execute(new CoordJobsGetForPurgeJPAExecutor(coordOlderThan,
+                    progress.getCheckpoint(Phase.COORDINATORS), limit));
+            processCoordinators(coords);
+            checkpoint(Phase.COORDINATORS, coords);
+        } while (coords.size() == limit);
+        progress.setCheckpoint(Phase.COORDINATORS, null);
+    }
+
+    private void purgeBundlesPhase() throws JPAExecutorException {
+        List<String> bundles;
+        do {
+            bundles = jpaService.execute(new BundleJobsGetForPurgeJPAExecutor(bundleOlderThan,
+                    progress.getCheckpoint(Phase.BUNDLES), limit));
+            processBundles(bundles);
+            checkpoint(Phase.BUNDLES, bundles);
+        } while (bundles.size() == limit);
+        progress.setCheckpoint(Phase.BUNDLES, null);
+    }
+
+    /**
+     * Move the checkpoint of a phase after a chunk of jobs, once they and their children have been purged.
+     *
+     * @param phase purge phase
+     * @param ids ids of the chunk, in id order
+     */
+    private void checkpoint(Phase phase, List<String> ids) {
+        if (!ids.isEmpty()) {
+            progress.setCheckpoint(phase, ids.get(ids.size() - 1));
+            progress.processed(ids.size());
         }
+    }
 
-        // Process bundles to purge them and their children
-        if (!bundleList.isEmpty()) {
+    /**
+     * Run a delete, then wait if the database was slow to leave room to its other users.
+     *
+     * @param executor delete executor
+     * @param count number of jobs or coordinator actions deleted
+     * @throws JPAExecutorException If a JPA executor has a problem
+     */
+    private void delete(JPAExecutor<Integer> executor, int count) throws JPAExecutorException {
+        long start = System.currentTimeMillis();
+        jpaService.execute(executor);
+        long latency = System.currentTimeMillis() - start;
+        progress.deleted(count);
+        if (throttleLatency > 0 && latency > throttleLatency) {
+            LOG.debug("Purge delete took [{0}] ms, waiting as long before the next one", latency);
             try {
-                processBundles(bundleList);
+                Thread.sleep(latency);
             }
-            catch (JPAExecutorException je) {
-                throw new CommandException(je);
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
             }
         }
-
-        LOG.info("ENDED Purge deleted [{0}] workflows, [{1}] coordinatorActions, [{2}] coordinators, [{3}] bundles",
-                wfDel, coordActionDel, coordDel, bundleDel);
-        return null;
     }
 
     /**
@@ -347,7 +408,7 @@ public class PurgeXCommand extends XCommand<Void> {
             int endIndex = (startIndex + limit < wfs.size()) ? (startIndex + limit) : wfs.size();
             List<String> wfsForDelete = wfs.subList(startIndex, endIndex);
             LOG.debug("Deleting workflows: " + StringUtils.join(wfsForDelete, ","));
-            jpaService.execute(new WorkflowJobsDeleteJPAExecutor(wfsForDelete));
+            delete(new WorkflowJobsDeleteJPAExecutor(wfsForDelete), wfsForDelete.size());
             startIndex = endIndex;
         }
     }
@@ -359,12 +420,12 @@ public class PurgeXCommand extends XCommand<Void> {
      * @throws JPAExecutorException If a JPA executor has a problem
      */
     private void purgeCoordActions(List<String> coordActions) throws JPAExecutorException {
-        coordActionDel = coordActions.size();
+        coordActionDel += coordActions.size();
         for (int startIndex = 0; startIndex < coordActions.size(); ) {
             int endIndex = (startIndex + limit < coordActions.size()) ? (startIndex + limit) : coordActions.size();
             List<String> coordActionsForDelete = coordActions.subList(startIndex, endIndex);
             LOG.debug("Deleting coordinator actions: " + StringUtils.join(coordActionsForDelete, ","));
-            jpaService.execute(new CoordActionsDeleteJPAExecutor(coordActionsForDelete));
+            delete(new CoordActionsDeleteJPAExecutor(coordActionsForDelete), coordActionsForDelete.size());
             startIndex = endIndex;
         }
     }
@@ -380,7 +441,7 @@ public class PurgeXCommand extends XCommand<Void> {
             int endIndex = (startIndex + limit < coords.size()) ? (startIndex + limit) : coords.size();
             List<String> coordsForDelete = coords.subList(startIndex, endIndex);
             LOG.debug("Deleting coordinators: " + StringUtils.join(coordsForDelete, ","));
-            jpaService.execute(new CoordJobsDeleteJPAExecutor(coordsForDelete));
+            delete(new CoordJobsDeleteJPAExecutor(coordsForDelete), coordsForDelete.size());
             startIndex = endIndex;
         }
     }
@@ -397,7 +458,7 @@ public class PurgeXCommand extends XCommand<Void> {
             int endIndex = (startIndex + limit < bundles.size()) ? (startIndex + limit) : bundles.size();
             Collection<String> bundlesForDelete = bundles.subList(startIndex, endIndex);
             LOG.debug("Deleting bundles: " + StringUtils.join(bundlesForDelete, ","));
-            jpaService.execute(new BundleJobsDeleteJPAExecutor(bundlesForDelete));
+            delete(new BundleJobsDeleteJPAExecutor(bundlesForDelete), bundlesForDelete.size());
             startIndex = endIndex;
         }
     }
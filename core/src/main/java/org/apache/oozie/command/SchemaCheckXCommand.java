@@ -45,11 +45,14 @@ import javax.persistence.Id;
 import javax.persistence.Lob;
 import javax.persistence.Table;
 import java.lang.reflect.Field;
+import java.text.SimpleDateFormat;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Arrays;
@@ -61,6 +64,32 @@ import java.util.Map;
 import java.util.Set;
 
 public class SchemaCheckXCommand extends XCommand<Void> {
+    /**
+     * Name of the OOZIE_SYS entry holding the partition layout of the historical job tables, set by the ooziedb tool.
+     */
+    public static final String OOZIE_SYS_PARTITIONS = "db.partitions";
+    /**
+     * Layout where the historical job tables are partitioned by the database, by month of creation.
+     */
+    public static final String PARTITIONS_NATIVE = "native";
+    /**
+     * Layout where the database does not partition the historical job tables, months are deleted by creation time range.
+     */
+    public static final String PARTITIONS_LOGICAL = "logical";
+    /**
+     * Column the historical job tables are partitioned by.
+     */
+    public static final String PARTITION_COLUMN = "created_time";
+    /**
+     * Historical job tables of the partition layout.
+     */
+    public static final String[] PARTITIONED_TABLES = {"WF_JOBS", "WF_ACTIONS", "COORD_ACTIONS", "SLA_SUMMARY"};
+
+    private static final String GET_PARTITIONS_LAYOUT = "select data from OOZIE_SYS where name = '" + OOZIE_SYS_PARTITIONS + "'";
+    private static final String GET_MYSQL_PARTITIONS = "select partition_description from information_schema.PARTITIONS "
+            + "where table_schema = database() and table_name = ? and partition_name is not null";
+    private static final String GET_ORACLE_PARTITIONED_TABLE = "select count(*) from USER_PART_TABLES where table_name = ?";
+
     private XLog LOG = XLog.getLog(SchemaCheckXCommand.class);
 
     private String dbType;
@@ -103,13 +132,25 @@ public class SchemaCheckXCommand extends XCommand<Void> {
             boolean tableProblem = checkTables(metaData, catalog, tableClasses.keySet());
             problem = problem | tableProblem;
             if (!tableProblem) {
+                Set<String> partitionedTables = getNativelyPartitionedTables(conn);
                 for (Map.Entry<String, Class<? extends JsonBean>> table : tableClasses.entrySet()) {
                         TableInfo ti = new TableInfo(table.getValue(), dbType);
                         boolean columnProblem = checkColumns(metaData, catalog, table.getKey(), ti.columnTypes);
                         problem = problem | columnProblem;
                         if (!columnProblem) {
-                            boolean primaryKeyProblem = checkPrimaryKey(metaData, catalog, table.getKey(), ti.primaryKeyColumn);
+                            boolean partitioned = partitionedTables.contains(table.getKey());
+                            Set<String> primaryKeyColumns = new HashSet<String>();
+                            primaryKeyColumns.add(ti.primaryKeyColumn);
+                            // MySQL wants the partition column in the primary key of a partitioned table
+                            if (partitioned && dbType.equals("mysql")) {
+                                primaryKeyColumns.add(TableInfo.caseColumnName(PARTITION_COLUMN, dbType));
+                                ti.indexedColumns.add(TableInfo.caseColumnName(PARTITION_COLUMN, dbType));
+                            }
+                            boolean primaryKeyProblem = checkPrimaryKey(metaData, catalog, table.getKey(), primaryKeyColumns);
                             problem = problem | primaryKeyProblem;
+                            if (partitioned) {
+                                problem = problem | checkPartitions(conn, table.getKey());
+                            }
                             boolean indexProblem = checkIndexes(metaData, catalog, table.getKey(), ti.indexedColumns);
                             problem = problem | indexProblem;
                         }
@@ -223,22 +264,111 @@ public class SchemaCheckXCommand extends XCommand<Void> {
         return problem;
     }
 
-    private boolean checkPrimaryKey(DatabaseMetaData metaData, String catalog, String table, String expectedPrimaryKeyColumn)
-            throws SQLException {
+    private boolean checkPrimaryKey(DatabaseMetaData metaData, String catalog, String table,
+                                    Set<String> expectedPrimaryKeyColumns) throws SQLException {
         boolean problem = false;
         ResultSet rs = metaData.getPrimaryKeys(catalog, null, table);
-        if (!rs.next()) {
-            LOG.error("Expected column [{0}] to be the primary key in table [{1}], but none were found",
-                    expectedPrimaryKeyColumn, table);
+        Set<String> foundPrimaryKeyColumns = new HashSet<String>();
+        while (rs.next()) {
+            foundPrimaryKeyColumns.add(rs.getString("COLUMN_NAME"));
+        }
+        if (foundPrimaryKeyColumns.isEmpty()) {
+            LOG.error("Expected column {0} to be the primary key in table [{1}], but none were found",
+                    expectedPrimaryKeyColumns, table);
+            problem = true;
+        } else if (!foundPrimaryKeyColumns.equals(expectedPrimaryKeyColumns)) {
+            LOG.error("Expected column {0} to be the primary key in table [{1}], but found column {2} instead",
+                    expectedPrimaryKeyColumns, table, foundPrimaryKeyColumns);
             problem = true;
         } else {
-            String foundPrimaryKeyColumn = rs.getString("COLUMN_NAME");
-            if (!foundPrimaryKeyColumn.equals(expectedPrimaryKeyColumn)) {
-                LOG.error("Expected column [{0}] to be the primary key in table [{1}], but found column [{2}] instead",
-                        expectedPrimaryKeyColumn, table, foundPrimaryKeyColumn);
-                problem = true;
-            } else {
-                LOG.debug("Found column [{0}] to be the primary key in table [{1}]", expectedPrimaryKeyColumn, table);
+            LOG.debug("Found column {0} to be the primary key in table [{1}]", expectedPrimaryKeyColumns, table);
+        }
+        return problem;
+    }
+
+    /**
+     * Return the historical job tables the database partitions, according to the layout recorded in OOZIE_SYS.
+     *
+     * @param conn database connection
+     * @return the partitioned tables, empty if the database does not partition them
+     */
+    private Set<String> getNativelyPartitionedTables(Connection conn) {
+        Set<String> tables = new HashSet<String>();
+        try {
+            Statement st = conn.createStatement();
+            try {
+                ResultSet rs = st.executeQuery(GET_PARTITIONS_LAYOUT);
+                if (rs.next() && PARTITIONS_NATIVE.equals(rs.getString(1))) {
+                    for (String table : PARTITIONED_TABLES) {
+                        tables.add(caseTableName(table));
+                    }
+                }
+            }
+            finally {
+                st.close();
+            }
+        }
+        catch (SQLException ex) {
+            LOG.debug("Could not read the partition layout, assuming no partitions: " + ex.getMessage());
+        }
+        return tables;
+    }
+
+    /**
+     * Check a table is partitioned by month and, for MySQL where the monthly partitions are created ahead of time, that the
+     * current month has its own partition instead of filling the catch-all one.
+     *
+     * @param conn database connection
+     * @param table table name
+     * @return <code>true</code> if there is a problem
+     * @throws SQLException thrown if the partitions could not be read
+     */
+    private boolean checkPartitions(Connection conn, String table) throws SQLException {
+        boolean problem = false;
+        if (dbType.equals("mysql")) {
+            PreparedStatement ps = conn.prepareStatement(GET_MYSQL_PARTITIONS);
+            try {
+                ps.setString(1, table);
+                ResultSet rs = ps.executeQuery();
+                String lastBound = null;
+                int count = 0;
+                while (rs.next()) {
+                    count++;
+                    String bound = rs.getString(1).replace("'", "");
+                    if (!bound.equals("MAXVALUE") && (lastBound == null || bound.compareTo(lastBound) > 0)) {
+                        lastBound = bound;
+                    }
+                }
+                String now = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+                if (count == 0) {
+                    LOG.error("Expected table [{0}] to be partitioned by [{1}], but found no partitions", table,
+                            PARTITION_COLUMN);
+                    problem = true;
+                } else if (lastBound == null || lastBound.compareTo(now) <= 0) {
+                    LOG.error("Table [{0}] has no partition for the current month, new rows go to the catch-all partition;"
+                            + " run 'ooziedb.sh partition' to add the coming months", table);
+                    problem = true;
+                } else {
+                    LOG.debug("Found [{0}] partitions in table [{1}] up to [{2}]", count, table, lastBound);
+                }
+            }
+            finally {
+                ps.close();
+            }
+        } else if (dbType.equals("oracle")) {
+            PreparedStatement ps = conn.prepareStatement(GET_ORACLE_PARTITIONED_TABLE);
+            try {
+                ps.setString(1, table);
+                ResultSet rs = ps.executeQuery();
+                if (!rs.next() || rs.getInt(1) == 0) {
+                    LOG.error("Expected table [{0}] to be partitioned by [{1}], but it is not", table, PARTITION_COLUMN);
+                    problem = true;
+                } else {
+                    LOG.debug("Found table [{0}] to be partitioned", table);
+                }
+            }
+            finally {
+                ps.close();
             }
         }
         return problem;
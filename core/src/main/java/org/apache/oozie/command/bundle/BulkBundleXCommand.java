@@ -26,9 +26,11 @@ import org.apache.oozie.command.OperationType;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.XCommand;
 import org.apache.oozie.executor.jpa.BundleJobInfoGetJPAExecutor;
+import org.apache.oozie.service.BulkOperationService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,6 +40,8 @@ public class BulkBundleXCommand extends XCommand<BundleJobInfo> {
     private final int len;
     private BundleJobInfo bundleJobInfo;
     private OperationType operation;
+    private final boolean async;
+    private BulkOperationService.Operation bulkOperation;
 
     /**
      * The constructor for BulkBundleXCommand
@@ -48,11 +52,36 @@ public class BulkBundleXCommand extends XCommand<BundleJobInfo> {
      * @param operation the type of operation to perform, it can be kill, suspend or resume
      */
     public BulkBundleXCommand(Map<String, List<String>> filter, int start, int length, OperationType operation) {
+        this(filter, start, length, operation, false);
+    }
+
+    /**
+     * The constructor for BulkBundleXCommand
+     *
+     * @param filter the filter string
+     * @param start start location for paging
+     * @param length total length to get
+     * @param operation the type of operation to perform, it can be kill, suspend or resume
+     * @param async if <code>true</code> the command returns once the operation is started, without waiting for the
+     *        jobs to be modified
+     */
+    public BulkBundleXCommand(Map<String, List<String>> filter, int start, int length, OperationType operation,
+            boolean async) {
         super("bulkbundle" + operation, "bulkbundle" + operation, 1);
         this.filter = filter;
         this.start = start;
         this.len = length;
         this.operation = operation;
+        this.async = async;
+    }
+
+    /**
+     * Return the bulk operation modifying the jobs.
+     *
+     * @return the bulk operation, <code>null</code> before the command is executed
+     */
+    public BulkOperationService.Operation getBulkOperation() {
+        return bulkOperation;
     }
 
     /* (non-Javadoc)
@@ -92,6 +121,7 @@ public class BulkBundleXCommand extends XCommand<BundleJobInfo> {
     @Override
     protected BundleJobInfo execute() throws CommandException {
         List<BundleJobBean> jobs = this.bundleJobInfo.getBundleJobs();
+        Map<String, XCommand<?>> commands = new LinkedHashMap<String, XCommand<?>>();
         for (BundleJobBean job : jobs) {
             switch (operation) {
                 case Kill:
@@ -99,7 +129,7 @@ public class BulkBundleXCommand extends XCommand<BundleJobInfo> {
                             && job.getStatus() != Job.Status.FAILED
                             && job.getStatus() != Job.Status.DONEWITHERROR
                             && job.getStatus() != Job.Status.KILLED) {
-                        new BundleKillXCommand(job.getId()).call();
+                        commands.put(job.getId(), new BundleKillXCommand(job.getId()));
                     }
                     break;
                 case Suspend:
@@ -107,21 +137,25 @@ public class BulkBundleXCommand extends XCommand<BundleJobInfo> {
                             && job.getStatus() != Job.Status.FAILED
                             && job.getStatus() != Job.Status.KILLED
                             && job.getStatus() != Job.Status.DONEWITHERROR) {
-                        new BundleJobSuspendXCommand(job.getId()).call();
+                        commands.put(job.getId(), new BundleJobSuspendXCommand(job.getId()));
                     }
                     break;
                 case Resume:
                     if (job.getStatus() == Job.Status.SUSPENDED
                             || job.getStatus() == Job.Status.SUSPENDEDWITHERROR
                             || job.getStatus() == Job.Status.PREPSUSPENDED) {
-                        new BundleJobResumeXCommand(job.getId()).call();
+                        commands.put(job.getId(), new BundleJobResumeXCommand(job.getId()));
                     }
                     break;
                 default:
                     throw new CommandException(ErrorCode.E1102, operation);
             }
         }
-        loadBundleJobs();
+        bulkOperation = Services.get().get(BulkOperationService.class).submit(getName(), commands);
+        if (!async) {
+            bulkOperation.join();
+            loadBundleJobs();
+        }
         return this.bundleJobInfo;
     }
 
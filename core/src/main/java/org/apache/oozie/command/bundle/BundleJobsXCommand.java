@@ -30,6 +30,7 @@ import org.apache.oozie.command.XCommand;
 import org.apache.oozie.executor.jpa.BundleJobInfoGetJPAExecutor;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.JobsCursor;
 
 /**
  * The command to get a job info for a list of bundle jobs by given filters.
@@ -38,6 +39,8 @@ public class BundleJobsXCommand extends XCommand<BundleJobInfo> {
     private Map<String, List<String>> filter;
     private int start = 1;
     private int len = 50;
+    private JobsCursor cursor;
+    private boolean count = true;
 
     /**
      * The constructor for BundleJobsXCommand
@@ -53,6 +56,20 @@ public class BundleJobsXCommand extends XCommand<BundleJobInfo> {
         this.len = length;
     }
 
+    /**
+     * The constructor for BundleJobsXCommand, for keyset pagination
+     *
+     * @param filter the filter string
+     * @param cursor position in the listing the jobs are returned after
+     * @param length total length to get
+     * @param count whether to count the jobs matching the filter
+     */
+    public BundleJobsXCommand(Map<String, List<String>> filter, JobsCursor cursor, int length, boolean count) {
+        this(filter, 1, length);
+        this.cursor = cursor;
+        this.count = count;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.command.XCommand#isLockRequired()
      */
@@ -92,7 +109,10 @@ public class BundleJobsXCommand extends XCommand<BundleJobInfo> {
             JPAService jpaService = Services.get().get(JPAService.class);
             BundleJobInfo bundleInfo = null;
             if (jpaService != null) {
-                bundleInfo = jpaService.execute(new BundleJobInfoGetJPAExecutor(filter, start, len));
+                BundleJobInfoGetJPAExecutor executor = (cursor != null)
+                        ? new BundleJobInfoGetJPAExecutor(filter, cursor, len, count)
+                        : new BundleJobInfoGetJPAExecutor(filter, start, len);
+                bundleInfo = jpaService.execute(executor);
             }
             else {
                 LOG.error(ErrorCode.E0610);
@@ -27,9 +27,11 @@ import org.apache.oozie.command.OperationType;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.XCommand;
 import org.apache.oozie.executor.jpa.CoordJobInfoGetJPAExecutor;
+import org.apache.oozie.service.BulkOperationService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -39,6 +41,8 @@ public class BulkCoordXCommand extends XCommand<CoordinatorJobInfo> {
     private final int len;
     private CoordinatorJobInfo coordinatorJobInfo;
     private OperationType operation;
+    private final boolean async;
+    private BulkOperationService.Operation bulkOperation;
 
     /**
      * The constructor for BulkCoordXCommand
@@ -46,13 +50,39 @@ public class BulkCoordXCommand extends XCommand<CoordinatorJobInfo> {
      * @param filter the filter string
      * @param start start location for paging
      * @param length total length to get
+     * @param operation the type of operation to perform, it can be kill, suspend or resume
      */
     public BulkCoordXCommand(Map<String, List<String>> filter, int start, int length, OperationType operation) {
+        this(filter, start, length, operation, false);
+    }
+
+    /**
+     * The constructor for BulkCoordXCommand
+     *
+     * @param filter the filter string
+     * @param start start location for paging
+     * @param length total length to get
+     * @param operation the type of operation to perform, it can be kill, suspend or resume
+     * @param async if <code>true</code> the command returns once the operation is started, without waiting for the
+     *        jobs to be modified
+     */
+    public BulkCoordXCommand(Map<String, List<String>> filter, int start, int length, OperationType operation,
+            boolean async) {
         super("bulkcoord" + operation, "bulkcoord" + operation, 1);
         this.filter = filter;
         this.start = start;
         this.len = length;
         this.operation = operation;
+        this.async = async;
+    }
+
+    /**
+     * Return the bulk operation modifying the jobs.
+     *
+     * @return the bulk operation, <code>null</code> before the command is executed
+     */
+    public BulkOperationService.Operation getBulkOperation() {
+        return bulkOperation;
     }
 
     /* (non-Javadoc)
@@ -92,6 +122,7 @@ public class BulkCoordXCommand extends XCommand<CoordinatorJobInfo> {
     @Override
     protected CoordinatorJobInfo execute() throws CommandException {
         List<CoordinatorJobBean> jobs = this.coordinatorJobInfo.getCoordJobs();
+        Map<String, XCommand<?>> commands = new LinkedHashMap<String, XCommand<?>>();
         for (CoordinatorJobBean job : jobs) {
             switch (operation) {
                 case Kill:
@@ -100,7 +131,7 @@ public class BulkCoordXCommand extends XCommand<CoordinatorJobInfo> {
                             && job.getStatus() != CoordinatorJob.Status.DONEWITHERROR
                             && job.getStatus() != CoordinatorJob.Status.KILLED
                             && job.getStatus() != CoordinatorJob.Status.IGNORED) {
-                        new CoordKillXCommand(job.getId()).call();
+                        commands.put(job.getId(), new CoordKillXCommand(job.getId()));
                     }
                     break;
                 case Suspend:
@@ -108,21 +139,25 @@ public class BulkCoordXCommand extends XCommand<CoordinatorJobInfo> {
                             && job.getStatus() != CoordinatorJob.Status.FAILED
                             && job.getStatus() != CoordinatorJob.Status.KILLED
                             && job.getStatus() != CoordinatorJob.Status.IGNORED) {
-                        new CoordSuspendXCommand(job.getId()).call();
+                        commands.put(job.getId(), new CoordSuspendXCommand(job.getId()));
                     }
                     break;
                 case Resume:
                     if (job.getStatus() == CoordinatorJob.Status.SUSPENDED ||
                             job.getStatus() == CoordinatorJob.Status.SUSPENDEDWITHERROR ||
                             job.getStatus() == Job.Status.PREPSUSPENDED) {
-                        new CoordResumeXCommand(job.getId()).call();
+                        commands.put(job.getId(), new CoordResumeXCommand(job.getId()));
                     }
                     break;
                 default:
                     throw new CommandException(ErrorCode.E1102, operation);
             }
         }
-        loadJobs();
+        bulkOperation = Services.get().get(BulkOperationService.class).submit(getName(), commands);
+        if (!async) {
+            bulkOperation.join();
+            loadJobs();
+        }
         return this.coordinatorJobInfo;
     }
 
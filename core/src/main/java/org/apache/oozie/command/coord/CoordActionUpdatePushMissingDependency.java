@@ -18,10 +18,12 @@
 
 package org.apache.oozie.command.coord;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.coord.input.dependency.CoordInputDependency;
 import org.apache.oozie.dependency.DependencyChecker;
+import org.apache.oozie.service.FSDependencyManagerService;
 import org.apache.oozie.service.PartitionDependencyManagerService;
 import org.apache.oozie.service.Services;
 
@@ -42,8 +44,17 @@ public class CoordActionUpdatePushMissingDependency extends CoordPushDependencyC
         }
         else {
             PartitionDependencyManagerService pdms = Services.get().get(PartitionDependencyManagerService.class);
-            Collection<String> availDepList = pdms.getAvailableDependencyURIs(actionId);
-            if (availDepList == null || availDepList.size() == 0) {
+            FSDependencyManagerService fsdms = Services.get().get(FSDependencyManagerService.class);
+            Collection<String> partitionDepList = (pdms == null) ? null : pdms.getAvailableDependencyURIs(actionId);
+            Collection<String> fsDepList = (fsdms == null) ? null : fsdms.getAvailableDependencyURIs(actionId);
+            Collection<String> availDepList = new ArrayList<String>();
+            if (partitionDepList != null) {
+                availDepList.addAll(partitionDepList);
+            }
+            if (fsDepList != null) {
+                availDepList.addAll(fsDepList);
+            }
+            if (availDepList.size() == 0) {
                 LOG.info("There are no available dependencies");
                 if (isTimeout()) { // Poll and check as one last try
                     queue(new CoordPushDependencyCheckXCommand(coordAction.getId()), 100);
@@ -68,7 +79,12 @@ public class CoordActionUpdatePushMissingDependency extends CoordPushDependencyC
                     }
                 }
                 updateCoordAction(coordAction, isChangeInDependency);
-                removeAvailableDependencies(pdms, availDepList);
+                if (partitionDepList != null) {
+                    removeAvailableDependencies(pdms, partitionDepList);
+                }
+                if (fsDepList != null) {
+                    removeAvailableDependencies(fsdms, fsDepList);
+                }
                 LOG.info("ENDED for Action id [{0}]", actionId);
             }
         }
@@ -76,7 +92,15 @@ public class CoordActionUpdatePushMissingDependency extends CoordPushDependencyC
     }
 
     private void removeAvailableDependencies(PartitionDependencyManagerService pdms, Collection<String> availDepList) {
-        if (pdms.removeAvailableDependencyURIs(actionId, availDepList)) {
+        logAvailableDependenciesRemoval(pdms.removeAvailableDependencyURIs(actionId, availDepList), availDepList);
+    }
+
+    private void removeAvailableDependencies(FSDependencyManagerService fsdms, Collection<String> availDepList) {
+        logAvailableDependenciesRemoval(fsdms.removeAvailableDependencyURIs(actionId, availDepList), availDepList);
+    }
+
+    private void logAvailableDependenciesRemoval(boolean removed, Collection<String> availDepList) {
+        if (removed) {
             LOG.debug("Successfully removed uris [{0}] from available list", availDepList.toString());
         }
         else {
@@ -521,9 +521,33 @@ public class CoordCommandUtils {
      * @return one materialized action for specific nominal time
      * @throws Exception
      */
-    @SuppressWarnings("unchecked")
     public static String materializeOneInstance(String jobId, boolean dryrun, Element eAction, Date nominalTime,
             Date actualTime, int instanceCount, Configuration conf, CoordinatorActionBean actionBean) throws Exception {
+        return materializeOneInstance(jobId, dryrun, eAction, nominalTime, actualTime, instanceCount, conf,
+                XmlUtils.prettyPrint(conf).toString(), actionBean);
+    }
+
+    /**
+     * Materialize one instance for specific nominal time, see
+     * {@link #materializeOneInstance(String, boolean, Element, Date, Date, int, Configuration, CoordinatorActionBean)}.
+     * The serialized job configuration is passed in so that it is built only once when materializing many instances.
+     *
+     * @param jobId coordinator job id
+     * @param dryrun true if it is dryrun
+     * @param eAction frequency unexploded-job
+     * @param nominalTime materialization time
+     * @param actualTime action actual time
+     * @param instanceCount instance numbers
+     * @param conf job configuration
+     * @param confXml job configuration serialized as XML
+     * @param actionBean CoordinatorActionBean to materialize
+     * @return one materialized action for specific nominal time
+     * @throws Exception
+     */
+    @SuppressWarnings("unchecked")
+    public static String materializeOneInstance(String jobId, boolean dryrun, Element eAction, Date nominalTime,
+            Date actualTime, int instanceCount, Configuration conf, String confXml, CoordinatorActionBean actionBean)
+            throws Exception {
         String actionId = Services.get().get(UUIDService.class).generateChildId(jobId, instanceCount + "");
         SyncCoordAction appInst = new SyncCoordAction();
         appInst.setActionId(actionId);
@@ -563,8 +587,8 @@ public class CoordCommandUtils {
         eAction.setAttribute("action-actual-time", DateUtils.formatDateOozieTZ(actualTime));
 
         // Setting up action bean
-        actionBean.setCreatedConf(XmlUtils.prettyPrint(conf).toString());
-        actionBean.setRunConf(XmlUtils.prettyPrint(conf).toString());
+        actionBean.setCreatedConf(confXml);
+        actionBean.setRunConf(confXml);
         actionBean.setCreatedTime(actualTime);
         actionBean.setJobId(jobId);
         actionBean.setId(actionId);
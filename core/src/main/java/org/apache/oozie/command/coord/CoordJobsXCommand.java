@@ -29,6 +29,7 @@ import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.executor.jpa.CoordJobInfoGetJPAExecutor;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.JobsCursor;
 
 /**
  * The command to get a job info for a list of coordinator jobs by given filters.
@@ -37,6 +38,8 @@ public class CoordJobsXCommand extends CoordinatorXCommand<CoordinatorJobInfo> {
     private Map<String, List<String>> filter;
     private int start = 1;
     private int len = 50;
+    private JobsCursor cursor;
+    private boolean count = true;
 
     public CoordJobsXCommand(Map<String, List<String>> filter, int start, int length) {
         super("coord.job.info", "coord.job.info", 1);
@@ -45,6 +48,20 @@ public class CoordJobsXCommand extends CoordinatorXCommand<CoordinatorJobInfo> {
         this.len = length;
     }
 
+    /**
+     * Constructor for keyset pagination.
+     *
+     * @param filter the filter string
+     * @param cursor position in the listing the jobs are returned after
+     * @param length total length to get
+     * @param count whether to count the jobs matching the filter
+     */
+    public CoordJobsXCommand(Map<String, List<String>> filter, JobsCursor cursor, int length, boolean count) {
+        this(filter, 1, length);
+        this.cursor = cursor;
+        this.count = count;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.command.XCommand#isLockRequired()
      */
@@ -84,7 +101,10 @@ public class CoordJobsXCommand extends CoordinatorXCommand<CoordinatorJobInfo> {
             JPAService jpaService = Services.get().get(JPAService.class);
             CoordinatorJobInfo coordInfo = null;
             if (jpaService != null) {
-                coordInfo = jpaService.execute(new CoordJobInfoGetJPAExecutor(filter, start, len));
+                CoordJobInfoGetJPAExecutor executor = (cursor != null)
+                        ? new CoordJobInfoGetJPAExecutor(filter, cursor, len, count)
+                        : new CoordJobInfoGetJPAExecutor(filter, start, len);
+                coordInfo = jpaService.execute(executor);
             }
             else {
                 LOG.error(ErrorCode.E0610);
@@ -33,6 +33,7 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.MaterializeTransitionXCommand;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.bundle.BundleStatusUpdateXCommand;
+import org.apache.oozie.coord.CoordELEvaluator;
 import org.apache.oozie.coord.CoordUtils;
 import org.apache.oozie.coord.TimeUnit;
 import org.apache.oozie.coord.input.logic.CoordInputLogicEvaluatorUtil;
@@ -55,6 +56,7 @@ import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.StatusUtils;
 import org.apache.oozie.util.XConfiguration;
+import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.XmlUtils;
 import org.apache.oozie.util.db.SLADbOperations;
 import org.jdom.Element;
@@ -63,9 +65,15 @@ import org.jdom.JDOMException;
 import java.io.IOException;
 import java.io.StringReader;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Materialize actions for specified start and end time for coordinator job.
@@ -90,6 +98,13 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
      */
     public static final String CONF_DEFAULT_MAX_TIMEOUT = Service.CONF_PREFIX + "coord.default.max.timeout";
 
+    /**
+     * Number of actions materialized together, and of materialized actions and SLA registrations flushed to the
+     * database at once
+     */
+    public static final String CONF_MATERIALIZATION_INSERT_BATCH_SIZE = Service.CONF_PREFIX
+            + "coord.materialization.insert.batch.size";
+
     /**
      * The constructor for class {@link CoordMaterializeTransitionXCommand}
      *
@@ -133,7 +148,8 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
     @Override
     public void performWrites() throws CommandException {
         try {
-            BatchQueryExecutor.getInstance().executeBatchInsertUpdateDelete(insertList, updateList, null);
+            BatchQueryExecutor.getInstance().executeBatchInsertUpdateDelete(insertList, updateList, null,
+                    ConfigurationService.getInt(CONF_MATERIALIZATION_INSERT_BATCH_SIZE));
             // register the partition related dependencies of actions
             for (JsonBean actionBean : insertList) {
                 if (actionBean instanceof CoordinatorActionBean) {
@@ -400,6 +416,10 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
             throw new CommandException(ErrorCode.E1005, ioe.getMessage(), ioe);
         }
 
+        // the job configuration is the same for all actions, serialize it and read its variables only once
+        String jobConfXml = XmlUtils.prettyPrint(jobConf).toString();
+        CoordELEvaluator.ConfigVariables jobConfVariables = new CoordELEvaluator.ConfigVariables(jobConf);
+
         String jobXml = coordJob.getJobXml();
         Element eJob = XmlUtils.parseXml(jobXml);
         TimeZone appTz = DateUtils.getTimeZone(coordJob.getTimeZone());
@@ -432,6 +452,9 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
         }
 
         String action = null;
+        // actions are materialized and stored in chunks, so that only a chunk of job XML copies is kept in memory
+        int chunkSize = ConfigurationService.getInt(CONF_MATERIALIZATION_INSERT_BATCH_SIZE);
+        List<ActionInstance> instances = new ArrayList<ActionInstance>();
         int numWaitingActions = dryrun ? 0 : jpaService.execute(new CoordActionsActiveCountJPAExecutor(coordJob.getId()));
         int maxActionToBeCreated = coordJob.getMatThrottling() - numWaitingActions;
         // If LAST_ONLY and all materialization is in the past, ignore maxActionsToBeCreated
@@ -477,23 +500,15 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
                 if (pause != null && effStart.compareTo(pause) >= 0) {
                     break;
                 }
-                CoordinatorActionBean actionBean = new CoordinatorActionBean();
                 lastActionNumber++;
-
-                int timeout = coordJob.getTimeout();
                 LOG.debug("Materializing action for time=" + DateUtils.formatDateOozieTZ(effStart.getTime())
-                        + ", lastactionnumber=" + lastActionNumber + " timeout=" + timeout + " minutes");
-                Date actualTime = new Date();
-                action = CoordCommandUtils.materializeOneInstance(jobId, dryrun, (Element) eJob.clone(),
-                        nextTime, actualTime, lastActionNumber, jobConf, actionBean);
-                actionBean.setTimeOut(timeout);
-                if (!dryrun) {
-                    storeToDB(actionBean, action, jobConf); // Storing to table
-
-                }
-                else {
-                    actionStrings.append("action for new instance");
-                    actionStrings.append(action);
+                        + ", lastactionnumber=" + lastActionNumber + " timeout=" + coordJob.getTimeout()
+                        + " minutes");
+                instances.add(new ActionInstance((Element) eJob.clone(), nextTime, new Date(), lastActionNumber));
+                if (instances.size() == chunkSize) {
+                    action = materializeChunk(instances, dryrun, jobConf, jobConfXml, jobConfVariables,
+                            actionStrings);
+                    instances.clear();
                 }
             }
             else {
@@ -518,6 +533,10 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
 
         endMatdTime = effStart.getTime();
 
+        if (!instances.isEmpty()) {
+            action = materializeChunk(instances, dryrun, jobConf, jobConfXml, jobConfVariables, actionStrings);
+        }
+
         if (!dryrun) {
             return action;
         }
@@ -526,17 +545,139 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
         }
     }
 
-    private void storeToDB(CoordinatorActionBean actionBean, String actionXml, Configuration jobConf) throws Exception {
+    /**
+     * Materialize a chunk of action instances and store them, or append them to the dry run output.
+     *
+     * @param instances action instances to materialize, in action number order
+     * @param dryrun if this is a dry run
+     * @param jobConf job configuration
+     * @param jobConfXml job configuration serialized as XML
+     * @param jobConfVariables variables of the job configuration
+     * @param actionStrings dry run output
+     * @return the XML of the last action of the chunk
+     * @throws Exception thrown if failed to materialize an action
+     */
+    private String materializeChunk(List<ActionInstance> instances, boolean dryrun, Configuration jobConf,
+            String jobConfXml, CoordELEvaluator.ConfigVariables jobConfVariables, StringBuilder actionStrings)
+            throws Exception {
+        String action = null;
+        materializeInstances(instances, dryrun, jobConf, jobConfXml, jobConfVariables);
+        for (ActionInstance instance : instances) {
+            action = instance.actionXml;
+            instance.actionBean.setTimeOut(coordJob.getTimeout());
+            if (!dryrun) {
+                storeToDB(instance.actionBean, action, instance.eAction, jobConf); // Storing to table
+            }
+            else {
+                actionStrings.append("action for new instance");
+                actionStrings.append(action);
+            }
+        }
+        return action;
+    }
+
+    /**
+     * Evaluate the EL expressions of the given action instances. When {@link CoordMaterializeTriggerService} has a
+     * materialization executor, the instances are evaluated in parallel on it, otherwise one after the other in the
+     * command thread.
+     *
+     * @param instances action instances to materialize, in action number order
+     * @param dryrun if this is a dry run
+     * @param jobConf job configuration
+     * @param jobConfXml job configuration serialized as XML
+     * @param jobConfVariables variables of the job configuration, shared by the evaluators of all instances
+     * @throws Exception thrown if failed to materialize an action
+     */
+    private void materializeInstances(List<ActionInstance> instances, final boolean dryrun,
+            final Configuration jobConf, final String jobConfXml,
+            final CoordELEvaluator.ConfigVariables jobConfVariables) throws Exception {
+        CoordMaterializeTriggerService triggerService = Services.get().get(CoordMaterializeTriggerService.class);
+        ExecutorService executor = (triggerService == null) ? null : triggerService.getMaterializationExecutor();
+        if (executor == null || instances.size() < 2) {
+            CoordELEvaluator.setCurrentConfigVariables(jobConfVariables);
+            try {
+                for (ActionInstance instance : instances) {
+                    instance.materialize(dryrun, jobConf, jobConfXml);
+                }
+            }
+            finally {
+                CoordELEvaluator.setCurrentConfigVariables(null);
+            }
+            return;
+        }
+        final XLog.Info logInfo = new XLog.Info(XLog.Info.get());
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(instances.size());
+        for (final ActionInstance instance : instances) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    XLog.Info.get().setParameters(logInfo);
+                    CoordELEvaluator.setCurrentConfigVariables(jobConfVariables);
+                    try {
+                        instance.materialize(dryrun, jobConf, jobConfXml);
+                    }
+                    finally {
+                        CoordELEvaluator.setCurrentConfigVariables(null);
+                        XLog.Info.remove();
+                    }
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * One action of the job to materialize, and the result of its materialization
+     */
+    private class ActionInstance {
+        private final Element eAction;
+        private final Date nominalTime;
+        private final Date actualTime;
+        private final int actionNumber;
+        private final CoordinatorActionBean actionBean = new CoordinatorActionBean();
+        private String actionXml;
+
+        ActionInstance(Element eAction, Date nominalTime, Date actualTime, int actionNumber) {
+            this.eAction = eAction;
+            this.nominalTime = nominalTime;
+            this.actualTime = actualTime;
+            this.actionNumber = actionNumber;
+        }
+
+        void materialize(boolean dryrun, Configuration jobConf, String jobConfXml) throws Exception {
+            actionXml = CoordCommandUtils.materializeOneInstance(jobId, dryrun, eAction, nominalTime, actualTime,
+                    actionNumber, jobConf, jobConfXml, actionBean);
+        }
+    }
+
+    private void storeToDB(CoordinatorActionBean actionBean, String actionXml, Element eAction, Configuration jobConf)
+            throws Exception {
         LOG.debug("In storeToDB() coord action id = " + actionBean.getId() + ", size of actionXml = "
                 + actionXml.length());
         actionBean.setActionXml(actionXml);
         insertList.add(actionBean);
-        writeActionSlaRegistration(actionXml, actionBean, jobConf);
+        writeActionSlaRegistration(eAction, actionBean, jobConf);
     }
 
-    private void writeActionSlaRegistration(String actionXml, CoordinatorActionBean actionBean, Configuration jobConf)
+    private void writeActionSlaRegistration(Element eAction, CoordinatorActionBean actionBean, Configuration jobConf)
             throws Exception {
-        Element eAction = XmlUtils.parseXml(actionXml);
+        // eAction is the element actionXml was printed from, no need to parse actionXml again
         Element eSla = eAction.getChild("action", eAction.getNamespace()).getChild("info", eAction.getNamespace("sla"));
                 SLAEventBean slaEvent = SLADbOperations.createSlaRegistrationEvent(eSla, actionBean.getId(),
                                  SlaAppType.COORDINATOR_ACTION, coordJob.getUser(), coordJob.getGroup(), LOG);
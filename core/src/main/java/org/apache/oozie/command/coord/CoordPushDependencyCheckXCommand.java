@@ -46,6 +46,7 @@ import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.service.CallableQueueService;
 import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.EventHandlerService;
+import org.apache.oozie.service.FSDependencyManagerService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.PartitionDependencyManagerService;
 import org.apache.oozie.service.RecoveryService;
@@ -223,8 +224,14 @@ public class CoordPushDependencyCheckXCommand extends CoordinatorXCommand<Void>
     }
 
     protected void onAllPushDependenciesAvailable(boolean isPullDependencyMeet) throws CommandException {
-        Services.get().get(PartitionDependencyManagerService.class)
-                .removeCoordActionWithDependenciesAvailable(coordAction.getId());
+        PartitionDependencyManagerService pdms = Services.get().get(PartitionDependencyManagerService.class);
+        if (pdms != null) {
+            pdms.removeCoordActionWithDependenciesAvailable(coordAction.getId());
+        }
+        FSDependencyManagerService fsdms = Services.get().get(FSDependencyManagerService.class);
+        if (fsdms != null) {
+            fsdms.removeCoordActionWithDependenciesAvailable(coordAction.getId());
+        }
         if (isPullDependencyMeet) {
             Date nominalTime = coordAction.getNominalTime();
             Date currentTime = new Date();
@@ -63,11 +63,24 @@ public class ActionCheckXCommand extends ActionXCommand<Void> {
     private ActionExecutor executor = null;
     private List<UpdateEntry> updateList = new ArrayList<UpdateEntry>();
     private boolean generateEvent = false;
+    private String adaptiveExternalId = null;
 
     public ActionCheckXCommand(String actionId) {
         this(actionId, -1);
     }
 
+    /**
+     * Create an adaptively scheduled check. While the action keeps running with the external id it was started with,
+     * the check schedules the next one with the delay given by {@link ActionCheckerService#getCheckDelay}.
+     *
+     * @param actionId action id.
+     * @param externalId external id the action was started with.
+     */
+    public ActionCheckXCommand(String actionId, String externalId) {
+        this(actionId, -1);
+        this.adaptiveExternalId = externalId;
+    }
+
     public ActionCheckXCommand(String actionId, int priority, int checkDelay) {
         super("action.check", "action.check", priority);
         this.actionId = actionId;
@@ -183,6 +196,19 @@ public class ActionCheckXCommand extends ActionXCommand<Void> {
             cron.stop();
             addActionCron(wfAction.getType(), cron);
 
+            ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+            if (checker != null) {
+                if (adaptiveExternalId != null) {
+                    checker.adaptiveCheckDone(!wfAction.isExecutionComplete());
+                }
+                if (wfAction.isExecutionComplete()) {
+                    checker.actionCompleted(wfJob, wfAction);
+                }
+                else if (adaptiveExternalId != null && adaptiveExternalId.equals(wfAction.getExternalId())) {
+                    queue(new ActionCheckXCommand(actionId, adaptiveExternalId),
+                            checker.getCheckDelay(wfJob, wfAction));
+                }
+            }
             if (wfAction.isExecutionComplete()) {
                 if (!context.isExecuted()) {
                     LOG.warn(XLog.OPS, "Action Completed, ActionExecutor [{0}] must call setExecutionData()", executor
@@ -259,7 +285,8 @@ public class ActionCheckXCommand extends ActionXCommand<Void> {
 
     @Override
     public String getKey() {
-        return getName() + "_" + actionId;
+        // an adaptive check must not be dropped as a duplicate of a polling check, that would end its chain
+        return getName() + "_" + actionId + ((adaptiveExternalId != null) ? "_adaptive" : "");
     }
 
 }
@@ -51,6 +51,7 @@ import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor.WorkflowActionQuery;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.ActionService;
 import org.apache.oozie.service.EventHandlerService;
 import org.apache.oozie.service.JPAService;
@@ -269,6 +270,7 @@ public class ActionStartXCommand extends ActionXCommand<org.apache.oozie.command
                         failJob(context);
                     } else {
                         queue(new WorkflowNotificationXCommand(wfJob, wfAction));
+                        queueAdaptiveCheck();
                     }
                 }
 
@@ -403,6 +405,17 @@ public class ActionStartXCommand extends ActionXCommand<org.apache.oozie.command
         }
     }
 
+    /**
+     * Queue the first adaptively scheduled check of the started action, if adaptive checks are enabled.
+     */
+    private void queueAdaptiveCheck() {
+        ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+        if (checker != null && checker.isAdaptive() && wfAction.getExternalId() != null) {
+            queue(new ActionCheckXCommand(wfAction.getId(), wfAction.getExternalId()),
+                    checker.getCheckDelay(wfJob, wfAction));
+        }
+    }
+
     @Override
     protected void queueCommandForTransientFailure(long retryDelayMillis){
         queue(new ActionStartXCommand(wfAction.getId(), wfAction.getType()), retryDelayMillis);
@@ -24,10 +24,13 @@ import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.OperationType;
 import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.command.XCommand;
 import org.apache.oozie.executor.jpa.WorkflowsJobGetJPAExecutor;
+import org.apache.oozie.service.BulkOperationService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -37,6 +40,8 @@ public class BulkWorkflowXCommand extends WorkflowXCommand<WorkflowsInfo> {
     private final int len;
     private WorkflowsInfo workflowsInfo;
     private OperationType operation;
+    private final boolean async;
+    private BulkOperationService.Operation bulkOperation;
 
     /**
      * constructor taking the filter information.
@@ -47,11 +52,37 @@ public class BulkWorkflowXCommand extends WorkflowXCommand<WorkflowsInfo> {
      *        index "start".
      */
     public BulkWorkflowXCommand(Map<String, List<String>> filter, int start, int length, OperationType operation) {
+        this(filter, start, length, operation, false);
+    }
+
+    /**
+     * constructor taking the filter information.
+     *
+     * @param filter Can be name, status, user, group and combination of these
+     * @param start starting from this index in the list of workflows matching the filter are killed
+     * @param length number of workflows to be killed from the list of workflows matching the filter and starting from
+     *        index "start".
+     * @param operation the type of operation to perform, it can be kill, suspend or resume
+     * @param async if <code>true</code> the command returns once the operation is started, without waiting for the
+     *        workflows to be modified
+     */
+    public BulkWorkflowXCommand(Map<String, List<String>> filter, int start, int length, OperationType operation,
+            boolean async) {
         super("bulkkill", "bulkkill", 1, true);
         this.filter = filter;
         this.start = start;
         this.len = length;
         this.operation = operation;
+        this.async = async;
+    }
+
+    /**
+     * Return the bulk operation modifying the workflows.
+     *
+     * @return the bulk operation, <code>null</code> before the command is executed
+     */
+    public BulkOperationService.Operation getBulkOperation() {
+        return bulkOperation;
     }
 
     /* (non-Javadoc)
@@ -61,6 +92,7 @@ public class BulkWorkflowXCommand extends WorkflowXCommand<WorkflowsInfo> {
     protected WorkflowsInfo execute() throws CommandException {
         try {
             List<WorkflowJobBean> workflows = this.workflowsInfo.getWorkflows();
+            Map<String, XCommand<?>> commands = new LinkedHashMap<String, XCommand<?>>();
             for (WorkflowJobBean job : workflows) {
                 switch (operation) {
                     case Kill:
@@ -68,24 +100,28 @@ public class BulkWorkflowXCommand extends WorkflowXCommand<WorkflowsInfo> {
                                 || job.getStatus() == WorkflowJob.Status.RUNNING
                                 || job.getStatus() == WorkflowJob.Status.SUSPENDED
                                 || job.getStatus() == WorkflowJob.Status.FAILED) {
-                            new KillXCommand(job.getId()).call();
+                            commands.put(job.getId(), new KillXCommand(job.getId()));
                         }
                         break;
                     case Suspend:
                         if (job.getStatus() == WorkflowJob.Status.RUNNING) {
-                            new SuspendXCommand(job.getId()).call();
+                            commands.put(job.getId(), new SuspendXCommand(job.getId()));
                         }
                         break;
                     case Resume:
                         if (job.getStatus() == WorkflowJob.Status.SUSPENDED) {
-                            new ResumeXCommand(job.getId()).call();
+                            commands.put(job.getId(), new ResumeXCommand(job.getId()));
                         }
                         break;
                     default:
                         throw new CommandException(ErrorCode.E1102, operation);
                 }
             }
-            loadJobs();
+            bulkOperation = Services.get().get(BulkOperationService.class).submit("bulkwf" + operation, commands);
+            if (!async) {
+                bulkOperation.join();
+                loadJobs();
+            }
             return this.workflowsInfo;
         }
         catch (Exception ex) {
@@ -27,6 +27,7 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor.WorkflowActionQuery;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.ActionService;
 import org.apache.oozie.service.CallbackService;
 import org.apache.oozie.service.Services;
@@ -118,6 +119,10 @@ public class CompletedActionXCommand extends WorkflowXCommand<Void> {
             // this is done because oozie notifications (of sub-wfs) is send
             // every status change, not only on completion.
             if (executor.isCompleted(externalStatus)) {
+                ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+                if (checker != null) {
+                    checker.callbackReceived(this.wfactionBean.getId());
+                }
                 queue(new ActionCheckXCommand(this.wfactionBean.getId(), getPriority(), -1));
             }
         }
@@ -29,11 +29,14 @@ import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.executor.jpa.WorkflowsJobGetJPAExecutor;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.JobsCursor;
 
 public class JobsXCommand extends WorkflowXCommand<WorkflowsInfo> {
     private final Map<String, List<String>> filter;
     private final int start;
     private final int len;
+    private final JobsCursor cursor;
+    private final boolean count;
     private WorkflowsInfo workflows;
 
     /**
@@ -49,6 +52,25 @@ public class JobsXCommand extends WorkflowXCommand<WorkflowsInfo> {
         this.filter = filter;
         this.start = start;
         this.len = length;
+        this.cursor = null;
+        this.count = true;
+    }
+
+    /**
+     * Constructor taking the filter information, for keyset pagination
+     *
+     * @param filter Can be name, status, user, group and combination of these
+     * @param cursor position in the list of workflows matching the filter the workflows are returned after
+     * @param length number of workflows to be returned
+     * @param count whether to count the workflows matching the filter
+     */
+    public JobsXCommand(Map<String, List<String>> filter, JobsCursor cursor, int length, boolean count) {
+        super("job.info", "job.info", 1, true);
+        this.filter = filter;
+        this.start = 1;
+        this.len = length;
+        this.cursor = cursor;
+        this.count = count;
     }
 
     /* (non-Javadoc)
@@ -59,7 +81,10 @@ public class JobsXCommand extends WorkflowXCommand<WorkflowsInfo> {
         try {
             JPAService jpaService = Services.get().get(JPAService.class);
             if (jpaService != null) {
-                this.workflows = jpaService.execute(new WorkflowsJobGetJPAExecutor(this.filter, this.start, this.len));
+                WorkflowsJobGetJPAExecutor executor = (cursor != null)
+                        ? new WorkflowsJobGetJPAExecutor(this.filter, this.cursor, this.len, this.count)
+                        : new WorkflowsJobGetJPAExecutor(this.filter, this.start, this.len);
+                this.workflows = jpaService.execute(executor);
             }
             else {
                 throw new CommandException(ErrorCode.E0610);
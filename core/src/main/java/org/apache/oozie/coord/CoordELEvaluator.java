@@ -44,6 +44,41 @@ public class CoordELEvaluator {
     public static final Integer MINUTE = 1;
     public static final Integer HOUR = 60 * MINUTE;
 
+    private static final ThreadLocal<ConfigVariables> currentConfigVariables = new ThreadLocal<ConfigVariables>();
+
+    /**
+     * The properties of a job configuration as evaluator variables, built once and set to all the evaluators
+     * created for that configuration while it is the current one of the thread.
+     * <p>
+     * The configuration must not be modified while its variables are in use.
+     */
+    public static class ConfigVariables {
+        private final Configuration conf;
+        private final Map<String, Object> variables = new HashMap<String, Object>();
+
+        public ConfigVariables(Configuration conf) {
+            this.conf = conf;
+            for (Map.Entry<String, String> entry : conf) {
+                variables.put(entry.getKey(), entry.getValue().trim());
+            }
+        }
+    }
+
+    /**
+     * Set the configuration variables used by the evaluators created by the current thread for their configuration.
+     *
+     * @param configVariables configuration variables, <code>null</code> to read the configuration again for every
+     * evaluator
+     */
+    public static void setCurrentConfigVariables(ConfigVariables configVariables) {
+        if (configVariables == null) {
+            currentConfigVariables.remove();
+        }
+        else {
+            currentConfigVariables.set(configVariables);
+        }
+    }
+
     /**
      * Create an evaluator to be used in resolving configuration vars and frequency constant/functions (used in Stage
      * 1)
@@ -322,6 +357,11 @@ public class CoordELEvaluator {
      * @param conf : configurations to set Evaluator
      */
     private static void setConfigToEval(ELEvaluator eval, Configuration conf) {
+        ConfigVariables configVariables = currentConfigVariables.get();
+        if (configVariables != null && configVariables.conf == conf) {
+            eval.getContext().setVariables(configVariables.variables);
+            return;
+        }
         for (Map.Entry<String, String> entry : conf) {
             eval.setVariable(entry.getKey(), entry.getValue().trim());
         }
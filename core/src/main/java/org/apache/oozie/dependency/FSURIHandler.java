@@ -29,6 +29,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.action.hadoop.FSLauncherURIHandler;
 import org.apache.oozie.action.hadoop.LauncherURIHandler;
+import org.apache.oozie.service.FSDependencyManagerService;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.Services;
@@ -63,18 +64,27 @@ public class FSURIHandler implements URIHandler {
 
     @Override
     public DependencyType getDependencyType(URI uri) throws URIHandlerException {
-        return DependencyType.PULL;
+        FSDependencyManagerService fsdms = Services.get().get(FSDependencyManagerService.class);
+        return (fsdms != null && fsdms.isPushDependency(uri)) ? DependencyType.PUSH : DependencyType.PULL;
     }
 
     @Override
     public void registerForNotification(URI uri, Configuration conf, String user, String actionID)
             throws URIHandlerException {
-        throw new UnsupportedOperationException("Notifications are not supported for " + uri.getScheme());
+        FSDependencyManagerService fsdms = Services.get().get(FSDependencyManagerService.class);
+        if (fsdms == null || !fsdms.isPushDependency(uri)) {
+            throw new UnsupportedOperationException("Notifications are not supported for " + uri);
+        }
+        fsdms.addMissingDependency(uri, actionID);
     }
 
     @Override
     public boolean unregisterFromNotification(URI uri, String actionID) {
-        throw new UnsupportedOperationException("Notifications are not supported for " + uri.getScheme());
+        FSDependencyManagerService fsdms = Services.get().get(FSDependencyManagerService.class);
+        if (fsdms == null) {
+            throw new UnsupportedOperationException("Notifications are not supported for " + uri.getScheme());
+        }
+        return fsdms.removeMissingDependency(uri, actionID);
     }
 
     @Override
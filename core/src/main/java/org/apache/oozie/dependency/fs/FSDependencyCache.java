@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.dependency.fs;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+
+public interface FSDependencyCache {
+
+    /**
+     * Initialize the cache with configuration
+     *
+     * @param conf configuration
+     */
+    void init(Configuration conf);
+
+    /**
+     * Add a missing file system dependency and the actionID waiting on it
+     *
+     * @param uri dependency URI, including the done flag if any
+     * @param actionID ID of action which is waiting for the dependency
+     */
+    void addMissingDependency(URI uri, String actionID);
+
+    /**
+     * Remove a missing file system dependency associated with a actionID
+     *
+     * @param uri dependency URI
+     * @param actionID ID of action which is waiting for the dependency
+     * @return true if successful, else false
+     */
+    boolean removeMissingDependency(URI uri, String actionID);
+
+    /**
+     * Get the list of actionIDs waiting for a path
+     *
+     * @param uri dependency URI
+     * @return list of actionIDs
+     */
+    Collection<String> getWaitingActions(URI uri);
+
+    /**
+     * Mark a path as available
+     *
+     * @param nameNode scheme://authority of the file system the event came from
+     * @param path absolute path that was created
+     * @param includeChildren if true, dependencies on any path below the given one are available as well. This is
+     *        the case when a directory is renamed into place.
+     * @return list of actionIDs for which the dependency is now available
+     */
+    Collection<String> markDependencyAvailable(String nameNode, String path, boolean includeChildren);
+
+    /**
+     * Get a list of available dependency URIs for a actionID
+     *
+     * @param actionID action id
+     * @return list of available dependency URIs
+     */
+    Collection<String> getAvailableDependencyURIs(String actionID);
+
+    /**
+     * Remove the list of available dependency URIs for a actionID once the missing dependencies are processed.
+     *
+     * @param actionID action id
+     * @param dependencyURIs set of dependency URIs
+     * @return true if successful, else false
+     */
+    boolean removeAvailableDependencyURIs(String actionID, Collection<String> dependencyURIs);
+
+    /**
+     * Destroy the cache
+     */
+    void destroy();
+
+    /**
+     * Purge stale actions
+     */
+    void removeNonWaitingCoordActions(Set<String> coordActions);
+
+    /**
+     * Remove coordAction when all dependencies met
+     */
+    void removeCoordActionWithDependenciesAvailable(String coordAction);
+
+}
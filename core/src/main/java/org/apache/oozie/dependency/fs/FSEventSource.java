@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.dependency.fs;
+
+import java.net.URI;
+
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Source of file system change events. Implementations report new paths to
+ * {@link org.apache.oozie.service.FSDependencyManagerService#pathAvailable(String, String, boolean)}.
+ */
+public interface FSEventSource {
+
+    /**
+     * Initialize the event source
+     *
+     * @param conf configuration
+     */
+    void init(Configuration conf);
+
+    /**
+     * Check if events can be received for the file system of the given URI
+     *
+     * @param uri dependency URI
+     * @return true if events are supported, false if the URI has to be polled
+     */
+    boolean isSupported(URI uri);
+
+    /**
+     * Start listening to events of a file system. Calling it again for a file system already being watched is a
+     * no-op.
+     *
+     * @param nameNode scheme://authority of the file system
+     */
+    void watch(String nameNode);
+
+    /**
+     * Check if a file system is being watched
+     *
+     * @param nameNode scheme://authority of the file system
+     * @return true if the file system is being watched
+     */
+    boolean isWatching(String nameNode);
+
+    /**
+     * Stop listening to all file systems and release resources
+     */
+    void destroy();
+
+}
@@ -0,0 +1,274 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.dependency.fs;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.service.ConfigurationService;
+import org.apache.oozie.service.FSDependencyManagerService;
+import org.apache.oozie.service.HadoopAccessorService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Event source that tails the HDFS inotify stream ({@code DFSInotifyEventInputStream}) of each watched NameNode and
+ * reports created, closed and renamed paths.
+ * <p>
+ * The inotify API is only available from Hadoop 2.6 on, so it is accessed reflectively to keep Oozie building
+ * against older Hadoop versions. If the API is not present no URI is reported as supported and all HDFS
+ * dependencies keep being polled. Reading the inotify stream requires HDFS superuser privileges for the Oozie user,
+ * so the URIs of a NameNode are only reported as supported once its stream could be opened, and while it is open.
+ * A NameNode whose stream cannot be opened is probed again after the retry interval.
+ */
+public class HDFSInotifyEventSource implements FSEventSource {
+
+    private static XLog LOG = XLog.getLog(HDFSInotifyEventSource.class);
+
+    public static final String POLL_TIMEOUT = FSDependencyManagerService.CONF_PREFIX + "inotify.poll.timeout";
+    public static final String RETRY_INTERVAL = FSDependencyManagerService.CONF_PREFIX + "inotify.retry.interval";
+
+    private static final String HDFS_ADMIN_CLASS = "org.apache.hadoop.hdfs.client.HdfsAdmin";
+    private static final String INOTIFY_STREAM_CLASS = "org.apache.hadoop.hdfs.DFSInotifyEventInputStream";
+    private static final String HDFS_SCHEME = "hdfs";
+
+    private boolean inotifyAvailable;
+    private long pollTimeout;
+    private long retryInterval;
+    private ConcurrentMap<String, InotifyReader> readers;
+    private Map<String, Long> unsupportedUntil;
+
+    @Override
+    public void init(Configuration conf) {
+        readers = new ConcurrentHashMap<String, InotifyReader>();
+        unsupportedUntil = new HashMap<String, Long>();
+        pollTimeout = ConfigurationService.getLong(conf, POLL_TIMEOUT);
+        retryInterval = ConfigurationService.getLong(conf, RETRY_INTERVAL);
+        inotifyAvailable = isInotifyAvailable();
+        if (!inotifyAvailable) {
+            LOG.warn("HDFS inotify is not available in this Hadoop version, HDFS dependencies will be polled");
+        }
+    }
+
+    /**
+     * Check if the HDFS inotify API is present in the Hadoop version Oozie runs with.
+     *
+     * @return true if the inotify API is present
+     */
+    protected boolean isInotifyAvailable() {
+        try {
+            Class.forName(INOTIFY_STREAM_CLASS);
+            return true;
+        }
+        catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isSupported(URI uri) {
+        if (!inotifyAvailable || !HDFS_SCHEME.equals(uri.getScheme()) || uri.getAuthority() == null) {
+            return false;
+        }
+        String nameNode = SimpleFSDependencyCache.getNameNode(uri);
+        InotifyReader reader = readers.get(nameNode);
+        return reader != null ? reader.isOpen() : probe(nameNode);
+    }
+
+    /**
+     * Open the inotify stream of a NameNode not watched yet, and start reading it if it could be opened. Failures are
+     * remembered for the retry interval, so that the dependencies of the NameNode are polled meanwhile without trying
+     * to open the stream for each of them.
+     */
+    private synchronized boolean probe(String nameNode) {
+        InotifyReader reader = readers.get(nameNode);
+        if (reader != null) {
+            return reader.isOpen();
+        }
+        Long retryTime = unsupportedUntil.get(nameNode);
+        if (retryTime != null && retryTime > System.currentTimeMillis()) {
+            return false;
+        }
+        try {
+            reader = new InotifyReader(nameNode);
+            reader.open();
+        }
+        catch (Exception e) {
+            Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+            LOG.warn("Could not open the inotify stream of [{0}], its dependencies are polled, "
+                    + "retrying in [{1}] seconds: {2}", nameNode, retryInterval, cause.toString());
+            unsupportedUntil.put(nameNode, System.currentTimeMillis() + retryInterval * 1000);
+            return false;
+        }
+        unsupportedUntil.remove(nameNode);
+        startReader(nameNode, reader);
+        return true;
+    }
+
+    @Override
+    public void watch(String nameNode) {
+        if (!readers.containsKey(nameNode)) {
+            startReader(nameNode, new InotifyReader(nameNode));
+        }
+    }
+
+    private void startReader(String nameNode, InotifyReader reader) {
+        if (readers.putIfAbsent(nameNode, reader) == null) {
+            LOG.info("Start listening to inotify events of [{0}]", nameNode);
+            reader.start();
+        }
+    }
+
+    /**
+     * Open the inotify stream of a NameNode.
+     *
+     * @param nameNode scheme://authority of the NameNode
+     * @param lastReadTxid transaction id to resume after, -1 to start with the next transaction
+     * @return the {@code DFSInotifyEventInputStream}
+     * @throws Exception if the stream could not be opened, typically because the Oozie user is not an HDFS superuser
+     */
+    protected Object openStream(String nameNode, long lastReadTxid) throws Exception {
+        HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
+        URI uri = new URI(nameNode);
+        Configuration conf = has.createJobConf(uri.getAuthority());
+        Class<?> adminClass = Class.forName(HDFS_ADMIN_CLASS);
+        Object admin = adminClass.getConstructor(URI.class, Configuration.class).newInstance(uri, conf);
+        // Resume after the last transaction seen so that no event is lost when the stream is reopened
+        if (lastReadTxid >= 0) {
+            return adminClass.getMethod("getInotifyEventStream", long.class).invoke(admin, lastReadTxid);
+        }
+        return adminClass.getMethod("getInotifyEventStream").invoke(admin);
+    }
+
+    @Override
+    public boolean isWatching(String nameNode) {
+        return readers.containsKey(nameNode);
+    }
+
+    @Override
+    public void destroy() {
+        for (InotifyReader reader : readers.values()) {
+            reader.shutdown();
+        }
+        readers.clear();
+        synchronized (this) {
+            unsupportedUntil.clear();
+        }
+    }
+
+    private class InotifyReader extends Thread {
+        private final String nameNode;
+        private volatile boolean running = true;
+        private volatile Object stream;
+        private Method pollMethod;
+        private long lastReadTxid = -1;
+
+        InotifyReader(String nameNode) {
+            super("HDFSInotifyEventSource-" + nameNode);
+            this.nameNode = nameNode;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    if (stream == null) {
+                        open();
+                    }
+                    Object batch = pollMethod.invoke(stream, pollTimeout, TimeUnit.SECONDS);
+                    if (batch != null) {
+                        processBatch(batch);
+                    }
+                }
+                catch (InvocationTargetException e) {
+                    if (e.getCause() instanceof InterruptedException) {
+                        running = false;
+                    }
+                    else {
+                        onError(e.getCause());
+                    }
+                }
+                catch (Exception e) {
+                    onError(e);
+                }
+            }
+            LOG.info("Stopped listening to inotify events of [{0}]", nameNode);
+        }
+
+        private void open() throws Exception {
+            Object newStream = openStream(nameNode, lastReadTxid);
+            pollMethod = newStream.getClass().getMethod("poll", long.class, TimeUnit.class);
+            stream = newStream;
+        }
+
+        boolean isOpen() {
+            return stream != null;
+        }
+
+        private void processBatch(Object batch) throws Exception {
+            Object[] events;
+            try {
+                // Hadoop 2.7 and later return an EventBatch
+                Method getEvents = batch.getClass().getMethod("getEvents");
+                events = (Object[]) getEvents.invoke(batch);
+                lastReadTxid = (Long) batch.getClass().getMethod("getTxid").invoke(batch);
+            }
+            catch (NoSuchMethodException e) {
+                // Hadoop 2.6 returns a single Event
+                events = new Object[] { batch };
+            }
+            FSDependencyManagerService fsdms = Services.get().get(FSDependencyManagerService.class);
+            for (Object event : events) {
+                String type = ((Enum<?>) event.getClass().getMethod("getEventType").invoke(event)).name();
+                if (type.equals("CREATE") || type.equals("CLOSE")) {
+                    String path = (String) event.getClass().getMethod("getPath").invoke(event);
+                    fsdms.pathAvailable(nameNode, path, false);
+                }
+                else if (type.equals("RENAME")) {
+                    String path = (String) event.getClass().getMethod("getDstPath").invoke(event);
+                    fsdms.pathAvailable(nameNode, path, true);
+                }
+            }
+        }
+
+        private void onError(Throwable t) {
+            LOG.warn("Error reading inotify events of [{0}], retrying in [{1}] seconds", nameNode, retryInterval, t);
+            stream = null;
+            try {
+                Thread.sleep(retryInterval * 1000);
+            }
+            catch (InterruptedException e) {
+                running = false;
+            }
+        }
+
+        void shutdown() {
+            running = false;
+            interrupt();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.dependency.fs;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.dependency.hcat.WaitingAction;
+import org.apache.oozie.util.XLog;
+
+public class SimpleFSDependencyCache implements FSDependencyCache {
+
+    private static XLog LOG = XLog.getLog(SimpleFSDependencyCache.class);
+
+    /**
+     * Map of scheme://authority - path (sorted, so that the paths below a renamed directory can be looked up as a
+     * range) - Collection of waiting actions (actionID and original uri as string).
+     */
+    private ConcurrentMap<String, ConcurrentNavigableMap<String, Collection<WaitingAction>>> missingDeps;
+
+    /**
+     * Map of actionIDs and collection of available URIs
+     */
+    private ConcurrentMap<String, Collection<String>> availableDeps;
+
+    /**
+     * Map of actionIDs and missing URIs for reverse-lookup in purging
+     */
+    private ConcurrentMap<String, Collection<URI>> actionURIMap;
+
+    @Override
+    public void init(Configuration conf) {
+        missingDeps = new ConcurrentHashMap<String, ConcurrentNavigableMap<String, Collection<WaitingAction>>>();
+        availableDeps = new ConcurrentHashMap<String, Collection<String>>();
+        actionURIMap = new ConcurrentHashMap<String, Collection<URI>>();
+    }
+
+    @Override
+    public void addMissingDependency(URI uri, String actionID) {
+        String nameNode = getNameNode(uri);
+        String path = getNormalizedPath(uri);
+        ConcurrentNavigableMap<String, Collection<WaitingAction>> paths = missingDeps.get(nameNode);
+        if (paths == null) {
+            paths = new ConcurrentSkipListMap<String, Collection<WaitingAction>>();
+            ConcurrentNavigableMap<String, Collection<WaitingAction>> existing = missingDeps.putIfAbsent(nameNode,
+                    paths);
+            if (existing != null) {
+                paths = existing;
+            }
+        }
+        Collection<URI> actionURIs = actionURIMap.get(actionID);
+        if (actionURIs == null) {
+            actionURIs = new HashSet<URI>();
+            Collection<URI> existing = actionURIMap.putIfAbsent(actionID, actionURIs);
+            if (existing != null) {
+                actionURIs = existing;
+            }
+        }
+        synchronized (actionURIs) {
+            actionURIs.add(uri);
+        }
+        synchronized (paths) {
+            missingDeps.put(nameNode, paths); // To handle race condition with removal of paths
+            Collection<WaitingAction> waitingActions = paths.get(path);
+            if (waitingActions == null) {
+                waitingActions = new HashSet<WaitingAction>();
+                paths.put(path, waitingActions);
+            }
+            waitingActions.add(new WaitingAction(actionID, uri.toString()));
+        }
+    }
+
+    @Override
+    public boolean removeMissingDependency(URI uri, String actionID) {
+        String nameNode = getNameNode(uri);
+        String path = getNormalizedPath(uri);
+        Map<String, Collection<WaitingAction>> paths = missingDeps.get(nameNode);
+        if (paths == null) {
+            LOG.warn("Remove missing dependency - Missing file system entry - uri={0}, actionID={1}", uri, actionID);
+            return false;
+        }
+        Collection<URI> actionURIs = actionURIMap.get(actionID);
+        if (actionURIs != null) {
+            synchronized (actionURIs) {
+                actionURIs.remove(uri);
+                if (actionURIs.isEmpty()) {
+                    actionURIMap.remove(actionID);
+                }
+            }
+        }
+        synchronized (paths) {
+            Collection<WaitingAction> waitingActions = paths.get(path);
+            if (waitingActions == null) {
+                LOG.warn("Remove missing dependency - Missing path - uri={0}, actionID={1}", uri, actionID);
+                return false;
+            }
+            boolean removed = waitingActions.remove(new WaitingAction(actionID, uri.toString()));
+            if (!removed) {
+                LOG.warn("Remove missing dependency - Missing action ID - uri={0}, actionID={1}", uri, actionID);
+            }
+            if (waitingActions.isEmpty()) {
+                paths.remove(path);
+                if (paths.isEmpty()) {
+                    missingDeps.remove(nameNode);
+                }
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public Collection<String> getWaitingActions(URI uri) {
+        Map<String, Collection<WaitingAction>> paths = missingDeps.get(getNameNode(uri));
+        if (paths == null) {
+            return null;
+        }
+        Collection<WaitingAction> waitingActions = paths.get(getNormalizedPath(uri));
+        if (waitingActions == null) {
+            return null;
+        }
+        Collection<String> actionIDs = new ArrayList<String>();
+        synchronized (paths) {
+            for (WaitingAction action : waitingActions) {
+                actionIDs.add(action.getActionID());
+            }
+        }
+        return actionIDs;
+    }
+
+    @Override
+    public Collection<String> markDependencyAvailable(String nameNode, String path, boolean includeChildren) {
+        ConcurrentNavigableMap<String, Collection<WaitingAction>> paths = missingDeps.get(nameNode);
+        if (paths == null) {
+            return null;
+        }
+        path = new Path(path).toUri().getPath();
+        Collection<String> actionsWithAvailDep = new HashSet<String>();
+        synchronized (paths) {
+            Collection<WaitingAction> wActions = new ArrayList<WaitingAction>();
+            Collection<WaitingAction> exact = paths.remove(path);
+            if (exact != null) {
+                wActions.addAll(exact);
+            }
+            if (includeChildren) {
+                String prefix = path.endsWith(Path.SEPARATOR) ? path : path + Path.SEPARATOR;
+                // '0' is the character after '/', so this is the range of all paths starting with the prefix
+                Map<String, Collection<WaitingAction>> children = paths.subMap(prefix,
+                        prefix.substring(0, prefix.length() - 1) + '0');
+                Iterator<Collection<WaitingAction>> childItr = children.values().iterator();
+                while (childItr.hasNext()) {
+                    wActions.addAll(childItr.next());
+                    childItr.remove();
+                }
+            }
+            for (WaitingAction wAction : wActions) {
+                String actionID = wAction.getActionID();
+                actionsWithAvailDep.add(actionID);
+                Collection<String> depURIs = availableDeps.get(actionID);
+                if (depURIs == null) {
+                    depURIs = new ArrayList<String>();
+                    Collection<String> existing = availableDeps.putIfAbsent(actionID, depURIs);
+                    if (existing != null) {
+                        depURIs = existing;
+                    }
+                }
+                synchronized (depURIs) {
+                    depURIs.add(wAction.getDependencyURI());
+                    availableDeps.put(actionID, depURIs);
+                }
+            }
+            if (paths.isEmpty()) {
+                missingDeps.remove(nameNode);
+            }
+        }
+        return actionsWithAvailDep;
+    }
+
+    @Override
+    public Collection<String> getAvailableDependencyURIs(String actionID) {
+        Collection<String> available = availableDeps.get(actionID);
+        if (available != null) {
+            // Return a copy
+            synchronized (available) {
+                available = new ArrayList<String>(available);
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public boolean removeAvailableDependencyURIs(String actionID, Collection<String> dependencyURIs) {
+        Collection<String> availList = availableDeps.get(actionID);
+        if (availList == null) {
+            return false;
+        }
+        synchronized (availList) {
+            if (!availList.removeAll(dependencyURIs)) {
+                return false;
+            }
+            if (availList.isEmpty()) {
+                availableDeps.remove(actionID);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        missingDeps.clear();
+        availableDeps.clear();
+        actionURIMap.clear();
+    }
+
+    @Override
+    public void removeNonWaitingCoordActions(Set<String> coordActions) {
+        for (String coordActionId : coordActions) {
+            LOG.info("Removing non waiting coord action {0} from file system dependency map", coordActionId);
+            Collection<URI> actionURIs = actionURIMap.remove(coordActionId);
+            if (actionURIs != null) {
+                synchronized (actionURIs) {
+                    for (URI uri : actionURIs) {
+                        removeWaitingAction(uri, coordActionId);
+                    }
+                }
+            }
+            availableDeps.remove(coordActionId);
+        }
+    }
+
+    private void removeWaitingAction(URI uri, String actionID) {
+        String nameNode = getNameNode(uri);
+        String path = getNormalizedPath(uri);
+        Map<String, Collection<WaitingAction>> paths = missingDeps.get(nameNode);
+        if (paths != null) {
+            synchronized (paths) {
+                Collection<WaitingAction> waitingActions = paths.get(path);
+                if (waitingActions != null) {
+                    waitingActions.remove(new WaitingAction(actionID, uri.toString()));
+                    if (waitingActions.isEmpty()) {
+                        paths.remove(path);
+                    }
+                }
+                if (paths.isEmpty()) {
+                    missingDeps.remove(nameNode);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void removeCoordActionWithDependenciesAvailable(String coordAction) {
+        actionURIMap.remove(coordAction);
+    }
+
+    /**
+     * Get the scheme://authority key of the file system of a dependency URI
+     *
+     * @param uri dependency URI
+     * @return scheme://authority of the URI
+     */
+    public static String getNameNode(URI uri) {
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    private static String getNormalizedPath(URI uri) {
+        // Normalizes uri path replacing // with / and removing the trailing /
+        return new Path(uri.getPath()).toUri().getPath();
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.event.messaging;
+
+import org.apache.oozie.client.event.jms.CompactMessageCodec;
+import org.apache.oozie.client.event.message.EventMessage;
+
+/**
+ * Serializer producing the compact binary encoding of {@link CompactMessageCodec}, decoded on the client side by
+ * {@link org.apache.oozie.client.event.jms.CompactMessageDeserializer}.
+ */
+public class CompactMessageSerializer extends MessageSerializer {
+    public static final String MESSAGE_FORMAT = CompactMessageCodec.MESSAGE_FORMAT;
+
+    @Override
+    public String getSerializedObject(Object object) {
+        throw new UnsupportedOperationException("Compact messages are binary, use getSerializedBytes");
+    }
+
+    @Override
+    public byte[] getSerializedBytes(Object object) {
+        if (!(object instanceof EventMessage)) {
+            throw new IllegalArgumentException("Could not construct compact message from " + object);
+        }
+        return CompactMessageCodec.encode((EventMessage) object);
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public String getMessageFormat() {
+        return MESSAGE_FORMAT;
+    }
+
+}
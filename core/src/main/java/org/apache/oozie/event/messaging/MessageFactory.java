@@ -40,7 +40,9 @@ public class MessageFactory {
                 .get()
                 .getConf()
                 .get(OOZIE_MESSAGE_SERIALIZE + OOZIE_MESSAGE_FORMAT,
-                        "org.apache.oozie.event.messaging.JSONMessageSerializer");
+                        CompactMessageSerializer.MESSAGE_FORMAT.equals(OOZIE_MESSAGE_FORMAT)
+                                ? CompactMessageSerializer.class.getName()
+                                : "org.apache.oozie.event.messaging.JSONMessageSerializer");
         public static final MessageSerializer INSTANCE;
         static {
             try {
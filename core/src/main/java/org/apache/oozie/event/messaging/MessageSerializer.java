@@ -40,4 +40,22 @@ public abstract class MessageSerializer {
      */
     public abstract String getMessageFormat();
 
+    /**
+     * Whether the serializer produces a binary body, to be sent as a JMS bytes message. Binary serializers must
+     * implement {@link #getSerializedBytes(Object)}, the JMS listeners fail to initialize otherwise
+     * @return true if {@link #getSerializedBytes(Object)} should be used
+     */
+    public boolean isBinary() {
+        return false;
+    }
+
+    /**
+     * Get the serialized bytes from object, only supported by binary serializers
+     * @param object the java object
+     * @return
+     */
+    public byte[] getSerializedBytes(Object object) {
+        throw new UnsupportedOperationException(getClass().getName() + " is not a binary serializer");
+    }
+
 }
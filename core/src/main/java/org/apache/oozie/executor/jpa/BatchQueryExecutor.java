@@ -83,6 +83,22 @@ public class BatchQueryExecutor {
     @SuppressWarnings("rawtypes")
     public void executeBatchInsertUpdateDelete(Collection<JsonBean> insertList, Collection<UpdateEntry> updateList,
             Collection<JsonBean> deleteList) throws JPAExecutorException {
+        executeBatchInsertUpdateDelete(insertList, updateList, deleteList, 0);
+    }
+
+    /**
+     * Run the inserts, updates and deletes in one transaction, flushing the inserts to the database in batches of
+     * <code>insertBatchSize</code> beans.
+     *
+     * @param insertList beans to insert
+     * @param updateList update queries to run
+     * @param deleteList beans to delete
+     * @param insertBatchSize number of inserts to flush at once, 0 or less to flush only on commit
+     * @throws JPAExecutorException
+     */
+    @SuppressWarnings("rawtypes")
+    public void executeBatchInsertUpdateDelete(Collection<JsonBean> insertList, Collection<UpdateEntry> updateList,
+            Collection<JsonBean> deleteList, int insertBatchSize) throws JPAExecutorException {
         List<QueryEntry> queryList = new ArrayList<QueryEntry>();
         JPAService jpaService = Services.get().get(JPAService.class);
         EntityManager em = jpaService.getEntityManager();
@@ -129,7 +145,7 @@ public class BatchQueryExecutor {
                 queryList.add(new QueryEntry(entry.getQueryName(), query));
             }
         }
-        jpaService.executeBatchInsertUpdateDelete(insertList, queryList, deleteList, em);
+        jpaService.executeBatchInsertUpdateDelete(insertList, queryList, deleteList, em, insertBatchSize);
     }
 
 }
@@ -32,6 +32,7 @@ import org.apache.oozie.StringBlob;
 import org.apache.oozie.client.Job;
 import org.apache.oozie.client.BundleJob.Timeunit;
 import org.apache.oozie.store.StoreStatusFilter;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.openjpa.persistence.OpenJPAPersistence;
 import org.apache.openjpa.persistence.OpenJPAQuery;
@@ -49,6 +50,8 @@ public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
     private Map<String, List<String>> filter;
     private int start = 1;
     private int len = 50;
+    private JobsCursor cursor;
+    private boolean count = true;
 
     /**
      * The constructor for BundleJobInfoGetJPAExecutor
@@ -64,6 +67,20 @@ public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
         this.len = len;
     }
 
+    /**
+     * Get the bundle jobs of the page after a cursor.
+     *
+     * @param filter the filter string
+     * @param cursor position of the page in the listing
+     * @param len total length to get
+     * @param count whether to count the bundle jobs matching the filter
+     */
+    public BundleJobInfoGetJPAExecutor(Map<String, List<String>> filter, JobsCursor cursor, int len, boolean count) {
+        this(filter, 1, len);
+        this.cursor = cursor;
+        this.count = count;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
      */
@@ -83,16 +100,25 @@ public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
         List<Object> valArray = new ArrayList<Object>();
         StringBuilder sb = new StringBuilder("");
         String orderBy = DEFAULT_ORDER_BY;
+        String sortColumn = StoreStatusFilter.getSortColumn(filter);
+        String select = (cursor != null) ? StoreStatusFilter.getKeysetSelect(StoreStatusFilter.bundleSeletStr, sortColumn)
+                : StoreStatusFilter.bundleSeletStr;
 
-        StoreStatusFilter.filter(filter, orArray, colArray, valArray, sb, StoreStatusFilter.bundleSeletStr,
-                                 StoreStatusFilter.bundleCountStr);
+        StoreStatusFilter.filter(filter, orArray, colArray, valArray, sb, select, StoreStatusFilter.bundleCountStr);
         orderBy = StoreStatusFilter.getSortBy(filter, orderBy);
 
         int realLen = 0;
 
         Query q = null;
         Query qTotal = null;
-        if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY)) {
+        List<Object[]> objectArrList = null;
+        if (cursor != null) {
+            String sbTotal = sb.toString().trim().length() == 0 ? select : sb.toString();
+            objectArrList = StoreStatusFilter.getKeysetPage(em, sb.toString(), select, sortColumn, cursor, len,
+                    colArray, valArray);
+            qTotal = count ? em.createQuery(sbTotal.replace(select, StoreStatusFilter.bundleCountStr)) : null;
+        }
+        else if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY)) {
             q = em.createNamedQuery("GET_BUNDLE_JOBS_COLUMNS");
             q.setFirstResult(start - 1);
             q.setMaxResults(len);
@@ -110,18 +136,23 @@ public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
         }
 
         for (int i = 0; i < orArray.size(); i++) {
-            q.setParameter(colArray.get(i), valArray.get(i));
-            qTotal.setParameter(colArray.get(i), valArray.get(i));
-        }
-
-        OpenJPAQuery kq = OpenJPAPersistence.cast(q);
-        JDBCFetchPlan fetch = (JDBCFetchPlan) kq.getFetchPlan();
-        fetch.setFetchBatchSize(20);
-        fetch.setResultSetType(ResultSetType.SCROLL_INSENSITIVE);
-        fetch.setFetchDirection(FetchDirection.FORWARD);
-        fetch.setLRSSizeAlgorithm(LRSSizeAlgorithm.LAST);
-        List<?> resultList = q.getResultList();
-        List<Object[]> objectArrList = (List<Object[]>) resultList;
+            if (q != null) {
+                q.setParameter(colArray.get(i), valArray.get(i));
+            }
+            if (qTotal != null) {
+                qTotal.setParameter(colArray.get(i), valArray.get(i));
+            }
+        }
+
+        if (q != null) {
+            OpenJPAQuery kq = OpenJPAPersistence.cast(q);
+            JDBCFetchPlan fetch = (JDBCFetchPlan) kq.getFetchPlan();
+            fetch.setFetchBatchSize(20);
+            fetch.setResultSetType(ResultSetType.SCROLL_INSENSITIVE);
+            fetch.setFetchDirection(FetchDirection.FORWARD);
+            fetch.setLRSSizeAlgorithm(LRSSizeAlgorithm.LAST);
+            objectArrList = (List<Object[]>) q.getResultList();
+        }
         List<BundleJobBean> bundleBeansList = new ArrayList<BundleJobBean>();
 
         for (Object[] arr : objectArrList) {
@@ -129,9 +160,13 @@ public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
             bundleBeansList.add(bean);
         }
 
-        realLen = ((Long) qTotal.getSingleResult()).intValue();
+        realLen = (qTotal != null) ? ((Long) qTotal.getSingleResult()).intValue() : -1;
 
-        return new BundleJobInfo(bundleBeansList, start, len, realLen);
+        BundleJobInfo jobInfo = new BundleJobInfo(bundleBeansList, start, len, realLen);
+        if (cursor != null) {
+            jobInfo.setNextCursor(StoreStatusFilter.getNextCursor(objectArrList, len, sortColumn));
+        }
+        return jobInfo;
     }
 
     private BundleJobBean getBeanForBundleJobFromArray(Object[] arr) {
@@ -35,6 +35,7 @@ public class BundleJobsGetForPurgeJPAExecutor implements JPAExecutor<List<String
     private long olderThanDays;
     private int limit;
     private int offset;
+    private String afterId;
 
     public BundleJobsGetForPurgeJPAExecutor(long olderThanDays, int limit) {
         this(olderThanDays, 0, limit);
@@ -46,6 +47,19 @@ public class BundleJobsGetForPurgeJPAExecutor implements JPAExecutor<List<String
         this.limit = limit;
     }
 
+    /**
+     * Load the ids of the purgeable bundles after an id, in id order.
+     *
+     * @param olderThanDays age of the bundles to purge, in days.
+     * @param afterId id to start after, an empty string to start with the first bundle.
+     * @param limit maximum number of ids to load.
+     */
+    public BundleJobsGetForPurgeJPAExecutor(long olderThanDays, String afterId, int limit) {
+        this.olderThanDays = olderThanDays;
+        this.afterId = afterId;
+        this.limit = limit;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
      */
@@ -63,10 +77,17 @@ public class BundleJobsGetForPurgeJPAExecutor implements JPAExecutor<List<String
         List<String> bundleJobs = null;
         try {
             Timestamp lastModTm = new Timestamp(System.currentTimeMillis() - (olderThanDays * DAY_IN_MS));
-            Query jobQ = em.createNamedQuery("GET_COMPLETED_BUNDLE_JOBS_OLDER_THAN");
+            Query jobQ;
+            if (afterId != null) {
+                jobQ = em.createNamedQuery("GET_COMPLETED_BUNDLE_JOBS_OLDER_THAN_AFTER_ID");
+                jobQ.setParameter("id", afterId);
+            }
+            else {
+                jobQ = em.createNamedQuery("GET_COMPLETED_BUNDLE_JOBS_OLDER_THAN");
+                jobQ.setFirstResult(offset);
+            }
             jobQ.setParameter("lastModTime", lastModTm);
             jobQ.setMaxResults(limit);
-            jobQ.setFirstResult(offset);
             bundleJobs = jobQ.getResultList();
         }
         catch (Exception e) {
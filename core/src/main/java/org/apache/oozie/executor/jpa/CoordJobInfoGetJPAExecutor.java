@@ -31,6 +31,7 @@ import org.apache.oozie.CoordinatorJobInfo;
 import org.apache.oozie.client.Job.Status;
 import org.apache.oozie.client.CoordinatorJob.Timeunit;
 import org.apache.oozie.store.StoreStatusFilter;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.openjpa.persistence.OpenJPAPersistence;
 import org.apache.openjpa.persistence.OpenJPAQuery;
@@ -48,6 +49,8 @@ public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInf
     private Map<String, List<String>> filter;
     private int start = 1;
     private int len = 50;
+    private JobsCursor cursor;
+    private boolean count = true;
 
     public CoordJobInfoGetJPAExecutor(Map<String, List<String>> filter, int start, int len) {
         ParamChecker.notNull(filter, "filter");
@@ -56,6 +59,20 @@ public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInf
         this.len = len;
     }
 
+    /**
+     * Get the coordinator jobs of the page after a cursor.
+     *
+     * @param filter the filter string
+     * @param cursor position of the page in the listing
+     * @param len total length to get
+     * @param count whether to count the coordinator jobs matching the filter
+     */
+    public CoordJobInfoGetJPAExecutor(Map<String, List<String>> filter, JobsCursor cursor, int len, boolean count) {
+        this(filter, 1, len);
+        this.cursor = cursor;
+        this.count = count;
+    }
+
     @Override
     public String getName() {
         return "CoordJobInfoGetJPAExecutor";
@@ -69,16 +86,25 @@ public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInf
         List<Object> valArray = new ArrayList<Object>();
         StringBuilder sb = new StringBuilder("");
         String orderBy = DEFAULT_ORDER_BY;
+        String sortColumn = StoreStatusFilter.getSortColumn(filter);
+        String select = (cursor != null) ? StoreStatusFilter.getKeysetSelect(StoreStatusFilter.coordSeletStr, sortColumn)
+                : StoreStatusFilter.coordSeletStr;
 
-        StoreStatusFilter.filter(filter, orArray, colArray, valArray, sb, StoreStatusFilter.coordSeletStr,
-                                 StoreStatusFilter.coordCountStr);
+        StoreStatusFilter.filter(filter, orArray, colArray, valArray, sb, select, StoreStatusFilter.coordCountStr);
 
         orderBy = StoreStatusFilter.getSortBy(filter, orderBy);
         int realLen = 0;
 
         Query q = null;
         Query qTotal = null;
-        if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY)) {
+        List<Object[]> objectArrList = null;
+        if (cursor != null) {
+            String sbTotal = sb.toString().trim().length() == 0 ? select : sb.toString();
+            objectArrList = StoreStatusFilter.getKeysetPage(em, sb.toString(), select, sortColumn, cursor, len,
+                    colArray, valArray);
+            qTotal = count ? em.createQuery(sbTotal.replace(select, StoreStatusFilter.coordCountStr)) : null;
+        }
+        else if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY)) {
             q = em.createNamedQuery("GET_COORD_JOBS_COLUMNS");
             q.setFirstResult(start - 1);
             q.setMaxResults(len);
@@ -96,18 +122,23 @@ public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInf
         }
 
         for (int i = 0; i < orArray.size(); i++) {
-            q.setParameter(colArray.get(i), valArray.get(i));
-            qTotal.setParameter(colArray.get(i), valArray.get(i));
-        }
-
-        OpenJPAQuery kq = OpenJPAPersistence.cast(q);
-        JDBCFetchPlan fetch = (JDBCFetchPlan) kq.getFetchPlan();
-        fetch.setFetchBatchSize(20);
-        fetch.setResultSetType(ResultSetType.SCROLL_INSENSITIVE);
-        fetch.setFetchDirection(FetchDirection.FORWARD);
-        fetch.setLRSSizeAlgorithm(LRSSizeAlgorithm.LAST);
-        List<?> resultList = q.getResultList();
-        List<Object[]> objectArrList = (List<Object[]>) resultList;
+            if (q != null) {
+                q.setParameter(colArray.get(i), valArray.get(i));
+            }
+            if (qTotal != null) {
+                qTotal.setParameter(colArray.get(i), valArray.get(i));
+            }
+        }
+
+        if (q != null) {
+            OpenJPAQuery kq = OpenJPAPersistence.cast(q);
+            JDBCFetchPlan fetch = (JDBCFetchPlan) kq.getFetchPlan();
+            fetch.setFetchBatchSize(20);
+            fetch.setResultSetType(ResultSetType.SCROLL_INSENSITIVE);
+            fetch.setFetchDirection(FetchDirection.FORWARD);
+            fetch.setLRSSizeAlgorithm(LRSSizeAlgorithm.LAST);
+            objectArrList = (List<Object[]>) q.getResultList();
+        }
         List<CoordinatorJobBean> coordBeansList = new ArrayList<CoordinatorJobBean>();
 
         for (Object[] arr : objectArrList) {
@@ -115,9 +146,13 @@ public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInf
             coordBeansList.add(ww);
         }
 
-        realLen = ((Long) qTotal.getSingleResult()).intValue();
+        realLen = (qTotal != null) ? ((Long) qTotal.getSingleResult()).intValue() : -1;
 
-        return new CoordinatorJobInfo(coordBeansList, start, len, realLen);
+        CoordinatorJobInfo jobInfo = new CoordinatorJobInfo(coordBeansList, start, len, realLen);
+        if (cursor != null) {
+            jobInfo.setNextCursor(StoreStatusFilter.getNextCursor(objectArrList, len, sortColumn));
+        }
+        return jobInfo;
     }
 
     private CoordinatorJobBean getBeanForCoordinatorJobFromArray(Object[] arr) {
@@ -35,6 +35,7 @@ public class CoordJobsGetForPurgeJPAExecutor implements JPAExecutor<List<String>
     private long olderThanDays;
     private int limit;
     private int offset;
+    private String afterId;
 
     public CoordJobsGetForPurgeJPAExecutor(long olderThanDays, int limit) {
         this(olderThanDays, 0, limit);
@@ -46,6 +47,19 @@ public class CoordJobsGetForPurgeJPAExecutor implements JPAExecutor<List<String>
         this.limit = limit;
     }
 
+    /**
+     * Load the ids of the purgeable coordinators after an id, in id order.
+     *
+     * @param olderThanDays age of the coordinators to purge, in days.
+     * @param afterId id to start after, an empty string to start with the first coordinator.
+     * @param limit maximum number of ids to load.
+     */
+    public CoordJobsGetForPurgeJPAExecutor(long olderThanDays, String afterId, int limit) {
+        this.olderThanDays = olderThanDays;
+        this.afterId = afterId;
+        this.limit = limit;
+    }
+
     @Override
     public String getName() {
         return "CoordJobsGetForPurgeJPAExecutor";
@@ -57,10 +71,17 @@ public class CoordJobsGetForPurgeJPAExecutor implements JPAExecutor<List<String>
         List<String> coordJobs = null;
         try {
             Timestamp lastModTm = new Timestamp(System.currentTimeMillis() - (olderThanDays * DAY_IN_MS));
-            Query jobQ = em.createNamedQuery("GET_COMPLETED_COORD_JOBS_WITH_NO_PARENT_OLDER_THAN_STATUS");
+            Query jobQ;
+            if (afterId != null) {
+                jobQ = em.createNamedQuery("GET_COMPLETED_COORD_JOBS_WITH_NO_PARENT_OLDER_THAN_AFTER_ID");
+                jobQ.setParameter("id", afterId);
+            }
+            else {
+                jobQ = em.createNamedQuery("GET_COMPLETED_COORD_JOBS_WITH_NO_PARENT_OLDER_THAN_STATUS");
+                jobQ.setFirstResult(offset);
+            }
             jobQ.setParameter("lastModTime", lastModTm);
             jobQ.setMaxResults(limit);
-            jobQ.setFirstResult(offset);
             coordJobs = jobQ.getResultList();
         }
         catch (Exception e) {
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.executor.jpa;
+
+import java.sql.Timestamp;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+
+/**
+ * Count the jobs that can be purged after an id, the purge backlog.
+ */
+public class JobsCountForPurgeJPAExecutor implements JPAExecutor<Long> {
+
+    /**
+     * Kind of jobs to count.
+     */
+    public enum Candidates {
+        WORKFLOWS("GET_COMPLETED_WORKFLOWS_WITH_NO_PARENT_OLDER_THAN_COUNT_AFTER_ID", "endTime"),
+        COORD_WORKFLOWS("GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN_COUNT_AFTER_ID", "endTime"),
+        COORDINATORS("GET_COMPLETED_COORD_JOBS_WITH_NO_PARENT_OLDER_THAN_COUNT_AFTER_ID", "lastModTime"),
+        BUNDLES("GET_COMPLETED_BUNDLE_JOBS_OLDER_THAN_COUNT_AFTER_ID", "lastModTime");
+
+        private final String query;
+        private final String timeParameter;
+
+        private Candidates(String query, String timeParameter) {
+            this.query = query;
+            this.timeParameter = timeParameter;
+        }
+    }
+
+    private static final long DAY_IN_MS = 24 * 60 * 60 * 1000;
+    private final Candidates candidates;
+    private final long olderThanDays;
+    private final String afterId;
+
+    /**
+     * Count the jobs that can be purged after an id.
+     *
+     * @param candidates kind of jobs to count.
+     * @param olderThanDays age of the jobs to purge, in days.
+     * @param afterId id to count after, an empty string to count all of them.
+     */
+    public JobsCountForPurgeJPAExecutor(Candidates candidates, long olderThanDays, String afterId) {
+        this.candidates = candidates;
+        this.olderThanDays = olderThanDays;
+        this.afterId = afterId;
+    }
+
+    @Override
+    public String getName() {
+        return "JobsCountForPurgeJPAExecutor";
+    }
+
+    @Override
+    public Long execute(EntityManager em) throws JPAExecutorException {
+        try {
+            Query q = em.createNamedQuery(candidates.query);
+            q.setParameter(candidates.timeParameter,
+                    new Timestamp(System.currentTimeMillis() - (olderThanDays * DAY_IN_MS)));
+            q.setParameter("id", afterId);
+            return (Long) q.getSingleResult();
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.executor.jpa;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.store.StoreStatusFilter;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load the version of a jobs listing: the number of jobs matching the filter and their last modification time. Any
+ * job of the listing being created, modified or purged changes it, so it tells whether a listing changed without
+ * loading its jobs.
+ */
+public class JobsVersionGetJPAExecutor implements JPAExecutor<String> {
+
+    public enum JobType {
+        WORKFLOW("WorkflowJobBean"), COORDINATOR("CoordinatorJobBean"), BUNDLE("BundleJobBean");
+
+        private final String beanName;
+
+        JobType(String beanName) {
+            this.beanName = beanName;
+        }
+    }
+
+    private final JobType jobType;
+    private final Map<String, List<String>> filter;
+
+    public JobsVersionGetJPAExecutor(JobType jobType, Map<String, List<String>> filter) {
+        ParamChecker.notNull(jobType, "jobType");
+        ParamChecker.notNull(filter, "filter");
+        this.jobType = jobType;
+        this.filter = filter;
+    }
+
+    @Override
+    public String getName() {
+        return "JobsVersionGetJPAExecutor";
+    }
+
+    @Override
+    public String execute(EntityManager em) throws JPAExecutorException {
+        List<String> orArray = new ArrayList<String>();
+        List<String> colArray = new ArrayList<String>();
+        List<Object> valArray = new ArrayList<Object>();
+        StringBuilder sb = new StringBuilder("");
+        String select = "Select count(w), max(w.lastModifiedTimestamp) from " + jobType.beanName + " w";
+        StoreStatusFilter.filter(filter, orArray, colArray, valArray, sb, select, select);
+        if (sb.toString().trim().length() == 0) {
+            sb.append(select);
+        }
+        try {
+            Query q = em.createQuery(sb.toString());
+            for (int i = 0; i < orArray.size(); i++) {
+                q.setParameter(colArray.get(i), valArray.get(i));
+            }
+            Object[] result = (Object[]) q.getSingleResult();
+            Timestamp lastModified = (Timestamp) result[1];
+            return result[0] + "-" + ((lastModified != null) ? lastModified.getTime() : 0);
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e.getMessage(), e);
+        }
+    }
+}
@@ -60,6 +60,7 @@ public class WorkflowJobQueryExecutor extends QueryExecutor<WorkflowJobBean, Wor
         GET_WORKFLOW_STATUS,
         GET_WORKFLOWS_PARENT_COORD_RERUN,
         GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN,
+        GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN_AFTER_ID,
         GET_WORKFLOW_FOR_SLA
     };
 
@@ -178,11 +179,17 @@ public class WorkflowJobQueryExecutor extends QueryExecutor<WorkflowJobBean, Wor
                 query.setParameter("parentId", parameters[0]);
                 break;
             case GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN:
+            case GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN_AFTER_ID:
                 long dayInMs = 24 * 60 * 60 * 1000;
                 long olderThanDays = (Long) parameters[0];
                 Timestamp maxEndtime = new Timestamp(System.currentTimeMillis() - (olderThanDays * dayInMs));
                 query.setParameter("endTime", maxEndtime);
-                query.setFirstResult((Integer) parameters[1]);
+                if (namedQuery == WorkflowJobQuery.GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN_AFTER_ID) {
+                    query.setParameter("id", parameters[1]);
+                }
+                else {
+                    query.setFirstResult((Integer) parameters[1]);
+                }
                 query.setMaxResults((Integer) parameters[2]);
                 break;
             default:
@@ -326,6 +333,7 @@ public class WorkflowJobQueryExecutor extends QueryExecutor<WorkflowJobBean, Wor
                 bean.setEndTime(DateUtils.toDate((Timestamp) arr[3]));
                 break;
             case GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN:
+            case GET_COMPLETED_COORD_WORKFLOWS_OLDER_THAN_AFTER_ID:
                 bean = new WorkflowJobBean();
                 arr = (Object[]) ret;
                 bean.setId((String) arr[0]);
@@ -35,6 +35,7 @@ public class WorkflowJobsGetForPurgeJPAExecutor implements JPAExecutor<List<Stri
     private long olderThanDays;
     private int limit;
     private int offset;
+    private String afterId;
 
     public WorkflowJobsGetForPurgeJPAExecutor(long olderThanDays, int limit) {
         this(olderThanDays, 0, limit);
@@ -46,6 +47,19 @@ public class WorkflowJobsGetForPurgeJPAExecutor implements JPAExecutor<List<Stri
         this.limit = limit;
     }
 
+    /**
+     * Load the ids of the purgeable workflows after an id, in id order.
+     *
+     * @param olderThanDays age of the workflows to purge, in days.
+     * @param afterId id to start after, an empty string to start with the first workflow.
+     * @param limit maximum number of ids to load.
+     */
+    public WorkflowJobsGetForPurgeJPAExecutor(long olderThanDays, String afterId, int limit) {
+        this.olderThanDays = olderThanDays;
+        this.afterId = afterId;
+        this.limit = limit;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
      */
@@ -63,10 +77,17 @@ public class WorkflowJobsGetForPurgeJPAExecutor implements JPAExecutor<List<Stri
         List<String> workflows = null;
         try {
             Timestamp maxEndTime = new Timestamp(System.currentTimeMillis() - (olderThanDays * DAY_IN_MS));
-            Query jobQ = em.createNamedQuery("GET_COMPLETED_WORKFLOWS_WITH_NO_PARENT_OLDER_THAN");
+            Query jobQ;
+            if (afterId != null) {
+                jobQ = em.createNamedQuery("GET_COMPLETED_WORKFLOWS_WITH_NO_PARENT_OLDER_THAN_AFTER_ID");
+                jobQ.setParameter("id", afterId);
+            }
+            else {
+                jobQ = em.createNamedQuery("GET_COMPLETED_WORKFLOWS_WITH_NO_PARENT_OLDER_THAN");
+                jobQ.setFirstResult(offset);
+            }
             jobQ.setParameter("endTime", maxEndTime);
             jobQ.setMaxResults(limit);
-            jobQ.setFirstResult(offset);
             workflows = jobQ.getResultList();
         }
         catch (Exception e) {
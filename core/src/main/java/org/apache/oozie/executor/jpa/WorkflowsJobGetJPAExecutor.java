@@ -34,6 +34,7 @@ import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.WorkflowJob.Status;
 import org.apache.oozie.store.StoreStatusFilter;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.util.XLog;
 import org.apache.openjpa.persistence.OpenJPAPersistence;
 import org.apache.openjpa.persistence.OpenJPAQuery;
@@ -52,6 +53,8 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
     private final Map<String, List<String>> filter;
     private final int start;
     private final int len;
+    private final JobsCursor cursor;
+    private final boolean count;
 
     /**
      * This JPA Executor gets the workflows info for the range.
@@ -64,6 +67,24 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
         this.filter = filter;
         this.start = start;
         this.len = len;
+        this.cursor = null;
+        this.count = true;
+    }
+
+    /**
+     * This JPA Executor gets the workflows info for the page after a cursor.
+     *
+     * @param filter
+     * @param cursor position of the page in the listing
+     * @param len
+     * @param count whether to count the workflows matching the filter
+     */
+    public WorkflowsJobGetJPAExecutor(Map<String, List<String>> filter, JobsCursor cursor, int len, boolean count) {
+        this.filter = filter;
+        this.start = 1;
+        this.len = len;
+        this.cursor = cursor;
+        this.count = count;
     }
 
     /* (non-Javadoc)
@@ -77,6 +98,8 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
         List<Object> valArray = new ArrayList<Object>();
         StringBuilder sb = new StringBuilder("");
         String orderBy = DEFAULT_ORDER_BY;
+        String sortColumn = StoreStatusFilter.getSortColumn(filter);
+        String select = (cursor != null) ? StoreStatusFilter.getKeysetSelect(seletStr, sortColumn) : seletStr;
         boolean isStatus = false;
         boolean isAppName = false;
         boolean isUser = false;
@@ -96,7 +119,7 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
                         colVar = "status";
                         colVar = colVar + index;
                         if (!isEnabled && !isStatus) {
-                            sb.append(seletStr).append(" where w.statusStr IN (:status" + index);
+                            sb.append(select).append(" where w.statusStr IN (:status" + index);
                             isStatus = true;
                             isEnabled = true;
                         }
@@ -128,7 +151,7 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
                             colVar = "appName";
                             colVar = colVar + index;
                             if (!isEnabled && !isAppName) {
-                                sb.append(seletStr).append(" where w.appName IN (:appName" + index);
+                                sb.append(select).append(" where w.appName IN (:appName" + index);
                                 isAppName = true;
                                 isEnabled = true;
                             }
@@ -160,7 +183,7 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
                                 colVar = "user";
                                 colVar = colVar + index;
                                 if (!isEnabled && !isUser) {
-                                    sb.append(seletStr).append(" where w.user IN (:user" + index);
+                                    sb.append(select).append(" where w.user IN (:user" + index);
                                     isUser = true;
                                     isEnabled = true;
                                 }
@@ -192,7 +215,7 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
                             colVar = "id";
                             colVar = colVar + index;
                             if (!isEnabled && !isId) {
-                                sb.append(seletStr).append(" where w.id IN (:id" + index);
+                                sb.append(select).append(" where w.id IN (:id" + index);
                                 isId = true;
                                 isEnabled = true;
                             }
@@ -226,7 +249,7 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
                         colVar = colName;
                         colVar = colVar + index;
                         if (!isEnabled) {
-                            sb.append(seletStr).append(" where w.createdTimestamp >= :" + colVar);
+                            sb.append(select).append(" where w.createdTimestamp >= :" + colVar);
                             isEnabled = true;
                         }
                         else {
@@ -256,7 +279,7 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
                         colVar = colName;
                         colVar = colVar + index;
                         if (!isEnabled) {
-                            sb.append(seletStr).append(" where w.createdTimestamp <= :" + colVar);
+                            sb.append(select).append(" where w.createdTimestamp <= :" + colVar);
                             isEnabled = true;
                         }
                         else {
@@ -277,7 +300,7 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
                     }
                     // w.id = text || w.appName.contains(text) || w.user.contains(text)
                     else if (entry.getKey().equalsIgnoreCase(OozieClient.FILTER_TEXT)) {
-                        StoreStatusFilter.filterJobsUsingText(filter, sb, isEnabled, seletStr, valArray, orArray, colArray);
+                        StoreStatusFilter.filterJobsUsingText(filter, sb, isEnabled, select, valArray, orArray, colArray);
                         isEnabled = true;
                     }
                 }
@@ -289,7 +312,17 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
 
         Query q = null;
         Query qTotal = null;
-        if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY)) {
+        List<Object[]> objectArrList = null;
+        if (cursor != null) {
+            String sbTotal = sb.toString().trim().length() == 0 ? select : sb.toString();
+            objectArrList = StoreStatusFilter.getKeysetPage(em, sb.toString(), select, sortColumn, cursor, len,
+                    colArray, valArray);
+            qTotal = count ? em.createQuery(sbTotal.replace(select, countStr)) : null;
+            for (int i = 0; qTotal != null && i < orArray.size(); i++) {
+                qTotal.setParameter(colArray.get(i), valArray.get(i));
+            }
+        }
+        else if (orArray.size() == 0 && orderBy.equals(DEFAULT_ORDER_BY)) {
             q = em.createNamedQuery("GET_WORKFLOWS_COLUMNS");
             q.setFirstResult(start - 1);
             q.setMaxResults(len);
@@ -310,14 +343,15 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
             }
         }
 
-        OpenJPAQuery kq = OpenJPAPersistence.cast(q);
-        JDBCFetchPlan fetch = (JDBCFetchPlan) kq.getFetchPlan();
-        fetch.setFetchBatchSize(20);
-        fetch.setResultSetType(ResultSetType.SCROLL_INSENSITIVE);
-        fetch.setFetchDirection(FetchDirection.FORWARD);
-        fetch.setLRSSizeAlgorithm(LRSSizeAlgorithm.LAST);
-        List<?> resultList = q.getResultList();
-        List<Object[]> objectArrList = (List<Object[]>) resultList;
+        if (q != null) {
+            OpenJPAQuery kq = OpenJPAPersistence.cast(q);
+            JDBCFetchPlan fetch = (JDBCFetchPlan) kq.getFetchPlan();
+            fetch.setFetchBatchSize(20);
+            fetch.setResultSetType(ResultSetType.SCROLL_INSENSITIVE);
+            fetch.setFetchDirection(FetchDirection.FORWARD);
+            fetch.setLRSSizeAlgorithm(LRSSizeAlgorithm.LAST);
+            objectArrList = (List<Object[]>) q.getResultList();
+        }
         List<WorkflowJobBean> wfBeansList = new ArrayList<WorkflowJobBean>();
 
         for (Object[] arr : objectArrList) {
@@ -325,9 +359,13 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
             wfBeansList.add(ww);
         }
 
-        realLen = ((Long) qTotal.getSingleResult()).intValue();
+        realLen = (qTotal != null) ? ((Long) qTotal.getSingleResult()).intValue() : -1;
 
-        return new WorkflowsInfo(wfBeansList, start, len, realLen);
+        WorkflowsInfo workflowsInfo = new WorkflowsInfo(wfBeansList, start, len, realLen);
+        if (cursor != null) {
+            workflowsInfo.setNextCursor(StoreStatusFilter.getNextCursor(objectArrList, len, sortColumn));
+        }
+        return workflowsInfo;
     }
 
     /* (non-Javadoc)
@@ -55,7 +55,8 @@ public interface ConnectionContext {
     boolean isConnectionInitialized();
 
     /**
-     * Creates session using the specified session opts
+     * Creates session using the specified session opts, {@link Session#SESSION_TRANSACTED} creates a transacted
+     * session
      *
      * @param sessionOpts
      * @return
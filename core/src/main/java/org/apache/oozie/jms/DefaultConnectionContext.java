@@ -91,7 +91,7 @@ public class DefaultConnectionContext implements ConnectionContext {
         if (connection == null) {
             throw new JMSException ("Connection is not initialized");
         }
-        return connection.createSession(false, sessionOpts);
+        return connection.createSession(sessionOpts == Session.SESSION_TRANSACTED, sessionOpts);
     }
 
     @Override
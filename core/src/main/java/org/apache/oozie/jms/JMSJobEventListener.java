@@ -18,13 +18,12 @@
 
 package org.apache.oozie.jms;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import javax.jms.DeliveryMode;
 import javax.jms.JMSException;
-import javax.jms.MessageProducer;
 import javax.jms.Session;
-import javax.jms.TextMessage;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.client.event.jms.JMSHeaderConstants;
@@ -60,7 +59,7 @@ public class JMSJobEventListener extends JobEventListener {
     private int jmsSessionOpts;
     private int jmsDeliveryMode;
     private int jmsExpirationDate;
-    private ConnectionContext jmsContext;
+    private JMSMessagePublisher publisher;
     private static XLog LOG;
 
     @Override
@@ -72,33 +71,37 @@ public class JMSJobEventListener extends JobEventListener {
         jmsSessionOpts = conf.getInt(JMS_SESSION_OPTS, Session.AUTO_ACKNOWLEDGE);
         jmsDeliveryMode = conf.getInt(JMS_DELIVERY_MODE, DeliveryMode.PERSISTENT);
         jmsExpirationDate = conf.getInt(JMS_EXPIRATION_DATE, 0);
-
+        // a serializer that cannot be published fails the service init instead of every notification
+        JMSMessagePublisher.checkSerializer(MessageFactory.getMessageSerializer());
+        publisher = new JMSMessagePublisher(jmsService, connInfo, jmsSessionOpts, jmsDeliveryMode,
+                jmsExpirationDate, ConfigurationService.getInt(conf, JMSMessagePublisher.JMS_BATCH_SIZE),
+                ConfigurationService.getLong(conf, JMSMessagePublisher.JMS_BATCH_INTERVAL));
     }
 
     protected void sendMessage(Map<String, String> messageProperties, String messageBody, String topicName,
             String messageFormat) {
-        jmsContext = jmsService.createProducerConnectionContext(connInfo);
-        if (jmsContext != null) {
-            try {
-                Session session = jmsContext.createThreadLocalSession(jmsSessionOpts);
-                TextMessage textMessage = session.createTextMessage(messageBody);
-                for (Map.Entry<String, String> property : messageProperties.entrySet()) {
-                    textMessage.setStringProperty(property.getKey(), property.getValue());
-                }
-                textMessage.setStringProperty(JMSHeaderConstants.MESSAGE_FORMAT, messageFormat);
-                LOG.trace("Event related JMS text body [{0}]", textMessage.getText());
-                LOG.trace("Event related JMS entire message [{0}]", textMessage.toString());
-                MessageProducer producer = jmsContext.createProducer(session, topicName);
-                producer.setDeliveryMode(jmsDeliveryMode);
-                producer.setTimeToLive(jmsExpirationDate);
-                producer.send(textMessage);
-                producer.close();
-            }
-            catch (JMSException jmse) {
-                LOG.error("Exception happened while sending event related jms message", jmse);
+        sendMessage(messageProperties, messageBody, null, topicName, messageFormat);
+    }
+
+    protected void sendMessage(Map<String, String> messageProperties, byte[] messageBody, String topicName,
+            String messageFormat) {
+        sendMessage(messageProperties, null, messageBody, topicName, messageFormat);
+    }
+
+    private void sendMessage(Map<String, String> messageProperties, String text, byte[] bytes, String topicName,
+            String messageFormat) {
+        Map<String, String> properties = new HashMap<String, String>(messageProperties);
+        properties.put(JMSHeaderConstants.MESSAGE_FORMAT, messageFormat);
+        try {
+            boolean sent = bytes != null ? publisher.publish(topicName, bytes, properties)
+                    : publisher.publish(topicName, text, properties);
+            if (!sent) {
+                LOG.warn("No connection. Not sending message" + (bytes != null ? "" : text));
             }
         }
-
+        catch (JMSException jmse) {
+            LOG.error("Exception happened while sending event related jms message", jmse);
+        }
     }
 
     @Override
@@ -116,8 +119,14 @@ public class JMSJobEventListener extends JobEventListener {
 
     private void serializeJMSMessage(JobMessage jobMessage, String topicName) {
         MessageSerializer serializer = MessageFactory.getMessageSerializer();
-        String messageBody = serializer.getSerializedObject(jobMessage);
-        sendMessage(jobMessage.getMessageProperties(), messageBody, topicName, serializer.getMessageFormat());
+        if (serializer.isBinary()) {
+            byte[] messageBody = serializer.getSerializedBytes(jobMessage);
+            sendMessage(jobMessage.getMessageProperties(), messageBody, topicName, serializer.getMessageFormat());
+        }
+        else {
+            String messageBody = serializer.getSerializedObject(jobMessage);
+            sendMessage(jobMessage.getMessageProperties(), messageBody, topicName, serializer.getMessageFormat());
+        }
     }
 
     protected String getTopic(WorkflowJobEvent event) {
@@ -152,6 +161,9 @@ public class JMSJobEventListener extends JobEventListener {
 
     @Override
     public void destroy() {
-}
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
 
 }
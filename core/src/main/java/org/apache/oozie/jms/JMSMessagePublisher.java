@@ -0,0 +1,369 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.jms;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.apache.oozie.event.messaging.MessageSerializer;
+import org.apache.oozie.service.JMSAccessorService;
+import org.apache.oozie.service.SchedulerService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Publishes notification messages reusing sessions and one producer per topic and session.
+ * <p>
+ * With a batch size of 1 every message is sent right away in a non transacted session. Each sending thread has its
+ * own session, so threads send in parallel. With a larger batch size the messages are sent in one transacted session
+ * which is committed every batch size messages or when the oldest uncommitted message is older than the batch
+ * interval, whichever comes first. A scheduled flush commits the messages of a batch that is not filled up within
+ * the interval. The event worker threads are taken from the shared scheduler pool, so the transacted session is not
+ * bound to a thread; access to it is serialized instead.
+ */
+public class JMSMessagePublisher {
+
+    public static final String JMS_BATCH_SIZE = "oozie.jms.producer.batch.size";
+    public static final String JMS_BATCH_INTERVAL = "oozie.jms.producer.batch.interval";
+
+    private static final XLog LOG = XLog.getLog(JMSMessagePublisher.class);
+
+    private final JMSAccessorService jmsService;
+    private final JMSConnectionInfo connInfo;
+    private final int sessionOpts;
+    private final int deliveryMode;
+    private final long timeToLive;
+    private final int batchSize;
+    private final long batchInterval;
+
+    private final Sender batchSender = new Sender(Session.SESSION_TRANSACTED);
+    private final ThreadLocal<Sender> threadSender = new ThreadLocal<Sender>();
+    private final Set<Sender> threadSenders = Collections.newSetFromMap(new ConcurrentHashMap<Sender, Boolean>());
+    private volatile boolean closed;
+    private volatile ScheduledFuture<?> flushSchedule;
+
+    /**
+     * @param jmsService service providing the producer connection
+     * @param connInfo connection to publish to
+     * @param sessionOpts acknowledge mode of the session when not batching
+     * @param deliveryMode delivery mode of the producers
+     * @param timeToLive time to live of the messages, in milliseconds
+     * @param batchSize number of messages committed together, 1 disables batching
+     * @param batchInterval maximum time, in milliseconds, a message is kept uncommitted
+     */
+    public JMSMessagePublisher(JMSAccessorService jmsService, JMSConnectionInfo connInfo, int sessionOpts,
+            int deliveryMode, long timeToLive, int batchSize, long batchInterval) {
+        this.jmsService = jmsService;
+        this.connInfo = connInfo;
+        this.sessionOpts = sessionOpts;
+        this.deliveryMode = deliveryMode;
+        this.timeToLive = timeToLive;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchInterval = Math.max(1, batchInterval);
+        if (isBatching()) {
+            SchedulerService scheduler = Services.get().get(SchedulerService.class);
+            if (scheduler != null) {
+                flushSchedule = scheduler.scheduleCancellable(new Runnable() {
+                    @Override
+                    public void run() {
+                        flushIfDue();
+                    }
+                }, this.batchInterval, this.batchInterval, SchedulerService.Unit.MILLISEC);
+            }
+            else {
+                LOG.warn("SchedulerService not available, JMS batches are only committed when new messages are sent");
+            }
+        }
+    }
+
+    /**
+     * Check that the messages of a serializer can be published, binary serializers being published as bytes messages
+     * and the others as text messages.
+     *
+     * @param serializer serializer of the messages
+     * @throws IllegalArgumentException thrown if the serializer is binary but does not implement
+     * {@link MessageSerializer#getSerializedBytes(Object)}
+     */
+    public static void checkSerializer(MessageSerializer serializer) {
+        if (serializer.isBinary()) {
+            Class<?> declaringClass;
+            try {
+                declaringClass = serializer.getClass().getMethod("getSerializedBytes", Object.class)
+                        .getDeclaringClass();
+            }
+            catch (NoSuchMethodException ex) {
+                throw new IllegalStateException(ex);
+            }
+            if (declaringClass == MessageSerializer.class) {
+                throw new IllegalArgumentException("Message serializer [" + serializer.getClass().getName()
+                        + "] of format [" + serializer.getMessageFormat() + "] is binary but does not implement "
+                        + "getSerializedBytes, binary messages are published as JMS bytes messages");
+            }
+        }
+    }
+
+    /**
+     * Publish a text message.
+     *
+     * @param topicName topic to publish to
+     * @param body message body
+     * @param properties string properties of the message
+     * @return false if there was no connection to publish to
+     * @throws JMSException thrown if the message could not be sent, the uncommitted messages of the batch are lost
+     */
+    public boolean publish(String topicName, String body, Map<String, String> properties) throws JMSException {
+        return publish(topicName, body, null, properties);
+    }
+
+    /**
+     * Publish a bytes message.
+     *
+     * @param topicName topic to publish to
+     * @param body message body
+     * @param properties string properties of the message
+     * @return false if there was no connection to publish to
+     * @throws JMSException thrown if the message could not be sent, the uncommitted messages of the batch are lost
+     */
+    public boolean publish(String topicName, byte[] body, Map<String, String> properties) throws JMSException {
+        return publish(topicName, null, body, properties);
+    }
+
+    private boolean publish(String topicName, String text, byte[] bytes, Map<String, String> properties)
+            throws JMSException {
+        if (closed) {
+            return false;
+        }
+        if (!isBatching()) {
+            Sender sender = threadSender.get();
+            if (sender == null) {
+                sender = new Sender(sessionOpts);
+                threadSender.set(sender);
+                threadSenders.add(sender);
+            }
+            return sender.send(topicName, text, bytes, properties);
+        }
+        synchronized (batchSender) {
+            return !closed && batchSender.send(topicName, text, bytes, properties);
+        }
+    }
+
+    /**
+     * Commit the uncommitted messages of the current batch.
+     */
+    public void flush() {
+        synchronized (batchSender) {
+            batchSender.flush();
+        }
+    }
+
+    /**
+     * Stop the scheduled flush, commit the uncommitted messages and close the sessions and the producers.
+     * <p>
+     * The connection is shared and is not closed.
+     */
+    public void close() {
+        ScheduledFuture<?> schedule = flushSchedule;
+        if (schedule != null) {
+            schedule.cancel(false);
+            flushSchedule = null;
+        }
+        synchronized (batchSender) {
+            batchSender.flush();
+            closed = true;
+            batchSender.reset();
+        }
+        for (Sender sender : threadSenders) {
+            sender.closeSession();
+        }
+        threadSenders.clear();
+    }
+
+    int getPending() {
+        synchronized (batchSender) {
+            return batchSender.pending;
+        }
+    }
+
+    int getThreadSessionCount() {
+        return threadSenders.size();
+    }
+
+    boolean isFlushScheduled() {
+        ScheduledFuture<?> schedule = flushSchedule;
+        return schedule != null && !schedule.isDone();
+    }
+
+    private boolean isBatching() {
+        return batchSize > 1;
+    }
+
+    private void flushIfDue() {
+        synchronized (batchSender) {
+            if (!closed && batchSender.pending > 0
+                    && System.currentTimeMillis() - batchSender.pendingSince >= batchInterval) {
+                batchSender.flush();
+            }
+        }
+    }
+
+    /**
+     * A session with its producers. The transacted session of the batches is used under its own lock, the
+     * sessions of the sending threads by their thread only.
+     */
+    private class Sender {
+        private final int acknowledgeMode;
+        private ConnectionContext jmsContext;
+        private volatile Session session;
+        private final Map<String, MessageProducer> producers = new HashMap<String, MessageProducer>();
+        private int pending;
+        private long pendingSince;
+
+        Sender(int acknowledgeMode) {
+            this.acknowledgeMode = acknowledgeMode;
+        }
+
+        boolean send(String topicName, String text, byte[] bytes, Map<String, String> properties)
+                throws JMSException {
+            if (!ensureSession()) {
+                return false;
+            }
+            try {
+                Message message;
+                if (bytes != null) {
+                    BytesMessage bytesMessage = session.createBytesMessage();
+                    bytesMessage.writeBytes(bytes);
+                    message = bytesMessage;
+                }
+                else {
+                    message = session.createTextMessage(text);
+                    LOG.trace("Event related JMS text body [{0}]", text);
+                }
+                for (Map.Entry<String, String> property : properties.entrySet()) {
+                    message.setStringProperty(property.getKey(), property.getValue());
+                }
+                LOG.trace("Event related JMS entire message [{0}]", message);
+                getProducer(topicName).send(message);
+                if (acknowledgeMode == Session.SESSION_TRANSACTED) {
+                    if (pending == 0) {
+                        pendingSince = System.currentTimeMillis();
+                    }
+                    pending++;
+                    if (pending >= batchSize || System.currentTimeMillis() - pendingSince >= batchInterval) {
+                        commit();
+                    }
+                }
+                return true;
+            }
+            catch (JMSException ex) {
+                reset();
+                throw ex;
+            }
+        }
+
+        void flush() {
+            if (pending > 0) {
+                try {
+                    commit();
+                }
+                catch (JMSException ex) {
+                    LOG.error("Could not commit [{0}] JMS messages", pending, ex);
+                    reset();
+                }
+            }
+        }
+
+        private void commit() throws JMSException {
+            session.commit();
+            LOG.debug("Committed [{0}] JMS messages", pending);
+            pending = 0;
+        }
+
+        private boolean ensureSession() throws JMSException {
+            ConnectionContext context = jmsService.createProducerConnectionContext(connInfo);
+            if (context == null) {
+                return false;
+            }
+            if (context != jmsContext) {
+                // connection was re-established, the session of the old connection is no longer usable
+                reset();
+                jmsContext = context;
+            }
+            if (session == null) {
+                session = jmsContext.createSession(acknowledgeMode);
+            }
+            return true;
+        }
+
+        private MessageProducer getProducer(String topicName) throws JMSException {
+            MessageProducer producer = producers.get(topicName);
+            if (producer == null) {
+                producer = jmsContext.createProducer(session, topicName);
+                producer.setDeliveryMode(deliveryMode);
+                producer.setTimeToLive(timeToLive);
+                producers.put(topicName, producer);
+            }
+            return producer;
+        }
+
+        /**
+         * Close the session from another thread than the one using it, closing a session is the one session
+         * method other threads may call.
+         */
+        void closeSession() {
+            Session current = session;
+            if (current != null) {
+                try {
+                    current.close();
+                }
+                catch (JMSException ex) {
+                    LOG.warn("Could not close JMS session", ex);
+                }
+            }
+        }
+
+        void reset() {
+            if (pending > 0) {
+                LOG.warn("Discarding [{0}] uncommitted JMS messages", pending);
+            }
+            pending = 0;
+            producers.clear();
+            if (session != null) {
+                try {
+                    // closing the session closes its producers and rolls back the uncommitted messages
+                    session.close();
+                }
+                catch (JMSException ex) {
+                    LOG.warn("Could not close JMS session", ex);
+                }
+                session = null;
+            }
+            jmsContext = null;
+        }
+    }
+}
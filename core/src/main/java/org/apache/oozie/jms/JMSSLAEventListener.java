@@ -18,11 +18,12 @@
 
 package org.apache.oozie.jms;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.jms.DeliveryMode;
 import javax.jms.JMSException;
-import javax.jms.MessageProducer;
 import javax.jms.Session;
-import javax.jms.TextMessage;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.sla.listener.SLAEventListener;
@@ -31,6 +32,7 @@ import org.apache.oozie.client.event.message.SLAMessage;
 import org.apache.oozie.client.event.SLAEvent;
 import org.apache.oozie.event.messaging.MessageFactory;
 import org.apache.oozie.event.messaging.MessageSerializer;
+import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.JMSAccessorService;
 import org.apache.oozie.service.JMSTopicService;
 import org.apache.oozie.service.Services;
@@ -44,7 +46,7 @@ public class JMSSLAEventListener extends SLAEventListener {
     private int jmsSessionOpts;
     private int jmsDeliveryMode;
     private int jmsExpirationDate;
-    private ConnectionContext jmsContext;
+    private JMSMessagePublisher publisher;
     private static XLog LOG;
 
     @Override
@@ -55,6 +57,10 @@ public class JMSSLAEventListener extends SLAEventListener {
         jmsSessionOpts = conf.getInt(JMSJobEventListener.JMS_SESSION_OPTS, Session.AUTO_ACKNOWLEDGE);
         jmsDeliveryMode = conf.getInt(JMSJobEventListener.JMS_DELIVERY_MODE, DeliveryMode.PERSISTENT);
         jmsExpirationDate = conf.getInt(JMSJobEventListener.JMS_EXPIRATION_DATE, 0);
+        JMSMessagePublisher.checkSerializer(MessageFactory.getMessageSerializer());
+        publisher = new JMSMessagePublisher(jmsService, connInfo, jmsSessionOpts, jmsDeliveryMode,
+                jmsExpirationDate, ConfigurationService.getInt(conf, JMSMessagePublisher.JMS_BATCH_SIZE),
+                ConfigurationService.getLong(conf, JMSMessagePublisher.JMS_BATCH_INTERVAL));
     }
 
     @Override
@@ -90,40 +96,47 @@ public class JMSSLAEventListener extends SLAEventListener {
     protected void sendSLANotification(SLAEvent event) {
         SLAMessage slaMsg = MessageFactory.createSLAMessage(event);
         MessageSerializer serializer = MessageFactory.getMessageSerializer();
-        String messageBody = serializer.getSerializedObject(slaMsg);
         String serializerMessageFormat = serializer.getMessageFormat();
         String topicName = getTopic(event);
-        sendJMSMessage(slaMsg, messageBody, topicName, serializerMessageFormat);
+        if (serializer.isBinary()) {
+            sendJMSMessage(slaMsg, serializer.getSerializedBytes(slaMsg), topicName, serializerMessageFormat);
+        }
+        else {
+            String messageBody = serializer.getSerializedObject(slaMsg);
+            sendJMSMessage(slaMsg, messageBody, topicName, serializerMessageFormat);
+        }
     }
 
     protected void sendJMSMessage(SLAMessage slaMsg, String messageBody, String topicName,
             String messageFormat) {
-        jmsContext = jmsService.createProducerConnectionContext(connInfo);
-        if (jmsContext != null) {
-            try {
-                Session session = jmsContext.createThreadLocalSession(jmsSessionOpts);
-                TextMessage textMessage = session.createTextMessage(messageBody);
-                textMessage.setStringProperty(JMSHeaderConstants.EVENT_STATUS, slaMsg.getEventStatus().toString());
-                textMessage.setStringProperty(JMSHeaderConstants.SLA_STATUS, slaMsg.getSLAStatus().toString());
-                textMessage.setStringProperty(JMSHeaderConstants.APP_TYPE, slaMsg.getAppType().toString());
-                textMessage.setStringProperty(JMSHeaderConstants.MESSAGE_TYPE, slaMsg.getMessageType().toString());
-                textMessage.setStringProperty(JMSHeaderConstants.APP_NAME, slaMsg.getAppName());
-                textMessage.setStringProperty(JMSHeaderConstants.USER, slaMsg.getUser());
-                textMessage.setStringProperty(JMSHeaderConstants.MESSAGE_FORMAT, messageFormat);
-                LOG.trace("Event related JMS text body [{0}]", textMessage.getText());
-                LOG.trace("Event related JMS message [{0}]", textMessage.toString());
-                MessageProducer producer = jmsContext.createProducer(session, topicName);
-                producer.setDeliveryMode(jmsDeliveryMode);
-                producer.setTimeToLive(jmsExpirationDate);
-                producer.send(textMessage);
-                producer.close();
-            }
-            catch (JMSException jmse) {
-                LOG.error("Exception happened while sending event related jms message :" + messageBody, jmse);
+        sendJMSMessage(slaMsg, messageBody, null, topicName, messageFormat);
+    }
+
+    protected void sendJMSMessage(SLAMessage slaMsg, byte[] messageBody, String topicName,
+            String messageFormat) {
+        sendJMSMessage(slaMsg, null, messageBody, topicName, messageFormat);
+    }
+
+    private void sendJMSMessage(SLAMessage slaMsg, String text, byte[] bytes, String topicName,
+            String messageFormat) {
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put(JMSHeaderConstants.EVENT_STATUS, slaMsg.getEventStatus().toString());
+        properties.put(JMSHeaderConstants.SLA_STATUS, slaMsg.getSLAStatus().toString());
+        properties.put(JMSHeaderConstants.APP_TYPE, slaMsg.getAppType().toString());
+        properties.put(JMSHeaderConstants.MESSAGE_TYPE, slaMsg.getMessageType().toString());
+        properties.put(JMSHeaderConstants.APP_NAME, slaMsg.getAppName());
+        properties.put(JMSHeaderConstants.USER, slaMsg.getUser());
+        properties.put(JMSHeaderConstants.MESSAGE_FORMAT, messageFormat);
+        String description = bytes != null ? slaMsg.getId() : text;
+        try {
+            boolean sent = bytes != null ? publisher.publish(topicName, bytes, properties)
+                    : publisher.publish(topicName, text, properties);
+            if (!sent) {
+                LOG.warn("No connection. Not sending message" + description);
             }
         }
-        else {
-            LOG.warn("No connection. Not sending message" + messageBody);
+        catch (JMSException jmse) {
+            LOG.error("Exception happened while sending event related jms message :" + description, jmse);
         }
     }
 
@@ -138,5 +151,8 @@ public class JMSSLAEventListener extends SLAEventListener {
 
     @Override
     public void destroy() {
+        if (publisher != null) {
+            publisher.close();
+        }
     }
 }
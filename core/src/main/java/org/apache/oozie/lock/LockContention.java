@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.lock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Samples the lock acquisitions that had to wait or failed, per resource, for a bounded number of resources.  When
+ * the bound is reached the least recently contended resource is dropped.
+ */
+public class LockContention {
+
+    private final Map<String, Contention> contention;
+    private final AtomicLong contendedCount = new AtomicLong();
+
+    /**
+     * Create a lock contention sampler.
+     *
+     * @param maxContended maximum number of resources whose contention is sampled.
+     */
+    public LockContention(final int maxContended) {
+        contention = new LinkedHashMap<String, Contention>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Contention> eldest) {
+                return size() > maxContended;
+            }
+        };
+    }
+
+    /**
+     * Sample a lock acquisition that had to wait or failed.
+     *
+     * @param resource resource name.
+     * @param waitTime time waited for the lock in milliseconds.
+     * @param acquired <code>false</code> if the lock could not be obtained.
+     */
+    public void sample(String resource, long waitTime, boolean acquired) {
+        contendedCount.incrementAndGet();
+        Contention entry;
+        synchronized (contention) {
+            entry = contention.get(resource);
+            if (entry == null) {
+                entry = new Contention(resource);
+                contention.put(resource, entry);
+            }
+        }
+        entry.sample(waitTime, acquired);
+    }
+
+    /**
+     * Return the number of lock acquisitions that had to wait or failed.
+     *
+     * @return the number of contended lock acquisitions.
+     */
+    public long getContendedCount() {
+        return contendedCount.get();
+    }
+
+    /**
+     * Return the most contended resources, by total wait time.
+     *
+     * @param len maximum number of resources to return, not negative.
+     * @return the contention of the most contended resources, most contended first.
+     */
+    public List<Contention> getMostContended(int len) {
+        ParamChecker.checkGEZero(len, "len");
+        List<Contention> list;
+        synchronized (contention) {
+            list = new ArrayList<Contention>(contention.values());
+        }
+        Collections.sort(list, new Comparator<Contention>() {
+            @Override
+            public int compare(Contention c1, Contention c2) {
+                long w1 = c1.getWaitTime();
+                long w2 = c2.getWaitTime();
+                return (w1 < w2) ? 1 : ((w1 == w2) ? 0 : -1);
+            }
+        });
+        return (list.size() > len) ? new ArrayList<Contention>(list.subList(0, len)) : list;
+    }
+
+    /**
+     * Contention sampled for a resource.
+     */
+    public static class Contention {
+        private final String resource;
+        private final AtomicLong waits = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong waitTime = new AtomicLong();
+        private final AtomicLong maxWaitTime = new AtomicLong();
+
+        private Contention(String resource) {
+            this.resource = resource;
+        }
+
+        private void sample(long wait, boolean acquired) {
+            waits.incrementAndGet();
+            if (!acquired) {
+                timeouts.incrementAndGet();
+            }
+            waitTime.addAndGet(wait);
+            long max = maxWaitTime.get();
+            while (wait > max && !maxWaitTime.compareAndSet(max, wait)) {
+                max = maxWaitTime.get();
+            }
+        }
+
+        /**
+         * Return the resource name.
+         *
+         * @return the resource name.
+         */
+        public String getResource() {
+            return resource;
+        }
+
+        /**
+         * Return the number of lock acquisitions that had to wait, including the ones that timed out.
+         *
+         * @return the number of waits.
+         */
+        public long getWaits() {
+            return waits.get();
+        }
+
+        /**
+         * Return the number of lock acquisitions that timed out.
+         *
+         * @return the number of timeouts.
+         */
+        public long getTimeouts() {
+            return timeouts.get();
+        }
+
+        /**
+         * Return the total time waited for the lock.
+         *
+         * @return the total wait time in milliseconds.
+         */
+        public long getWaitTime() {
+            return waitTime.get();
+        }
+
+        /**
+         * Return the longest time waited for the lock.
+         *
+         * @return the maximum wait time in milliseconds.
+         */
+        public long getMaxWaitTime() {
+            return maxWaitTime.get();
+        }
+    }
+}
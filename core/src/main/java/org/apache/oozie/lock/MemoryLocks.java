@@ -18,20 +18,68 @@
 
 package org.apache.oozie.lock;
 
+import java.util.Collections;
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.Lock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.apache.oozie.service.MemoryLocksService.Type;
 
 import com.google.common.collect.MapMaker;
 
 /**
  * In memory resource locking that provides READ/WRITE lock capabilities.
+ * <p>
+ * Locks are fair unless their resource type is configured as unfair, see {@link #getResourceType(String)}.  Lock
+ * acquisitions that have to wait are sampled per resource, for a bounded number of resources, to find the most
+ * contended locks.
  */
 public class MemoryLocks {
 
+    public static final String TYPE_WORKFLOW = "workflow";
+    public static final String TYPE_COORDINATOR = "coordinator";
+    public static final String TYPE_BUNDLE = "bundle";
+    public static final String TYPE_ACTION_SUFFIX = "-action";
+    public static final String TYPE_OTHER = "other";
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\\d{7}-.*-([WCB])(@.*)?");
+    private static final int DEFAULT_MAX_CONTENDED = 1000;
+
     final private ConcurrentMap<String, ReentrantReadWriteLock> locks = new MapMaker().weakValues().makeMap();
+    private final LockContention contention;
+    private final Set<String> unfairTypes;
+
+    /**
+     * Create in memory locks, all fair.
+     */
+    public MemoryLocks() {
+        this(Collections.<String>emptySet(), DEFAULT_MAX_CONTENDED);
+    }
+
+    /**
+     * Create in memory locks.
+     *
+     * @param unfairTypes resource types whose locks are not fair.
+     * @param maxContended maximum number of resources whose contention is sampled.
+     */
+    public MemoryLocks(Set<String> unfairTypes, int maxContended) {
+        this(unfairTypes, new LockContention(maxContended));
+    }
+
+    /**
+     * Create in memory locks sampling their contention with the given sampler.
+     *
+     * @param unfairTypes resource types whose locks are not fair.
+     * @param contention lock contention sampler.
+     */
+    public MemoryLocks(Set<String> unfairTypes, LockContention contention) {
+        this.unfairTypes = unfairTypes;
+        this.contention = contention;
+    }
 
     /**
      * Implementation of {@link LockToken} for in memory locks.
@@ -83,7 +131,8 @@ public class MemoryLocks {
     public MemoryLockToken getLock(final String resource, Type type, long wait) throws InterruptedException {
         ReentrantReadWriteLock lockEntry = locks.get(resource);
         if (lockEntry == null) {
-            ReentrantReadWriteLock newLock = new ReentrantReadWriteLock(true);
+            boolean fair = !unfairTypes.contains(getResourceType(resource));
+            ReentrantReadWriteLock newLock = new ReentrantReadWriteLock(fair);
             lockEntry = locks.putIfAbsent(resource, newLock);
             if (lockEntry == null) {
                 lockEntry = newLock;
@@ -91,29 +140,67 @@ public class MemoryLocks {
         }
         Lock lock = (type.equals(Type.READ)) ? lockEntry.readLock() : lockEntry.writeLock();
 
-        if (wait == -1) {
-            lock.lock();
+        // the entry is strongly referenced while it is in use, so the weak map keeps it
+        if (wait == 0) {
+            if (!lock.tryLock()) {
+                contention.sample(resource, 0, false);
+                return null;
+            }
         }
-        else {
-            if (wait > 0) {
-                if (!lock.tryLock(wait, TimeUnit.MILLISECONDS)) {
-                    return null;
-                }
+        // unlike tryLock(), a timed tryLock does not barge ahead of the waiting threads of a fair lock
+        else if (!lock.tryLock(0, TimeUnit.MILLISECONDS)) {
+            long start = System.nanoTime();
+            boolean acquired = true;
+            if (wait == -1) {
+                lock.lock();
             }
             else {
-                if (!lock.tryLock()) {
-                    return null;
-                }
+                acquired = lock.tryLock(wait, TimeUnit.MILLISECONDS);
             }
-        }
-        synchronized (locks) {
-            if (!locks.containsKey(resource)) {
-                locks.put(resource, lockEntry);
+            contention.sample(resource, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), acquired);
+            if (!acquired) {
+                return null;
             }
         }
         return new MemoryLockToken(lockEntry, type);
     }
 
+    /**
+     * Return the type of a resource: <code>workflow</code>, <code>coordinator</code> or <code>bundle</code> for job
+     * ids, the same followed by <code>-action</code> for action ids, and <code>other</code> for any other resource.
+     *
+     * @param resource resource name.
+     * @return the resource type.
+     */
+    public static String getResourceType(String resource) {
+        Matcher matcher = ID_PATTERN.matcher(resource);
+        if (!matcher.matches()) {
+            return TYPE_OTHER;
+        }
+        String type;
+        switch (matcher.group(1).charAt(0)) {
+            case 'W':
+                type = TYPE_WORKFLOW;
+                break;
+            case 'C':
+                type = TYPE_COORDINATOR;
+                break;
+            default:
+                type = TYPE_BUNDLE;
+                break;
+        }
+        return (matcher.group(2) != null) ? type + TYPE_ACTION_SUFFIX : type;
+    }
+
+    /**
+     * Return the contention sampled for the locks.
+     *
+     * @return the lock contention.
+     */
+    public LockContention getContention() {
+        return contention;
+    }
+
     public ConcurrentMap<String, ReentrantReadWriteLock> getLockMap(){
         return locks;
     }
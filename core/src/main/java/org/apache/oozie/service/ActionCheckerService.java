@@ -19,10 +19,14 @@
 package org.apache.oozie.service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.client.WorkflowAction;
+import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.coord.CoordActionCheckXCommand;
 import org.apache.oozie.command.wf.ActionCheckXCommand;
@@ -30,6 +34,8 @@ import org.apache.oozie.executor.jpa.CoordActionsRunningGetJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor.WorkflowActionQuery;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XLog;
 
@@ -38,8 +44,13 @@ import org.apache.oozie.util.XLog;
  * running actions and CoordActionCheckCommands to check the status of
  * coordinator actions. The delay between checks on the same action can be
  * configured.
+ * <p>
+ * If {@link #CONF_ADAPTIVE_ENABLED} is set, started workflow actions also get their own chain of checks. The first
+ * check is scheduled at the duration the action took in its previous runs, and the following ones back off
+ * exponentially, never further apart than {@link #CONF_ADAPTIVE_MAX_DELAY}. This bounds the time it takes to notice a
+ * completed action whose callback got lost, without polling the short ones needlessly.
  */
-public class ActionCheckerService implements Service {
+public class ActionCheckerService implements Service, Instrumentable {
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "ActionCheckerService.";
     /**
@@ -56,9 +67,82 @@ public class ActionCheckerService implements Service {
      */
     public static final String CONF_CALLABLE_BATCH_SIZE = CONF_PREFIX + "callable.batch.size";
 
+    /**
+     * Whether started workflow actions get adaptively scheduled checks.
+     */
+    public static final String CONF_ADAPTIVE_ENABLED = CONF_PREFIX + "adaptive.enabled";
+
+    /**
+     * The minimum time, in seconds, between adaptively scheduled checks of the same action.
+     */
+    public static final String CONF_ADAPTIVE_MIN_DELAY = CONF_PREFIX + "adaptive.min.delay";
+
+    /**
+     * The maximum time, in seconds, between adaptively scheduled checks of the same action.
+     */
+    public static final String CONF_ADAPTIVE_MAX_DELAY = CONF_PREFIX + "adaptive.max.delay";
+
+    /**
+     * The number of workflow actions whose expected duration is remembered.
+     */
+    public static final String CONF_ADAPTIVE_HISTORY_SIZE = CONF_PREFIX + "adaptive.history.size";
+
     protected static final String INSTRUMENTATION_GROUP = "actionchecker";
     protected static final String INSTR_CHECK_ACTIONS_COUNTER = "checks_wf_actions";
     protected static final String INSTR_CHECK_COORD_ACTIONS_COUNTER = "checks_coord_actions";
+    protected static final String INSTR_ADAPTIVE_CHECKS_COUNTER = "checks_adaptive";
+    protected static final String INSTR_ADAPTIVE_CHECKS_RUNNING_COUNTER = "checks_adaptive_running";
+    protected static final String INSTR_CALLBACK_COMPLETIONS_COUNTER = "completions_callback";
+    protected static final String INSTR_POLL_COMPLETIONS_COUNTER = "completions_poll";
+
+    private boolean adaptive;
+    private long minDelay;
+    private long maxDelay;
+    private LruMap<Long> expectedDurations;
+    private LruMap<Long> callbackTimes;
+    private final DetectionLag callbackLag = new DetectionLag();
+    private final DetectionLag pollLag = new DetectionLag();
+
+    /**
+     * Map keeping its most recently used entries only.
+     */
+    @SuppressWarnings("serial")
+    private static class LruMap<V> extends LinkedHashMap<String, V> {
+        private final int maxSize;
+
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    /**
+     * Count, total and max of the time between an action completing and Oozie detecting it.
+     */
+    private static class DetectionLag {
+        private long count;
+        private long total;
+        private long max;
+
+        synchronized void add(long lag) {
+            count++;
+            total += lag;
+            max = Math.max(max, lag);
+        }
+
+        synchronized long getAvg() {
+            return (count == 0) ? 0 : total / count;
+        }
+
+        synchronized long getMax() {
+            return max;
+        }
+    }
 
 
     /**
@@ -221,6 +305,12 @@ public class ActionCheckerService implements Service {
      */
     @Override
     public void init(Services services) {
+        adaptive = ConfigurationService.getBoolean(services.getConf(), CONF_ADAPTIVE_ENABLED);
+        minDelay = ConfigurationService.getLong(services.getConf(), CONF_ADAPTIVE_MIN_DELAY) * 1000;
+        maxDelay = Math.max(minDelay, ConfigurationService.getLong(services.getConf(), CONF_ADAPTIVE_MAX_DELAY) * 1000);
+        int historySize = ConfigurationService.getInt(services.getConf(), CONF_ADAPTIVE_HISTORY_SIZE);
+        expectedDurations = new LruMap<Long>(historySize);
+        callbackTimes = new LruMap<Long>(historySize);
         Runnable actionCheckRunnable = new ActionCheckRunnable(ConfigurationService.getInt
                 (services.getConf(), CONF_ACTION_CHECK_DELAY));
         services.get(SchedulerService.class).schedule(actionCheckRunnable, 10,
@@ -228,6 +318,145 @@ public class ActionCheckerService implements Service {
                 SchedulerService.Unit.SEC);
     }
 
+    /**
+     * Instruments the action checker service.
+     *
+     * @param instr instance to instrument the action checker service to.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "expected_durations", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                synchronized (expectedDurations) {
+                    return (long) expectedDurations.size();
+                }
+            }
+        });
+        addLagVariables(instr, "callback", callbackLag);
+        addLagVariables(instr, "poll", pollLag);
+    }
+
+    private void addLagVariables(Instrumentation instr, String detection, final DetectionLag lag) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "detection_lag_" + detection + "_avg_ms",
+                new Instrumentation.Variable<Long>() {
+                    public Long getValue() {
+                        return lag.getAvg();
+                    }
+                });
+        instr.addVariable(INSTRUMENTATION_GROUP, "detection_lag_" + detection + "_max_ms",
+                new Instrumentation.Variable<Long>() {
+                    public Long getValue() {
+                        return lag.getMax();
+                    }
+                });
+    }
+
+    /**
+     * Return whether started workflow actions get adaptively scheduled checks.
+     *
+     * @return <code>true</code> if adaptive checks are enabled.
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Return the delay until the next adaptively scheduled check of a running action.
+     * <p>
+     * Until the action reaches the duration it took in its previous runs, the check is scheduled at that duration. Past
+     * it, or if the action has no previous runs, the delay is the time the action has been overdue for, so checks back
+     * off exponentially. The delay is always between {@link #CONF_ADAPTIVE_MIN_DELAY} and
+     * {@link #CONF_ADAPTIVE_MAX_DELAY}.
+     *
+     * @param job workflow job of the action.
+     * @param action running action.
+     * @return the delay in milliseconds.
+     */
+    public long getCheckDelay(WorkflowJob job, WorkflowAction action) {
+        long elapsed = (action.getStartTime() == null) ? 0
+                : System.currentTimeMillis() - action.getStartTime().getTime();
+        Long expected;
+        synchronized (expectedDurations) {
+            expected = expectedDurations.get(getHistoryKey(job, action));
+        }
+        long delay = Math.abs(elapsed - ((expected == null) ? 0 : expected));
+        return Math.min(maxDelay, Math.max(minDelay, delay));
+    }
+
+    /**
+     * Record the result of an adaptively scheduled check.
+     *
+     * @param running whether the action was found still running.
+     */
+    public void adaptiveCheckDone(boolean running) {
+        incrCounter(INSTR_ADAPTIVE_CHECKS_COUNTER);
+        if (running) {
+            incrCounter(INSTR_ADAPTIVE_CHECKS_RUNNING_COUNTER);
+        }
+    }
+
+    /**
+     * Record that a completion callback was received for an action. The time is used as the completion time of the
+     * action when the completion gets detected.
+     *
+     * @param actionId action id.
+     */
+    public void callbackReceived(String actionId) {
+        synchronized (callbackTimes) {
+            callbackTimes.put(actionId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Record that an action has been detected as completed, learning its duration for the checks of its next runs.
+     * <p>
+     * If a callback was received for the action, its time is taken as the completion time. Otherwise the action
+     * completed at some point between its previous check and now, and the middle of that interval is taken as the
+     * completion time, so the learned duration does not grow with the check delays. The polling detection lag is
+     * measured from the previous check, which makes it an upper bound.
+     *
+     * @param job workflow job of the action.
+     * @param action completed action, with the time of its previous check.
+     */
+    public void actionCompleted(WorkflowJob job, WorkflowActionBean action) {
+        long now = System.currentTimeMillis();
+        Long callbackTime;
+        synchronized (callbackTimes) {
+            callbackTime = callbackTimes.remove(action.getId());
+        }
+        long completion;
+        if (callbackTime != null) {
+            completion = callbackTime;
+            callbackLag.add(now - completion);
+            incrCounter(INSTR_CALLBACK_COMPLETIONS_COUNTER);
+        }
+        else {
+            long lastCheck = (action.getLastCheckTime() == null) ? now : action.getLastCheckTime().getTime();
+            pollLag.add(now - lastCheck);
+            incrCounter(INSTR_POLL_COMPLETIONS_COUNTER);
+            completion = lastCheck + (now - lastCheck) / 2;
+        }
+        if (action.getStartTime() != null) {
+            long duration = Math.max(0, completion - action.getStartTime().getTime());
+            String key = getHistoryKey(job, action);
+            synchronized (expectedDurations) {
+                Long expected = expectedDurations.get(key);
+                expectedDurations.put(key, (expected == null) ? duration : (expected + duration) / 2);
+            }
+        }
+    }
+
+    private static String getHistoryKey(WorkflowJob job, WorkflowAction action) {
+        return job.getAppPath() + "#" + action.getName();
+    }
+
+    private static void incrCounter(String name) {
+        InstrumentationService instrumentationService = Services.get().get(InstrumentationService.class);
+        if (instrumentationService != null) {
+            instrumentationService.get().incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
     /**
      * Destroy the Action Checker Services.
      */
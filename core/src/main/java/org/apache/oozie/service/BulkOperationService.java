@@ -0,0 +1,396 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.rest.JsonTags;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.command.XCommand;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.JsonUtils;
+import org.apache.oozie.util.XLog;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Service that runs the per job commands of bulk kill, suspend and resume requests.
+ * <p>
+ * The commands of an operation are executed by a bounded number of worker commands queued in the
+ * {@link CallableQueueService}, each worker taking the next pending job command until none is left. The progress of
+ * the operations is kept in memory, the last finished operations are kept for status requests.
+ */
+public class BulkOperationService implements Service, Instrumentable {
+
+    private static XLog LOG = XLog.getLog(BulkOperationService.class);
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "BulkOperationService.";
+
+    /**
+     * Maximum number of job commands of an operation executed concurrently.
+     */
+    public static final String CONF_PARALLELISM = CONF_PREFIX + "parallelism";
+
+    /**
+     * Number of finished operations kept for status requests.
+     */
+    public static final String CONF_MAX_OPERATIONS = CONF_PREFIX + "max.operations";
+
+    static final String INSTRUMENTATION_GROUP = "bulk.operations";
+
+    private static final int MAX_ERRORS = 100;
+
+    private int parallelism;
+    private int maxOperations;
+    private String idPrefix;
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Map<String, Operation> operations = new LinkedHashMap<String, Operation>();
+
+    /**
+     * A bulk operation, the execution of the commands of a set of jobs.
+     */
+    public static class Operation {
+        private final String id;
+        private final String name;
+        private final List<String> jobIds;
+        private final ConcurrentLinkedQueue<Map.Entry<String, XCommand<?>>> pending;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final Map<String, String> errors = new LinkedHashMap<String, String>();
+        private final CountDownLatch done;
+        private final Date startTime = new Date();
+        private volatile Date endTime;
+        private volatile CommandException firstError;
+        private final AtomicInteger running;
+
+        Operation(String id, String name, Map<String, XCommand<?>> commands, AtomicInteger running) {
+            this.id = id;
+            this.running = running;
+            this.name = name;
+            this.jobIds = new ArrayList<String>(commands.keySet());
+            this.pending = new ConcurrentLinkedQueue<Map.Entry<String, XCommand<?>>>(commands.entrySet());
+            this.done = new CountDownLatch(commands.isEmpty() ? 0 : 1);
+            if (commands.isEmpty()) {
+                endTime = startTime;
+            }
+            else {
+                running.incrementAndGet();
+            }
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getJobIds() {
+            return jobIds;
+        }
+
+        public int getTotal() {
+            return jobIds.size();
+        }
+
+        public int getCompleted() {
+            return completed.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        /**
+         * Return the status of the operation: <code>RUNNING</code>, <code>SUCCEEDED</code> or, if the command of
+         * some job failed, <code>DONEWITHERROR</code>.
+         *
+         * @return the status of the operation.
+         */
+        public String getStatus() {
+            if (!isDone()) {
+                return "RUNNING";
+            }
+            return (failed.get() == 0) ? "SUCCEEDED" : "DONEWITHERROR";
+        }
+
+        /**
+         * Return the exception of the first job command that failed.
+         *
+         * @return the exception, <code>null</code> if no job command failed.
+         */
+        public CommandException getFirstError() {
+            return firstError;
+        }
+
+        /**
+         * Wait for the commands of all the jobs to complete.
+         * <p>
+         * The calling thread executes pending commands itself, so waiting does not depend on the callable queue
+         * having free threads.
+         *
+         * @throws CommandException thrown if the thread was interrupted, or with the exception of the first job
+         *         command that failed, like a sequential execution of the commands would.
+         */
+        public void join() throws CommandException {
+            run();
+            try {
+                done.await();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CommandException(ErrorCode.E1105, id);
+            }
+            if (firstError != null) {
+                throw firstError;
+            }
+        }
+
+        /**
+         * Execute pending job commands until there are none left.
+         */
+        void run() {
+            Map.Entry<String, XCommand<?>> entry;
+            while ((entry = pending.poll()) != null) {
+                try {
+                    entry.getValue().call();
+                }
+                catch (CommandException ex) {
+                    LOG.warn("Bulk operation [{0}], command for job [{1}] failed, {2}", id, entry.getKey(),
+                            ex.getMessage(), ex);
+                    fail(entry.getKey(), ex);
+                }
+                finally {
+                    complete();
+                }
+            }
+        }
+
+        /**
+         * Fail the commands not executed yet.
+         *
+         * @param ex the cause of the failure.
+         */
+        void abort(CommandException ex) {
+            Map.Entry<String, XCommand<?>> entry;
+            while ((entry = pending.poll()) != null) {
+                fail(entry.getKey(), ex);
+                complete();
+            }
+        }
+
+        private void fail(String jobId, CommandException ex) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (firstError == null) {
+                    firstError = ex;
+                }
+                if (errors.size() < MAX_ERRORS) {
+                    errors.put(jobId, ex.getMessage());
+                }
+            }
+        }
+
+        private void complete() {
+            if (completed.incrementAndGet() == jobIds.size()) {
+                endTime = new Date();
+                running.decrementAndGet();
+                done.countDown();
+                LOG.info("Bulk operation [{0}] finished, [{1}] of [{2}] job commands failed", id, failed.get(),
+                        jobIds.size());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public JSONObject toJSONObject(String timeZoneId) {
+            JSONObject json = new JSONObject();
+            json.put(JsonTags.BULK_OPERATION_ID, id);
+            json.put(JsonTags.BULK_OPERATION_NAME, name);
+            json.put(JsonTags.BULK_OPERATION_STATUS, getStatus());
+            json.put(JsonTags.BULK_OPERATION_TOTAL, getTotal());
+            json.put(JsonTags.BULK_OPERATION_COMPLETED, getCompleted());
+            json.put(JsonTags.BULK_OPERATION_FAILED, getFailed());
+            json.put(JsonTags.BULK_OPERATION_START_TIME, JsonUtils.formatDateRfc822(startTime, timeZoneId));
+            json.put(JsonTags.BULK_OPERATION_END_TIME, JsonUtils.formatDateRfc822(endTime, timeZoneId));
+            JSONArray ids = new JSONArray();
+            ids.addAll(jobIds);
+            json.put(JsonTags.JOB_IDS, ids);
+            JSONObject jsonErrors = new JSONObject();
+            synchronized (errors) {
+                jsonErrors.putAll(errors);
+            }
+            json.put(JsonTags.BULK_OPERATION_ERRORS, jsonErrors);
+            return json;
+        }
+    }
+
+    /**
+     * Worker executing the job commands of an operation.
+     * <p>
+     * Each worker of an operation has its own callable type, so the callable concurrency limit of the queue applies
+     * per worker index and does not cap the parallelism of an operation.
+     */
+    private static class BulkOperationWorkerXCommand extends XCommand<Void> {
+        private final Operation operation;
+
+        BulkOperationWorkerXCommand(Operation operation, int index) {
+            super("bulk_operation", "bulk_operation_" + index, 1);
+            this.operation = operation;
+        }
+
+        @Override
+        protected boolean isLockRequired() {
+            return false;
+        }
+
+        @Override
+        public String getEntityKey() {
+            return null;
+        }
+
+        @Override
+        protected void loadState() throws CommandException {
+        }
+
+        @Override
+        protected void verifyPrecondition() throws CommandException, PreconditionException {
+        }
+
+        @Override
+        protected Void execute() throws CommandException {
+            operation.run();
+            return null;
+        }
+    }
+
+    @Override
+    public void init(Services services) throws ServiceException {
+        parallelism = Math.max(1, ConfigurationService.getInt(services.getConf(), CONF_PARALLELISM));
+        maxOperations = ConfigurationService.getInt(services.getConf(), CONF_MAX_OPERATIONS);
+        idPrefix = "bulk-" + System.currentTimeMillis() + "-";
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (operations) {
+            operations.clear();
+        }
+    }
+
+    @Override
+    public Class<? extends Service> getInterface() {
+        return BulkOperationService.class;
+    }
+
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "running", new Instrumentation.Variable<Integer>() {
+            @Override
+            public Integer getValue() {
+                return running.get();
+            }
+        });
+    }
+
+    /**
+     * Start a bulk operation.
+     *
+     * @param name name of the operation, the bulk command name.
+     * @param commands command to execute for each job, by job id.
+     * @return the operation.
+     * @throws CommandException thrown if none of the workers of the operation could be queued.
+     */
+    public Operation submit(String name, Map<String, XCommand<?>> commands) throws CommandException {
+        Operation operation = new Operation(idPrefix + counter.incrementAndGet(), name, commands, running);
+        synchronized (operations) {
+            operations.put(operation.getId(), operation);
+            purgeOperations();
+        }
+        int workers = Math.min(parallelism, commands.size());
+        int queued = 0;
+        CallableQueueService callableQueue = Services.get().get(CallableQueueService.class);
+        for (int i = 0; i < workers; i++) {
+            if (callableQueue.queue(new BulkOperationWorkerXCommand(operation, i))) {
+                queued++;
+            }
+        }
+        if (workers > 0 && queued == 0) {
+            CommandException ex = new CommandException(ErrorCode.E1104, operation.getId());
+            operation.abort(ex);
+            throw ex;
+        }
+        LOG.info("Bulk operation [{0}] [{1}] started for [{2}] jobs with [{3}] workers", operation.getId(), name,
+                commands.size(), queued);
+        return operation;
+    }
+
+    /**
+     * Return a bulk operation.
+     *
+     * @param id the operation id.
+     * @return the operation.
+     * @throws CommandException thrown if the operation does not exist, or is not kept anymore.
+     */
+    public Operation getOperation(String id) throws CommandException {
+        synchronized (operations) {
+            Operation operation = operations.get(id);
+            if (operation == null) {
+                throw new CommandException(ErrorCode.E1103, id);
+            }
+            return operation;
+        }
+    }
+
+    /**
+     * Remove the oldest finished operations over the maximum kept.
+     */
+    private void purgeOperations() {
+        int finished = 0;
+        for (Operation operation : operations.values()) {
+            if (operation.isDone()) {
+                finished++;
+            }
+        }
+        Iterator<Operation> it = operations.values().iterator();
+        while (finished > maxOperations && it.hasNext()) {
+            if (it.next().isDone()) {
+                it.remove();
+                finished--;
+            }
+        }
+    }
+}
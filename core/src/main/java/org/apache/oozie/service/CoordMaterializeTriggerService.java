@@ -20,7 +20,12 @@ package org.apache.oozie.service;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.command.coord.CoordMaterializeTransitionXCommand;
@@ -30,6 +35,9 @@ import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.BatchQueryExecutor.UpdateEntry;
 import org.apache.oozie.executor.jpa.CoordJobQueryExecutor.CoordJobQuery;
 import org.apache.oozie.lock.LockToken;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.NamedThreadFactory;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.DateUtils;
@@ -38,8 +46,11 @@ import org.apache.oozie.util.DateUtils;
  * The coordinator Materialization Lookup trigger service schedule lookup trigger command for every interval (default is
  * 5 minutes ). This interval could be configured through oozie configuration defined is either oozie-default.xml or
  * oozie-site.xml using the property name oozie.service.CoordMaterializeTriggerService.lookup.interval
+ * <p>
+ * Jobs are picked in the order their next action is due. In HA mode each server only picks the jobs that
+ * {@link JobsConcurrencyService} assigns to it.
  */
-public class CoordMaterializeTriggerService implements Service {
+public class CoordMaterializeTriggerService implements Service, Instrumentable {
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "CoordMaterializeTriggerService.";
     /**
      * Time interval, in seconds, at which the Job materialization service will be scheduled to run.
@@ -59,9 +70,19 @@ public class CoordMaterializeTriggerService implements Service {
      * The number of coordinator jobs to be picked for materialization at a given time.
      */
     public static final String CONF_MATERIALIZATION_SYSTEM_LIMIT = CONF_PREFIX + "materialization.system.limit";
+    /**
+     * The number of threads shared by the materialization commands to evaluate the actions of a job in parallel.
+     */
+    public static final String CONF_MATERIALIZATION_THREADS = CONF_PREFIX + "materialization.threads";
 
     private static final String INSTRUMENTATION_GROUP = "coord_job_mat";
     private static final String INSTR_MAT_JOBS_COUNTER = "jobs";
+    private static final String INSTR_MAT_LAG_MAX = "lag.max.seconds";
+    private static final String INSTR_MAT_LAG_AVG = "lag.avg.seconds";
+    private static final String INSTR_MAT_JOBS_DUE = "jobs.due";
+
+    private ExecutorService materializationExecutor;
+    private CoordMaterializeTriggerRunnable lookupTriggerJobsRunnable;
 
     /**
      * This runnable class will run in every "interval" to queue CoordMaterializeTransitionXCommand.
@@ -73,7 +94,13 @@ public class CoordMaterializeTriggerService implements Service {
         private List<XCallable<Void>> callables;
         private List<XCallable<Void>> delayedCallables;
         private XLog LOG = XLog.getLog(getClass());
-
+        /**
+         * Materialization lag, in seconds behind the nominal time of the next action, of the jobs picked by the last
+         * lookup.
+         */
+        private final AtomicLong maxLagSeconds = new AtomicLong();
+        private final AtomicLong avgLagSeconds = new AtomicLong();
+        private final AtomicLong jobsDue = new AtomicLong();
 
         public CoordMaterializeTriggerRunnable(int materializationWindow, int lookupInterval) {
             this.materializationWindow = materializationWindow;
@@ -159,24 +186,81 @@ public class CoordMaterializeTriggerService implements Service {
         private void materializeCoordJobs(Date currDate, int limit, XLog LOG, List<UpdateEntry> updateList)
                 throws JPAExecutorException {
             try {
+                JobsConcurrencyService concurrencyService = Services.get().get(JobsConcurrencyService.class);
+                int numServers = 1;
+                if (concurrencyService.isHighlyAvailableMode()) {
+                    numServers = Math.max(1, concurrencyService.getServerUrls().size());
+                }
+                // the other servers' jobs are filtered out below, fetch enough to still fill this server's limit
                 List<CoordinatorJobBean> materializeJobs = CoordJobQueryExecutor.getInstance().getList(
-                        CoordJobQuery.GET_COORD_JOBS_OLDER_FOR_MATERIALIZATION, currDate, limit);
+                        CoordJobQuery.GET_COORD_JOBS_OLDER_FOR_MATERIALIZATION, currDate,
+                        limit > 0 ? limit * numServers : limit);
+                if (numServers > 1) {
+                    materializeJobs = filterJobsForThisServer(concurrencyService, materializeJobs);
+                }
+                if (limit > 0 && materializeJobs.size() > limit) {
+                    materializeJobs = materializeJobs.subList(0, limit);
+                }
                 LOG.info("CoordMaterializeTriggerService - Curr Date= " + DateUtils.formatDateOozieTZ(currDate)
                         + ", Num jobs to materialize = " + materializeJobs.size());
+
+                Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+                long now = System.currentTimeMillis();
+                long maxLag = 0;
+                long totalLag = 0;
+                int queued = 0;
                 for (CoordinatorJobBean coordJob : materializeJobs) {
-                    Services.get().get(InstrumentationService.class).get()
-                            .incr(INSTRUMENTATION_GROUP, INSTR_MAT_JOBS_COUNTER, 1);
+                    long lag = Math.max(0, (now - getDueTime(coordJob).getTime()) / 1000);
+                    maxLag = Math.max(maxLag, lag);
+                    totalLag += lag;
+                    queued++;
+                    instr.incr(INSTRUMENTATION_GROUP, INSTR_MAT_JOBS_COUNTER, 1);
                     queueCallable(new CoordMaterializeTransitionXCommand(coordJob.getId(), materializationWindow));
                     coordJob.setLastModifiedTime(new Date());
                     updateList.add(new UpdateEntry<CoordJobQuery>(CoordJobQuery.UPDATE_COORD_JOB_LAST_MODIFIED_TIME,
                             coordJob));
                 }
+                maxLagSeconds.set(maxLag);
+                avgLagSeconds.set(queued == 0 ? 0 : totalLag / queued);
+                jobsDue.set(queued);
+                if (maxLag > 0) {
+                    LOG.info("Coordinator materialization lag, max = " + maxLag + " seconds, avg = "
+                            + avgLagSeconds.get() + " seconds");
+                }
             }
             catch (JPAExecutorException jex) {
                 LOG.warn("JPAExecutorException while attempting to materialize coordinator jobs", jex);
             }
         }
 
+        long getMaxLagSeconds() {
+            return maxLagSeconds.get();
+        }
+
+        long getAvgLagSeconds() {
+            return avgLagSeconds.get();
+        }
+
+        long getJobsDue() {
+            return jobsDue.get();
+        }
+
+        private List<CoordinatorJobBean> filterJobsForThisServer(JobsConcurrencyService concurrencyService,
+                List<CoordinatorJobBean> jobs) {
+            List<String> ids = new ArrayList<String>(jobs.size());
+            for (CoordinatorJobBean job : jobs) {
+                ids.add(job.getId());
+            }
+            Set<String> myIds = new HashSet<String>(concurrencyService.getJobIdsForThisServer(ids));
+            List<CoordinatorJobBean> myJobs = new ArrayList<CoordinatorJobBean>(myIds.size());
+            for (CoordinatorJobBean job : jobs) {
+                if (myIds.contains(job.getId())) {
+                    myJobs.add(job);
+                }
+            }
+            return myJobs;
+        }
+
         /**
          * Adds callables to a list. If the number of callables in the list reaches {@link
          * CoordMaterializeTriggerService#CONF_CALLABLE_BATCH_SIZE}, the entire batch is queued and the callables list
@@ -212,14 +296,72 @@ public class CoordMaterializeTriggerService implements Service {
         // default is 300sec (5min)
         int schedulingInterval = Services.get().getConf().getInt(CONF_SCHEDULING_INTERVAL, lookupInterval);
 
-        Runnable lookupTriggerJobsRunnable = new CoordMaterializeTriggerRunnable(materializationWindow, lookupInterval);
+        lookupTriggerJobsRunnable = new CoordMaterializeTriggerRunnable(materializationWindow, lookupInterval);
 
         services.get(SchedulerService.class).schedule(lookupTriggerJobsRunnable, 10, schedulingInterval,
                                                       SchedulerService.Unit.SEC);
+
+        int materializationThreads = ConfigurationService.getInt(services.getConf(), CONF_MATERIALIZATION_THREADS);
+        if (materializationThreads > 0) {
+            materializationExecutor = Executors.newFixedThreadPool(materializationThreads,
+                    new NamedThreadFactory("CoordMaterializer"));
+        }
     }
 
     @Override
     public void destroy() {
+        if (materializationExecutor != null) {
+            materializationExecutor.shutdownNow();
+            materializationExecutor = null;
+        }
+    }
+
+    /**
+     * Instruments the coordinator materialization trigger service.
+     *
+     * @param instr instance to instrument the service to.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, INSTR_MAT_LAG_MAX, new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return lookupTriggerJobsRunnable.getMaxLagSeconds();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, INSTR_MAT_LAG_AVG, new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return lookupTriggerJobsRunnable.getAvgLagSeconds();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, INSTR_MAT_JOBS_DUE, new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return lookupTriggerJobsRunnable.getJobsDue();
+            }
+        });
+    }
+
+    /**
+     * Return the nominal time the next action of a job is due: the next materialized time, or the start time if the
+     * job has not materialized any action yet.
+     *
+     * @param coordJob the coordinator job
+     * @return the time the next action of the job is due
+     */
+    static Date getDueTime(CoordinatorJobBean coordJob) {
+        Date dueTime = coordJob.getNextMaterializedTime();
+        return (dueTime != null) ? dueTime : coordJob.getStartTime();
+    }
+
+    /**
+     * Return the executor to materialize the actions of a coordinator job in parallel.
+     *
+     * @return the executor, or <code>null</code> if actions are to be materialized by the command thread
+     */
+    public ExecutorService getMaterializationExecutor() {
+        return materializationExecutor;
     }
 
     @Override
@@ -212,6 +212,13 @@ public class EventHandlerService implements Service {
         LOG.debug("Queueing event : {0}", event);
         LOG.trace("Stack trace while queueing event : {0}", event, new Throwable());
         eventQueue.add(event);
+        if (event instanceof JobEvent) {
+            // watches are woken up right away, not when the event workers drain the queue
+            JobWatchService watchService = Services.get().get(JobWatchService.class);
+            if (watchService != null) {
+                watchService.onEvent((JobEvent) event);
+            }
+        }
         LogUtils.clearLogPrefix();
     }
 
@@ -0,0 +1,281 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.command.coord.CoordActionUpdatePushMissingDependency;
+import org.apache.oozie.dependency.fs.FSDependencyCache;
+import org.apache.oozie.dependency.fs.FSEventSource;
+import org.apache.oozie.dependency.fs.HDFSInotifyEventSource;
+import org.apache.oozie.dependency.fs.SimpleFSDependencyCache;
+import org.apache.oozie.executor.jpa.CoordActionQueryExecutor;
+import org.apache.oozie.executor.jpa.CoordActionQueryExecutor.CoordActionQuery;
+import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Module that turns file system dependencies into push dependencies. Actions waiting on a path are kept in a
+ * {@link FSDependencyCache} and are woken up when the {@link FSEventSource} reports that the path, typically a
+ * done flag like _SUCCESS, has been created. The periodic push dependency check stays as a fallback.
+ */
+public class FSDependencyManagerService implements Service, Instrumentable {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "FSDependencyManagerService.";
+    public static final String CACHE_MANAGER_IMPL = CONF_PREFIX + "cache.manager.impl";
+    public static final String EVENT_SOURCE_IMPL = CONF_PREFIX + "event.source.impl";
+    public static final String CACHE_PURGE_INTERVAL = CONF_PREFIX + "cache.purge.interval";
+    public static final String CACHE_PURGE_TTL = CONF_PREFIX + "cache.purge.ttl";
+
+    private static final String INSTRUMENTATION_GROUP = "fsdependency";
+
+    private static XLog LOG = XLog.getLog(FSDependencyManagerService.class);
+
+    private FSDependencyCache dependencyCache;
+    private FSEventSource eventSource;
+    private Instrumentation instrumentation;
+
+    /**
+     * Keep timestamp when missing dependencies of a coord action are registered
+     */
+    private ConcurrentMap<String, Long> registeredCoordActionMap;
+
+    private boolean purgeEnabled = false;
+
+    @Override
+    public void init(Services services) throws ServiceException {
+        Configuration conf = services.getConf();
+        Class<?> cacheClass = conf.getClass(CACHE_MANAGER_IMPL, SimpleFSDependencyCache.class);
+        dependencyCache = (FSDependencyCache) ReflectionUtils.newInstance(cacheClass, null);
+        dependencyCache.init(conf);
+        Class<?> eventSourceClass = conf.getClass(EVENT_SOURCE_IMPL, HDFSInotifyEventSource.class);
+        eventSource = (FSEventSource) ReflectionUtils.newInstance(eventSourceClass, null);
+        eventSource.init(conf);
+        LOG.info("FSDependencyManagerService initialized. Dependency cache is {0}, event source is {1}",
+                dependencyCache.getClass().getName(), eventSource.getClass().getName());
+        purgeEnabled = services.get(JobsConcurrencyService.class).isHighlyAvailableMode();
+        if (purgeEnabled) {
+            registeredCoordActionMap = new ConcurrentHashMap<String, Long>();
+            services.get(SchedulerService.class).schedule(new CachePurgeWorker(), 10,
+                    ConfigurationService.getInt(conf, CACHE_PURGE_INTERVAL), SchedulerService.Unit.SEC);
+        }
+    }
+
+    @Override
+    public void instrument(Instrumentation instr) {
+        this.instrumentation = instr;
+    }
+
+    private class CachePurgeWorker implements Runnable {
+
+        @Override
+        public void run() {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                purgeMissingDependency(ConfigurationService.getInt(CACHE_PURGE_TTL));
+            }
+            catch (Throwable error) {
+                LOG.debug("Throwable in CachePurgeWorker thread run : ", error);
+            }
+        }
+
+        private void purgeMissingDependency(int timeToLive) {
+            long currentTime = new Date().getTime();
+            Set<String> staleActions = new HashSet<String>();
+            Iterator<String> actionItr = registeredCoordActionMap.keySet().iterator();
+            while (actionItr.hasNext()) {
+                String actionId = actionItr.next();
+                Long regTime = registeredCoordActionMap.get(actionId);
+                if (regTime < (currentTime - timeToLive * 1000)) {
+                    CoordinatorActionBean caBean = null;
+                    try {
+                        caBean = CoordActionQueryExecutor.getInstance().get(CoordActionQuery.GET_COORD_ACTION_STATUS,
+                                actionId);
+                    }
+                    catch (JPAExecutorException e) {
+                        if (e.getErrorCode() == ErrorCode.E0605) {
+                            LOG.info("Coord action {0} is not in database, deleting it from cache", actionId);
+                            staleActions.add(actionId);
+                            actionItr.remove();
+                        }
+                        else {
+                            LOG.warn("Error in checking coord action:" + actionId + "to purge, skipping", e);
+                        }
+                    }
+                    if (caBean != null && !caBean.getStatus().equals(CoordinatorAction.Status.WAITING)) {
+                        staleActions.add(actionId);
+                        actionItr.remove();
+                    }
+                }
+            }
+            dependencyCache.removeNonWaitingCoordActions(staleActions);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        eventSource.destroy();
+        dependencyCache.destroy();
+    }
+
+    @Override
+    public Class<? extends Service> getInterface() {
+        return FSDependencyManagerService.class;
+    }
+
+    /**
+     * Check if availability of a file system URI can be pushed by the event source instead of being polled
+     *
+     * @param uri dependency URI
+     * @return true if the URI is a push dependency
+     */
+    public boolean isPushDependency(URI uri) {
+        return eventSource.isSupported(uri);
+    }
+
+    /**
+     * Add a missing file system dependency and the actionID waiting on it. Starts listening to the events of the
+     * file system if not already done.
+     *
+     * @param uri dependency URI, including the done flag if any
+     * @param actionID ID of action which is waiting for the dependency
+     */
+    public void addMissingDependency(URI uri, String actionID) {
+        if (purgeEnabled) {
+            registeredCoordActionMap.put(actionID, new Date().getTime());
+        }
+        dependencyCache.addMissingDependency(uri, actionID);
+        eventSource.watch(SimpleFSDependencyCache.getNameNode(uri));
+    }
+
+    /**
+     * Remove a missing file system dependency associated with a actionID
+     *
+     * @param uri dependency URI
+     * @param actionID ID of action which is waiting for the dependency
+     * @return true if successful, else false
+     */
+    public boolean removeMissingDependency(URI uri, String actionID) {
+        return dependencyCache.removeMissingDependency(uri, actionID);
+    }
+
+    /**
+     * Get the list of actionIDs waiting for a path
+     *
+     * @param uri dependency URI
+     * @return list of actionIDs
+     */
+    public Collection<String> getWaitingActions(URI uri) {
+        return dependencyCache.getWaitingActions(uri);
+    }
+
+    /**
+     * Mark a path as available and queue the update of the actions waiting on it. Called by the
+     * {@link FSEventSource}.
+     *
+     * @param nameNode scheme://authority of the file system
+     * @param path absolute path that was created
+     * @param includeChildren true if the paths below the given one are available as well
+     */
+    public void pathAvailable(String nameNode, String path, boolean includeChildren) {
+        Collection<String> actionsWithAvailableDep = dependencyCache.markDependencyAvailable(nameNode, path,
+                includeChildren);
+        if (actionsWithAvailableDep != null && !actionsWithAvailableDep.isEmpty()) {
+            LOG.info("Path available event: [{0}{1}], waiting actions [{2}]", nameNode, path,
+                    actionsWithAvailableDep);
+            if (instrumentation != null) {
+                instrumentation.incr(INSTRUMENTATION_GROUP, "actions.notified", actionsWithAvailableDep.size());
+            }
+            CallableQueueService callableQueueService = Services.get().get(CallableQueueService.class);
+            for (String actionID : actionsWithAvailableDep) {
+                if (!callableQueueService.queue(new CoordActionUpdatePushMissingDependency(actionID), 100)) {
+                    LOG.warn("Unable to queue the callable commands for FSDependencyManagerService for actionID "
+                            + actionID + ".Most possibly command queue is full. Queue size is :"
+                            + callableQueueService.queueSize());
+                }
+            }
+        }
+    }
+
+    /**
+     * Get a list of available dependency URIs for a actionID
+     *
+     * @param actionID action id
+     * @return list of available dependency URIs
+     */
+    public Collection<String> getAvailableDependencyURIs(String actionID) {
+        return dependencyCache.getAvailableDependencyURIs(actionID);
+    }
+
+    /**
+     * Remove the list of available dependency URIs for a actionID once the missing dependencies are processed.
+     *
+     * @param actionID action id
+     * @param dependencyURIs set of dependency URIs
+     * @return true if successful, else false
+     */
+    public boolean removeAvailableDependencyURIs(String actionID, Collection<String> dependencyURIs) {
+        return dependencyCache.removeAvailableDependencyURIs(actionID, dependencyURIs);
+    }
+
+    /**
+     * Remove a coord action from dependency cache when all push missing dependencies available
+     *
+     * @param actionID action id
+     */
+    public void removeCoordActionWithDependenciesAvailable(String actionID) {
+        if (purgeEnabled) {
+            registeredCoordActionMap.remove(actionID);
+        }
+        dependencyCache.removeCoordActionWithDependenciesAvailable(actionID);
+    }
+
+    @VisibleForTesting
+    FSEventSource getEventSource() {
+        return eventSource;
+    }
+
+    @VisibleForTesting
+    FSDependencyCache getDependencyCache() {
+        return dependencyCache;
+    }
+
+    @VisibleForTesting
+    public void runCachePurgeWorker() {
+        new CachePurgeWorker().run();
+    }
+}
@@ -0,0 +1,405 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Bounded cache of {@link FileSystem} instances used by {@link HadoopAccessorService}.
+ * <p>
+ * Entries are kept in least recently used order. An entry is evicted when the cache is full or when it has not been
+ * used for the idle timeout.
+ * <p>
+ * Every {@link #get} checks the cached instance out: the caller gets its own {@link FileSystem} wrapping the cached
+ * instance, and the streams it opens keep the wrapper reachable. A checkout is returned when the wrapper is closed
+ * or garbage collected. An evicted instance is closed only once all its checkouts are returned, so callers still
+ * using it, for example during a long copy or with an open stream, never see it closed.
+ */
+class FileSystemCache {
+    private static final XLog LOG = XLog.getLog(FileSystemCache.class);
+
+    static final String INSTRUMENTATION_GROUP = "hadoop.fs.cache";
+
+    /**
+     * Creates the instance of a cache key.
+     */
+    interface Creator {
+        FileSystem create() throws IOException, InterruptedException;
+    }
+
+    private final int maxSize;
+    private final long idleTimeout;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private final List<Entry> evicted = new ArrayList<Entry>();
+    private final Set<Checkout> checkouts = new HashSet<Checkout>();
+    private final ReferenceQueue<CheckedOutFileSystem> collected = new ReferenceQueue<CheckedOutFileSystem>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static class Entry {
+        private final String key;
+        private final FileSystem fs;
+        private long lastAccess;
+        private int references;
+        private boolean isEvicted;
+
+        Entry(String key, FileSystem fs, long lastAccess) {
+            this.key = key;
+            this.fs = fs;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Reference of a checked out wrapper, returned to the cache when the wrapper is garbage collected.
+     */
+    private static class Checkout extends WeakReference<CheckedOutFileSystem> {
+        private final Entry entry;
+
+        Checkout(CheckedOutFileSystem fs, Entry entry, ReferenceQueue<CheckedOutFileSystem> queue) {
+            super(fs, queue);
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * @param maxSize maximum number of cached instances
+     * @param idleTimeout time, in milliseconds, after which an unused instance is evicted
+     */
+    FileSystemCache(int maxSize, long idleTimeout) {
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Check out the cached instance for the key, creating it if it is not cached.
+     * <p>
+     * The creator is invoked without holding the cache lock, so a slow NameNode only delays the callers that need it.
+     *
+     * @param key cache key
+     * @param creator creates a new instance for the key
+     * @return a checkout of the cached instance, closing it returns the checkout
+     * @throws IOException thrown if the instance could not be created
+     * @throws InterruptedException thrown if the creation was interrupted
+     */
+    FileSystem get(String key, Creator creator) throws IOException, InterruptedException {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.lastAccess = System.currentTimeMillis();
+                hits.incrementAndGet();
+                return checkout(entry);
+            }
+        }
+        misses.incrementAndGet();
+        FileSystem fs = creator.create();
+        FileSystem duplicate = null;
+        Entry toClose = null;
+        try {
+            synchronized (this) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    // created concurrently by another caller, use the cached one
+                    duplicate = fs;
+                    entry.lastAccess = System.currentTimeMillis();
+                    return checkout(entry);
+                }
+                entry = new Entry(key, fs, System.currentTimeMillis());
+                entries.put(key, entry);
+                FileSystem checkedOut = checkout(entry);
+                if (entries.size() > maxSize) {
+                    Iterator<Entry> it = entries.values().iterator();
+                    Entry eldest = it.next();
+                    it.remove();
+                    if (evict(eldest)) {
+                        toClose = eldest;
+                    }
+                }
+                return checkedOut;
+            }
+        }
+        finally {
+            if (duplicate != null) {
+                close(duplicate);
+            }
+            if (toClose != null) {
+                close(toClose);
+            }
+        }
+    }
+
+    /**
+     * Return the checkouts of the garbage collected wrappers, evict the instances that have been idle for the idle
+     * timeout and close the evicted instances that are no longer checked out.
+     */
+    void evictIdle() {
+        List<Entry> toClose = new ArrayList<Entry>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Reference<? extends CheckedOutFileSystem> ref;
+            while ((ref = collected.poll()) != null) {
+                Entry entry = release((Checkout) ref);
+                if (entry != null) {
+                    toClose.add(entry);
+                }
+            }
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (now - entry.lastAccess >= idleTimeout) {
+                    it.remove();
+                    if (evict(entry)) {
+                        toClose.add(entry);
+                    }
+                }
+            }
+        }
+        for (Entry entry : toClose) {
+            close(entry);
+        }
+    }
+
+    /**
+     * Close all the cached and evicted instances, checked out or not.
+     */
+    void destroy() {
+        List<Entry> toClose;
+        synchronized (this) {
+            toClose = new ArrayList<Entry>(entries.values());
+            toClose.addAll(evicted);
+            entries.clear();
+            evicted.clear();
+            checkouts.clear();
+        }
+        for (Entry entry : toClose) {
+            close(entry);
+        }
+    }
+
+    /**
+     * Register the cache hit, miss, eviction and size variables.
+     *
+     * @param instr instrumentation to register the variables to
+     */
+    void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "hits", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return hits.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "misses", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return misses.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "evictions", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return evictions.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "size", new Instrumentation.Variable<Integer>() {
+            @Override
+            public Integer getValue() {
+                return size();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "evicted.in.use", new Instrumentation.Variable<Integer>() {
+            @Override
+            public Integer getValue() {
+                return getEvictedInUse();
+            }
+        });
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized int getEvictedInUse() {
+        return evicted.size();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    // must be called holding the cache lock
+    private FileSystem checkout(Entry entry) {
+        CheckedOutFileSystem fs = new CheckedOutFileSystem(entry.fs);
+        fs.checkout = new Checkout(fs, entry, collected);
+        checkouts.add(fs.checkout);
+        entry.references++;
+        return fs;
+    }
+
+    /**
+     * Return a checkout.
+     *
+     * @return the entry to close, if it was evicted and this was its last checkout
+     */
+    // must be called holding the cache lock
+    private Entry release(Checkout checkout) {
+        if (!checkouts.remove(checkout)) {
+            // already returned
+            return null;
+        }
+        Entry entry = checkout.entry;
+        entry.references--;
+        if (entry.isEvicted && entry.references == 0) {
+            evicted.remove(entry);
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Evict an entry removed from the cache.
+     *
+     * @return true if the entry is not checked out and can be closed
+     */
+    // must be called holding the cache lock
+    private boolean evict(Entry entry) {
+        LOG.debug("Evicting FileSystem [{0}], [{1}] checkouts", entry.key, entry.references);
+        evictions.incrementAndGet();
+        entry.isEvicted = true;
+        if (entry.references > 0) {
+            evicted.add(entry);
+            return false;
+        }
+        return true;
+    }
+
+    private void close(Entry entry) {
+        LOG.debug("Closing FileSystem [{0}]", entry.key);
+        close(entry.fs);
+    }
+
+    private void close(FileSystem fs) {
+        try {
+            fs.close();
+        }
+        catch (IOException ex) {
+            LOG.warn("Could not close FileSystem [{0}], {1}", fs.getUri(), ex.getMessage(), ex);
+        }
+    }
+
+    private void returnCheckout(Checkout checkout) {
+        Entry toClose;
+        synchronized (this) {
+            toClose = release(checkout);
+        }
+        if (toClose != null) {
+            close(toClose);
+        }
+    }
+
+    /**
+     * Checkout of a cached instance. Closing it returns the checkout instead of closing the cached instance, the
+     * streams it opens keep it reachable until they are garbage collected.
+     */
+    private class CheckedOutFileSystem extends FilterFileSystem {
+        private Checkout checkout;
+
+        CheckedOutFileSystem(FileSystem fs) {
+            super(fs);
+        }
+
+        @Override
+        public FSDataInputStream open(Path f, int bufferSize) throws IOException {
+            return new PinningInputStream(super.open(f, bufferSize), this);
+        }
+
+        @Override
+        public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+                short replication, long blockSize, Progressable progress) throws IOException {
+            return new PinningOutputStream(super.create(f, permission, overwrite, bufferSize, replication,
+                    blockSize, progress), this);
+        }
+
+        @Override
+        public FSDataOutputStream append(Path f, int bufferSize, Progressable progress) throws IOException {
+            return new PinningOutputStream(super.append(f, bufferSize, progress), this);
+        }
+
+        @Override
+        public void close() throws IOException {
+            processDeleteOnExit();
+            returnCheckout(checkout);
+        }
+    }
+
+    /**
+     * Input stream keeping the checkout it was opened from reachable.
+     */
+    private static class PinningInputStream extends FSDataInputStream {
+        @SuppressWarnings("unused")
+        private final FileSystem owner;
+
+        PinningInputStream(FSDataInputStream in, FileSystem owner) throws IOException {
+            super(in);
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Output stream keeping the checkout it was opened from reachable.
+     */
+    private static class PinningOutputStream extends FSDataOutputStream {
+        @SuppressWarnings("unused")
+        private final FileSystem owner;
+
+        PinningOutputStream(FSDataOutputStream out, FileSystem owner) throws IOException {
+            // the wrapped stream counts the statistics
+            super(out, null, out.getPos());
+            this.owner = owner;
+        }
+    }
+}
@@ -32,6 +32,8 @@ import org.apache.hadoop.security.token.Token;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.action.hadoop.JavaActionExecutor;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
@@ -64,7 +66,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * default accessor used is the base accessor which just injects the UGI into the configuration instance used to
  * create/obtain JobClient and FileSystem instances.
  */
-public class HadoopAccessorService implements Service {
+public class HadoopAccessorService implements Service, Instrumentable {
 
     private static XLog LOG = XLog.getLog(HadoopAccessorService.class);
 
@@ -78,6 +80,15 @@ public class HadoopAccessorService implements Service {
     public static final String KERBEROS_KEYTAB = CONF_PREFIX + "keytab.file";
     public static final String KERBEROS_PRINCIPAL = CONF_PREFIX + "kerberos.principal";
     public static final Text MR_TOKEN_ALIAS = new Text("oozie mr token");
+    /**
+     * Maximum number of FileSystem instances cached per user and file system, 0 disables the cache
+     */
+    public static final String FS_CACHE_MAX_SIZE = CONF_PREFIX + "filesystem.cache.max.size";
+    /**
+     * Time, in seconds, after which an unused cached FileSystem instance is evicted, it is closed once no caller
+     * holds it
+     */
+    public static final String FS_CACHE_IDLE_TIMEOUT = CONF_PREFIX + "filesystem.cache.idle.timeout";
 
     protected static final String OOZIE_HADOOP_ACCESSOR_SERVICE_CREATED = "oozie.HadoopAccessorService.created";
     /** The Kerberos principal for the job tracker.*/
@@ -96,6 +107,7 @@ public class HadoopAccessorService implements Service {
     private Set<String> jobTrackerWhitelist = new HashSet<String>();
     private Set<String> nameNodeWhitelist = new HashSet<String>();
     private Map<String, Configuration> hadoopConfigs = new HashMap<String, Configuration>();
+    private ConcurrentHashMap<String, Configuration> jobConfTemplates = new ConcurrentHashMap<String, Configuration>();
     private Map<String, File> actionConfigDirs = new HashMap<String, File>();
     private Map<String, Map<String, XConfiguration>> actionConfigs = new HashMap<String, Map<String, XConfiguration>>();
 
@@ -107,10 +119,23 @@ public class HadoopAccessorService implements Service {
     public static final String SUPPORTED_FILESYSTEMS = CONF_PREFIX + "supported.filesystems";
     private Set<String> supportedSchemes;
     private boolean allSchemesSupported;
+    private FileSystemCache fsCache;
 
     public void init(Services services) throws ServiceException {
         this.ugiService = services.get(UserGroupInformationService.class);
         init(services.getConf());
+        if (fsCache != null) {
+            int idleTimeout = ConfigurationService.getInt(services.getConf(), FS_CACHE_IDLE_TIMEOUT);
+            Runnable fsCacheEvictor = new Runnable() {
+                @Override
+                public void run() {
+                    fsCache.evictIdle();
+                }
+            };
+            int interval = Math.max(1, idleTimeout / 2);
+            services.get(SchedulerService.class).schedule(fsCacheEvictor, interval, interval,
+                    SchedulerService.Unit.SEC);
+        }
     }
 
     //for testing purposes, see XFsTestCase
@@ -172,6 +197,13 @@ public class HadoopAccessorService implements Service {
         }
 
         setConfigForHadoopSecurityUtil(conf);
+
+        int fsCacheMaxSize = ConfigurationService.getInt(conf, FS_CACHE_MAX_SIZE);
+        if (fsCacheMaxSize > 0) {
+            long idleTimeout = ConfigurationService.getInt(conf, FS_CACHE_IDLE_TIMEOUT) * 1000L;
+            fsCache = new FileSystemCache(fsCacheMaxSize, idleTimeout);
+            LOG.info("FileSystem cache enabled, max size [{0}], idle timeout [{1}] ms", fsCacheMaxSize, idleTimeout);
+        }
     }
 
     private void setConfigForHadoopSecurityUtil(Configuration conf) {
@@ -325,6 +357,27 @@ public class HadoopAccessorService implements Service {
     }
 
     public void destroy() {
+        if (fsCache != null) {
+            fsCache.destroy();
+            fsCache = null;
+        }
+    }
+
+    /**
+     * Instruments the hadoop accessor service with the FileSystem cache statistics.
+     *
+     * @param instr instance to instrument the hadoop accessor service to.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        if (fsCache != null) {
+            fsCache.instrument(instr);
+        }
+    }
+
+    // Package private for unit test purposes
+    FileSystemCache getFileSystemCache() {
+        return fsCache;
     }
 
     public Class<? extends Service> getInterface() {
@@ -346,10 +399,22 @@ public class HadoopAccessorService implements Service {
      * @return a JobConf with the corresponding site configuration for hostPort.
      */
     public JobConf createJobConf(String hostPort) {
-        JobConf jobConf = new JobConf(getCachedConf());
-        XConfiguration.copy(getConfiguration(hostPort), jobConf);
-        jobConf.setBoolean(OOZIE_HADOOP_ACCESSOR_SERVICE_CREATED, true);
-        return jobConf;
+        String key = (hostPort != null) ? hostPort.toLowerCase() : null;
+        if (!hadoopConfigs.containsKey(key)) {
+            key = "*";
+        }
+        // the defaults and the site configuration of a cluster never change, merge them only once
+        Configuration template = jobConfTemplates.get(key);
+        if (template == null) {
+            template = new Configuration(getCachedConf());
+            XConfiguration.copy(getConfiguration(hostPort), template);
+            template.setBoolean(OOZIE_HADOOP_ACCESSOR_SERVICE_CREATED, true);
+            Configuration existing = jobConfTemplates.putIfAbsent(key, template);
+            if (existing != null) {
+                template = existing;
+            }
+        }
+        return new JobConf(template);
     }
 
     public Configuration getCachedConf() {
@@ -578,10 +643,23 @@ public class HadoopAccessorService implements Service {
         validateNameNode(nameNode);
 
         try {
-            UserGroupInformation ugi = getUGI(user);
-            return ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
-                public FileSystem run() throws Exception {
-                    return FileSystem.get(uri, conf);
+            final UserGroupInformation ugi = getUGI(user);
+            if (fsCache == null) {
+                return ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
+                    public FileSystem run() throws Exception {
+                        return FileSystem.get(uri, conf);
+                    }
+                });
+            }
+            // the cache owns its instances, they are not shared with Hadoop's FileSystem cache
+            return fsCache.get(getFileSystemCacheKey(user, uri, conf), new FileSystemCache.Creator() {
+                @Override
+                public FileSystem create() throws IOException, InterruptedException {
+                    return ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
+                        public FileSystem run() throws Exception {
+                            return FileSystem.newInstance(uri, conf);
+                        }
+                    });
                 }
             });
         }
@@ -593,6 +671,23 @@ public class HadoopAccessorService implements Service {
         }
     }
 
+    /**
+     * Return the FileSystem cache key for the user and URI, resolving a missing scheme or authority the way
+     * {@link FileSystem#get(URI, Configuration)} does.
+     */
+    private String getFileSystemCacheKey(String user, URI uri, Configuration conf) {
+        String scheme = uri.getScheme();
+        String authority = uri.getAuthority();
+        if (scheme == null || authority == null) {
+            URI defaultUri = FileSystem.getDefaultUri(conf);
+            if (scheme == null || scheme.equals(defaultUri.getScheme())) {
+                scheme = defaultUri.getScheme();
+                authority = defaultUri.getAuthority();
+            }
+        }
+        return user + "@" + scheme + "://" + ((authority == null) ? "" : authority.toLowerCase());
+    }
+
     /**
      * Validate Job tracker
      * @param jobTrackerUri
@@ -404,6 +404,22 @@ public class JPAService implements Service, Instrumentable {
      */
     public void executeBatchInsertUpdateDelete(Collection<JsonBean> insertBeans, List<QueryEntry> updateQueryList,
             Collection<JsonBean> deleteBeans, EntityManager em) throws JPAExecutorException {
+        executeBatchInsertUpdateDelete(insertBeans, updateQueryList, deleteBeans, em, 0);
+    }
+
+    /**
+     * Execute multiple update/insert queries in one transaction, flushing the inserts to the database every
+     * <code>insertBatchSize</code> beans. This keeps the persistence context small when inserting many beans.
+     *
+     * @param insertBeans list of beans to be inserted
+     * @param updateQueryList list of update queries
+     * @param deleteBeans list of beans to be deleted
+     * @param em Entity Manager
+     * @param insertBatchSize number of inserts to flush at once, 0 or less to flush only on commit
+     * @throws JPAExecutorException
+     */
+    public void executeBatchInsertUpdateDelete(Collection<JsonBean> insertBeans, List<QueryEntry> updateQueryList,
+            Collection<JsonBean> deleteBeans, EntityManager em, int insertBatchSize) throws JPAExecutorException {
         Instrumentation.Cron cron = new Instrumentation.Cron();
         try {
 
@@ -419,8 +435,14 @@ public class JPAService implements Service, Instrumentable {
                 }
             }
             if (insertBeans != null && insertBeans.size() > 0) {
+                int pendingInserts = 0;
                 for (JsonBean bean : insertBeans) {
                     em.persist(bean);
+                    if (insertBatchSize > 0 && ++pendingInserts == insertBatchSize) {
+                        em.flush();
+                        em.clear();
+                        pendingInserts = 0;
+                    }
                 }
             }
             if (deleteBeans != null && deleteBeans.size() > 0) {
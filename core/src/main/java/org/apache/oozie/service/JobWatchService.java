@@ -0,0 +1,330 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.event.JobEvent;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.event.BundleJobEvent;
+import org.apache.oozie.event.CoordinatorJobEvent;
+import org.apache.oozie.event.WorkflowJobEvent;
+import org.apache.oozie.executor.jpa.BundleJobQueryExecutor;
+import org.apache.oozie.executor.jpa.BundleJobQueryExecutor.BundleJobQuery;
+import org.apache.oozie.executor.jpa.CoordJobQueryExecutor;
+import org.apache.oozie.executor.jpa.CoordJobQueryExecutor.CoordJobQuery;
+import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor;
+import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Service blocking job status requests until one of the watched jobs reaches one of the requested statuses.
+ * <p>
+ * A watch covers any number of jobs, up to a limit, so a client waiting for many jobs holds a single request. Watches
+ * are woken up by the job events queued in the {@link EventHandlerService}, as they are queued. The status of the
+ * watched jobs is also read from the database at a fixed interval, for the jobs whose events are not generated,
+ * because the {@link EventHandlerService} is not enabled or filters out their application type. No thread is
+ * started per watch or per watched job.
+ */
+public class JobWatchService implements Service, Instrumentable {
+
+    private static XLog LOG = XLog.getLog(JobWatchService.class);
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "JobWatchService.";
+
+    /**
+     * Maximum time, in seconds, a watch request is blocked.
+     */
+    public static final String CONF_MAX_TIMEOUT = CONF_PREFIX + "max.timeout";
+
+    /**
+     * Maximum number of jobs of a watch request.
+     */
+    public static final String CONF_MAX_JOBS = CONF_PREFIX + "max.jobs";
+
+    /**
+     * Maximum number of open watch requests.
+     */
+    public static final String CONF_MAX_WATCHES = CONF_PREFIX + "max.watches";
+
+    /**
+     * Interval, in seconds, at which the status of the watched jobs is read from the database.
+     */
+    public static final String CONF_CHECK_INTERVAL = CONF_PREFIX + "check.interval";
+
+    static final String INSTRUMENTATION_GROUP = "job.watch";
+
+    private int maxTimeout;
+    private int maxJobs;
+    private int maxWatches;
+    private final AtomicInteger openWatches = new AtomicInteger();
+    private final ConcurrentMap<String, Set<Watch>> watches = new ConcurrentHashMap<String, Set<Watch>>();
+
+    /**
+     * The jobs and statuses a watch request waits for, and the jobs which reached one of the statuses.
+     */
+    static class Watch {
+        private final Set<String> statuses;
+        private final Map<String, String> reached = new LinkedHashMap<String, String>();
+
+        Watch(Collection<String> statuses) {
+            this.statuses = new HashSet<String>(statuses);
+        }
+
+        synchronized void update(String jobId, String status) {
+            boolean matches = statuses.isEmpty() ? ResponseCacheService.isTerminal(status) : statuses.contains(status);
+            if (matches) {
+                reached.put(jobId, status);
+                notifyAll();
+            }
+        }
+
+        synchronized Map<String, String> await(long timeout) throws InterruptedException {
+            long end = System.currentTimeMillis() + timeout;
+            long remaining = timeout;
+            while (reached.isEmpty() && remaining > 0) {
+                wait(remaining);
+                remaining = end - System.currentTimeMillis();
+            }
+            return new LinkedHashMap<String, String>(reached);
+        }
+    }
+
+    /**
+     * Reads the status of all the watched jobs from the database.
+     */
+    class StatusCheckRunnable implements Runnable {
+        @Override
+        public void run() {
+            for (String jobId : watches.keySet()) {
+                try {
+                    String status = getStatus(jobId);
+                    if (status != null) {
+                        update(jobId, status);
+                    }
+                }
+                catch (JPAExecutorException ex) {
+                    LOG.warn("Could not read the status of watched job [{0}], {1}", jobId, ex.getMessage(), ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void init(Services services) throws ServiceException {
+        maxTimeout = ConfigurationService.getInt(services.getConf(), CONF_MAX_TIMEOUT);
+        maxJobs = ConfigurationService.getInt(services.getConf(), CONF_MAX_JOBS);
+        maxWatches = ConfigurationService.getInt(services.getConf(), CONF_MAX_WATCHES);
+        int interval = ConfigurationService.getInt(services.getConf(), CONF_CHECK_INTERVAL);
+        if (interval > 0) {
+            services.get(SchedulerService.class).schedule(new StatusCheckRunnable(), interval, interval,
+                    SchedulerService.Unit.SEC);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        watches.clear();
+    }
+
+    @Override
+    public Class<? extends Service> getInterface() {
+        return JobWatchService.class;
+    }
+
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "open.watches", new Instrumentation.Variable<Integer>() {
+            @Override
+            public Integer getValue() {
+                return openWatches.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "watched.jobs", new Instrumentation.Variable<Integer>() {
+            @Override
+            public Integer getValue() {
+                return watches.size();
+            }
+        });
+    }
+
+    /**
+     * Return the maximum time a watch request is blocked.
+     *
+     * @return the maximum time, in milliseconds.
+     */
+    public long getMaxTimeout() {
+        return maxTimeout * 1000L;
+    }
+
+    /**
+     * Wait until some of the jobs reach one of the statuses.
+     * <p>
+     * The jobs already in one of the statuses are returned without waiting.
+     *
+     * @param jobIds ids of the workflow, coordinator and bundle jobs to watch.
+     * @param statuses statuses to wait for, terminal statuses if empty.
+     * @param timeout maximum time to wait, in milliseconds, bounded by the configured maximum.
+     * @return the status of the jobs which reached one of the statuses, by job id, empty if the timeout passed.
+     * @throws CommandException thrown if there are too many jobs or watches, or if a job does not exist.
+     */
+    public Map<String, String> watch(Collection<String> jobIds, Collection<String> statuses, long timeout)
+            throws CommandException {
+        if (jobIds.size() > maxJobs) {
+            throw new CommandException(ErrorCode.E1106, jobIds.size(), maxJobs);
+        }
+        if (openWatches.incrementAndGet() > maxWatches) {
+            openWatches.decrementAndGet();
+            throw new CommandException(ErrorCode.E1107, maxWatches);
+        }
+        Watch watch = new Watch(statuses);
+        try {
+            // registered before reading the current status, so no status change in between is missed
+            for (String jobId : jobIds) {
+                register(jobId, watch);
+            }
+            for (String jobId : jobIds) {
+                String status;
+                try {
+                    status = getStatus(jobId);
+                }
+                catch (JPAExecutorException ex) {
+                    throw new CommandException(ex);
+                }
+                if (status == null) {
+                    throw new CommandException(ErrorCode.E0604, jobId);
+                }
+                watch.update(jobId, status);
+            }
+            return watch.await(Math.max(0, Math.min(timeout, getMaxTimeout())));
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new LinkedHashMap<String, String>();
+        }
+        finally {
+            for (String jobId : jobIds) {
+                unregister(jobId, watch);
+            }
+            openWatches.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wake up the watches of the job of an event. Events of actions are ignored.
+     *
+     * @param event job event.
+     */
+    public void onEvent(JobEvent event) {
+        if (event instanceof WorkflowJobEvent) {
+            update(event.getId(), ((WorkflowJobEvent) event).getStatus().toString());
+        }
+        else if (event instanceof CoordinatorJobEvent) {
+            update(event.getId(), ((CoordinatorJobEvent) event).getStatus().toString());
+        }
+        else if (event instanceof BundleJobEvent) {
+            update(event.getId(), ((BundleJobEvent) event).getStatus().toString());
+        }
+    }
+
+    /**
+     * Return the number of open watch requests.
+     *
+     * @return the number of open watch requests.
+     */
+    public int getOpenWatches() {
+        return openWatches.get();
+    }
+
+    void update(String jobId, String status) {
+        Set<Watch> jobWatches = watches.get(jobId);
+        if (jobWatches != null) {
+            for (Watch watch : jobWatches) {
+                watch.update(jobId, status);
+            }
+        }
+    }
+
+    private void register(String jobId, Watch watch) {
+        Set<Watch> jobWatches = watches.get(jobId);
+        while (true) {
+            if (jobWatches == null) {
+                jobWatches = new CopyOnWriteArraySet<Watch>();
+                Set<Watch> existing = watches.putIfAbsent(jobId, jobWatches);
+                if (existing != null) {
+                    jobWatches = existing;
+                }
+            }
+            synchronized (jobWatches) {
+                // the set may have been removed by the last watch of the job unregistering
+                if (watches.get(jobId) == jobWatches) {
+                    jobWatches.add(watch);
+                    return;
+                }
+            }
+            jobWatches = null;
+        }
+    }
+
+    private void unregister(String jobId, Watch watch) {
+        Set<Watch> jobWatches = watches.get(jobId);
+        if (jobWatches != null) {
+            synchronized (jobWatches) {
+                jobWatches.remove(watch);
+                if (jobWatches.isEmpty()) {
+                    watches.remove(jobId, jobWatches);
+                }
+            }
+        }
+    }
+
+    private static String getStatus(String jobId) throws JPAExecutorException {
+        if (jobId.endsWith("-W")) {
+            WorkflowJobBean job = WorkflowJobQueryExecutor.getInstance().getIfExist(
+                    WorkflowJobQuery.GET_WORKFLOW_STATUS, jobId);
+            return job == null ? null : job.getStatusStr();
+        }
+        else if (jobId.endsWith("-C")) {
+            CoordinatorJobBean job = CoordJobQueryExecutor.getInstance().getIfExist(CoordJobQuery.GET_COORD_JOB_STATUS,
+                    jobId);
+            return job == null ? null : job.getStatusStr();
+        }
+        else if (jobId.endsWith("-B")) {
+            BundleJobBean job = BundleJobQueryExecutor.getInstance().getIfExist(BundleJobQuery.GET_BUNDLE_JOB_STATUS,
+                    jobId);
+            return job == null ? null : job.getStatusStr();
+        }
+        return null;
+    }
+}
@@ -18,8 +18,13 @@
 
 package org.apache.oozie.service;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.apache.oozie.util.Instrumentable;
 import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.lock.LockContention;
 import org.apache.oozie.lock.LockToken;
 import org.apache.oozie.lock.MemoryLocks;
 
@@ -27,6 +32,13 @@ import com.google.common.annotations.VisibleForTesting;
 
 /**
  * Service that provides in-memory locks.  Assumes no other Oozie servers are using the database.
+ * <p>
+ * The locks of the resource types listed in {@link #CONF_UNFAIR_TYPES} are not fair: the lock goes to whichever thread
+ * asks first instead of the one that waited longest, which gives more throughput on hot jobs locked by many short
+ * commands.
+ * <p>
+ * Lock acquisitions that have to wait or time out are sampled, see {@link #getMostContended(int)}.  Subclasses
+ * sample their own lock acquisitions with {@link #getLockContention()}.
  */
 public class MemoryLocksService implements Service, Instrumentable {
 
@@ -34,8 +46,13 @@ public class MemoryLocksService implements Service, Instrumentable {
         READ, WRITE
     }
 
+    public static final String CONF_UNFAIR_TYPES = CONF_PREFIX + "MemoryLocksService.unfair.types";
+    public static final String CONF_CONTENTION_MAX_RESOURCES = CONF_PREFIX
+            + "MemoryLocksService.contention.max.resources";
+
     protected static final String INSTRUMENTATION_GROUP = "locks";
     private MemoryLocks locks;
+    private LockContention contention;
 
     /**
      * Initialize the memory locks service
@@ -44,7 +61,14 @@ public class MemoryLocksService implements Service, Instrumentable {
      */
     @Override
     public void init(Services services) throws ServiceException {
-        locks = new MemoryLocks();
+        Set<String> unfairTypes = new HashSet<String>();
+        for (String type : ConfigurationService.getStrings(services.getConf(), CONF_UNFAIR_TYPES)) {
+            if (type.trim().length() > 0) {
+                unfairTypes.add(type.trim());
+            }
+        }
+        contention = new LockContention(ConfigurationService.getInt(services.getConf(), CONF_CONTENTION_MAX_RESOURCES));
+        locks = new MemoryLocks(unfairTypes, contention);
     }
 
     /**
@@ -53,6 +77,7 @@ public class MemoryLocksService implements Service, Instrumentable {
     @Override
     public void destroy() {
         locks = null;
+        contention = null;
     }
 
     /**
@@ -72,11 +97,17 @@ public class MemoryLocksService implements Service, Instrumentable {
      */
     public void instrument(Instrumentation instr) {
         final MemoryLocks finalLocks = this.locks;
+        final LockContention finalContention = this.contention;
         instr.addVariable(INSTRUMENTATION_GROUP, "locks", new Instrumentation.Variable<Long>() {
             public Long getValue() {
                 return (long) finalLocks.size();
             }
         });
+        instr.addVariable(INSTRUMENTATION_GROUP, "contended", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return finalContention.getContendedCount();
+            }
+        });
     }
 
     /**
@@ -103,6 +134,43 @@ public class MemoryLocksService implements Service, Instrumentable {
         return locks.getLock(resource, Type.WRITE, wait);
     }
 
+    /**
+     * Return the number of locks this server currently has.
+     *
+     * @return the number of locks.
+     */
+    public int getLockCount() {
+        return locks.size();
+    }
+
+    /**
+     * Return the number of lock acquisitions that had to wait or timed out.
+     *
+     * @return the number of contended lock acquisitions.
+     */
+    public long getContendedCount() {
+        return contention.getContendedCount();
+    }
+
+    /**
+     * Return the most contended locks.
+     *
+     * @param len maximum number of locks to return, not negative.
+     * @return the contention of the most contended locks, most contended first.
+     */
+    public List<LockContention.Contention> getMostContended(int len) {
+        return contention.getMostContended(len);
+    }
+
+    /**
+     * Return the lock contention sampler of the service.
+     *
+     * @return the lock contention sampler.
+     */
+    protected LockContention getLockContention() {
+        return contention;
+    }
+
     @VisibleForTesting
     public MemoryLocks getMemoryLocks() {
         return locks;
@@ -19,12 +19,17 @@
 package org.apache.oozie.service;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.command.PurgeProgress;
 import org.apache.oozie.command.PurgeXCommand;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 
 /**
  * The PurgeService schedules purging of completed jobs and associated action older than a specified age for workflow, coordinator and bundle.
+ * <p>
+ * The progress of the purge is kept across runs, a purge interrupted half way resumes from its checkpoint on the next run.
  */
-public class PurgeService implements Service {
+public class PurgeService implements Service, Instrumentable {
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "PurgeService.";
     /**
@@ -39,6 +44,14 @@ public class PurgeService implements Service {
      */
     public static final String CONF_PURGE_INTERVAL = CONF_PREFIX + "purge.interval";
     public static final String PURGE_LIMIT = CONF_PREFIX + "purge.limit";
+    /**
+     * Latency, in milliseconds, of a purge delete above which the purge waits before the next delete.
+     */
+    public static final String PURGE_THROTTLE_LATENCY = CONF_PREFIX + "purge.throttle.latency";
+
+    private static final String INSTRUMENTATION_GROUP = "purge";
+
+    private final PurgeProgress progress = new PurgeProgress();
 
     /**
      * PurgeRunnable is the runnable which is scheduled to run at the configured interval. PurgeCommand is queued to
@@ -50,28 +63,33 @@ public class PurgeService implements Service {
         private int bundleOlderThan;
         private int limit;
         private boolean purgeOldCoordAction = false;
+        private PurgeProgress progress;
 
         public PurgeRunnable(int wfOlderThan, int coordOlderThan, int bundleOlderThan, int limit) {
-            this.wfOlderThan = wfOlderThan;
-            this.coordOlderThan = coordOlderThan;
-            this.bundleOlderThan = bundleOlderThan;
-            this.limit = limit;
+            this(wfOlderThan, coordOlderThan, bundleOlderThan, limit, false);
         }
 
         public PurgeRunnable(int wfOlderThan, int coordOlderThan, int bundleOlderThan, int limit,
                              boolean purgeOldCoordAction) {
+            this(wfOlderThan, coordOlderThan, bundleOlderThan, limit, purgeOldCoordAction, new PurgeProgress());
+        }
+
+        public PurgeRunnable(int wfOlderThan, int coordOlderThan, int bundleOlderThan, int limit,
+                             boolean purgeOldCoordAction, PurgeProgress progress) {
             this.wfOlderThan = wfOlderThan;
             this.coordOlderThan = coordOlderThan;
             this.bundleOlderThan = bundleOlderThan;
             this.limit = limit;
             this.purgeOldCoordAction = purgeOldCoordAction;
+            this.progress = progress;
         }
 
         public void run() {
             // Only queue the purge command if this is the leader
             if (Services.get().get(JobsConcurrencyService.class).isLeader()) {
                 Services.get().get(CallableQueueService.class).queue(
-                        new PurgeXCommand(wfOlderThan, coordOlderThan, bundleOlderThan, limit, purgeOldCoordAction));
+                        new PurgeXCommand(wfOlderThan, coordOlderThan, bundleOlderThan, limit, purgeOldCoordAction,
+                                progress));
             }
         }
 
@@ -89,7 +107,7 @@ public class PurgeService implements Service {
                 ConfigurationService.getInt(conf, COORD_CONF_OLDER_THAN),
                 ConfigurationService.getInt(conf, BUNDLE_CONF_OLDER_THAN),
                 ConfigurationService.getInt(conf, PURGE_LIMIT),
-                ConfigurationService.getBoolean(conf, PURGE_OLD_COORD_ACTION));
+                ConfigurationService.getBoolean(conf, PURGE_OLD_COORD_ACTION), progress);
         services.get(SchedulerService.class).schedule(purgeJobsRunnable, 10,
                 ConfigurationService.getInt(conf, CONF_PURGE_INTERVAL), SchedulerService.Unit.SEC);
     }
@@ -101,6 +119,39 @@ public class PurgeService implements Service {
     public void destroy() {
     }
 
+    /**
+     * Instruments the purge service.
+     *
+     * @param instr instance to instrument the purge service to.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "deleted", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return progress.getTotalDeleted();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "delete.rate", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return progress.getDeleteRate();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "backlog", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return progress.getBacklog();
+            }
+        });
+    }
+
+    /**
+     * Return the progress of the purge, shared by its runs.
+     *
+     * @return the purge progress.
+     */
+    public PurgeProgress getProgress() {
+        return progress;
+    }
+
     /**
      * Return the public interface for the purge jobs service.
      *
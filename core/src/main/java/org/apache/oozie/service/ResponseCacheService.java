@@ -0,0 +1,235 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Service that keeps the serialized job information responses of jobs in a terminal state.
+ * <p>
+ * A job in a terminal state only changes if it is rerun or otherwise modified, which changes its status. An entry is
+ * kept with the status of the job it was serialized for; the servlet checks the current status of the job, a single
+ * column query, before using it. Entries also expire after a time to live, and the least recently used entries are
+ * evicted once the cache is full.
+ */
+public class ResponseCacheService implements Service, Instrumentable {
+
+    private static XLog LOG = XLog.getLog(ResponseCacheService.class);
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "ResponseCacheService.";
+
+    /**
+     * Maximum number of cached responses, 0 disables the cache.
+     */
+    public static final String CONF_MAX_ENTRIES = CONF_PREFIX + "max.entries";
+
+    /**
+     * Maximum size, in bytes, of a cached response.
+     */
+    public static final String CONF_MAX_ENTRY_SIZE = CONF_PREFIX + "max.entry.size";
+
+    /**
+     * Time to live, in seconds, of a cached response.
+     */
+    public static final String CONF_TTL = CONF_PREFIX + "ttl";
+
+    static final String INSTRUMENTATION_GROUP = "response.cache";
+
+    private static final Set<String> TERMINAL_STATUSES = new HashSet<String>(Arrays.asList("SUCCEEDED", "KILLED",
+            "FAILED", "DONEWITHERROR", "IGNORED"));
+
+    private int maxEntries;
+    private int maxEntrySize;
+    private long ttl;
+    private Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * A cached response.
+     */
+    public static class Entry {
+        private final String eTag;
+        private final String status;
+        private final byte[] body;
+        private final long expiration;
+
+        Entry(String eTag, String status, byte[] body, long expiration) {
+            this.eTag = eTag;
+            this.status = status;
+            this.body = body;
+            this.expiration = expiration;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    @Override
+    public void init(Services services) throws ServiceException {
+        maxEntries = ConfigurationService.getInt(services.getConf(), CONF_MAX_ENTRIES);
+        maxEntrySize = ConfigurationService.getInt(services.getConf(), CONF_MAX_ENTRY_SIZE);
+        ttl = ConfigurationService.getInt(services.getConf(), CONF_TTL) * 1000L;
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        LOG.info("Response cache max entries [{0}], max entry size [{1}] bytes, ttl [{2}] ms", maxEntries,
+                maxEntrySize, ttl);
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public Class<? extends Service> getInterface() {
+        return ResponseCacheService.class;
+    }
+
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "hits", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return hits.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "misses", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return misses.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "entries", new Instrumentation.Variable<Integer>() {
+            @Override
+            public Integer getValue() {
+                return size();
+            }
+        });
+    }
+
+    /**
+     * Return whether a job status is terminal, responses for jobs in other states are not cached.
+     *
+     * @param status job status.
+     * @return <code>true</code> if the status is terminal.
+     */
+    public static boolean isTerminal(String status) {
+        return status != null && TERMINAL_STATUSES.contains(status);
+    }
+
+    /**
+     * Return whether a response can be cached.
+     *
+     * @param status status of the job of the response.
+     * @param size size of the response, in bytes.
+     * @return <code>true</code> if the response can be cached.
+     */
+    public boolean isCacheable(String status, int size) {
+        return maxEntries > 0 && isTerminal(status) && size <= maxEntrySize;
+    }
+
+    /**
+     * Return a cached response.
+     *
+     * @param key the response key.
+     * @return the cached response, <code>null</code> if there is none or it expired.
+     */
+    public Entry get(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiration < System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+        }
+        else {
+            hits.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Cache a response, if it is cacheable.
+     *
+     * @param key the response key.
+     * @param eTag the entity tag of the response.
+     * @param status status of the job of the response.
+     * @param body the serialized response.
+     */
+    public void put(String key, String eTag, String status, byte[] body) {
+        if (isCacheable(status, body.length)) {
+            synchronized (entries) {
+                entries.put(key, new Entry(eTag, status, body, System.currentTimeMillis() + ttl));
+            }
+        }
+    }
+
+    /**
+     * Remove a cached response.
+     *
+     * @param key the response key.
+     */
+    public void remove(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Return the number of cached responses.
+     *
+     * @return the number of cached responses.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+}
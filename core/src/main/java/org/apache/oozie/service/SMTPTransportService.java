@@ -0,0 +1,298 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.PasswordAuthentication;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Service that keeps connected SMTP transports for reuse, so that sending a mail does not pay a connection and
+ * possibly a TLS handshake every time.
+ * <p>
+ * Transports are pooled per SMTP configuration, that is per set of <code>mail.*</code> properties of the mail session
+ * and, for authenticated sessions, per user and password, so that a connection authenticated for one account is never
+ * reused for another. A transport is returned to its pool after a send unless the pool already holds the configured
+ * number of idle transports. Transports idle for longer than the idle timeout are closed. A send failing on a reused
+ * transport is retried once on a new connection, as the server may have dropped the idle connection.
+ */
+public class SMTPTransportService implements Service, Instrumentable {
+
+    private static XLog LOG = XLog.getLog(SMTPTransportService.class);
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "SMTPTransportService.";
+
+    /**
+     * Maximum number of idle transports kept per SMTP configuration, 0 disables pooling.
+     */
+    public static final String CONF_POOL_SIZE = CONF_PREFIX + "pool.size";
+
+    /**
+     * Time, in seconds, after which an idle transport is closed.
+     */
+    public static final String CONF_IDLE_TIMEOUT = CONF_PREFIX + "idle.timeout";
+
+    static final String INSTRUMENTATION_GROUP = "smtp";
+
+    private int poolSize;
+    private long idleTimeout;
+    private final Map<String, Deque<PooledTransport>> pools = new ConcurrentHashMap<String, Deque<PooledTransport>>();
+
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+
+    private static class PooledTransport {
+        private final Transport transport;
+        private long lastUsed;
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+
+    @Override
+    public void init(Services services) throws ServiceException {
+        poolSize = ConfigurationService.getInt(services.getConf(), CONF_POOL_SIZE);
+        idleTimeout = ConfigurationService.getInt(services.getConf(), CONF_IDLE_TIMEOUT) * 1000L;
+        if (poolSize > 0) {
+            Runnable evictor = new Runnable() {
+                @Override
+                public void run() {
+                    closeIdle();
+                }
+            };
+            int interval = (int) Math.max(1, idleTimeout / 2000);
+            services.get(SchedulerService.class).schedule(evictor, interval, interval, SchedulerService.Unit.SEC);
+        }
+        LOG.info("SMTP transport pool size [{0}], idle timeout [{1}] ms", poolSize, idleTimeout);
+    }
+
+    @Override
+    public void destroy() {
+        for (Deque<PooledTransport> pool : pools.values()) {
+            PooledTransport pooled;
+            while ((pooled = pool.pollFirst()) != null) {
+                close(pooled.transport);
+            }
+        }
+        pools.clear();
+    }
+
+    @Override
+    public Class<? extends Service> getInterface() {
+        return SMTPTransportService.class;
+    }
+
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "connections", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return connections.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "connections.reused", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return reuses.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "messages.sent", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return sent.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "connections.idle", new Instrumentation.Variable<Integer>() {
+            @Override
+            public Integer getValue() {
+                return getIdleCount();
+            }
+        });
+    }
+
+    /**
+     * Send a message to all its recipients, reusing an idle transport of the session SMTP configuration if there is
+     * one.
+     *
+     * @param session mail session holding the SMTP configuration
+     * @param message message to send
+     * @throws MessagingException thrown if the message could not be sent
+     */
+    public void send(Session session, Message message) throws MessagingException {
+        message.saveChanges();
+        String key = getKey(session);
+        PooledTransport pooled = borrow(key);
+        if (pooled != null) {
+            try {
+                pooled.transport.sendMessage(message, message.getAllRecipients());
+                sent.incrementAndGet();
+                giveBack(key, pooled);
+                return;
+            }
+            catch (SendFailedException ex) {
+                // the recipients were rejected, the connection is still usable
+                giveBack(key, pooled);
+                throw ex;
+            }
+            catch (MessagingException ex) {
+                LOG.debug("Sending on a reused SMTP connection failed, retrying on a new connection", ex);
+                close(pooled.transport);
+            }
+        }
+        Transport transport = session.getTransport("smtp");
+        transport.connect();
+        connections.incrementAndGet();
+        pooled = new PooledTransport(transport);
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+            sent.incrementAndGet();
+        }
+        catch (SendFailedException ex) {
+            giveBack(key, pooled);
+            throw ex;
+        }
+        catch (MessagingException ex) {
+            close(transport);
+            throw ex;
+        }
+        giveBack(key, pooled);
+    }
+
+    int getIdleCount() {
+        int count = 0;
+        for (Deque<PooledTransport> pool : pools.values()) {
+            count += pool.size();
+        }
+        return count;
+    }
+
+    long getConnectionCount() {
+        return connections.get();
+    }
+
+    long getReuseCount() {
+        return reuses.get();
+    }
+
+    void closeIdle() {
+        long now = System.currentTimeMillis();
+        for (Deque<PooledTransport> pool : pools.values()) {
+            List<PooledTransport> expired = new ArrayList<PooledTransport>();
+            Iterator<PooledTransport> it = pool.descendingIterator();
+            while (it.hasNext()) {
+                PooledTransport pooled = it.next();
+                if (now - pooled.lastUsed >= idleTimeout && pool.removeLastOccurrence(pooled)) {
+                    expired.add(pooled);
+                }
+            }
+            for (PooledTransport pooled : expired) {
+                LOG.debug("Closing idle SMTP connection");
+                close(pooled.transport);
+            }
+        }
+    }
+
+    private PooledTransport borrow(String key) {
+        Deque<PooledTransport> pool = pools.get(key);
+        if (pool == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        PooledTransport pooled;
+        // most recently used first, the least recently used ones are left to expire
+        while ((pooled = pool.pollFirst()) != null) {
+            if (now - pooled.lastUsed < idleTimeout && pooled.transport.isConnected()) {
+                reuses.incrementAndGet();
+                return pooled;
+            }
+            close(pooled.transport);
+        }
+        return null;
+    }
+
+    private void giveBack(String key, PooledTransport pooled) {
+        if (poolSize > 0 && pooled.transport.isConnected()) {
+            Deque<PooledTransport> pool = pools.get(key);
+            if (pool == null) {
+                synchronized (pools) {
+                    pool = pools.get(key);
+                    if (pool == null) {
+                        pool = new LinkedBlockingDeque<PooledTransport>(poolSize);
+                        pools.put(key, pool);
+                    }
+                }
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            if (pool.offerFirst(pooled)) {
+                return;
+            }
+        }
+        close(pooled.transport);
+    }
+
+    static String getKey(Session session) {
+        Properties props = session.getProperties();
+        Map<String, String> mailProps = new TreeMap<String, String>();
+        for (String name : props.stringPropertyNames()) {
+            if (name.startsWith("mail.")) {
+                mailProps.put(name, props.getProperty(name));
+            }
+        }
+        String key = mailProps.toString();
+        if (Boolean.parseBoolean(props.getProperty("mail.smtp.auth"))) {
+            // the credentials come from the session authenticator, the password is only kept as a digest
+            PasswordAuthentication auth = session.requestPasswordAuthentication(null, -1, "smtp", null,
+                    props.getProperty("mail.smtp.user"));
+            if (auth != null) {
+                key += auth.getUserName() + ":" + DigestUtils.sha256Hex(String.valueOf(auth.getPassword()));
+            }
+        }
+        return key;
+    }
+
+    private static void close(Transport transport) {
+        try {
+            transport.close();
+        }
+        catch (MessagingException ex) {
+            LOG.debug("Could not close SMTP connection", ex);
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.oozie.service;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -164,6 +165,20 @@ public class SchedulerService implements Service {
      * @param unit scheduling unit.
      */
     public void schedule(final Runnable runnable, long delay, long interval, Unit unit) {
+        scheduleCancellable(runnable, delay, interval, unit);
+    }
+
+    /**
+     * Schedule a Runnable for execution, returning the future to cancel the executions with.
+     *
+     * @param runnable Runnable to schedule for execution.
+     * @param delay delay for first execution since scheduling.
+     * @param interval interval between executions.
+     * @param unit scheduling unit.
+     * @return the future of the scheduled executions, to cancel them, or <code>null</code> if the scheduler is
+     * shutting down.
+     */
+    public ScheduledFuture<?> scheduleCancellable(final Runnable runnable, long delay, long interval, Unit unit) {
         log.trace("Scheduling runnable [{0}], interval [{1}], delay [{2}] in [{3}]",
                   runnable.getClass(), delay, interval, unit);
         Runnable r = new Runnable() {
@@ -182,11 +197,12 @@ public class SchedulerService implements Service {
             }
         };
         if (!scheduler.isShutdown()) {
-            scheduler.scheduleWithFixedDelay(r, delay * unit.getMillis(), interval * unit.getMillis(),
+            return scheduler.scheduleWithFixedDelay(r, delay * unit.getMillis(), interval * unit.getMillis(),
                                                  TimeUnit.MILLISECONDS);
         }
         else {
             log.warn("Scheduler shutting down, ignoring scheduling of [{0}]", runnable.getClass());
+            return null;
         }
     }
 
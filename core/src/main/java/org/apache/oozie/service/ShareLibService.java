@@ -20,16 +20,19 @@ package org.apache.oozie.service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.security.MessageDigest;
 import java.text.MessageFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Enumeration;
@@ -40,7 +43,14 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
@@ -48,6 +58,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PathFilter;
 import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.io.IOUtils;
 import org.apache.oozie.action.ActionExecutor;
 import org.apache.oozie.action.hadoop.JavaActionExecutor;
 import org.apache.oozie.client.rest.JsonUtils;
@@ -73,6 +84,14 @@ public class ShareLibService implements Service, Instrumentable {
 
     public static final String FAIL_FAST_ON_STARTUP = CONF_PREFIX + "ShareLibService.fail.fast.on.startup";
 
+    public static final String SYMLINK_REFRESH_INTERVAL = CONF_PREFIX + "ShareLibService.symlink.refresh.interval";
+
+    public static final String CONSOLIDATED_ARCHIVES = CONF_PREFIX + "ShareLibService.consolidated.archives";
+
+    public static final String CONSOLIDATED_LIB_DIR = "consolidated";
+
+    private static final String CONSOLIDATED_ARCHIVE_EXTENSION = ".zip";
+
     private static final String PERMISSION_STRING = "-rwxr-xr-x";
 
     public static final String LAUNCHER_LIB_PREFIX = "launcher_";
@@ -83,26 +102,27 @@ public class ShareLibService implements Service, Instrumentable {
 
     private Services services;
 
-    private Map<String, List<Path>> shareLibMap = new HashMap<String, List<Path>>();
-
-    private Map<String, Map<Path, Configuration>> shareLibConfigMap = new HashMap<String, Map<Path, Configuration>>();
-
     private Map<String, List<Path>> launcherLibMap = new HashMap<String, List<Path>>();
 
     private Set<String> actionConfSet = new HashSet<String>();
 
-    // symlink mapping. Oozie keeps on checking symlink path and if changes, Oozie reloads the sharelib
-    private Map<String, Map<Path, Path>> symlinkMapping = new HashMap<String, Map<Path, Path>>();
-
     private static XLog LOG = XLog.getLog(ShareLibService.class);
 
     private String sharelibMappingFile;
 
     private boolean isShipLauncherEnabled = false;
 
+    private boolean consolidateArchives = false;
+
     public static String SHARE_LIB_CONF_PREFIX = "oozie";
 
-    private boolean shareLibLoadAttempted = false;
+    private volatile boolean shareLibLoadAttempted = false;
+
+    // unique across service instances, so cached data never outlives a service restart
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    // replaced as a whole every time the sharelib is reloaded, readers never lock
+    private volatile ShareLibSnapshot snapshot = ShareLibSnapshot.empty();
 
     private String sharelibMetaFileOldTimeStamp;
 
@@ -117,6 +137,7 @@ public class ShareLibService implements Service, Instrumentable {
         this.services = services;
         sharelibMappingFile = ConfigurationService.get(services.getConf(), SHARELIB_MAPPING_FILE);
         isShipLauncherEnabled = ConfigurationService.getBoolean(services.getConf(), SHIP_LAUNCHER_JAR);
+        consolidateArchives = ConfigurationService.getBoolean(services.getConf(), CONSOLIDATED_ARCHIVES);
         boolean failOnfailure = ConfigurationService.getBoolean(services.getConf(), FAIL_FAST_ON_STARTUP);
         Path launcherlibPath = getLauncherlibPath();
         HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
@@ -147,11 +168,14 @@ public class ShareLibService implements Service, Instrumentable {
             public void run() {
                 System.out.flush();
                 try {
+                    // every server marks the archives it uses, so that the purge does not delete them
+                    touchConsolidatedArchives(fs);
                     // Only one server should purge sharelib
                     if (Services.get().get(JobsConcurrencyService.class).isLeader()) {
                         final Date current = Calendar.getInstance(TimeZone.getTimeZone("GMT")).getTime();
                         purgeLibs(fs, LAUNCHER_LIB_PREFIX, current);
                         purgeLibs(fs, SHARE_LIB_PREFIX, current);
+                        purgeConsolidatedArchives(fs, current);
                     }
                 }
                 catch (IOException e) {
@@ -162,6 +186,49 @@ public class ShareLibService implements Service, Instrumentable {
         services.get(SchedulerService.class).schedule(purgeLibsRunnable, 10,
                 ConfigurationService.getInt(services.getConf(), PURGE_INTERVAL) * 60 * 60 * 24,
                 SchedulerService.Unit.SEC);
+        int refreshInterval = ConfigurationService.getInt(services.getConf(), SYMLINK_REFRESH_INTERVAL);
+        if (refreshInterval > 0) {
+            Runnable refreshSymlinksRunnable = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refreshSymlinks();
+                    }
+                    catch (IOException e) {
+                        LOG.warn("There was an issue refreshing the sharelib symlinks", e);
+                    }
+                }
+            };
+            services.get(SchedulerService.class).schedule(refreshSymlinksRunnable, refreshInterval, refreshInterval,
+                    SchedulerService.Unit.SEC);
+        }
+    }
+
+    /**
+     * Immutable view of the loaded sharelib: the jars, cached configuration files and consolidated archive of each
+     * sharelib key, and the targets of its symlinks when it was loaded. Every reload publishes a new snapshot with a
+     * new generation.
+     */
+    private static final class ShareLibSnapshot {
+        private final long generation;
+        private final Map<String, List<Path>> shareLib;
+        private final Map<String, Map<Path, Path>> symlinks;
+        private final Map<String, Map<Path, Configuration>> configs;
+        private final Map<String, Path> archives;
+
+        ShareLibSnapshot(Map<String, List<Path>> shareLib, Map<String, Map<Path, Path>> symlinks,
+                Map<String, Map<Path, Configuration>> configs, Map<String, Path> archives) {
+            this.generation = GENERATIONS.incrementAndGet();
+            this.shareLib = Collections.unmodifiableMap(shareLib);
+            this.symlinks = Collections.unmodifiableMap(symlinks);
+            this.configs = Collections.unmodifiableMap(configs);
+            this.archives = Collections.unmodifiableMap(archives);
+        }
+
+        static ShareLibSnapshot empty() {
+            return new ShareLibSnapshot(new HashMap<String, List<Path>>(), new HashMap<String, Map<Path, Path>>(),
+                    new HashMap<String, Map<Path, Configuration>>(), new HashMap<String, Path>());
+        }
     }
 
     /**
@@ -322,15 +389,16 @@ public class ShareLibService implements Service, Instrumentable {
     }
 
     public Map<String, List<Path>> getShareLib() {
-        return shareLibMap;
+        return snapshot.shareLib;
     }
 
     private Map<String, Map<Path, Path>> getSymlinkMapping() {
-        return symlinkMapping;
+        return snapshot.symlinks;
     }
 
     /**
-     * Gets the action sharelib lib jars.
+     * Gets the action sharelib lib jars. The jars are resolved from the current sharelib snapshot, without accessing
+     * the file system; changed symlinks are picked up by the periodic refresh.
      *
      * @param shareLibKey the sharelib key
      * @return List of paths
@@ -339,49 +407,66 @@ public class ShareLibService implements Service, Instrumentable {
     public List<Path> getShareLibJars(String shareLibKey) throws IOException {
         // Sharelib map is empty means that on previous or startup attempt of
         // caching sharelib has failed.Trying to reload
-        if (shareLibMap.isEmpty() && !shareLibLoadAttempted) {
+        if (snapshot.shareLib.isEmpty() && !shareLibLoadAttempted) {
             synchronized (ShareLibService.class) {
-                if (shareLibMap.isEmpty()) {
+                if (snapshot.shareLib.isEmpty()) {
                     updateShareLib();
                     shareLibLoadAttempted = true;
                 }
             }
         }
-        checkSymlink(shareLibKey);
-        return shareLibMap.get(shareLibKey);
+        return snapshot.shareLib.get(shareLibKey);
     }
 
-    private void checkSymlink(String shareLibKey) throws IOException {
-        if (!HadoopShims.isSymlinkSupported() || symlinkMapping.get(shareLibKey) == null
-                || symlinkMapping.get(shareLibKey).isEmpty()) {
-            return;
+    /**
+     * Reload the sharelib keys whose symlinks point to a new target, and publish a new snapshot if any did.
+     *
+     * @return <code>true</code> if the sharelib was reloaded
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @VisibleForTesting
+    boolean refreshSymlinks() throws IOException {
+        ShareLibSnapshot current = snapshot;
+        if (!HadoopShims.isSymlinkSupported() || current.symlinks.isEmpty()) {
+            return false;
         }
-
         HadoopShims fileSystem = new HadoopShims(fs);
-        for (Path path : symlinkMapping.get(shareLibKey).keySet()) {
-            if (!symlinkMapping.get(shareLibKey).get(path).equals(fileSystem.getSymLinkTarget(path))) {
-                synchronized (ShareLibService.class) {
-                    Map<String, List<Path>> tmpShareLibMap = new HashMap<String, List<Path>>(shareLibMap);
-
-                    Map<String, Map<Path, Configuration>> tmpShareLibConfigMap = new HashMap<String, Map<Path, Configuration>>(
-                            shareLibConfigMap);
-
-                    Map<String, Map<Path, Path>> tmpSymlinkMapping = new HashMap<String, Map<Path, Path>>(
-                            symlinkMapping);
-
+        Set<String> changedKeys = new HashSet<String>();
+        for (Entry<String, Map<Path, Path>> entry : current.symlinks.entrySet()) {
+            for (Entry<Path, Path> symlink : entry.getValue().entrySet()) {
+                Path target = fileSystem.getSymLinkTarget(symlink.getKey());
+                if (!symlink.getValue().equals(target)) {
                     LOG.info(MessageFormat.format("Symlink target for [{0}] has changed, was [{1}], now [{2}]",
-                            shareLibKey, path, fileSystem.getSymLinkTarget(path)));
-                    loadShareLibMetaFile(tmpShareLibMap, tmpSymlinkMapping, tmpShareLibConfigMap, sharelibMappingFile,
-                            shareLibKey);
-                    shareLibMap = tmpShareLibMap;
-                    symlinkMapping = tmpSymlinkMapping;
-                    shareLibConfigMap = tmpShareLibConfigMap;
-                    return;
+                            entry.getKey(), symlink.getValue(), target));
+                    changedKeys.add(entry.getKey());
+                    break;
                 }
-
             }
         }
-
+        if (changedKeys.isEmpty()) {
+            return false;
+        }
+        synchronized (ShareLibService.class) {
+            if (snapshot != current) {
+                // reloaded in the meantime, the symlinks are checked again at the next refresh
+                return false;
+            }
+            Map<String, List<Path>> tmpShareLibMap = new HashMap<String, List<Path>>(current.shareLib);
+            Map<String, Map<Path, Path>> tmpSymlinkMapping = new HashMap<String, Map<Path, Path>>(current.symlinks);
+            Map<String, Map<Path, Configuration>> tmpShareLibConfigMap = new HashMap<String, Map<Path, Configuration>>(
+                    current.configs);
+            Map<String, Path> tmpArchives = new HashMap<String, Path>(current.archives);
+            for (String shareLibKey : changedKeys) {
+                // the configuration files of the key are cached again, the ones of the current snapshot stay as is
+                tmpShareLibConfigMap.remove(shareLibKey);
+                loadShareLibMetaFile(tmpShareLibMap, tmpSymlinkMapping, tmpShareLibConfigMap, sharelibMappingFile,
+                        shareLibKey);
+                tmpArchives.remove(shareLibKey);
+                buildConsolidatedArchive(tmpArchives, shareLibKey, tmpShareLibMap.get(shareLibKey));
+            }
+            snapshot = new ShareLibSnapshot(tmpShareLibMap, tmpSymlinkMapping, tmpShareLibConfigMap, tmpArchives);
+        }
+        return true;
     }
 
     /**
@@ -508,7 +593,7 @@ public class ShareLibService implements Service, Instrumentable {
 
     @Override
     public void destroy() {
-        shareLibMap.clear();
+        snapshot = ShareLibSnapshot.empty();
         launcherLibMap.clear();
     }
 
@@ -558,12 +643,188 @@ public class ShareLibService implements Service, Instrumentable {
             }
 
         }
-        shareLibMap = tempShareLibMap;
-        symlinkMapping = tmpSymlinkMapping;
-        shareLibConfigMap = tmpShareLibConfigMap;
+        Map<String, Path> tmpArchives = new HashMap<String, Path>();
+        for (Entry<String, List<Path>> entry : tempShareLibMap.entrySet()) {
+            buildConsolidatedArchive(tmpArchives, entry.getKey(), entry.getValue());
+        }
+        synchronized (ShareLibService.class) {
+            snapshot = new ShareLibSnapshot(tempShareLibMap, tmpSymlinkMapping, tmpShareLibConfigMap, tmpArchives);
+        }
         return status;
     }
 
+    /**
+     * Return the consolidated archive of a sharelib key. The archive holds the jars of the sharelib key, so that
+     * actions can localize them as a single resource.
+     *
+     * @param shareLibKey the sharelib key
+     * @return the path of the archive, <code>null</code> if there is none for the key
+     */
+    public Path getConsolidatedArchive(String shareLibKey) {
+        return snapshot.archives.get(shareLibKey);
+    }
+
+    /**
+     * Return whether a sharelib file is a jar, to be found in the consolidated archive of its sharelib key.
+     *
+     * @param path the sharelib file
+     * @return <code>true</code> for a jar
+     */
+    public static boolean isConsolidatedJar(Path path) {
+        return getLinkName(path).endsWith(".jar");
+    }
+
+    private static String getLinkName(Path path) {
+        String fragment = path.toUri().getFragment();
+        return fragment == null ? path.getName() : fragment;
+    }
+
+    /**
+     * Build the consolidated archive of the jars of a sharelib key, if enabled. The archive is named after a digest of
+     * the paths, sizes and modification times of the jars, so it is reused as long as the jars do not change, also by
+     * other Oozie servers. Failures are logged, the jars of the key are then localized one by one.
+     */
+    private void buildConsolidatedArchive(Map<String, Path> archives, String shareLibKey, List<Path> paths) {
+        if (!consolidateArchives || paths == null) {
+            return;
+        }
+        try {
+            Map<String, FileStatus> jars = new TreeMap<String, FileStatus>();
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            for (Path path : paths) {
+                if (isConsolidatedJar(path) && !jars.containsKey(getLinkName(path))) {
+                    URI uri = path.toUri();
+                    FileStatus status = fs.getFileStatus(new Path(uri.getScheme(), uri.getAuthority(), uri.getPath()));
+                    jars.put(getLinkName(path), status);
+                    digest.update((getLinkName(path) + "|" + status.getPath() + "|" + status.getLen() + "|"
+                            + status.getModificationTime() + "\n").getBytes("UTF-8"));
+                }
+            }
+            if (jars.size() < 2) {
+                return;
+            }
+            Path archiveDir = new Path(services.get(WorkflowAppService.class).getSystemLibPath(), CONSOLIDATED_LIB_DIR);
+            Path archive = fs.makeQualified(new Path(archiveDir, shareLibKey + "-"
+                    + new String(Hex.encodeHex(digest.digest())) + CONSOLIDATED_ARCHIVE_EXTENSION));
+            if (!fs.exists(archive)) {
+                writeConsolidatedArchive(archiveDir, archive, jars);
+            }
+            else {
+                touchConsolidatedArchive(fs, archive);
+            }
+            archives.put(shareLibKey, archive);
+            LOG.info("Consolidated archive for " + shareLibKey + ": " + archive + ", " + jars.size() + " jars");
+        }
+        catch (Exception e) {
+            LOG.warn("Could not build the consolidated archive for " + shareLibKey
+                    + ", its jars are shipped one by one", e);
+        }
+    }
+
+    private void writeConsolidatedArchive(Path archiveDir, Path archive, Map<String, FileStatus> jars)
+            throws IOException {
+        if (!fs.exists(archiveDir)) {
+            fs.mkdirs(archiveDir);
+            fs.setPermission(archiveDir, FsPermission.valueOf("drwxr-xr-x"));
+        }
+        // written aside and renamed, so that other servers never see a partial archive
+        Path tmpArchive = new Path(archiveDir, "." + archive.getName() + "." + UUID.randomUUID() + ".tmp");
+        ZipOutputStream zos = new ZipOutputStream(fs.create(tmpArchive));
+        try {
+            // jars are compressed already
+            zos.setLevel(Deflater.NO_COMPRESSION);
+            for (Entry<String, FileStatus> jar : jars.entrySet()) {
+                zos.putNextEntry(new ZipEntry(jar.getKey()));
+                InputStream in = fs.open(jar.getValue().getPath());
+                try {
+                    IOUtils.copyBytes(in, zos, 64 * 1024, false);
+                }
+                finally {
+                    in.close();
+                }
+                zos.closeEntry();
+            }
+        }
+        finally {
+            zos.close();
+        }
+        // readable by everyone, so that the NodeManagers localize the archive once for all users
+        fs.setPermission(tmpArchive, FsPermission.valueOf("-rw-r--r--"));
+        if (!fs.rename(tmpArchive, archive)) {
+            fs.delete(tmpArchive, false);
+            if (!fs.exists(archive)) {
+                throw new IOException("Could not rename " + tmpArchive + " to " + archive);
+            }
+        }
+    }
+
+    /**
+     * Set the modification time of the consolidated archives of the loaded sharelib to the current time. Archives
+     * are purged by modification time, the archives used by any server are then kept.
+     */
+    private void touchConsolidatedArchives(FileSystem fs) {
+        for (Path archive : snapshot.archives.values()) {
+            touchConsolidatedArchive(fs, archive);
+        }
+    }
+
+    private void touchConsolidatedArchive(FileSystem fs, Path archive) {
+        try {
+            fs.setTimes(archive, System.currentTimeMillis(), -1);
+        }
+        catch (IOException e) {
+            LOG.warn("Could not update the modification time of the consolidated archive " + archive, e);
+        }
+    }
+
+    /**
+     * Purge consolidated archives, the same way as sharelib directories: for each sharelib key, keep the archives
+     * used within the sharelib retention time and the latest one used before, delete the others. Archives in use are
+     * touched by every server on each purge interval, so their modification time is the last time they were used.
+     */
+    private void purgeConsolidatedArchives(FileSystem fs, final Date current) throws IOException {
+        Path archiveDir = new Path(services.get(WorkflowAppService.class).getSystemLibPath(), CONSOLIDATED_LIB_DIR);
+        if (!fs.exists(archiveDir)) {
+            return;
+        }
+        FileStatus[] archiveList = fs.listStatus(archiveDir, new PathFilter() {
+            @Override
+            public boolean accept(Path path) {
+                return path.getName().endsWith(CONSOLIDATED_ARCHIVE_EXTENSION) && path.getName().contains("-");
+            }
+        });
+        Arrays.sort(archiveList, new Comparator<FileStatus>() {
+            // sort in desc order
+            @Override
+            public int compare(FileStatus o1, FileStatus o2) {
+                return Long.valueOf(o2.getModificationTime()).compareTo(o1.getModificationTime());
+            }
+        });
+        Set<String> keptOldArchive = new HashSet<String>();
+        for (FileStatus status : archiveList) {
+            if (current.getTime() - status.getModificationTime() <= retentionTime) {
+                continue;
+            }
+            String name = status.getPath().getName();
+            // refer OOZIE-1761
+            if (keptOldArchive.add(name.substring(0, name.lastIndexOf('-')))) {
+                continue;
+            }
+            fs.delete(status.getPath(), false);
+            LOG.info("Deleted old consolidated sharelib archive {0}", name);
+        }
+    }
+
+    /**
+     * Return the generation of the sharelib. It changes every time the sharelib is reloaded, so callers can cache
+     * what they derive from the sharelib jars for a given generation.
+     *
+     * @return the sharelib generation
+     */
+    public long getShareLibGeneration() {
+        return snapshot.generation;
+    }
+
     /**
      * Update share lib cache. Parse the share lib directory and each sub directory is a action key
      *
@@ -861,6 +1122,7 @@ public class ShareLibService implements Service, Instrumentable {
     }
 
     public Configuration getShareLibConf(String inputKey, Path path) {
+        Map<String, Map<Path, Configuration>> shareLibConfigMap = snapshot.configs;
         if (shareLibConfigMap.containsKey(inputKey)) {
             return shareLibConfigMap.get(inputKey).get(path);
         }
@@ -870,7 +1132,7 @@ public class ShareLibService implements Service, Instrumentable {
 
     @VisibleForTesting
     public Map<String, Map<Path, Configuration>> getShareLibConfigMap() {
-        return shareLibConfigMap;
+        return snapshot.configs;
     }
 
     private boolean isFilePartOfConfList(Path path) throws URISyntaxException {
@@ -17,9 +17,24 @@
  */
 package org.apache.oozie.service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
+import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.recipes.locks.InterProcessMutex;
 import org.apache.curator.framework.recipes.locks.InterProcessReadWriteLock;
 import org.apache.oozie.ErrorCode;
@@ -36,7 +51,9 @@ import java.util.concurrent.ScheduledExecutorService;
 import org.apache.curator.framework.recipes.locks.ChildReaper;
 import org.apache.curator.framework.recipes.locks.Reaper;
 import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
 import org.apache.curator.utils.ThreadUtils;
+import org.apache.zookeeper.KeeperException;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.MapMaker;
@@ -45,6 +62,17 @@ import com.google.common.collect.MapMaker;
  * Service that provides distributed locks via ZooKeeper.  Requires that a ZooKeeper ensemble is available.  The locks will be
  * located under a ZNode named "locks" under the namespace (see {@link ZKUtils}).  For example, with default settings, if the
  * resource we're locking is called "foo", then the ZNode backing the lock will be at /oozie/locks/foo.
+ * <p>
+ * Locks on job and action ids owned by this server (see {@link JobsConcurrencyService#isJobIdForThisServer(String)})
+ * take a fast path: the first lock takes a lease, a write lock on the ZNode held by a lease thread, and every lock
+ * after that is only a {@link MemoryLocksService} lock.  Curator locks belong to the thread that acquired them, so
+ * the lease of a resource is always taken and given up by the same of the lease threads.
+ * <p>
+ * Leases are given up when they are idle for the lease idle timeout.  When another lock is waiting on the ZNode or the
+ * job is no longer owned by this server, the lease is revoked: it grants no more local locks, the callers take
+ * distributed locks instead, and it is given up as soon as its current holders release their locks.  When the
+ * ZooKeeper connection is suspended every lease is revoked right away and given up even if it is in use.  The ZNode
+ * of a given up lease is deleted right away.  Setting the lease idle timeout to 0 disables the fast path.
  */
 public class ZKLocksService extends MemoryLocksService implements Service, Instrumentable {
 
@@ -60,6 +88,26 @@ public class ZKLocksService extends MemoryLocksService implements Service, Instr
     public static final String REAPING_THREADS = CONF_PREFIX + "ZKLocksService.locks.reaper.threads";
     private ChildReaper reaper = null;
 
+    public static final String LEASE_IDLE_TIMEOUT = CONF_PREFIX + "ZKLocksService.locks.lease.idle.timeout";
+    public static final String LEASE_CHECK_INTERVAL = CONF_PREFIX + "ZKLocksService.locks.lease.check.interval";
+    public static final String LEASE_THREADS = CONF_PREFIX + "ZKLocksService.locks.lease.threads";
+    public static final String CONTENTION_THRESHOLD = CONF_PREFIX + "ZKLocksService.locks.contention.threshold";
+    private static final Pattern JOB_ID_PATTERN = Pattern.compile("\\d{7}-.*");
+    private static final String TIMER_LOCAL = "acquire.local";
+    private static final String TIMER_LEASE = "acquire.lease";
+    private static final String TIMER_DISTRIBUTED = "acquire.distributed";
+    private static final int LEASE_PENDING = 0;
+    private static final int LEASE_TAKEN = 1;
+    private static final int LEASE_ABANDONED = 2;
+
+    private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<String, Lease>();
+    private long leaseIdleTimeout;
+    private long contentionThreshold;
+    private ExecutorService[] leaseExecutors = null;
+    private ScheduledExecutorService leaseChecker = null;
+    private ConnectionStateListener leaseConnectionListener = null;
+    private volatile Instrumentation instrumentation;
+
     /**
      * Initialize the zookeeper locks service
      *
@@ -73,6 +121,32 @@ public class ZKLocksService extends MemoryLocksService implements Service, Instr
             reaper = new ChildReaper(zk.getClient(), LOCKS_NODE, Reaper.Mode.REAP_UNTIL_GONE, getExecutorService(),
                     ConfigurationService.getInt(services.getConf(), REAPING_THRESHOLD) * 1000, REAPING_LEADER_PATH);
             reaper.start();
+            leaseIdleTimeout = ConfigurationService.getInt(services.getConf(), LEASE_IDLE_TIMEOUT) * 1000L;
+            contentionThreshold = ConfigurationService.getLong(services.getConf(), CONTENTION_THRESHOLD);
+            if (leaseIdleTimeout > 0) {
+                // the lease ZNode locks of a resource are acquired and released by one of these threads, Curator
+                // locks belong to a thread
+                leaseExecutors = new ExecutorService[Math.max(1,
+                        ConfigurationService.getInt(services.getConf(), LEASE_THREADS))];
+                for (int i = 0; i < leaseExecutors.length; i++) {
+                    leaseExecutors[i] = Executors.newSingleThreadExecutor(ThreadUtils.newThreadFactory("ZKLocksLease"));
+                }
+                // the checker only reads ZooKeeper, a slow check does not hold back lease acquisitions
+                leaseChecker = Executors.newSingleThreadScheduledExecutor(
+                        ThreadUtils.newThreadFactory("ZKLocksLeaseChecker"));
+                int interval = ConfigurationService.getInt(services.getConf(), LEASE_CHECK_INTERVAL);
+                leaseChecker.scheduleWithFixedDelay(new LeaseChecker(), interval, interval, TimeUnit.SECONDS);
+                leaseConnectionListener = new ConnectionStateListener() {
+                    @Override
+                    public void stateChanged(CuratorFramework client, ConnectionState newState) {
+                        if (newState == ConnectionState.SUSPENDED || newState == ConnectionState.LOST) {
+                            LOG.info("ZooKeeper connection [{0}], giving up job lock leases", newState);
+                            invalidateLeases();
+                        }
+                    }
+                };
+                zk.getClient().getConnectionStateListenable().addListener(leaseConnectionListener);
+            }
         }
         catch (Exception ex) {
             throw new ServiceException(ErrorCode.E1700, ex.getMessage(), ex);
@@ -84,6 +158,32 @@ public class ZKLocksService extends MemoryLocksService implements Service, Instr
      */
     @Override
     public void destroy() {
+        if (leaseExecutors != null) {
+            if (zk != null) {
+                zk.getClient().getConnectionStateListenable().removeListener(leaseConnectionListener);
+            }
+            leaseChecker.shutdownNow();
+            leaseChecker = null;
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+                entry.getValue().revoked = true;
+                futures.add(submitLeaseRelease(entry.getKey(), entry.getValue(), true));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    if (future != null) {
+                        future.get(10, TimeUnit.SECONDS);
+                    }
+                }
+            }
+            catch (Exception ex) {
+                LOG.warn("Could not release job lock leases: " + ex.getMessage(), ex);
+            }
+            for (ExecutorService executor : leaseExecutors) {
+                executor.shutdownNow();
+            }
+            leaseExecutors = null;
+        }
         if (reaper != null) {
             try {
                 reaper.close();
@@ -106,6 +206,7 @@ public class ZKLocksService extends MemoryLocksService implements Service, Instr
      */
     @Override
     public void instrument(Instrumentation instr) {
+        instrumentation = instr;
         // Similar to MemoryLocksService's instrumentation, though this is only the number of locks this Oozie server currently has
         instr.addVariable(INSTRUMENTATION_GROUP, "locks", new Instrumentation.Variable<Integer>() {
             @Override
@@ -113,6 +214,28 @@ public class ZKLocksService extends MemoryLocksService implements Service, Instr
                 return zkLocks.size();
             }
         });
+        instr.addVariable(INSTRUMENTATION_GROUP, "leases", new Instrumentation.Variable<Integer>() {
+            @Override
+            public Integer getValue() {
+                return leases.size();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "contended", new Instrumentation.Variable<Long>() {
+            @Override
+            public Long getValue() {
+                return getContendedCount();
+            }
+        });
+    }
+
+    /**
+     * Return the number of ZooKeeper locks this server currently has.
+     *
+     * @return the number of locks.
+     */
+    @Override
+    public int getLockCount() {
+        return zkLocks.size();
     }
 
     /**
@@ -142,6 +265,52 @@ public class ZKLocksService extends MemoryLocksService implements Service, Instr
     }
 
     private LockToken acquireLock(final String resource, Type type, long wait) throws InterruptedException {
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        long deadline = (wait > 0) ? System.currentTimeMillis() + wait : 0;
+        String timer = TIMER_DISTRIBUTED;
+        LockToken token = null;
+        boolean leased = false;
+        if (isLeasable(resource)) {
+            timer = TIMER_LOCAL;
+            Lease lease = leases.get(resource);
+            if (lease == null) {
+                timer = TIMER_LEASE;
+                lease = acquireLease(resource, wait);
+            }
+            if (lease != null && !lease.revoked) {
+                leased = true;
+                token = (type.equals(Type.READ)) ? super.getReadLock(resource, getRemainingWait(wait, deadline))
+                        : super.getWriteLock(resource, getRemainingWait(wait, deadline));
+                if (token != null && (lease.revoked || leases.get(resource) != lease)) {
+                    // the lease was revoked or given up while waiting for the local lock
+                    releaseLocal(resource, lease, token);
+                    token = null;
+                    leased = false;
+                }
+                else if (token != null) {
+                    token = new LeasedLockToken(resource, lease, token);
+                }
+                lease.touch();
+            }
+        }
+        if (!leased) {
+            timer = TIMER_DISTRIBUTED;
+            token = acquireZKLock(resource, type, getRemainingWait(wait, deadline));
+        }
+        cron.stop();
+        Instrumentation instr = instrumentation;
+        if (instr != null) {
+            instr.addCron(INSTRUMENTATION_GROUP, timer, cron);
+        }
+        return token;
+    }
+
+    private static long getRemainingWait(long wait, long deadline) {
+        return (wait > 0) ? Math.max(0, deadline - System.currentTimeMillis()) : wait;
+    }
+
+    private InterProcessReadWriteLock getLockEntry(String resource) {
         InterProcessReadWriteLock lockEntry = zkLocks.get(resource);
         if (lockEntry == null) {
             InterProcessReadWriteLock newLock = new InterProcessReadWriteLock(zk.getClient(), LOCKS_NODE + "/" + resource);
@@ -150,14 +319,29 @@ public class ZKLocksService extends MemoryLocksService implements Service, Instr
                 lockEntry = newLock;
             }
         }
+        return lockEntry;
+    }
+
+    private LockToken acquireZKLock(final String resource, Type type, long wait) throws InterruptedException {
+        InterProcessReadWriteLock lockEntry = getLockEntry(resource);
         InterProcessMutex lock = (type.equals(Type.READ)) ? lockEntry.readLock() : lockEntry.writeLock();
         ZKLockToken token = null;
         try {
+            // a ZNode lock always takes a few ZooKeeper round trips, only the acquisitions slower than the threshold
+            // or failing are sampled
+            long start = System.nanoTime();
+            boolean acquired = true;
             if (wait == -1) {
                 lock.acquire();
-                token = new ZKLockToken(lockEntry, type);
             }
-            else if (lock.acquire(wait, TimeUnit.MILLISECONDS)) {
+            else {
+                acquired = lock.acquire(wait, TimeUnit.MILLISECONDS);
+            }
+            long waitTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (!acquired || waitTime > contentionThreshold) {
+                getLockContention().sample(resource, waitTime, acquired);
+            }
+            if (acquired) {
                 token = new ZKLockToken(lockEntry, type);
             }
         }
@@ -201,11 +385,261 @@ public class ZKLocksService extends MemoryLocksService implements Service, Instr
         }
     }
 
+    private boolean isLeasable(String resource) {
+        if (leaseExecutors == null || !JOB_ID_PATTERN.matcher(resource).matches()) {
+            return false;
+        }
+        return isOwned(resource);
+    }
+
+    private boolean isOwned(String resource) {
+        Services services = Services.get();
+        JobsConcurrencyService concurrency = (services != null) ? services.get(JobsConcurrencyService.class) : null;
+        return concurrency != null && concurrency.isJobIdForThisServer(resource);
+    }
+
+    /**
+     * Take the lease of a resource.  The lease is not waited for, if another lock holds the ZNode the caller falls back
+     * to a distributed lock.
+     *
+     * @param resource resource name.
+     * @param wait time out in milliseconds to wait for the lease thread, -1 means no timeout.
+     * @return the lease, or <code>null</code> if the lease could not be taken.
+     * @throws InterruptedException thrown if the thread was interrupted while waiting for the lease thread.
+     */
+    private Lease acquireLease(final String resource, long wait) throws InterruptedException {
+        final InterProcessReadWriteLock lockEntry = getLockEntry(resource);
+        // whichever of the lease thread and the caller gets to the state first decides if the ZNode lock is kept
+        final AtomicInteger state = new AtomicInteger(LEASE_PENDING);
+        Future<Boolean> future = null;
+        try {
+            future = getLeaseExecutor(resource).submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    if (!lockEntry.writeLock().acquire(0, TimeUnit.MILLISECONDS)) {
+                        return false;
+                    }
+                    if (!state.compareAndSet(LEASE_PENDING, LEASE_TAKEN)) {
+                        // the caller stopped waiting, nobody would ever give the lease up
+                        lockEntry.writeLock().release();
+                        return false;
+                    }
+                    return true;
+                }
+            });
+            boolean taken;
+            try {
+                taken = (wait < 0) ? future.get() : future.get(wait, TimeUnit.MILLISECONDS);
+            }
+            catch (TimeoutException ex) {
+                if (state.compareAndSet(LEASE_PENDING, LEASE_ABANDONED)) {
+                    LOG.debug("Timed out waiting for the lease of lock [{0}]", resource);
+                    return null;
+                }
+                // the lease thread took the lease just now
+                taken = future.get();
+            }
+            if (taken) {
+                Lease lease = new Lease(lockEntry);
+                Lease existing = leases.putIfAbsent(resource, lease);
+                if (existing != null) {
+                    // leased concurrently by another thread, drop the reentrant hold taken for this one
+                    getLeaseExecutor(resource).submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            lockEntry.writeLock().release();
+                            return null;
+                        }
+                    });
+                    lease = existing;
+                }
+                return lease;
+            }
+        }
+        catch (ExecutionException ex) {
+            LOG.warn("Could not lease lock [{0}]: {1}", resource, ex.getCause().getMessage(), ex.getCause());
+        }
+        catch (RejectedExecutionException ex) {
+            LOG.debug("Lease thread stopped, not leasing lock [{0}]", resource);
+        }
+        return null;
+    }
+
+    private ExecutorService getLeaseExecutor(String resource) {
+        ExecutorService[] executors = leaseExecutors;
+        if (executors == null) {
+            throw new RejectedExecutionException("Lease threads stopped");
+        }
+        return executors[(resource.hashCode() & Integer.MAX_VALUE) % executors.length];
+    }
+
+    /**
+     * Give up a lease, runs in the lease thread of the resource.  A lease in use by a local lock is kept, a revoked
+     * lease is given up by the release of its last local lock.
+     *
+     * @param resource resource name.
+     * @param lease lease of the resource.
+     * @param force give up the lease even if it is in use.
+     */
+    private void releaseLease(String resource, Lease lease, boolean force) {
+        LockToken local = null;
+        try {
+            local = super.getWriteLock(resource, 0);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (local == null && !force) {
+            return;
+        }
+        try {
+            if (leases.remove(resource, lease)) {
+                lease.lockEntry.writeLock().release();
+                zk.getClient().delete().forPath(LOCKS_NODE + "/" + resource);
+            }
+        }
+        catch (KeeperException.NotEmptyException ex) {
+            // other locks are waiting on the ZNode, the ChildReaper deletes it once they are done
+        }
+        catch (KeeperException.NoNodeException ex) {
+            // already deleted
+        }
+        catch (Exception ex) {
+            LOG.warn("Could not release lease of lock [{0}]: {1}", resource, ex.getMessage(), ex);
+        }
+        finally {
+            if (local != null) {
+                local.release();
+            }
+        }
+    }
+
+    private Future<?> submitLeaseRelease(final String resource, final Lease lease, final boolean force) {
+        try {
+            return getLeaseExecutor(resource).submit(new Runnable() {
+                @Override
+                public void run() {
+                    releaseLease(resource, lease, force);
+                }
+            });
+        }
+        catch (RejectedExecutionException ex) {
+            LOG.debug("Lease thread stopped, not releasing lease of lock [{0}]", resource);
+            return null;
+        }
+    }
+
+    /**
+     * Revoke a lease: it grants no more local locks and it is given up once it is not in use.
+     *
+     * @param resource resource name.
+     * @param lease lease of the resource.
+     */
+    private void revokeLease(String resource, Lease lease) {
+        lease.revoked = true;
+        submitLeaseRelease(resource, lease, false);
+    }
+
+    /**
+     * Revoke every lease and give them up even if they are in use.  Called when the ZooKeeper connection is suspended
+     * or lost, the leases are revoked before returning so no local lock is granted under them anymore.
+     */
+    @VisibleForTesting
+    void invalidateLeases() {
+        for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+            entry.getValue().revoked = true;
+        }
+        for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+            submitLeaseRelease(entry.getKey(), entry.getValue(), true);
+        }
+    }
+
+    private void releaseLocal(String resource, Lease lease, LockToken token) {
+        token.release();
+        if (lease.revoked) {
+            submitLeaseRelease(resource, lease, false);
+        }
+    }
+
+    /**
+     * Lease of a ZNode lock held by a lease thread.
+     */
+    private static class Lease {
+        private final InterProcessReadWriteLock lockEntry;
+        private volatile long lastUsed;
+        private volatile boolean revoked;
+
+        private Lease(InterProcessReadWriteLock lockEntry) {
+            this.lockEntry = lockEntry;
+            touch();
+        }
+
+        private void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Local lock taken under a lease, the release of the last local lock of a revoked lease gives the lease up.
+     */
+    private class LeasedLockToken implements LockToken {
+        private final String resource;
+        private final Lease lease;
+        private final LockToken token;
+
+        private LeasedLockToken(String resource, Lease lease, LockToken token) {
+            this.resource = resource;
+            this.lease = lease;
+            this.token = token;
+        }
+
+        @Override
+        public void release() {
+            releaseLocal(resource, lease, token);
+        }
+    }
+
+    /**
+     * Gives up the leases that are idle, and revokes the ones wanted by another lock or of jobs no longer owned by
+     * this server.
+     */
+    private class LeaseChecker implements Runnable {
+        @Override
+        public void run() {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+                String resource = entry.getKey();
+                Lease lease = entry.getValue();
+                try {
+                    if (lease.revoked) {
+                        // given up by the release of its last local lock
+                        continue;
+                    }
+                    if (now - lease.lastUsed > leaseIdleTimeout) {
+                        submitLeaseRelease(resource, lease, false);
+                    }
+                    else if (!isOwned(resource)
+                            || zk.getClient().getChildren().forPath(LOCKS_NODE + "/" + resource).size() > 1) {
+                        revokeLease(resource, lease);
+                    }
+                }
+                catch (Exception ex) {
+                    LOG.warn("Could not check lease of lock [{0}]: {1}", resource, ex.getMessage(), ex);
+                }
+            }
+        }
+    }
+
     @VisibleForTesting
     public ConcurrentMap<String, InterProcessReadWriteLock> getLocks(){
         return zkLocks;
     }
 
+    @VisibleForTesting
+    Set<String> getLeasedResources() {
+        return leases.keySet();
+    }
+
     private static ScheduledExecutorService getExecutorService() {
         return ThreadUtils.newFixedThreadScheduledPool(ConfigurationService.getInt(REAPING_THREADS),
                 "ZKLocksChildReaper");
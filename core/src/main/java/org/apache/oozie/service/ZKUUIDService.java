@@ -21,6 +21,7 @@ package org.apache.oozie.service;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.framework.recipes.atomic.AtomicValue;
@@ -38,6 +39,10 @@ import com.google.common.annotations.VisibleForTesting;
  * Service that provides distributed job id sequence via ZooKeeper. Requires that a ZooKeeper ensemble is available. The
  * sequence path will be located under a ZNode named "job_id_sequence" under the namespace (see {@link ZKUtils}). The
  * sequence will be reset to 0, once max is reached.
+ * <p>
+ * Sequence numbers are leased from ZooKeeper in blocks, of {@link #CONF_SEQUENCE_BLOCK_SIZE} numbers, and handed out
+ * from a local counter; ZooKeeper is only accessed once per block. The ids of a server are then not consecutive with
+ * the ids of the other servers, and the numbers left in the block of a server when it stops are not used.
  */
 
 public class ZKUUIDService extends UUIDService {
@@ -45,6 +50,11 @@ public class ZKUUIDService extends UUIDService {
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "ZKUUIDService.";
 
     public static final String CONF_SEQUENCE_MAX = CONF_PREFIX + "jobid.sequence.max";
+
+    /**
+     * Number of sequence numbers leased from ZooKeeper at a time.
+     */
+    public static final String CONF_SEQUENCE_BLOCK_SIZE = CONF_PREFIX + "jobid.sequence.block.size";
     public static final String LOCKS_NODE = "/SEQUENCE_LOCK";
 
     public static final String ZK_SEQUENCE_PATH = "/job_id_sequence";
@@ -59,6 +69,58 @@ public class ZKUUIDService extends UUIDService {
 
     DistributedAtomicLong atomicIdGenerator;
 
+    private int blockSize;
+    private volatile SequenceBlock block;
+
+    /**
+     * Sequence number, with the start time in effect when its block was leased.
+     */
+    protected static class ZKSequence {
+        private final long id;
+        private final String startTime;
+
+        ZKSequence(long id, String startTime) {
+            this.id = id;
+            this.startTime = startTime;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        String getStartTime() {
+            return startTime;
+        }
+    }
+
+    /**
+     * Range of sequence numbers leased from ZooKeeper, handed out from a local counter. The start time is captured
+     * when the block is leased, so the ids of a block keep it even if a later block resets the start time.
+     */
+    private static class SequenceBlock {
+        private final long start;
+        private final long end;
+        private final String startTime;
+        private final AtomicLong next;
+
+        SequenceBlock(long start, long end, String startTime) {
+            this.start = start;
+            this.end = end;
+            this.startTime = startTime;
+            this.next = new AtomicLong(start);
+        }
+
+        /**
+         * Return the next number of the block.
+         *
+         * @return the next number with the start time of the block, <code>null</code> if the block is used up.
+         */
+        ZKSequence next() {
+            long id = next.getAndIncrement();
+            return id < end ? new ZKSequence(id, startTime) : null;
+        }
+    }
+
     public static final ThreadLocal<SimpleDateFormat> dt = new ThreadLocal<SimpleDateFormat>() {
         @Override
         protected SimpleDateFormat initialValue() {
@@ -71,6 +133,8 @@ public class ZKUUIDService extends UUIDService {
     public void init(Services services) throws ServiceException {
 
         super.init(services);
+        blockSize = Math.max(1, ConfigurationService.getInt(services.getConf(), CONF_SEQUENCE_BLOCK_SIZE));
+        block = null;
         try {
             zk = ZKUtils.register(this);
             PromotedToLock.Builder lockBuilder = PromotedToLock.builder().lockPath(getPromotedLock())
@@ -92,10 +156,12 @@ public class ZKUUIDService extends UUIDService {
      */
     @Override
     protected String createSequence() {
-        String localStartTime = super.startTime;
+        String localStartTime;
         long id = 0L;
         try {
-            id = getZKSequence();
+            ZKSequence sequence = getZKSequence();
+            id = sequence.getId();
+            localStartTime = sequence.getStartTime();
         }
         catch (Exception e) {
             LOG.error("Error getting jobId, switching to old UUIDService", e);
@@ -105,14 +171,37 @@ public class ZKUUIDService extends UUIDService {
         return appendTimeToSequence(id, localStartTime);
     }
 
-    protected synchronized long getZKSequence() throws Exception {
-        long id = getDistributedSequence();
+    protected ZKSequence getZKSequence() throws Exception {
+        while (true) {
+            SequenceBlock current = block;
+            if (current != null) {
+                ZKSequence sequence = current.next();
+                if (sequence != null) {
+                    return sequence;
+                }
+            }
+            synchronized (this) {
+                // only one thread leases the next block, the others take numbers from it
+                if (block == current) {
+                    block = leaseBlock(current);
+                }
+            }
+        }
+    }
+
+    private SequenceBlock leaseBlock(SequenceBlock previous) throws Exception {
+        long start = getDistributedSequence();
 
-        if (id >= maxSequence) {
+        if (start >= maxSequence) {
             resetSequence();
-            id = getDistributedSequence();
+            start = getDistributedSequence();
+        }
+        if (previous != null && start < previous.start) {
+            // the sequence was reset by another server, the ids of the new block must not collide with older ones
+            resetStartTime();
         }
-        return id;
+        return new SequenceBlock(start, Math.max(start + 1, Math.min(start + blockSize, maxSequence)),
+                super.startTime);
     }
 
     @SuppressWarnings("finally")
@@ -122,7 +211,7 @@ public class ZKUUIDService extends UUIDService {
         }
         AtomicValue<Long> value = null;
         try {
-            value = atomicIdGenerator.increment();
+            value = atomicIdGenerator.add((long) blockSize);
         }
         catch (Exception e) {
             throw new Exception("Exception incrementing UID for session ", e);
@@ -34,10 +34,13 @@ import org.apache.oozie.BuildInfo;
 import org.apache.oozie.client.rest.JsonBean;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.lock.LockContention;
+import org.apache.oozie.lock.MemoryLocks;
 import org.apache.oozie.service.AuthorizationException;
 import org.apache.oozie.service.AuthorizationService;
 import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.JobsConcurrencyService;
+import org.apache.oozie.service.MemoryLocksService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.ShareLibService;
 import org.apache.oozie.util.AuthUrlClient;
@@ -50,6 +53,7 @@ import org.json.simple.JSONValue;
 public abstract class BaseAdminServlet extends JsonRestServlet {
 
     private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_LOCKS_LEN = 50;
     protected String modeTag;
 
 
@@ -163,6 +167,44 @@ public abstract class BaseAdminServlet extends JsonRestServlet {
         else if (resource.equals(RestConstants.ADMIN_METRICS_RESOURCE)) {
             sendMetricsResponse(response);
         }
+        else if (resource.equals(RestConstants.ADMIN_LOCKS_RESOURCE)) {
+            String lenStr = request.getParameter(RestConstants.LEN_PARAM);
+            int len = (lenStr == null) ? DEFAULT_LOCKS_LEN : Integer.parseInt(lenStr.trim());
+            if (len < 0) {
+                throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0303,
+                        RestConstants.LEN_PARAM, lenStr);
+            }
+            sendJsonResponse(response, HttpServletResponse.SC_OK, getLockContention(len));
+        }
+    }
+
+    /**
+     * Return the most contended locks of this server, in memory or in ZooKeeper depending on the locks service.
+     *
+     * @param len maximum number of locks to return.
+     * @return the lock contention json.
+     */
+    @SuppressWarnings("unchecked")
+    private JSONObject getLockContention(int len) {
+        JSONObject json = new JSONObject();
+        MemoryLocksService locksService = Services.get().get(MemoryLocksService.class);
+        JSONArray locks = new JSONArray();
+        if (locksService != null) {
+            for (LockContention.Contention contention : locksService.getMostContended(len)) {
+                JSONObject lock = new JSONObject();
+                lock.put(JsonTags.LOCK_RESOURCE, contention.getResource());
+                lock.put(JsonTags.LOCK_TYPE, MemoryLocks.getResourceType(contention.getResource()));
+                lock.put(JsonTags.LOCK_WAITS, contention.getWaits());
+                lock.put(JsonTags.LOCK_TIMEOUTS, contention.getTimeouts());
+                lock.put(JsonTags.LOCK_WAIT_TIME, contention.getWaitTime());
+                lock.put(JsonTags.LOCK_MAX_WAIT_TIME, contention.getMaxWaitTime());
+                locks.add(lock);
+            }
+            json.put(JsonTags.LOCKS_COUNT, locksService.getLockCount());
+            json.put(JsonTags.LOCKS_CONTENDED, locksService.getContendedCount());
+        }
+        json.put(JsonTags.LOCKS, locks);
+        return json;
     }
 
     /**
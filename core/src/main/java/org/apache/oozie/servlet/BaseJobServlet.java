@@ -20,6 +20,9 @@ package org.apache.oozie.servlet;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -27,14 +30,24 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.BaseEngineException;
+import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.client.XOozieClient;
 import org.apache.oozie.client.rest.JsonBean;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.service.AuthorizationException;
 import org.apache.oozie.service.AuthorizationService;
+import org.apache.oozie.service.BundleEngineService;
+import org.apache.oozie.service.CoordinatorEngineService;
+import org.apache.oozie.service.DagEngineService;
+import org.apache.oozie.service.ResponseCacheService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.XLogService;
 import org.apache.oozie.util.ConfigUtils;
@@ -52,7 +65,8 @@ public abstract class BaseJobServlet extends JsonRestServlet {
         RESOURCES_INFO[0] = new ResourceInfo("*", Arrays.asList("PUT", "GET"), Arrays.asList(new ParameterInfo(
                 RestConstants.ACTION_PARAM, String.class, true, Arrays.asList("PUT")), new ParameterInfo(
                 RestConstants.JOB_SHOW_PARAM, String.class, false, Arrays.asList("GET")), new ParameterInfo(
-                        RestConstants.ORDER_PARAM, String.class, false, Arrays.asList("GET"))));
+                        RestConstants.ORDER_PARAM, String.class, false, Arrays.asList("GET")), new ParameterInfo(
+                        RestConstants.FIELDS_PARAM, String.class, false, Arrays.asList("GET"))));
     }
 
     public BaseJobServlet(String instrumentationName) {
@@ -294,18 +308,48 @@ public abstract class BaseJobServlet extends JsonRestServlet {
 
         if (show == null || show.equals(RestConstants.JOB_SHOW_INFO)) {
             stopCron();
-            JsonBean job = null;
-            try {
-                job = getJob(request, response);
+            ResponseCacheService responseCache = Services.get().get(ResponseCacheService.class);
+            String cacheKey = (responseCache != null && isJobId(jobId)) ? getResponseCacheKey(request) : null;
+            ResponseCacheService.Entry cached = (cacheKey != null) ? responseCache.get(cacheKey) : null;
+            if (cached != null && !cached.getStatus().equals(getCurrentJobStatus(jobId, getUser(request)))) {
+                responseCache.remove(cacheKey);
+                cached = null;
             }
-            catch (BaseEngineException e) {
-                // TODO Auto-generated catch block
-                // e.printStackTrace();
+            if (cached != null) {
+                startCron();
+                sendJsonResponse(request, response, cached.getETag(), cached.getBody());
+            }
+            else {
+                JsonBean job = null;
+                try {
+                    job = getJob(request, response);
+                }
+                catch (BaseEngineException e) {
+                    // TODO Auto-generated catch block
+                    // e.printStackTrace();
 
-                throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, e);
+                    throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, e);
+                }
+                startCron();
+                String status = getStatus(job);
+                String eTag = getJobETag(request, job, status);
+                if (eTag == null) {
+                    sendJsonResponse(response, HttpServletResponse.SC_OK, job, timeZoneId, getJsonFields(request));
+                }
+                else if (isNotModified(request, eTag)) {
+                    response.setHeader(RestConstants.ETAG_HEADER, eTag);
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                }
+                else if (cacheKey != null && ResponseCacheService.isTerminal(status)) {
+                    byte[] body = toJsonBytes(job, timeZoneId, getJsonFields(request));
+                    responseCache.put(cacheKey, eTag, status, body);
+                    sendJsonResponse(request, response, eTag, body);
+                }
+                else {
+                    response.setHeader(RestConstants.ETAG_HEADER, eTag);
+                    sendJsonResponse(response, HttpServletResponse.SC_OK, job, timeZoneId, getJsonFields(request));
+                }
             }
-            startCron();
-            sendJsonResponse(response, HttpServletResponse.SC_OK, job, timeZoneId);
         }
         else if (show.equals(RestConstants.ALL_WORKFLOWS_FOR_COORD_ACTION)) {
             stopCron();
@@ -374,6 +418,108 @@ public abstract class BaseJobServlet extends JsonRestServlet {
         }
     }
 
+    /**
+     * Return whether the id is the id of a workflow, coordinator or bundle job, and not of an action.
+     */
+    private static boolean isJobId(String id) {
+        return id.endsWith("-W") || id.endsWith("-C") || id.endsWith("-B");
+    }
+
+    /**
+     * Return the key of a job information response in the response cache: the request path and its parameters.
+     */
+    @SuppressWarnings("unchecked")
+    private static String getResponseCacheKey(HttpServletRequest request) {
+        StringBuilder sb = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> params = new TreeMap<String, String[]>(request.getParameterMap());
+        for (Map.Entry<String, String[]> param : params.entrySet()) {
+            sb.append('&').append(param.getKey()).append('=').append(Arrays.toString(param.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Return the current status of a job, with a single column query.
+     */
+    private static String getCurrentJobStatus(String jobId, String user) throws XServletException {
+        try {
+            if (jobId.endsWith("-W")) {
+                return Services.get().get(DagEngineService.class).getDagEngine(user).getJobStatus(jobId);
+            }
+            else if (jobId.endsWith("-C")) {
+                return Services.get().get(CoordinatorEngineService.class).getCoordinatorEngine(user)
+                        .getJobStatus(jobId);
+            }
+            else {
+                return Services.get().get(BundleEngineService.class).getBundleEngine(user).getJobStatus(jobId);
+            }
+        }
+        catch (BaseEngineException ex) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
+        }
+    }
+
+    /**
+     * Return the status of a job bean, <code>null</code> if it is not a job.
+     */
+    private static String getStatus(JsonBean job) {
+        if (job instanceof WorkflowJobBean) {
+            return ((WorkflowJobBean) job).getStatusStr();
+        }
+        else if (job instanceof CoordinatorJobBean) {
+            return ((CoordinatorJobBean) job).getStatusStr();
+        }
+        else if (job instanceof BundleJobBean) {
+            return ((BundleJobBean) job).getStatusStr();
+        }
+        return null;
+    }
+
+    /**
+     * Return the entity tag of a job information response, derived from the request parameters and the last
+     * modification of the job and of its actions or coordinators in the response.
+     *
+     * @return the entity tag, <code>null</code> if the bean is not a workflow, coordinator or bundle job.
+     */
+    private static String getJobETag(HttpServletRequest request, JsonBean job, String status) {
+        if (status == null) {
+            return null;
+        }
+        StringBuilder version = new StringBuilder();
+        Date lastModified;
+        if (job instanceof WorkflowJobBean) {
+            WorkflowJobBean workflow = (WorkflowJobBean) job;
+            lastModified = workflow.getLastModifiedTime();
+            // action checks do not always update the workflow, so the actions are part of the version
+            for (WorkflowAction action : workflow.getActions()) {
+                version.append(action.getId()).append(',').append(action.getStatus()).append(',')
+                        .append(action.getExternalStatus()).append(',').append(getTime(action.getEndTime()))
+                        .append(';');
+            }
+        }
+        else if (job instanceof CoordinatorJobBean) {
+            CoordinatorJobBean coord = (CoordinatorJobBean) job;
+            lastModified = coord.getLastModifiedTime();
+            version.append(coord.getNumActions()).append(';');
+            for (CoordinatorAction action : coord.getActions()) {
+                version.append(action.getId()).append(',').append(getTime(action.getLastModifiedTime())).append(';');
+            }
+        }
+        else {
+            BundleJobBean bundle = (BundleJobBean) job;
+            lastModified = bundle.getLastModifiedTime();
+            for (CoordinatorJob coord : bundle.getCoordinators()) {
+                version.append(coord.getId()).append(',').append(coord.getStatus()).append(',')
+                        .append(getTime(((CoordinatorJobBean) coord).getLastModifiedTime())).append(';');
+            }
+        }
+        return getETag(getResponseCacheKey(request), status, getTime(lastModified), version);
+    }
+
+    private static long getTime(Date date) {
+        return (date != null) ? date.getTime() : 0;
+    }
+
     /**
      * abstract method to start a job, either workflow or coordinator
      *
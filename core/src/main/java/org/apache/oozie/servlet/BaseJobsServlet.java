@@ -19,7 +19,10 @@
 package org.apache.oozie.servlet;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -28,7 +31,10 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.service.JobWatchService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.AuthorizationException;
 import org.apache.oozie.service.AuthorizationService;
@@ -36,6 +42,7 @@ import org.apache.oozie.util.JobUtils;
 import org.apache.oozie.util.JobsFilterUtils;
 import org.apache.oozie.util.XConfiguration;
 import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
 
 public abstract class BaseJobsServlet extends JsonRestServlet {
 
@@ -57,6 +64,22 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
                                                   String.class, false, Arrays.asList("GET", "PUT")),
                 new JsonRestServlet.ParameterInfo(RestConstants.JOBS_BULK_PARAM,
                                                   String.class, false, Arrays.asList("GET", "PUT")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_CURSOR_PARAM,
+                                                  String.class, false, Arrays.asList("GET")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_COUNT_PARAM,
+                                                  Boolean.class, false, Arrays.asList("GET")),
+                new JsonRestServlet.ParameterInfo(RestConstants.FIELDS_PARAM,
+                                                  String.class, false, Arrays.asList("GET")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_ASYNC_PARAM,
+                                                  Boolean.class, false, Arrays.asList("PUT")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_BULK_OPERATION_PARAM,
+                                                  String.class, false, Arrays.asList("GET")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_WATCH_PARAM,
+                                                  String.class, false, Arrays.asList("GET")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_WATCH_STATUS_PARAM,
+                                                  String.class, false, Arrays.asList("GET")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_WATCH_TIMEOUT_PARAM,
+                                                  Integer.class, false, Arrays.asList("GET")),
                 new JsonRestServlet.ParameterInfo(
                         RestConstants.JOBS_EXTERNAL_ID_PARAM, String.class,
                         false, Arrays.asList("GET"))));
@@ -118,9 +141,29 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
             startCron();
             sendJsonResponse(response, HttpServletResponse.SC_OK, json);
         }
+        else if (request.getParameter(RestConstants.JOBS_WATCH_PARAM) != null) {
+            stopCron();
+            JSONObject json = watchJobs(request);
+            startCron();
+            sendJsonResponse(response, HttpServletResponse.SC_OK, json);
+        }
         else {
             stopCron();
-            JSONObject json = getJobs(request);
+            // the entity tag is derived from the request and the version of the listing, so that an unchanged
+            // listing is answered without loading its jobs. Computing the version costs a query, it is only done
+            // for the clients revalidating their responses
+            String version = (request.getHeader(RestConstants.IF_NONE_MATCH_HEADER) != null)
+                    ? getJobsVersion(request) : null;
+            String eTag = (version != null) ? getETag(request.getQueryString(), version) : null;
+            if (eTag != null) {
+                response.setHeader(RestConstants.ETAG_HEADER, eTag);
+                if (isNotModified(request, eTag)) {
+                    startCron();
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+            JSONStreamAware json = getJobs(request);
             startCron();
             sendJsonResponse(response, HttpServletResponse.SC_OK, json);
         }
@@ -242,17 +285,77 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
      * abstract method to get a list of workflow jobs
      *
      * @param request
-     * @return JSONObject of the requested jobs
+     * @return JSON of the requested jobs
      * @throws XServletException
      * @throws IOException
      */
-    abstract JSONObject getJobs(HttpServletRequest request)
+    abstract JSONStreamAware getJobs(HttpServletRequest request)
     throws XServletException, IOException;
 
+    /**
+     * Return the version of the jobs listing of the request, which changes whenever the listing does. It is read
+     * before the listing, a listing changing meanwhile is then sent with an older entity tag and sent again on the
+     * next conditional request.
+     *
+     * @param request
+     * @return the version of the listing, <code>null</code> if the listing has no entity tag
+     * @throws XServletException
+     * @throws IOException
+     */
+    String getJobsVersion(HttpServletRequest request) throws XServletException, IOException {
+        return null;
+    }
+
     static void validateJobConfiguration(Configuration conf) throws XServletException {
         if (conf.get(OozieClient.USER_NAME) == null) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0401,
                     OozieClient.USER_NAME);
         }
     }
+
+    /**
+     * Wait until some of the watched jobs reach one of the requested statuses, or the timeout passes.
+     */
+    @SuppressWarnings("unchecked")
+    private JSONObject watchJobs(HttpServletRequest request) throws XServletException {
+        List<String> jobIds = splitList(request.getParameter(RestConstants.JOBS_WATCH_PARAM));
+        if (jobIds.isEmpty()) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0303,
+                    RestConstants.JOBS_WATCH_PARAM, "");
+        }
+        List<String> statuses = splitList(request.getParameter(RestConstants.JOBS_WATCH_STATUS_PARAM));
+        JobWatchService watchService = Services.get().get(JobWatchService.class);
+        String timeoutStr = request.getParameter(RestConstants.JOBS_WATCH_TIMEOUT_PARAM);
+        long timeout = (timeoutStr != null) ? Integer.parseInt(timeoutStr) * 1000L : watchService.getMaxTimeout();
+        try {
+            Map<String, String> reached = watchService.watch(jobIds, statuses, timeout);
+            JSONObject jobs = new JSONObject();
+            jobs.putAll(reached);
+            JSONObject json = new JSONObject();
+            json.put(JsonTags.WATCH_JOBS, jobs);
+            json.put(JsonTags.WATCH_TIMED_OUT, reached.isEmpty());
+            return json;
+        }
+        catch (CommandException ex) {
+            if (ex.getErrorCode() == ErrorCode.E1107) {
+                throw new XServletException(HttpServletResponse.SC_SERVICE_UNAVAILABLE, ex);
+            }
+            else if (ex.getErrorCode() == ErrorCode.E1106 || ex.getErrorCode() == ErrorCode.E0604) {
+                throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
+            }
+            throw new XServletException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ex);
+        }
+    }
+
+    private static List<String> splitList(String value) {
+        List<String> list = new ArrayList<String>();
+        if (value != null) {
+            for (String item : value.split(",")) {
+                if (item.trim().length() > 0) {
+                    list.add(item.trim());
+                }
+            }
+        }
+        return list;
+    }
 }
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.servlet;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Request wrapper decompressing a gzip encoded request body.
+ */
+class GzipRequestWrapper extends HttpServletRequestWrapper {
+    private ServletInputStream inputStream;
+
+    GzipRequestWrapper(HttpServletRequest request) {
+        super(request);
+    }
+
+    /**
+     * Return whether the body of the request is gzip encoded.
+     *
+     * @param request servlet request.
+     * @return <code>true</code> if the <code>Content-Encoding</code> header of the request is <code>gzip</code>.
+     */
+    static boolean isGzip(HttpServletRequest request) {
+        return GzipResponseWrapper.GZIP.equalsIgnoreCase(request.getHeader(GzipResponseWrapper.CONTENT_ENCODING));
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            final GZIPInputStream in = new GZIPInputStream(super.getInputStream());
+            inputStream = new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    in.close();
+                }
+            };
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String encoding = getCharacterEncoding();
+        return new BufferedReader(new InputStreamReader(getInputStream(), (encoding != null) ? encoding : "ISO-8859-1"));
+    }
+
+    /**
+     * The length of the body is the length of the compressed body.
+     */
+    @Override
+    public int getContentLength() {
+        return -1;
+    }
+}
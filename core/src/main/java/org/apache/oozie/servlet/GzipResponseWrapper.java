@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.servlet;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response wrapper compressing the response body with gzip.
+ * <p>
+ * The body is compressed only once the servlet gets the output stream or the writer, responses without a body, like
+ * <code>304 Not Modified</code> and error responses, are sent as they are. Flushing the response flushes the
+ * compressed data written so far, so streamed responses like logs keep being streamed.
+ */
+class GzipResponseWrapper extends HttpServletResponseWrapper {
+    static final String ACCEPT_ENCODING = "Accept-Encoding";
+    static final String CONTENT_ENCODING = "Content-Encoding";
+    static final String VARY = "Vary";
+    static final String GZIP = "gzip";
+
+    private GZIPOutputStream gzip;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    GzipResponseWrapper(HttpServletResponse response) {
+        super(response);
+    }
+
+    /**
+     * Return whether the client accepts gzip encoded responses.
+     *
+     * @param request servlet request.
+     * @return <code>true</code> if the <code>Accept-Encoding</code> header of the request has <code>gzip</code>.
+     */
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(ACCEPT_ENCODING);
+        if (acceptEncoding != null) {
+            for (String encoding : acceptEncoding.split(",")) {
+                String[] parts = encoding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                    return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    private GZIPOutputStream getGzipStream() throws IOException {
+        if (gzip == null) {
+            setHeader(CONTENT_ENCODING, GZIP);
+            gzip = new GZIPOutputStream(super.getOutputStream(), 8192, true);
+        }
+        return gzip;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            final GZIPOutputStream out = getGzipStream();
+            outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getGzipStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    /**
+     * The length of the body is the length before compression, it is not sent.
+     */
+    @Override
+    public void setContentLength(int len) {
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        else if (gzip != null) {
+            gzip.flush();
+        }
+        super.flushBuffer();
+    }
+
+    /**
+     * Write the end of the compressed body, if the body was written.
+     *
+     * @throws IOException thrown if the compressed data could not be written.
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+}
@@ -18,8 +18,10 @@
 
 package org.apache.oozie.servlet;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.oozie.client.OozieClient.SYSTEM_MODE;
 import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.JsonStreamWriter;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.service.DagXLogInfoService;
 import org.apache.oozie.service.InstrumentationService;
@@ -31,7 +33,6 @@ import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.ErrorCode;
-import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
 import javax.servlet.ServletConfig;
@@ -41,6 +42,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
 import java.security.AccessControlException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
@@ -53,6 +56,10 @@ public abstract class JsonRestServlet extends HttpServlet {
 
     static final String JSON_UTF8 = RestConstants.JSON_CONTENT_TYPE + "; charset=\"UTF-8\"";
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String WEAK_ETAG_PREFIX = "W/";
+
     protected static final String XML_UTF8 = RestConstants.XML_CONTENT_TYPE + "; charset=\"UTF-8\"";
 
     protected static final String TEXT_UTF8 = RestConstants.TEXT_CONTENT_TYPE + "; charset=\"UTF-8\"";
@@ -276,7 +283,8 @@ public abstract class JsonRestServlet extends HttpServlet {
 
     /**
      * Dispatches to super after loginfo and intrumentation handling. In case of errors dispatches error response codes
-     * and does error logging.
+     * and does error logging. Gzip encoded request bodies are decompressed, and response bodies are compressed for
+     * clients accepting gzip, all responses vary by <code>Accept-Encoding</code>.
      */
     @SuppressWarnings("unchecked")
     protected final void service(HttpServletRequest request, HttpServletResponse response) throws ServletException,
@@ -301,7 +309,20 @@ public abstract class JsonRestServlet extends HttpServlet {
             if (log.isTraceEnabled()){
              logHeaderInfo(request);
             }
-            super.service(request, response);
+            HttpServletRequest req = GzipRequestWrapper.isGzip(request) ? new GzipRequestWrapper(request) : request;
+            response.setHeader(GzipResponseWrapper.VARY, GzipResponseWrapper.ACCEPT_ENCODING);
+            if (GzipResponseWrapper.acceptsGzip(request)) {
+                GzipResponseWrapper gzipResponse = new GzipResponseWrapper(response);
+                try {
+                    super.service(req, gzipResponse);
+                }
+                finally {
+                    gzipResponse.finish();
+                }
+            }
+            else {
+                super.service(req, response);
+            }
         }
         catch (XServletException ex) {
             XLog log = XLog.getLog(getClass());
@@ -382,10 +403,128 @@ public abstract class JsonRestServlet extends HttpServlet {
      */
     protected void sendJsonResponse(HttpServletResponse response, int statusCode, JsonBean bean, String timeZoneId) 
             throws IOException {
+        sendJsonResponse(response, statusCode, bean, timeZoneId, null);
+    }
+
+    /**
+     * Sends a JSON response, writing the bean fields directly to the response.
+     *
+     * @param response servlet response.
+     * @param statusCode HTTP status code.
+     * @param bean bean to send as JSON response.
+     * @param timeZoneId time zone to use for dates in the JSON response.
+     * @param fields bean fields to send, <code>null</code> to send all of them.
+     * @throws java.io.IOException thrown if the bean could not be serialized to the response output stream.
+     */
+    protected void sendJsonResponse(HttpServletResponse response, int statusCode, JsonBean bean, String timeZoneId,
+            Set<String> fields) throws IOException {
         response.setStatus(statusCode);
-        JSONObject json = bean.toJSONObject(timeZoneId);
         response.setContentType(JSON_UTF8);
-        json.writeJSONString(response.getWriter());
+        JsonStreamWriter writer = new JsonStreamWriter(response.getWriter(), fields);
+        writer.writeBean(bean, timeZoneId);
+        writer.flush();
+    }
+
+    /**
+     * Serializes a bean to JSON.
+     *
+     * @param bean bean to serialize.
+     * @param timeZoneId time zone to use for dates in the JSON.
+     * @param fields bean fields to serialize, <code>null</code> to serialize all of them.
+     * @return the UTF-8 JSON bytes.
+     * @throws java.io.IOException thrown if the bean could not be serialized.
+     */
+    protected static byte[] toJsonBytes(JsonBean bean, String timeZoneId, Set<String> fields) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonStreamWriter writer = new JsonStreamWriter(out, fields);
+        writer.writeBean(bean, timeZoneId);
+        writer.flush();
+        return out.toString().getBytes(UTF8);
+    }
+
+    /**
+     * Return an entity tag derived from the given values.
+     *
+     * @param values values identifying the version of the response.
+     * @return the quoted entity tag.
+     */
+    protected static String getETag(Object... values) {
+        StringBuilder sb = new StringBuilder();
+        for (Object value : values) {
+            sb.append(value).append('\n');
+        }
+        return getETag(sb.toString().getBytes(UTF8));
+    }
+
+    /**
+     * Return the entity tag of a response body. The tag is weak, the gzip compressed and the identity encodings of
+     * the response having the same tag.
+     *
+     * @param body the response body.
+     * @return the weak entity tag.
+     */
+    protected static String getETag(byte[] body) {
+        return WEAK_ETAG_PREFIX + "\"" + DigestUtils.md5Hex(body) + "\"";
+    }
+
+    /**
+     * Return whether the client already has the response with the given entity tag, from its
+     * <code>If-None-Match</code> header.
+     *
+     * @param request servlet request.
+     * @param eTag entity tag of the response.
+     * @return <code>true</code> if the response is not modified.
+     */
+    protected static boolean isNotModified(HttpServletRequest request, String eTag) {
+        String ifNoneMatch = request.getHeader(RestConstants.IF_NONE_MATCH_HEADER);
+        if (ifNoneMatch != null) {
+            eTag = getOpaqueTag(eTag);
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = getOpaqueTag(tag.trim());
+                if (tag.equals(eTag) || tag.equals("*")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String getOpaqueTag(String eTag) {
+        return eTag.startsWith(WEAK_ETAG_PREFIX) ? eTag.substring(WEAK_ETAG_PREFIX.length()) : eTag;
+    }
+
+    /**
+     * Sends a JSON response already serialized, with its entity tag, or a not modified response if the client
+     * already has it.
+     *
+     * @param request servlet request.
+     * @param response servlet response.
+     * @param eTag entity tag of the response.
+     * @param body the UTF-8 JSON bytes.
+     * @throws java.io.IOException thrown if the response could not be written.
+     */
+    protected void sendJsonResponse(HttpServletRequest request, HttpServletResponse response, String eTag,
+            byte[] body) throws IOException {
+        response.setHeader(RestConstants.ETAG_HEADER, eTag);
+        if (isNotModified(request, eTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        else {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(JSON_UTF8);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * Return the bean fields requested with the <code>fields</code> parameter.
+     *
+     * @param request servlet request.
+     * @return the requested fields, <code>null</code> for all of them.
+     */
+    protected static Set<String> getJsonFields(HttpServletRequest request) {
+        return JsonStreamWriter.parseFields(request.getParameter(RestConstants.FIELDS_PARAM));
     }
 
     /**
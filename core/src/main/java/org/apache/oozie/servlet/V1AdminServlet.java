@@ -47,7 +47,7 @@ public class V1AdminServlet extends BaseAdminServlet {
 
     private static final long serialVersionUID = 1L;
     private static final String INSTRUMENTATION_NAME = "v1admin";
-    private static final ResourceInfo RESOURCES_INFO[] = new ResourceInfo[13];
+    private static final ResourceInfo RESOURCES_INFO[] = new ResourceInfo[14];
 
     static {
         RESOURCES_INFO[0] = new ResourceInfo(RestConstants.ADMIN_STATUS_RESOURCE, Arrays.asList("PUT", "GET"),
@@ -77,6 +77,8 @@ public class V1AdminServlet extends BaseAdminServlet {
                 Collections.EMPTY_LIST);
         RESOURCES_INFO[12] = new ResourceInfo(RestConstants.ADMIN_METRICS_RESOURCE, Arrays.asList("GET"),
                 Collections.EMPTY_LIST);
+        RESOURCES_INFO[13] = new ResourceInfo(RestConstants.ADMIN_LOCKS_RESOURCE, Arrays.asList("GET"),
+                Arrays.asList(new ParameterInfo(RestConstants.LEN_PARAM, Integer.class, false, Arrays.asList("GET"))));
 
     }
 
@@ -19,6 +19,7 @@
 package org.apache.oozie.servlet;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -45,17 +46,23 @@ import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.WorkflowsInfo;
 import org.apache.oozie.cli.OozieCLI;
 import org.apache.oozie.client.OozieClient;
-import org.apache.oozie.client.rest.BulkResponseImpl;
+import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.JsonStreamWriter;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.OperationType;
+import org.apache.oozie.service.BulkOperationService;
 import org.apache.oozie.service.CoordinatorEngineService;
 import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.service.BundleEngineService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.XmlUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
 
 public class V1JobsServlet extends BaseJobsServlet {
 
@@ -140,11 +147,14 @@ public class V1JobsServlet extends BaseJobsServlet {
      * windows embedded in the request object
      */
     @Override
-    protected JSONObject getJobs(HttpServletRequest request) throws XServletException, IOException {
-        JSONObject json = null;
+    protected JSONStreamAware getJobs(HttpServletRequest request) throws XServletException, IOException {
+        JSONStreamAware json = null;
         String isBulk = request.getParameter(RestConstants.JOBS_BULK_PARAM);
         if(isBulk != null) {
             json = getBulkJobs(request);
+        }
+        else if (request.getParameter(RestConstants.JOBS_BULK_OPERATION_PARAM) != null) {
+            json = getBulkOperation(request);
         } else {
             String jobtype = request.getParameter(RestConstants.JOBTYPE_PARAM);
             jobtype = (jobtype != null) ? jobtype : "wf";
@@ -162,6 +172,39 @@ public class V1JobsServlet extends BaseJobsServlet {
         return json;
     }
 
+    /**
+     * v1 service implementation to get the version of a list of workflows, coordinators, or bundles. Bulk listings
+     * have no version.
+     */
+    @Override
+    String getJobsVersion(HttpServletRequest request) throws XServletException, IOException {
+        if (request.getParameter(RestConstants.JOBS_BULK_PARAM) != null
+                || request.getParameter(RestConstants.JOBS_BULK_OPERATION_PARAM) != null) {
+            return null;
+        }
+        String filter = request.getParameter(RestConstants.JOBS_FILTER_PARAM);
+        String jobtype = request.getParameter(RestConstants.JOBTYPE_PARAM);
+        jobtype = (jobtype != null) ? jobtype : "wf";
+        String user = getUser(request);
+        try {
+            if (jobtype.contains("wf")) {
+                return Services.get().get(DagEngineService.class).getDagEngine(user).getJobsVersion(filter);
+            }
+            else if (jobtype.contains("coord")) {
+                return Services.get().get(CoordinatorEngineService.class).getCoordinatorEngine(user)
+                        .getCoordJobsVersion(filter);
+            }
+            else if (jobtype.contains("bundle")) {
+                return Services.get().get(BundleEngineService.class).getBundleEngine(user)
+                        .getBundleJobsVersion(filter);
+            }
+        }
+        catch (BaseEngineException ex) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
+        }
+        return null;
+    }
+
     /**
      * v1 service implementation to submit a workflow job
      */
@@ -307,8 +350,7 @@ public class V1JobsServlet extends BaseJobsServlet {
      * v1 service implementation to get a list of workflows, with filtering or interested windows embedded in the
      * request object
      */
-    private JSONObject getWorkflowJobs(HttpServletRequest request) throws XServletException {
-        JSONObject json = new JSONObject();
+    private JSONStreamAware getWorkflowJobs(HttpServletRequest request) throws XServletException {
         try {
             String filter = request.getParameter(RestConstants.JOBS_FILTER_PARAM);
             String startStr = request.getParameter(RestConstants.OFFSET_PARAM);
@@ -320,28 +362,22 @@ public class V1JobsServlet extends BaseJobsServlet {
             int len = (lenStr != null) ? Integer.parseInt(lenStr) : 50;
             len = (len < 1) ? 50 : len;
             DagEngine dagEngine = Services.get().get(DagEngineService.class).getDagEngine(getUser(request));
-            WorkflowsInfo jobs = dagEngine.getJobs(filter, start, len);
-            List<WorkflowJobBean> jsonWorkflows = jobs.getWorkflows();
-            json.put(JsonTags.WORKFLOWS_JOBS, WorkflowJobBean.toJSONArray(jsonWorkflows, timeZoneId));
-            json.put(JsonTags.WORKFLOWS_TOTAL, jobs.getTotal());
-            json.put(JsonTags.WORKFLOWS_OFFSET, jobs.getStart());
-            json.put(JsonTags.WORKFLOWS_LEN, jobs.getLen());
-
+            JobsCursor cursor = getCursor(request);
+            WorkflowsInfo jobs = (cursor != null) ? dagEngine.getJobs(filter, cursor, len, isCountRequested(request))
+                    : dagEngine.getJobs(filter, start, len);
+            return new JobsListing(JsonTags.WORKFLOWS_JOBS, jobs.getWorkflows(), jobs.getTotal(), jobs.getStart(),
+                    jobs.getLen(), jobs.getNextCursor(), timeZoneId, getJsonFields(request));
         }
         catch (DagEngineException ex) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
         }
-
-        return json;
     }
 
     /**
      * v1 service implementation to get a list of workflows, with filtering or interested windows embedded in the
      * request object
      */
-    @SuppressWarnings("unchecked")
-    private JSONObject getCoordinatorJobs(HttpServletRequest request) throws XServletException {
-        JSONObject json = new JSONObject();
+    private JSONStreamAware getCoordinatorJobs(HttpServletRequest request) throws XServletException {
         try {
             String filter = request.getParameter(RestConstants.JOBS_FILTER_PARAM);
             String startStr = request.getParameter(RestConstants.OFFSET_PARAM);
@@ -354,23 +390,19 @@ public class V1JobsServlet extends BaseJobsServlet {
             len = (len < 1) ? 50 : len;
             CoordinatorEngine coordEngine = Services.get().get(CoordinatorEngineService.class).getCoordinatorEngine(
                     getUser(request));
-            CoordinatorJobInfo jobs = coordEngine.getCoordJobs(filter, start, len);
-            List<CoordinatorJobBean> jsonJobs = jobs.getCoordJobs();
-            json.put(JsonTags.COORDINATOR_JOBS, CoordinatorJobBean.toJSONArray(jsonJobs, timeZoneId));
-            json.put(JsonTags.COORD_JOB_TOTAL, jobs.getTotal());
-            json.put(JsonTags.COORD_JOB_OFFSET, jobs.getStart());
-            json.put(JsonTags.COORD_JOB_LEN, jobs.getLen());
-
+            JobsCursor cursor = getCursor(request);
+            CoordinatorJobInfo jobs = (cursor != null)
+                    ? coordEngine.getCoordJobs(filter, cursor, len, isCountRequested(request))
+                    : coordEngine.getCoordJobs(filter, start, len);
+            return new JobsListing(JsonTags.COORDINATOR_JOBS, jobs.getCoordJobs(), jobs.getTotal(), jobs.getStart(),
+                    jobs.getLen(), jobs.getNextCursor(), timeZoneId, getJsonFields(request));
         }
         catch (CoordinatorEngineException ex) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
         }
-        return json;
     }
 
-    @SuppressWarnings("unchecked")
-    private JSONObject getBundleJobs(HttpServletRequest request) throws XServletException {
-        JSONObject json = new JSONObject();
+    private JSONStreamAware getBundleJobs(HttpServletRequest request) throws XServletException {
         try {
             String filter = request.getParameter(RestConstants.JOBS_FILTER_PARAM);
             String startStr = request.getParameter(RestConstants.OFFSET_PARAM);
@@ -383,24 +415,87 @@ public class V1JobsServlet extends BaseJobsServlet {
             len = (len < 1) ? 50 : len;
 
             BundleEngine bundleEngine = Services.get().get(BundleEngineService.class).getBundleEngine(getUser(request));
-            BundleJobInfo jobs = bundleEngine.getBundleJobs(filter, start, len);
-            List<BundleJobBean> jsonJobs = jobs.getBundleJobs();
-
-            json.put(JsonTags.BUNDLE_JOBS, BundleJobBean.toJSONArray(jsonJobs, timeZoneId));
-            json.put(JsonTags.BUNDLE_JOB_TOTAL, jobs.getTotal());
-            json.put(JsonTags.BUNDLE_JOB_OFFSET, jobs.getStart());
-            json.put(JsonTags.BUNDLE_JOB_LEN, jobs.getLen());
-
+            JobsCursor cursor = getCursor(request);
+            BundleJobInfo jobs = (cursor != null)
+                    ? bundleEngine.getBundleJobs(filter, cursor, len, isCountRequested(request))
+                    : bundleEngine.getBundleJobs(filter, start, len);
+            return new JobsListing(JsonTags.BUNDLE_JOBS, jobs.getBundleJobs(), jobs.getTotal(), jobs.getStart(),
+                    jobs.getLen(), jobs.getNextCursor(), timeZoneId, getJsonFields(request));
         }
         catch (BundleEngineException ex) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
         }
-        return json;
     }
 
-    @SuppressWarnings("unchecked")
-    private JSONObject getBulkJobs(HttpServletRequest request) throws XServletException, IOException {
-        JSONObject json = new JSONObject();
+    /**
+     * Return the jobs cursor of the request.
+     *
+     * @param request the request.
+     * @return the cursor, <code>null</code> if the request pages with an offset.
+     * @throws XServletException thrown if the cursor is not valid.
+     */
+    private JobsCursor getCursor(HttpServletRequest request) throws XServletException {
+        String cursor = request.getParameter(RestConstants.JOBS_CURSOR_PARAM);
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return JobsCursor.parse(cursor);
+        }
+        catch (IllegalArgumentException ex) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0302, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Return whether the total number of jobs is requested, when paging with a cursor.
+     */
+    private boolean isCountRequested(HttpServletRequest request) {
+        return Boolean.parseBoolean(request.getParameter(RestConstants.JOBS_COUNT_PARAM));
+    }
+
+    /**
+     * A page of jobs, written to the response one job at a time.
+     */
+    static class JobsListing implements JSONStreamAware {
+        private final Object jobsTag;
+        private final List<? extends JsonBean> jobs;
+        private final int total;
+        private final int start;
+        private final int len;
+        private final JobsCursor nextCursor;
+        private final String timeZoneId;
+        private final Set<String> fields;
+
+        JobsListing(Object jobsTag, List<? extends JsonBean> jobs, int total, int start, int len,
+                JobsCursor nextCursor, String timeZoneId, Set<String> fields) {
+            this.jobsTag = jobsTag;
+            this.jobs = jobs;
+            this.total = total;
+            this.start = start;
+            this.len = len;
+            this.nextCursor = nextCursor;
+            this.timeZoneId = timeZoneId;
+            this.fields = fields;
+        }
+
+        @Override
+        public void writeJSONString(Writer out) throws IOException {
+            JsonStreamWriter writer = new JsonStreamWriter(out, fields);
+            writer.beginObject();
+            writer.write(JsonTags.WORKFLOWS_TOTAL, total);
+            writer.write(JsonTags.WORKFLOWS_OFFSET, start);
+            writer.write(JsonTags.WORKFLOWS_LEN, len);
+            if (nextCursor != null) {
+                writer.write(JsonTags.JOBS_NEXT_CURSOR, nextCursor.toString());
+            }
+            writer.write(jobsTag.toString(), jobs, timeZoneId);
+            writer.endObject();
+            writer.flush();
+        }
+    }
+
+    private JSONStreamAware getBulkJobs(HttpServletRequest request) throws XServletException, IOException {
         try {
             String bulkFilter = request.getParameter(RestConstants.JOBS_BULK_PARAM); //REST API
             String startStr = request.getParameter(RestConstants.OFFSET_PARAM);
@@ -414,18 +509,12 @@ public class V1JobsServlet extends BaseJobsServlet {
 
             BundleEngine bundleEngine = Services.get().get(BundleEngineService.class).getBundleEngine(getUser(request));
             BulkResponseInfo bulkResponse = bundleEngine.getBulkJobs(bulkFilter, start, len);
-            List<BulkResponseImpl> responsesToJson = bulkResponse.getResponses();
-
-            json.put(JsonTags.BULK_RESPONSES, BulkResponseImpl.toJSONArray(responsesToJson, timeZoneId));
-            json.put(JsonTags.BULK_RESPONSE_TOTAL, bulkResponse.getTotal());
-            json.put(JsonTags.BULK_RESPONSE_OFFSET, bulkResponse.getStart());
-            json.put(JsonTags.BULK_RESPONSE_LEN, bulkResponse.getLen());
-
+            return new JobsListing(JsonTags.BULK_RESPONSES, bulkResponse.getResponses(), bulkResponse.getTotal(),
+                    bulkResponse.getStart(), bulkResponse.getLen(), null, timeZoneId, getJsonFields(request));
         }
         catch (BaseEngineException ex) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
         }
-        return json;
     }
 
     /**
@@ -505,6 +594,10 @@ public class V1JobsServlet extends BaseJobsServlet {
         int len = (lenStr != null) ? Integer.parseInt(lenStr) : 50;
         len = (len < 1) ? 50 : len;
 
+        if (Boolean.parseBoolean(request.getParameter(RestConstants.JOBS_ASYNC_PARAM))) {
+            return startBulkOperation(request, action, jobType, filter, start, len, timeZoneId);
+        }
+
         JSONObject json = new JSONObject();
         List<String> ids = new ArrayList<String>();
 
@@ -613,6 +706,68 @@ public class V1JobsServlet extends BaseJobsServlet {
         return json;
     }
 
+    /**
+     * Start a bulk kill, suspend or resume, returning the operation without waiting for the jobs to be modified.
+     */
+    @SuppressWarnings("unchecked")
+    private JSONObject startBulkOperation(HttpServletRequest request, String action, String jobType, String filter,
+            int start, int len, String timeZoneId) throws XServletException {
+        OperationType operation;
+        if (RestConstants.JOB_ACTION_KILL.equals(action)) {
+            operation = OperationType.Kill;
+        }
+        else if (RestConstants.JOB_ACTION_SUSPEND.equals(action)) {
+            operation = OperationType.Suspend;
+        }
+        else if (RestConstants.JOB_ACTION_RESUME.equals(action)) {
+            operation = OperationType.Resume;
+        }
+        else {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0303,
+                    RestConstants.ACTION_PARAM, action);
+        }
+        BulkOperationService.Operation bulkOperation;
+        try {
+            if (jobType.equals("wf")) {
+                bulkOperation = Services.get().get(DagEngineService.class).getDagEngine(getUser(request))
+                        .startBulkOperation(filter, start, len, operation);
+            }
+            else if (jobType.equals("bundle")) {
+                bulkOperation = Services.get().get(BundleEngineService.class).getBundleEngine(getUser(request))
+                        .startBulkOperation(filter, start, len, operation);
+            }
+            else {
+                bulkOperation = Services.get().get(CoordinatorEngineService.class)
+                        .getCoordinatorEngine(getUser(request)).startBulkOperation(filter, start, len, operation);
+            }
+        }
+        catch (BaseEngineException ex) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
+        }
+        JSONObject json = new JSONObject();
+        json.put(JsonTags.BULK_OPERATION, bulkOperation.toJSONObject(timeZoneId));
+        return json;
+    }
+
+    /**
+     * Return the progress of a bulk operation.
+     */
+    @SuppressWarnings("unchecked")
+    private JSONObject getBulkOperation(HttpServletRequest request) throws XServletException {
+        String id = request.getParameter(RestConstants.JOBS_BULK_OPERATION_PARAM);
+        String timeZoneId = request.getParameter(RestConstants.TIME_ZONE_PARAM) == null
+                ? "GMT" : request.getParameter(RestConstants.TIME_ZONE_PARAM);
+        try {
+            JSONObject json = new JSONObject();
+            json.put(JsonTags.BULK_OPERATION, Services.get().get(BulkOperationService.class).getOperation(id)
+                    .toJSONObject(timeZoneId));
+            return json;
+        }
+        catch (CommandException ex) {
+            throw new XServletException(HttpServletResponse.SC_NOT_FOUND, ex);
+        }
+    }
+
     private static JSONArray toJSONArray(List<String> ids) {
         JSONArray array = new JSONArray();
         for (String id : ids) {
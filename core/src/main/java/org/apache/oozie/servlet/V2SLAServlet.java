@@ -20,6 +20,7 @@ package org.apache.oozie.servlet;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLDecoder;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -44,6 +45,8 @@ import org.apache.oozie.ErrorCode;
 import org.apache.oozie.XException;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.event.SLAEvent.EventStatus;
+import org.apache.oozie.client.rest.JsonStreamWriter;
+import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.executor.jpa.SLARegistrationQueryExecutor;
@@ -56,7 +59,7 @@ import org.apache.oozie.sla.SLARegistrationBean;
 import org.apache.oozie.sla.SLASummaryBean;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.XLog;
-import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
 
 @SuppressWarnings("serial")
 public class V2SLAServlet extends SLAServlet {
@@ -80,7 +83,8 @@ public class V2SLAServlet extends SLAServlet {
     static {
         RESOURCES_INFO[0] = new JsonRestServlet.ResourceInfo("", Arrays.asList("GET"),
                 Arrays.asList(new JsonRestServlet.ParameterInfo(RestConstants.JOBS_FILTER_PARAM, String.class, false,
-                        Arrays.asList("GET"))));
+                        Arrays.asList("GET")), new JsonRestServlet.ParameterInfo(RestConstants.FIELDS_PARAM,
+                        String.class, false, Arrays.asList("GET"))));
     }
 
     public V2SLAServlet() {
@@ -93,7 +97,7 @@ public class V2SLAServlet extends SLAServlet {
         XLog.getLog(getClass()).debug("Got SLA GET request:" + request.getQueryString());
         try {
             stopCron();
-            JSONObject json = getSLASummaryList(request, response);
+            JSONStreamAware json = getSLASummaryList(request, response);
             startCron();
             if (json == null) {
                 response.setStatus(HttpServletResponse.SC_OK);
@@ -112,7 +116,7 @@ public class V2SLAServlet extends SLAServlet {
         }
     }
 
-    private JSONObject getSLASummaryList(HttpServletRequest request, HttpServletResponse response)
+    private JSONStreamAware getSLASummaryList(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, CommandException {
         String timeZoneId = request.getParameter(RestConstants.TIME_ZONE_PARAM) == null ? null : request
                 .getParameter(RestConstants.TIME_ZONE_PARAM);
@@ -201,7 +205,7 @@ public class V2SLAServlet extends SLAServlet {
                 jobIdSLAConfigMap.put(registrationBean.getId(), registrationBean.getSLAConfigMap());
             }
 
-            return SLASummaryBean.toJSONObject(slaSummaryList, jobIdSLAConfigMap, timeZoneId);
+            return new SLASummaryListing(slaSummaryList, jobIdSLAConfigMap, timeZoneId, getJsonFields(request));
         }
         catch (XException ex) {
             throw new CommandException(ex);
@@ -225,4 +229,41 @@ public class V2SLAServlet extends SLAServlet {
         }
         return ret;
     }
+
+    /**
+     * The sla summary list, written to the response one summary at a time.
+     */
+    static class SLASummaryListing implements JSONStreamAware {
+        private final List<SLASummaryBean> slaSummaryList;
+        private final Map<String, Map<String, String>> slaConfigMap;
+        private final String timeZoneId;
+        private final Set<String> fields;
+
+        SLASummaryListing(List<SLASummaryBean> slaSummaryList, Map<String, Map<String, String>> slaConfigMap,
+                String timeZoneId, Set<String> fields) {
+            this.slaSummaryList = slaSummaryList;
+            this.slaConfigMap = slaConfigMap;
+            this.timeZoneId = timeZoneId;
+            this.fields = fields;
+        }
+
+        @Override
+        public void writeJSONString(Writer out) throws IOException {
+            JsonStreamWriter writer = new JsonStreamWriter(out, fields);
+            writer.beginObject();
+            writer.beginArray(JsonTags.SLA_SUMMARY_LIST);
+            if (slaSummaryList != null) {
+                for (SLASummaryBean summary : slaSummaryList) {
+                    writer.beginBean();
+                    summary.writeJSONFields(writer, timeZoneId);
+                    writer.write(JsonTags.SLA_ALERT_STATUS, SLASummaryBean.getSLAAlertStatus(summary.getId(),
+                            slaConfigMap));
+                    writer.endBean();
+                }
+            }
+            writer.endArray();
+            writer.endObject();
+            writer.flush();
+        }
+    }
 }
@@ -36,9 +36,10 @@ import org.apache.oozie.AppType;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.event.SLAEvent;
 import org.apache.oozie.client.event.SLAEvent.EventStatus;
-import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.JsonFieldWriter;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.JsonUtils;
+import org.apache.oozie.client.rest.StreamingJsonBean;
 import org.apache.oozie.util.DateUtils;
 import org.apache.openjpa.persistence.jdbc.Index;
 import org.json.simple.JSONArray;
@@ -73,7 +74,7 @@ import org.json.simple.JSONObject;
 /**
  * Class to store all the SLA related details (summary) per job
  */
-public class SLASummaryBean implements JsonBean {
+public class SLASummaryBean implements StreamingJsonBean {
 
     @Id
     @Basic
@@ -367,9 +368,12 @@ public class SLASummaryBean implements JsonBean {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public JSONObject toJSONObject(String timeZoneId) {
-        JSONObject json = new JSONObject();
+        return JsonFieldWriter.toJSONObject(this, timeZoneId);
+    }
+
+    @Override
+    public void writeJSONFields(JsonFieldWriter writer, String timeZoneId) {
         Map<EventStatus,Long> eventMap = calculateEventStatus();
         StringBuilder eventStatusStr = new StringBuilder();
         boolean first = true;
@@ -380,65 +384,64 @@ public class SLASummaryBean implements JsonBean {
             eventStatusStr.append(e.toString());
             first = false;
         }
-        json.put(JsonTags.SLA_SUMMARY_ID, jobId);
+        writer.write(JsonTags.SLA_SUMMARY_ID, jobId);
         if (parentId != null) {
-            json.put(JsonTags.SLA_SUMMARY_PARENT_ID, parentId);
+            writer.write(JsonTags.SLA_SUMMARY_PARENT_ID, parentId);
         }
-        json.put(JsonTags.SLA_SUMMARY_APP_NAME, appName);
-        json.put(JsonTags.SLA_SUMMARY_APP_TYPE, appType);
-        json.put(JsonTags.SLA_SUMMARY_USER, user);
-        json.put(JsonTags.SLA_SUMMARY_NOMINAL_TIME, getTimeOnTimeZone(nominalTimeTS, timeZoneId));
+        writer.write(JsonTags.SLA_SUMMARY_APP_NAME, appName);
+        writer.write(JsonTags.SLA_SUMMARY_APP_TYPE, appType);
+        writer.write(JsonTags.SLA_SUMMARY_USER, user);
+        writer.write(JsonTags.SLA_SUMMARY_NOMINAL_TIME, getTimeOnTimeZone(nominalTimeTS, timeZoneId));
         if (expectedStartTS != null) {
-            json.put(JsonTags.SLA_SUMMARY_EXPECTED_START, getTimeOnTimeZone(expectedStartTS, timeZoneId));
+            writer.write(JsonTags.SLA_SUMMARY_EXPECTED_START, getTimeOnTimeZone(expectedStartTS, timeZoneId));
         } else {
-            json.put(JsonTags.SLA_SUMMARY_EXPECTED_START, null);
+            writer.write(JsonTags.SLA_SUMMARY_EXPECTED_START, null);
         }
 
         if (actualStartTS != null) {
-            json.put(JsonTags.SLA_SUMMARY_ACTUAL_START, getTimeOnTimeZone(actualStartTS, timeZoneId));
+            writer.write(JsonTags.SLA_SUMMARY_ACTUAL_START, getTimeOnTimeZone(actualStartTS, timeZoneId));
         }
         else {
-            json.put(JsonTags.SLA_SUMMARY_ACTUAL_START, null);
+            writer.write(JsonTags.SLA_SUMMARY_ACTUAL_START, null);
         }
         Long startDelay = eventMap.get(EventStatus.START_MET) != null ? eventMap.get(EventStatus.START_MET) : eventMap
                 .get(EventStatus.START_MISS);
         if (startDelay != null) {
-            json.put(JsonTags.SLA_SUMMARY_START_DELAY, startDelay);
+            writer.write(JsonTags.SLA_SUMMARY_START_DELAY, startDelay);
         }
         if (expectedEndTS != null ) {
-            json.put(JsonTags.SLA_SUMMARY_EXPECTED_END, getTimeOnTimeZone(expectedEndTS,timeZoneId));
+            writer.write(JsonTags.SLA_SUMMARY_EXPECTED_END, getTimeOnTimeZone(expectedEndTS,timeZoneId));
         } else {
-            json.put(JsonTags.SLA_SUMMARY_ACTUAL_END, null);
+            writer.write(JsonTags.SLA_SUMMARY_EXPECTED_END, null);
         }
         if (actualEndTS != null) {
-            json.put(JsonTags.SLA_SUMMARY_ACTUAL_END, getTimeOnTimeZone(actualEndTS,timeZoneId));
+            writer.write(JsonTags.SLA_SUMMARY_ACTUAL_END, getTimeOnTimeZone(actualEndTS,timeZoneId));
         }
         else {
-            json.put(JsonTags.SLA_SUMMARY_ACTUAL_END, null);
+            writer.write(JsonTags.SLA_SUMMARY_ACTUAL_END, null);
         }
         Long endDelay = eventMap.get(EventStatus.END_MET) != null ? eventMap.get(EventStatus.END_MET) : eventMap
                 .get(EventStatus.END_MISS);
         if (endDelay != null) {
-            json.put(JsonTags.SLA_SUMMARY_END_DELAY, endDelay);
+            writer.write(JsonTags.SLA_SUMMARY_END_DELAY, endDelay);
         }
-        json.put(JsonTags.SLA_SUMMARY_EXPECTED_DURATION, expectedDuration);
+        writer.write(JsonTags.SLA_SUMMARY_EXPECTED_DURATION, expectedDuration);
         if (actualDuration == -1 && expectedDuration != -1 && actualStartTS != null) {
             long currentDur = new Date().getTime() - actualStartTS.getTime();
-            json.put(JsonTags.SLA_SUMMARY_ACTUAL_DURATION, currentDur);
+            writer.write(JsonTags.SLA_SUMMARY_ACTUAL_DURATION, currentDur);
         }
         else {
-            json.put(JsonTags.SLA_SUMMARY_ACTUAL_DURATION, actualDuration);
+            writer.write(JsonTags.SLA_SUMMARY_ACTUAL_DURATION, actualDuration);
         }
         Long durationDelay = eventMap.get(EventStatus.DURATION_MET) != null ? eventMap.get(EventStatus.DURATION_MET)
                 : eventMap.get(EventStatus.DURATION_MISS);
         if (durationDelay != null) {
-            json.put(JsonTags.SLA_SUMMARY_DURATION_DELAY, durationDelay / (1000 * 60));
+            writer.write(JsonTags.SLA_SUMMARY_DURATION_DELAY, durationDelay / (1000 * 60));
         }
-        json.put(JsonTags.SLA_SUMMARY_JOB_STATUS, jobStatus);
-        json.put(JsonTags.SLA_SUMMARY_SLA_STATUS, slaStatus);
-        json.put(JsonTags.SLA_SUMMARY_EVENT_STATUS, eventStatusStr.toString());
-        json.put(JsonTags.SLA_SUMMARY_LAST_MODIFIED, getTimeOnTimeZone(lastModifiedTS, timeZoneId));
-        return json;
+        writer.write(JsonTags.SLA_SUMMARY_JOB_STATUS, jobStatus);
+        writer.write(JsonTags.SLA_SUMMARY_SLA_STATUS, slaStatus);
+        writer.write(JsonTags.SLA_SUMMARY_EVENT_STATUS, eventStatusStr.toString());
+        writer.write(JsonTags.SLA_SUMMARY_LAST_MODIFIED, getTimeOnTimeZone(lastModifiedTS, timeZoneId));
     }
 
     private Object getTimeOnTimeZone(Timestamp ts, String timeZoneId) {
@@ -536,16 +539,27 @@ public class SLASummaryBean implements JsonBean {
         if (slaSummaryList != null) {
             for (SLASummaryBean summary : slaSummaryList) {
                 JSONObject slaJson = summary.toJSONObject(timeZoneId);
-                String slaAlertStatus = "";
-                if (slaConfigMap.containsKey(summary.getId())) {
-                    slaAlertStatus = slaConfigMap.get(summary.getId()).containsKey(OozieClient.SLA_DISABLE_ALERT) ? "Disabled"
-                            : "Enabled";
-                }
-                slaJson.put(JsonTags.SLA_ALERT_STATUS, slaAlertStatus);
+                slaJson.put(JsonTags.SLA_ALERT_STATUS, getSLAAlertStatus(summary.getId(), slaConfigMap));
                 array.add(slaJson);
             }
         }
         json.put(JsonTags.SLA_SUMMARY_LIST, array);
         return json;
     }
+
+    /**
+     * Return the alert status of a job for the sla summary list.
+     *
+     * @param jobId job id.
+     * @param slaConfigMap sla config of the jobs.
+     * @return "Enabled", "Disabled" or an empty string if the job has no sla config.
+     */
+    public static String getSLAAlertStatus(String jobId, Map<String, Map<String, String>> slaConfigMap) {
+        String slaAlertStatus = "";
+        if (slaConfigMap.containsKey(jobId)) {
+            slaAlertStatus = slaConfigMap.get(jobId).containsKey(OozieClient.SLA_DISABLE_ALERT) ? "Disabled"
+                    : "Enabled";
+        }
+        return slaAlertStatus;
+    }
 }
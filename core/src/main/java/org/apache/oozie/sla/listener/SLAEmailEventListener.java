@@ -21,9 +21,12 @@ package org.apache.oozie.sla.listener;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -33,7 +36,6 @@ import javax.mail.MessagingException;
 import javax.mail.NoSuchProviderException;
 import javax.mail.SendFailedException;
 import javax.mail.Session;
-import javax.mail.Transport;
 import javax.mail.internet.AddressException;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
@@ -44,6 +46,8 @@ import org.apache.oozie.action.email.EmailActionExecutor;
 import org.apache.oozie.action.email.EmailActionExecutor.JavaMailAuthenticator;
 import org.apache.oozie.client.event.SLAEvent;
 import org.apache.oozie.service.ConfigurationService;
+import org.apache.oozie.service.SchedulerService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.sla.listener.SLAEventListener;
 import org.apache.oozie.sla.service.SLAService;
 import org.apache.oozie.util.XLog;
@@ -59,6 +63,8 @@ public class SLAEmailEventListener extends SLAEventListener {
     public static final String SMTP_TIMEOUT = EmailActionExecutor.CONF_PREFIX + "smtp.timeout";
     public static final String BLACKLIST_CACHE_TIMEOUT = EmailActionExecutor.CONF_PREFIX + "blacklist.cachetimeout";
     public static final String BLACKLIST_FAIL_COUNT = EmailActionExecutor.CONF_PREFIX + "blacklist.failcount";
+    public static final String DIGEST_WINDOW = EmailActionExecutor.CONF_PREFIX + "sla.digest.window";
+    public static final String DIGEST_MAX_PENDING = EmailActionExecutor.CONF_PREFIX + "sla.digest.max.pending";
     public static final String OOZIE_BASE_URL = "oozie.base.url";
     private Session session;
     private String oozieBaseUrl;
@@ -74,11 +80,19 @@ public class SLAEmailEventListener extends SLAEventListener {
     private final String SMTP_SOURCE_DEFAULT = "oozie@localhost";
     private final String SMTP_CONNECTION_TIMEOUT_DEFAULT = "5000";
     private final String SMTP_TIMEOUT_DEFAULT = "5000";
+    private final String DIGEST_WINDOW_DEFAULT = "0"; // in sec. 0 sends every alert right away
+    private final String DIGEST_MAX_PENDING_DEFAULT = "1000"; // alerts held for digests across all recipients
     private static XLog LOG = XLog.getLog(SLAEmailEventListener.class);
     private Set<SLAEvent.EventStatus> alertEvents;
     public static String EMAIL_BODY_FIELD_SEPARATER = " - ";
     public static String EMAIL_BODY_FIELD_INDENT = "  ";
     public static String EMAIL_BODY_HEADER_SEPARATER = ":";
+    private int digestWindow;
+    private int digestMaxPending;
+    // alerts waiting for the next digest, by recipient list
+    private final Map<String, List<String[]>> digest = new LinkedHashMap<String, List<String[]>>();
+    private int digestPending;
+    private ScheduledFuture<?> digestSchedule;
 
     public enum EmailField {
         EVENT_STATUS("SLA Status"), APP_TYPE("App Type"), APP_NAME("App Name"), USER("User"), JOBID("Job ID"), PARENT_JOBID(
@@ -132,6 +146,10 @@ public class SLAEmailEventListener extends SLAEventListener {
         properties.setProperty("mail.smtp.auth", smtpAuth.toString());
         properties.setProperty("mail.smtp.connectiontimeout", smtpConnectTimeout);
         properties.setProperty("mail.smtp.timeout", smtpTimeout);
+        if (smtpAuth) {
+            // identifies the account of the session when reusing SMTP connections
+            properties.setProperty("mail.smtp.user", smtpUser);
+        }
 
         try {
             fromAddr = new InternetAddress(conf.get("oozie.email.from.address", SMTP_SOURCE_DEFAULT));
@@ -156,16 +174,41 @@ public class SLAEmailEventListener extends SLAEventListener {
                 alertEvents.add(SLAEvent.EventStatus.valueOf(evt));
             }
         }
+
+        digestWindow = Integer.valueOf(conf.get(DIGEST_WINDOW, DIGEST_WINDOW_DEFAULT));
+        digestMaxPending = Integer.valueOf(conf.get(DIGEST_MAX_PENDING, DIGEST_MAX_PENDING_DEFAULT));
+        if (digestWindow > 0) {
+            Runnable digestSender = new Runnable() {
+                @Override
+                public void run() {
+                    sendDigests();
+                }
+            };
+            digestSchedule = Services.get().get(SchedulerService.class).scheduleCancellable(digestSender,
+                    digestWindow, digestWindow, SchedulerService.Unit.SEC);
+        }
     }
 
     @Override
     public void destroy() {
+        if (digestSchedule != null) {
+            digestSchedule.cancel(false);
+            digestSchedule = null;
+        }
+        sendDigests();
+    }
+
+    @VisibleForTesting
+    public boolean isDigestScheduled() {
+        return digestSchedule != null && !digestSchedule.isDone();
     }
 
     private void sendSLAEmail(SLAEvent event) throws Exception {
         // If no address is provided, the user did not want to send an email so simply log it and do nothing
         if (event.getAlertContact() == null || event.getAlertContact().trim().length() == 0) {
             LOG.info("No destination address provided; an SLA alert email will not be sent");
+        } else if (digestWindow > 0 && addToDigest(event)) {
+            LOG.debug("SLA alert email for [{0}] queued for the next digest", event.getId());
         } else {
             // Create and send an email
             Message message = new MimeMessage(session);
@@ -175,6 +218,76 @@ public class SLAEmailEventListener extends SLAEventListener {
         }
     }
 
+    /**
+     * Queue the alert for the digest sent to its recipients at the end of the digest window.
+     *
+     * @return false if too many alerts are already waiting, in which case the alert has to be sent right away
+     */
+    private boolean addToDigest(SLAEvent event) throws MessagingException {
+        Address[] to = parseAddress(event.getAlertContact());
+        if (to == null) {
+            LOG.error("Destination address is null or invalid, stop sending SLA alert email");
+            throw new IllegalArgumentException("Destination address is not specified properly");
+        }
+        String recipients = InternetAddress.toString(to);
+        String[] alert = new String[] { getSubject(event), getBody(event) };
+        synchronized (digest) {
+            if (digestPending >= digestMaxPending) {
+                LOG.warn("[{0}] SLA alerts already queued for digests, sending alert email for [{1}] right away",
+                        digestPending, event.getId());
+                return false;
+            }
+            List<String[]> alerts = digest.get(recipients);
+            if (alerts == null) {
+                alerts = new ArrayList<String[]>();
+                digest.put(recipients, alerts);
+            }
+            alerts.add(alert);
+            digestPending++;
+        }
+        return true;
+    }
+
+    /**
+     * Send one email per recipient list with the alerts queued for it.
+     */
+    @VisibleForTesting
+    public void sendDigests() {
+        Map<String, List<String[]>> toSend;
+        synchronized (digest) {
+            if (digest.isEmpty()) {
+                return;
+            }
+            toSend = new LinkedHashMap<String, List<String[]>>(digest);
+            digest.clear();
+            digestPending = 0;
+        }
+        for (Map.Entry<String, List<String[]>> entry : toSend.entrySet()) {
+            List<String[]> alerts = entry.getValue();
+            try {
+                Message message = new MimeMessage(session);
+                message.addFrom(new InternetAddress[] { fromAddr });
+                message.addRecipients(RecipientType.TO, InternetAddress.parse(entry.getKey()));
+                if (alerts.size() == 1) {
+                    message.setSubject(alerts.get(0)[0]);
+                    message.setText(alerts.get(0)[1]);
+                }
+                else {
+                    StringBuilder body = new StringBuilder();
+                    for (String[] alert : alerts) {
+                        body.append(alert[0]).append("\n\n").append(alert[1]).append("\n");
+                    }
+                    message.setSubject("OOZIE - SLA alert digest (" + alerts.size() + " alerts)");
+                    message.setText(body.toString());
+                }
+                sendEmail(message);
+            }
+            catch (Exception e) {
+                LOG.error("Failed to send SLA alert digest email with [{0}] alerts", alerts.size(), e);
+            }
+        }
+    }
+
     @Override
     public void onStartMiss(SLAEvent event) {
         boolean flag = false;
@@ -268,13 +381,25 @@ public class SLAEmailEventListener extends SLAEventListener {
     private void setMessageHeader(Message msg, SLAEvent event) throws MessagingException {
         Address[] from = new InternetAddress[] { fromAddr };
         Address[] to;
-        StringBuilder subject = new StringBuilder();
 
         to = parseAddress(event.getAlertContact());
         if (to == null) {
             LOG.error("Destination address is null or invalid, stop sending SLA alert email");
             throw new IllegalArgumentException("Destination address is not specified properly");
         }
+        try {
+            msg.addFrom(from);
+            msg.addRecipients(RecipientType.TO, to);
+            msg.setSubject(getSubject(event));
+        }
+        catch (MessagingException me) {
+            LOG.error("Message Exception in setting message header of SLA alert email", me);
+            throw me;
+        }
+    }
+
+    private String getSubject(SLAEvent event) {
+        StringBuilder subject = new StringBuilder();
         subject.append("OOZIE - SLA ");
         subject.append(event.getEventStatus().name());
         subject.append(" (AppName=");
@@ -282,19 +407,20 @@ public class SLAEmailEventListener extends SLAEventListener {
         subject.append(", JobID=");
         subject.append(event.getId());
         subject.append(")");
+        return subject.toString();
+    }
 
+    private void setMessageBody(Message msg, SLAEvent event) throws MessagingException {
         try {
-            msg.addFrom(from);
-            msg.addRecipients(RecipientType.TO, to);
-            msg.setSubject(subject.toString());
+            msg.setText(getBody(event));
         }
         catch (MessagingException me) {
-            LOG.error("Message Exception in setting message header of SLA alert email", me);
+            LOG.error("Message Exception in setting message body of SLA alert email", me);
             throw me;
         }
     }
 
-    private void setMessageBody(Message msg, SLAEvent event) throws MessagingException {
+    private String getBody(SLAEvent event) {
         StringBuilder body = new StringBuilder();
         printHeading(body, "Status");
         printField(body, EmailField.EVENT_STATUS.toString(), event.getEventStatus());
@@ -320,14 +446,7 @@ public class SLAEmailEventListener extends SLAEventListener {
         printField(body, EmailField.ACTUAL_END_TIME.toString(), event.getActualEnd());
         printField(body, EmailField.EXPECTED_DURATION.toString(), getDurationInMins(event.getExpectedDuration()));
         printField(body, EmailField.ACTUAL_DURATION.toString(), getDurationInMins(event.getActualDuration()));
-
-        try {
-            msg.setText(body.toString());
-        }
-        catch (MessagingException me) {
-            LOG.error("Message Exception in setting message body of SLA alert email", me);
-            throw me;
-        }
+        return body.toString();
     }
 
     private long getDurationInMins(long duration) {
@@ -365,7 +484,7 @@ public class SLAEmailEventListener extends SLAEventListener {
 
     private void sendEmail(Message message) throws MessagingException {
         try {
-            Transport.send(message);
+            EmailActionExecutor.send(session, message);
         }
         catch (NoSuchProviderException se) {
             LOG.error("Could not find an SMTP transport provider to email", se);
@@ -19,14 +19,19 @@
 package org.apache.oozie.store;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.util.XLog;
 
 public class StoreStatusFilter {
@@ -390,6 +395,125 @@ public class StoreStatusFilter {
         return sortByStr;
     }
 
+    /**
+     * Return the column jobs are sorted by, <code>createdTimestamp</code> unless the filter sets another one.
+     *
+     * @param filter jobs filter.
+     * @return the sort column.
+     * @throws JPAExecutorException thrown if the filter has several sort columns.
+     */
+    public static String getSortColumn(Map<String, List<String>> filter) throws JPAExecutorException {
+        String sortColumn = OozieClient.SORT_BY.createdTime.getFullname();
+        if (filter.containsKey(OozieClient.FILTER_SORT_BY)) {
+            List<String> values = filter.get(OozieClient.FILTER_SORT_BY);
+            if (values.size() > 1) {
+                throw new JPAExecutorException(ErrorCode.E0302,
+                        "cannot specify multiple sortby parameter");
+            }
+            for (OozieClient.SORT_BY sortBy : OozieClient.SORT_BY.values()) {
+                if (sortBy.toString().equalsIgnoreCase(values.get(0))) {
+                    sortColumn = sortBy.getFullname();
+                    break;
+                }
+            }
+        }
+        return sortColumn;
+    }
+
+    /**
+     * Return a select string also selecting the sort column, as last column, for keyset pagination.
+     *
+     * @param seletStr select string.
+     * @param sortColumn sort column.
+     * @return the select string for keyset pagination.
+     */
+    public static String getKeysetSelect(String seletStr, String sortColumn) {
+        return seletStr.replace(" from ", ", w." + sortColumn + " from ");
+    }
+
+    /**
+     * Return the rows of the jobs page after a cursor.
+     * <p>
+     * The jobs having a sort time are read first, in descending order of sort time and id, then the jobs without sort
+     * time, in descending order of id. Each part is read with its own keyset condition, so that the listing does not
+     * depend on where the database sorts the nulls.
+     *
+     * @param em entity manager.
+     * @param query jobs query with the filter conditions, empty if it has no condition.
+     * @param seletStr keyset select string of the query.
+     * @param sortColumn sort column.
+     * @param cursor jobs cursor.
+     * @param len page size.
+     * @param colArray query parameter names.
+     * @param valArray query parameter values.
+     * @return the rows of the page, the first column being the job id and the last one the sort column.
+     * @throws JPAExecutorException thrown if the cursor belongs to a listing with another sort column.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Object[]> getKeysetPage(EntityManager em, String query, String seletStr, String sortColumn,
+            JobsCursor cursor, int len, List<String> colArray, List<Object> valArray) throws JPAExecutorException {
+        if (!cursor.isStart() && !sortColumn.equals(cursor.getSortColumn())) {
+            throw new JPAExecutorException(ErrorCode.E0302, "the cursor belongs to a listing sorted by "
+                    + cursor.getSortColumn());
+        }
+        String base = (query.trim().length() == 0) ? seletStr + " where " : query + " and ";
+        List<Object[]> rows = new ArrayList<Object[]>();
+        if (cursor.isStart() || cursor.getTime() != null) {
+            StringBuilder sb = new StringBuilder(base).append("w.").append(sortColumn).append(" is not null");
+            if (!cursor.isStart()) {
+                sb.append(" and (w.").append(sortColumn).append(" < :cursorTime or (w.").append(sortColumn)
+                        .append(" = :cursorTime and w.id < :cursorId))");
+            }
+            sb.append(" order by w.").append(sortColumn).append(" desc, w.id desc");
+            Query q = createKeysetQuery(em, sb.toString(), cursor, len, colArray, valArray);
+            if (!cursor.isStart()) {
+                q.setParameter("cursorTime", cursor.getTime());
+            }
+            rows.addAll(q.getResultList());
+        }
+        if (rows.size() < len) {
+            StringBuilder sb = new StringBuilder(base).append("w.").append(sortColumn).append(" is null");
+            boolean afterId = !cursor.isStart() && cursor.getTime() == null;
+            if (afterId) {
+                sb.append(" and w.id < :cursorId");
+            }
+            sb.append(" order by w.id desc");
+            Query q = createKeysetQuery(em, sb.toString(), (afterId) ? cursor : JobsCursor.START,
+                    len - rows.size(), colArray, valArray);
+            rows.addAll(q.getResultList());
+        }
+        return rows;
+    }
+
+    private static Query createKeysetQuery(EntityManager em, String query, JobsCursor cursor, int len,
+            List<String> colArray, List<Object> valArray) {
+        Query q = em.createQuery(query);
+        q.setMaxResults(len);
+        for (int i = 0; i < colArray.size(); i++) {
+            q.setParameter(colArray.get(i), valArray.get(i));
+        }
+        if (!cursor.isStart()) {
+            q.setParameter("cursorId", cursor.getId());
+        }
+        return q;
+    }
+
+    /**
+     * Return the cursor after a page of jobs read by {@link #getKeysetPage}.
+     *
+     * @param rows rows of the page, the first column being the job id and the last one the sort column.
+     * @param len page size.
+     * @param sortColumn sort column.
+     * @return the cursor after the page, <code>null</code> if the page is the last one.
+     */
+    public static JobsCursor getNextCursor(List<Object[]> rows, int len, String sortColumn) {
+        if (rows.isEmpty() || rows.size() < len) {
+            return null;
+        }
+        Object[] last = rows.get(rows.size() - 1);
+        return JobsCursor.after(sortColumn, (Date) last[last.length - 1], (String) last[0]);
+    }
+
     public static void filterJobsUsingText(Map<String, List<String>> filter, StringBuilder sb, boolean isEnabled,
            String seletStr, List<Object> valArray, List<String> orArray, List<String> colArray) throws JPAExecutorException {
         List<String> values = filter.get(OozieClient.FILTER_TEXT);
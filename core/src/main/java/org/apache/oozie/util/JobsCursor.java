@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.util;
+
+import java.io.UnsupportedEncodingException;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.apache.commons.codec.binary.Base64;
+
+/**
+ * Position in a jobs listing, for keyset pagination.
+ * <p>
+ * Jobs are listed in descending order of their sort time and id, the jobs without sort time coming last in descending
+ * order of id. A cursor holds the sort column, and the sort time and id of the last job of a page, the next page starts
+ * with the jobs strictly after it. The cursor is exchanged with clients as an opaque string, the empty string being the
+ * start of the listing.
+ */
+public class JobsCursor {
+
+    /**
+     * Cursor positioned at the start of the listing.
+     */
+    public static final JobsCursor START = new JobsCursor(null, null, null);
+
+    private static final String CHARSET = "UTF-8";
+
+    private final String sortColumn;
+    private final Timestamp time;
+    private final String id;
+
+    private JobsCursor(String sortColumn, Timestamp time, String id) {
+        this.sortColumn = sortColumn;
+        this.time = time;
+        this.id = id;
+    }
+
+    /**
+     * Create a cursor positioned after a job.
+     *
+     * @param sortColumn column the jobs are sorted by.
+     * @param time sort time of the job, <code>null</code> if the job has none.
+     * @param id id of the job.
+     * @return the cursor.
+     */
+    public static JobsCursor after(String sortColumn, Date time, String id) {
+        ParamChecker.notEmpty(sortColumn, "sortColumn");
+        ParamChecker.notNull(id, "id");
+        return new JobsCursor(sortColumn, (time != null) ? new Timestamp(time.getTime()) : null, id);
+    }
+
+    /**
+     * Parse a cursor string returned by {@link #toString()}.
+     *
+     * @param value cursor string, <code>null</code> or empty for the start of the listing.
+     * @return the cursor.
+     * @throws IllegalArgumentException thrown if the cursor string is not valid.
+     */
+    public static JobsCursor parse(String value) {
+        if (value == null || value.trim().length() == 0) {
+            return START;
+        }
+        try {
+            String[] parts = new String(Base64.decodeBase64(value.trim()), CHARSET).split(",", 3);
+            if (parts.length != 3 || parts[0].length() == 0 || parts[2].length() == 0) {
+                throw new IllegalArgumentException("invalid jobs cursor [" + value + "]");
+            }
+            Timestamp time = (parts[1].length() > 0) ? new Timestamp(Long.parseLong(parts[1])) : null;
+            return new JobsCursor(parts[0], time, parts[2]);
+        }
+        catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("invalid jobs cursor [" + value + "]", ex);
+        }
+    }
+
+    /**
+     * Return whether the cursor is positioned at the start of the listing.
+     *
+     * @return <code>true</code> for the start of the listing.
+     */
+    public boolean isStart() {
+        return id == null;
+    }
+
+    /**
+     * Return the column the jobs are sorted by.
+     *
+     * @return the sort column, <code>null</code> at the start of the listing.
+     */
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    /**
+     * Return the sort time of the last job before the cursor.
+     *
+     * @return the sort time, <code>null</code> at the start of the listing or if the job has none.
+     */
+    public Timestamp getTime() {
+        return time;
+    }
+
+    /**
+     * Return the id of the last job before the cursor.
+     *
+     * @return the job id, <code>null</code> at the start of the listing.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Return the opaque string form of the cursor.
+     *
+     * @return the cursor string.
+     */
+    @Override
+    public String toString() {
+        if (isStart()) {
+            return "";
+        }
+        try {
+            String value = sortColumn + "," + ((time != null) ? String.valueOf(time.getTime()) : "") + "," + id;
+            return Base64.encodeBase64URLSafeString(value.getBytes(CHARSET));
+        }
+        catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
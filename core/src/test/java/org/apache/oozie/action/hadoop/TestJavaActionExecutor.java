@@ -1901,6 +1901,41 @@ public class TestJavaActionExecutor extends ActionExecutorTestCase {
         assertEquals("test", conf.get("user"));
     }
 
+    public void testParseJobXmlCachedByModificationTime() throws Exception {
+        Element xml = XmlUtils.parseXml("<java><job-xml>job1.xml</job-xml></java>");
+        Path appPath = new Path(getFsTestCaseDir(), "app");
+        getFileSystem().mkdirs(appPath);
+        Path jobXmlPath = new Path(appPath, "job1.xml");
+
+        XConfiguration jConf = new XConfiguration();
+        jConf.set("p1", "${v1}");
+        OutputStream os = getFileSystem().create(jobXmlPath);
+        jConf.writeXml(os);
+        os.close();
+
+        // the cached job-xml is still evaluated with each action's EL context
+        Configuration conf = new XConfiguration();
+        JavaActionExecutor.parseJobXmlAndConfiguration(createContext("<configuration>"
+                + "<property><name>v1</name><value>a</value></property></configuration>", null), xml, appPath, conf);
+        assertEquals("a", conf.get("p1"));
+        conf = new XConfiguration();
+        JavaActionExecutor.parseJobXmlAndConfiguration(createContext("<configuration>"
+                + "<property><name>v1</name><value>b</value></property></configuration>", null), xml, appPath, conf);
+        assertEquals("b", conf.get("p1"));
+
+        // a modified job-xml is read again
+        long modificationTime = getFileSystem().getFileStatus(jobXmlPath).getModificationTime();
+        jConf = new XConfiguration();
+        jConf.set("p1", "c");
+        os = getFileSystem().create(jobXmlPath, true);
+        jConf.writeXml(os);
+        os.close();
+        getFileSystem().setTimes(jobXmlPath, modificationTime + 1000, -1);
+        conf = new XConfiguration();
+        JavaActionExecutor.parseJobXmlAndConfiguration(createContext("<java/>", null), xml, appPath, conf);
+        assertEquals("c", conf.get("p1"));
+    }
+
     public void testJobXmlWithOozieLauncher() throws Exception {
         String str = "<java>"
                 + "<job-xml>job.xml</job-xml>"
@@ -19,23 +19,32 @@
 package org.apache.oozie.action.hadoop;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.filecache.DistributedCache;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.RunningJob;
 import org.apache.oozie.test.XFsTestCase;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.PropertiesUtils;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.Services;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.net.URI;
+import java.util.HashMap;
 import java.util.Map;
 
 public class TestLauncher extends XFsTestCase {
@@ -122,7 +131,7 @@ public class TestLauncher extends XFsTestCase {
         Configuration conf = new XConfiguration();
         conf.set("user.name", getTestUser());
         Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
-        assertFalse(fs.exists(LauncherMapperHelper.getActionDataSequenceFilePath(actionDir)));
+        assertTrue(fs.exists(LauncherMapperHelper.getActionDataFilePath(actionDir)));
         assertTrue(LauncherMapperHelper.isMainDone(runningJob));
         assertTrue(LauncherMapperHelper.isMainSuccessful(runningJob));
         assertFalse(LauncherMapperHelper.hasOutputData(actionData));
@@ -145,7 +154,7 @@ public class TestLauncher extends XFsTestCase {
         Configuration conf = new XConfiguration();
         conf.set("user.name", getTestUser());
         Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
-        assertFalse(fs.exists(LauncherMapperHelper.getActionDataSequenceFilePath(actionDir)));
+        assertTrue(fs.exists(LauncherMapperHelper.getActionDataFilePath(actionDir)));
         assertTrue(LauncherMapperHelper.isMainDone(runningJob));
         assertTrue(LauncherMapperHelper.isMainSuccessful(runningJob));
         assertFalse(LauncherMapperHelper.hasOutputData(actionData));
@@ -168,7 +177,7 @@ public class TestLauncher extends XFsTestCase {
         Configuration conf = new XConfiguration();
         conf.set("user.name", getTestUser());
         Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
-        assertTrue(fs.exists(LauncherMapperHelper.getActionDataSequenceFilePath(actionDir)));
+        assertTrue(fs.exists(LauncherMapperHelper.getActionDataFilePath(actionDir)));
         assertTrue(LauncherMapperHelper.isMainDone(runningJob));
         assertFalse(LauncherMapperHelper.isMainSuccessful(runningJob));
         assertFalse(LauncherMapperHelper.hasOutputData(actionData));
@@ -192,7 +201,7 @@ public class TestLauncher extends XFsTestCase {
         Configuration conf = new XConfiguration();
         conf.set("user.name", getTestUser());
         Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
-        assertTrue(fs.exists(LauncherMapperHelper.getActionDataSequenceFilePath(actionDir)));
+        assertTrue(fs.exists(LauncherMapperHelper.getActionDataFilePath(actionDir)));
         assertTrue(LauncherMapperHelper.isMainDone(runningJob));
         assertFalse(LauncherMapperHelper.isMainSuccessful(runningJob));
         assertFalse(LauncherMapperHelper.hasOutputData(actionData));
@@ -215,7 +224,7 @@ public class TestLauncher extends XFsTestCase {
         Configuration conf = new XConfiguration();
         conf.set("user.name", getTestUser());
         Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
-        assertTrue(fs.exists(LauncherMapperHelper.getActionDataSequenceFilePath(actionDir)));
+        assertTrue(fs.exists(LauncherMapperHelper.getActionDataFilePath(actionDir)));
         assertTrue(LauncherMapperHelper.isMainDone(runningJob));
         assertFalse(LauncherMapperHelper.isMainSuccessful(runningJob));
         assertFalse(LauncherMapperHelper.hasOutputData(actionData));
@@ -238,7 +247,7 @@ public class TestLauncher extends XFsTestCase {
         Configuration conf = new XConfiguration();
         conf.set("user.name", getTestUser());
         Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
-        assertTrue(fs.exists(LauncherMapperHelper.getActionDataSequenceFilePath(actionDir)));
+        assertTrue(fs.exists(LauncherMapperHelper.getActionDataFilePath(actionDir)));
         assertTrue(LauncherMapperHelper.isMainDone(runningJob));
         assertTrue(LauncherMapperHelper.isMainSuccessful(runningJob));
         assertTrue(LauncherMapperHelper.hasOutputData(actionData));
@@ -261,7 +270,7 @@ public class TestLauncher extends XFsTestCase {
         Configuration conf = new XConfiguration();
         conf.set("user.name", getTestUser());
         Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
-        assertTrue(fs.exists(LauncherMapperHelper.getActionDataSequenceFilePath(actionDir)));
+        assertTrue(fs.exists(LauncherMapperHelper.getActionDataFilePath(actionDir)));
         assertTrue(LauncherMapperHelper.isMainDone(runningJob));
         assertTrue(LauncherMapperHelper.isMainSuccessful(runningJob));
         assertFalse(LauncherMapperHelper.hasOutputData(actionData));
@@ -284,7 +293,7 @@ public class TestLauncher extends XFsTestCase {
         Configuration conf = new XConfiguration();
         conf.set("user.name", getTestUser());
         Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
-        assertFalse(fs.exists(LauncherMapperHelper.getActionDataSequenceFilePath(actionDir)));
+        assertTrue(fs.exists(LauncherMapperHelper.getActionDataFilePath(actionDir)));
         assertTrue(LauncherMapperHelper.isMainDone(runningJob));
         assertTrue(LauncherMapperHelper.isMainSuccessful(runningJob));
         assertFalse(LauncherMapperHelper.hasOutputData(actionData));
@@ -392,4 +401,61 @@ public class TestLauncher extends XFsTestCase {
         }
     }
 
+    public void testActionDataFileFormat() throws Exception {
+        Map<String, String> data = new HashMap<String, String>();
+        data.put(LauncherMapper.ACTION_DATA_NEW_ID, "job_1_0001");
+        data.put(LauncherMapper.ACTION_DATA_OUTPUT_PROPS, "a=\u00e1rv\u00edzt\u0171r\u0151\n");
+        data.put(LauncherMapper.ACTION_DATA_STATS, StringUtils.repeat("x", 100 * 1024));
+        data.put(LauncherMapper.ACTION_DATA_ERROR_PROPS, "");
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        LauncherMapper.writeActionData(os, data);
+        assertEquals(data, LauncherMapper.readActionData(new ByteArrayInputStream(os.toByteArray())));
+
+        try {
+            LauncherMapper.readActionData(new ByteArrayInputStream("a=b".getBytes()));
+            fail();
+        }
+        catch (IOException ex) {
+            // expected
+        }
+    }
+
+    public void testGetActionDataFromSequenceFile() throws Exception {
+        Path actionDir = getFsTestCaseDir();
+        FileSystem fs = getFileSystem();
+        Configuration conf = new XConfiguration();
+        conf.set("user.name", getTestUser());
+        SequenceFile.Writer writer = SequenceFile.createWriter(fs, conf,
+                LauncherMapperHelper.getActionDataSequenceFilePath(actionDir), Text.class, Text.class);
+        writer.append(new Text(LauncherMapper.ACTION_DATA_NEW_ID), new Text("job_1_0001"));
+        writer.append(new Text(LauncherMapper.ACTION_DATA_EXTERNAL_CHILD_IDS), new Text("job_1_0002"));
+        writer.close();
+
+        Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
+        assertEquals(2, actionData.size());
+        assertEquals("job_1_0001", actionData.get(LauncherMapper.ACTION_DATA_NEW_ID));
+        assertEquals("job_1_0002", actionData.get(LauncherMapper.ACTION_DATA_EXTERNAL_CHILD_IDS));
+    }
+
+    public void testGetActionDataFromLegacyFiles() throws Exception {
+        Path actionDir = getFsTestCaseDir();
+        FileSystem fs = getFileSystem();
+        Configuration conf = new XConfiguration();
+        conf.set("user.name", getTestUser());
+        writeFile(fs, new Path(actionDir, "newId.properties"), "id=job_1_0001\n");
+        writeFile(fs, new Path(actionDir, LauncherMapper.ACTION_DATA_OUTPUT_PROPS), "a=A\n");
+
+        Map<String, String> actionData = LauncherMapperHelper.getActionData(fs, actionDir, conf);
+        assertEquals(2, actionData.size());
+        assertTrue(LauncherMapperHelper.hasIdSwap(actionData));
+        assertEquals("job_1_0001", actionData.get(LauncherMapper.ACTION_DATA_NEW_ID));
+        assertEquals("A", PropertiesUtils.stringToProperties(
+                actionData.get(LauncherMapper.ACTION_DATA_OUTPUT_PROPS)).getProperty("a"));
+    }
+
+    private void writeFile(FileSystem fs, Path path, String contents) throws IOException {
+        OutputStream os = fs.create(path);
+        os.write(contents.getBytes("UTF-8"));
+        os.close();
+    }
 }
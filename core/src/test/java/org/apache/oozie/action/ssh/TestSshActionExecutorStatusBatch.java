@@ -0,0 +1,248 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.action.ssh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.oozie.client.WorkflowAction.Status;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XTestCase;
+
+public class TestSshActionExecutorStatusBatch extends XTestCase {
+
+    private static final Pattern STATUS_CHECK = Pattern.compile("ps -p (\\d+) >/dev/null 2>&1; then echo (\\d+):");
+
+    private Services services;
+
+    /**
+     * Ssh action executor running fake ssh processes, reporting the status of the remote processes from a map.
+     */
+    private static class FakeSshActionExecutor extends SshActionExecutor {
+        private final Map<String, Status> remoteStatus = new ConcurrentHashMap<String, Status>();
+        private final List<String[]> commands = new ArrayList<String[]>();
+        private final long processTime;
+        private final CountDownLatch firstProcessGate;
+
+        FakeSshActionExecutor(long processTime) {
+            this(processTime, null);
+        }
+
+        /**
+         * @param processTime time each fake process runs, in milliseconds
+         * @param firstProcessGate the first process is started only once the gate is open, if not null
+         */
+        FakeSshActionExecutor(long processTime, CountDownLatch firstProcessGate) {
+            this.processTime = processTime;
+            this.firstProcessGate = firstProcessGate;
+        }
+
+        @Override
+        protected Process startProcess(String[] command) throws IOException {
+            boolean first;
+            synchronized (commands) {
+                commands.add(command);
+                first = commands.size() == 1;
+            }
+            if (first && firstProcessGate != null) {
+                try {
+                    firstProcessGate.await();
+                }
+                catch (InterruptedException ex) {
+                    throw new IOException(ex);
+                }
+            }
+            StringBuilder output = new StringBuilder();
+            Matcher matcher = STATUS_CHECK.matcher(command[command.length - 1]);
+            while (matcher.find()) {
+                output.append(matcher.group(2)).append(":").append(remoteStatus.get(matcher.group(1))).append("\n");
+            }
+            return new FakeProcess(output.toString(), processTime);
+        }
+
+        List<String[]> getCommands() {
+            synchronized (commands) {
+                return new ArrayList<String[]>(commands);
+            }
+        }
+    }
+
+    private static class FakeProcess extends Process {
+        private final InputStream input;
+        private final long end;
+
+        FakeProcess(String output, long processTime) {
+            input = new ByteArrayInputStream(output.getBytes());
+            end = System.currentTimeMillis() + processTime;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return input;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            Thread.sleep(Math.max(0, end - System.currentTimeMillis()));
+            return 0;
+        }
+
+        @Override
+        public int exitValue() {
+            if (System.currentTimeMillis() < end) {
+                throw new IllegalThreadStateException();
+            }
+            return 0;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.getConf().setInt(SshActionExecutor.CONF_SSH_CONTROL_PERSIST, 60);
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testConcurrentChecksBatched() throws Exception {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final FakeSshActionExecutor executor = new FakeSshActionExecutor(0, gate);
+        executor.initActionType();
+        final String host = "batch@localhost";
+        final int count = 20;
+        for (int i = 0; i < count; i++) {
+            Status status = i % 3 == 0 ? Status.RUNNING : i % 3 == 1 ? Status.OK : Status.ERROR;
+            executor.remoteStatus.put(String.valueOf(1000 + i), status);
+        }
+        final Status[] results = new Status[count];
+        final Exception[] errors = new Exception[count];
+        Thread[] threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        results[index] = executor.getBatchedStatus(host, String.valueOf(1000 + index),
+                                "/tmp/oozie/" + index + ".error");
+                    }
+                    catch (Exception ex) {
+                        errors[index] = ex;
+                    }
+                }
+            };
+        }
+        // the first check runs alone and is held while all the other checks queue up behind it
+        threads[0].start();
+        waitFor(10000, new Predicate() {
+            @Override
+            public boolean evaluate() throws Exception {
+                return executor.getCommands().size() == 1;
+            }
+        });
+        for (int i = 1; i < count; i++) {
+            threads[i].start();
+        }
+        waitFor(10000, new Predicate() {
+            @Override
+            public boolean evaluate() throws Exception {
+                return SshActionExecutor.getPendingStatusChecks(host) == count - 1;
+            }
+        });
+        assertEquals(count - 1, SshActionExecutor.getPendingStatusChecks(host));
+        gate.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < count; i++) {
+            assertNull(errors[i]);
+            assertEquals(executor.remoteStatus.get(String.valueOf(1000 + i)), results[i]);
+        }
+        // one invocation for the first check, one for all the checks queued while it was running
+        List<String[]> commands = executor.getCommands();
+        assertEquals(2, commands.size());
+        assertEquals(1, countChecks(commands.get(0)));
+        assertEquals(count - 1, countChecks(commands.get(1)));
+        assertEquals(0, SshActionExecutor.getPendingStatusChecks(host));
+    }
+
+    private static int countChecks(String[] command) {
+        Matcher matcher = STATUS_CHECK.matcher(command[command.length - 1]);
+        int checks = 0;
+        while (matcher.find()) {
+            checks++;
+        }
+        return checks;
+    }
+
+    public void testMultiplexedHandshakes() throws Exception {
+        FakeSshActionExecutor executor = new FakeSshActionExecutor(0);
+        executor.initActionType();
+        executor.remoteStatus.put("1000", Status.RUNNING);
+        long handshakes = SshActionExecutor.getHandshakeCount();
+        long processes = SshActionExecutor.getProcessCount();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Status.RUNNING, executor.getBatchedStatus("mux@localhost", "1000", "/tmp/oozie/1000.error"));
+        }
+        assertEquals(processes + 5, SshActionExecutor.getProcessCount());
+        assertEquals(handshakes + 1, SshActionExecutor.getHandshakeCount());
+        List<String> command = Arrays.asList(executor.getCommands().get(0));
+        assertTrue(command.contains("ControlMaster=auto"));
+        assertTrue(command.contains("ControlPersist=60"));
+        assertEquals("mux@localhost", command.get(command.size() - 2));
+    }
+
+    public void testNonNumericPidNotBatched() throws Exception {
+        FakeSshActionExecutor executor = new FakeSshActionExecutor(0);
+        executor.initActionType();
+        assertNull(executor.getBatchedStatus("test@localhost", "1000; rm -rf /", "/tmp/oozie/1000.error"));
+        assertEquals(0, executor.getCommands().size());
+    }
+}
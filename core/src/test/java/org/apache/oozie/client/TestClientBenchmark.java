@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client;
+
+import java.util.concurrent.Callable;
+
+import org.apache.oozie.servlet.DagServletTestCase;
+import org.apache.oozie.servlet.MockDagEngineService;
+
+/**
+ * Times job listings against the embedded Jetty server with the client transports, plain, gzip compressed and kept
+ * alive. It is not run by default, use <code>-Dtest=TestClientBenchmark</code> to run it.
+ */
+public class TestClientBenchmark extends DagServletTestCase {
+    private static final boolean IS_SECURITY_ENABLED = false;
+    private static final int COUNT = 500;
+
+    public void testJobsStatusBenchmark() throws Exception {
+        runTest(TestWorkflowClient.END_POINTS, TestWorkflowClient.SERVLET_CLASSES, IS_SECURITY_ENABLED,
+                new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL();
+                OozieClient plain = new OozieClient(oozieUrl);
+                plain.setCompression(false);
+                OozieClient compressed = new OozieClient(oozieUrl);
+                OozieClient keepAlive = new OozieClient(oozieUrl);
+                keepAlive.setCompression(false);
+                keepAlive.setKeepAlive(true);
+                OozieClient compressedKeepAlive = new OozieClient(oozieUrl);
+                compressedKeepAlive.setKeepAlive(true);
+
+                System.out.println("Jobs listings/sec, plain: " + getListingRate(plain)
+                        + ", gzip compressed: " + getListingRate(compressed)
+                        + ", kept alive: " + getListingRate(keepAlive)
+                        + ", gzip compressed and kept alive: " + getListingRate(compressedKeepAlive));
+                return null;
+            }
+        });
+    }
+
+    private long getListingRate(OozieClient wc) throws OozieClientException {
+        // warm up the connections and the servlets
+        for (int i = 0; i < 10; i++) {
+            wc.getJobsInfo("name=x", 1, 100);
+        }
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(MockDagEngineService.INIT_WF_COUNT, wc.getJobsInfo("name=x", 1, 100).size());
+        }
+        long time = Math.max(1, System.currentTimeMillis() - start);
+        return COUNT * 1000L / time;
+    }
+}
@@ -26,6 +26,7 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.oozie.BundleJobBean;
 import org.apache.oozie.CoordinatorActionBean;
@@ -34,6 +35,7 @@ import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.client.CoordinatorAction.Status;
 import org.apache.oozie.client.rest.BulkResponseImpl;
 import org.apache.oozie.client.rest.JsonTags;
+import org.apache.oozie.client.rest.RestConstants;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
@@ -131,6 +133,113 @@ public class TestOozieClientWithFakeServlet {
 
     }
 
+    /**
+     * Test that a GET answered 304 Not Modified returns the cached response
+     */
+    @Test
+    public void testConditionalGet() throws Exception {
+        final ConditionalOozieClient client = new ConditionalOozieClient("http://url");
+        client.setResponseCaching(true);
+        List<WorkflowJob> jobs = client.getJobsInfo("", 1, 10);
+        assertEquals(1, jobs.size());
+        assertEquals("job-1", jobs.get(0).getId());
+        HttpURLConnection first = client.connections.get(client.connections.size() - 1);
+        verify(first).setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, RestConstants.NO_ETAG);
+
+        client.notModified = true;
+        jobs = client.getJobsInfo("", 1, 10);
+        assertEquals(1, jobs.size());
+        assertEquals("job-1", jobs.get(0).getId());
+        HttpURLConnection second = client.connections.get(client.connections.size() - 1);
+        verify(second).setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, "\"v1\"");
+        verify(second, never()).getInputStream();
+
+        // another request is not revalidated with the entity tag of the first one
+        client.notModified = false;
+        client.getJobsInfo("", 11, 10);
+        HttpURLConnection third = client.connections.get(client.connections.size() - 1);
+        verify(third).setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, RestConstants.NO_ETAG);
+
+        // nor is the same request impersonating another user
+        OozieClient.doAs("other", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                client.getJobsInfo("", 1, 10);
+                return null;
+            }
+        });
+        HttpURLConnection fourth = client.connections.get(client.connections.size() - 1);
+        verify(fourth).setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, RestConstants.NO_ETAG);
+    }
+
+    /**
+     * Test that the responses are not cached by default
+     */
+    @Test
+    public void testResponseCachingDisabledByDefault() throws Exception {
+        ConditionalOozieClient client = new ConditionalOozieClient("http://url");
+        assertFalse(client.isResponseCaching());
+        client.getJobsInfo("", 1, 10);
+        client.getJobsInfo("", 1, 10);
+        HttpURLConnection second = client.connections.get(client.connections.size() - 1);
+        verify(second, never()).setRequestProperty(eq(RestConstants.IF_NONE_MATCH_HEADER), anyString());
+    }
+
+    /**
+     * Test that a response larger than the cached ones is streamed and not revalidated
+     */
+    @Test
+    public void testLargeResponseNotCached() throws Exception {
+        ConditionalOozieClient client = new ConditionalOozieClient("http://url");
+        client.setResponseCaching(true);
+        client.appName = new String(new char[2 * 1024 * 1024]).replace('\0', 'x');
+        List<WorkflowJob> jobs = client.getJobsInfo("", 1, 10);
+        assertEquals(client.appName, jobs.get(0).getAppName());
+
+        client.getJobsInfo("", 1, 10);
+        HttpURLConnection second = client.connections.get(client.connections.size() - 1);
+        verify(second).setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, RestConstants.NO_ETAG);
+    }
+
+    private static class ConditionalOozieClient extends OozieClient {
+        private final List<HttpURLConnection> connections = new ArrayList<HttpURLConnection>();
+        private boolean notModified = false;
+        private String appName = null;
+
+        public ConditionalOozieClient(String oozieUrl) {
+            super(oozieUrl);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected HttpURLConnection createConnection(URL url, String method) throws IOException, OozieClientException {
+            HttpURLConnection result = mock(HttpURLConnection.class);
+            String body;
+            if (url.getPath().endsWith("versions")) {
+                JSONArray array = new JSONArray();
+                array.add(2L);
+                body = array.toJSONString();
+                when(result.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+            }
+            else {
+                WorkflowJobBean job = new WorkflowJobBean();
+                job.setId("job-1");
+                job.setAppName(appName);
+                List<WorkflowJobBean> workflows = new ArrayList<WorkflowJobBean>();
+                workflows.add(job);
+                JSONObject json = new JSONObject();
+                json.put(JsonTags.WORKFLOWS_JOBS, WorkflowJobBean.toJSONArray(workflows, "GMT"));
+                body = json.toJSONString();
+                when(result.getResponseCode()).thenReturn(
+                        notModified ? HttpURLConnection.HTTP_NOT_MODIFIED : HttpURLConnection.HTTP_OK);
+                when(result.getHeaderField(RestConstants.ETAG_HEADER)).thenReturn("\"v1\"");
+                connections.add(result);
+            }
+            when(result.getInputStream()).thenReturn(new ByteArrayInputStream(body.getBytes()));
+            return result;
+        }
+    }
+
     private class FakeOozieClient extends OozieClient {
 
         public FakeOozieClient(String oozieUrl) {
@@ -311,6 +311,76 @@ public class TestWorkflowClient extends DagServletTestCase {
         });
     }
 
+    public void testJobsStatusCompression() throws Exception {
+        runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL();
+                EncodingTrackingClient wc = new EncodingTrackingClient(oozieUrl);
+                assertTrue(wc.isCompression());
+                EncodingTrackingClient plain = new EncodingTrackingClient(oozieUrl);
+                plain.setCompression(false);
+                List<WorkflowJob> compressed = wc.getJobsInfo("name=x", 1, 100);
+                assertEquals("gzip", wc.lastConnection.getContentEncoding());
+                List<WorkflowJob> uncompressed = plain.getJobsInfo("name=x", 1, 100);
+                assertNull(plain.lastConnection.getContentEncoding());
+                assertEquals(MockDagEngineService.INIT_WF_COUNT, compressed.size());
+                assertEquals(uncompressed.size(), compressed.size());
+                for (int i = 0; i < compressed.size(); i++) {
+                    assertEquals(uncompressed.get(i).getId(), compressed.get(i).getId());
+                    assertEquals(uncompressed.get(i).getAppPath(), compressed.get(i).getAppPath());
+                }
+                return null;
+            }
+        });
+    }
+
+    public void testJobsStatusKeepAlive() throws Exception {
+        runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL();
+                EncodingTrackingClient wc = new EncodingTrackingClient(oozieUrl);
+                assertFalse(wc.isKeepAlive());
+                wc.setKeepAlive(true);
+                wc.setCompression(false);
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(MockDagEngineService.INIT_WF_COUNT, wc.getJobsInfo("name=x", 1, 100).size());
+                    assertNull(wc.lastConnection.getContentEncoding());
+                }
+
+                KeepAliveHttpURLConnection conn = new KeepAliveHttpURLConnection(
+                        (HttpURLConnection) new URL(oozieUrl + "/versions").openConnection(), true);
+                assertEquals(HttpURLConnection.HTTP_OK, conn.getResponseCode());
+                try {
+                    conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
+                    fail();
+                }
+                catch (IllegalStateException ex) {
+                    // expected, the request is already sent
+                }
+                conn.release();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Client keeping the last connection it opened, to check the encoding of the response.
+     */
+    private static class EncodingTrackingClient extends OozieClient {
+        private HttpURLConnection lastConnection;
+
+        EncodingTrackingClient(String oozieUrl) {
+            super(oozieUrl);
+        }
+
+        @Override
+        protected HttpURLConnection createConnection(URL url, String method) throws IOException,
+                OozieClientException {
+            lastConnection = super.createConnection(url, method);
+            return lastConnection;
+        }
+    }
+
     public void testExternalId() throws Exception {
         runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
             public Void call() throws Exception {
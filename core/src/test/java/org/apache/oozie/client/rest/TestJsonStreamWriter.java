@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.client.rest;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+public class TestJsonStreamWriter extends TestCase {
+
+    private String stream(JsonBean bean, String fields) throws Exception {
+        StringWriter out = new StringWriter();
+        JsonStreamWriter writer = new JsonStreamWriter(out, JsonStreamWriter.parseFields(fields));
+        writer.writeBean(bean, "GMT");
+        writer.flush();
+        return out.toString();
+    }
+
+    public void testSameAsJSONObject() throws Exception {
+        WorkflowJobBean wf = TestJsonWorkflowJob.createWorkflow();
+        wf.setActions(Arrays.asList(TestJsonWorkflowAction.createNode(), TestJsonWorkflowAction.createNode()));
+        assertEquals(JSONValue.parse(wf.toJSONObject("GMT").toJSONString()), JSONValue.parse(stream(wf, null)));
+
+        CoordinatorJobBean coord = TestJsonCoordinatorJob.createApplication();
+        List<CoordinatorActionBean> actions = new ArrayList<CoordinatorActionBean>();
+        for (int i = 0; i < 10; i++) {
+            actions.add(TestJsonCoordinatorAction.createAppAction());
+        }
+        coord.setActions(actions);
+        assertEquals(JSONValue.parse(coord.toJSONObject("GMT").toJSONString()),
+                JSONValue.parse(stream(coord, null)));
+    }
+
+    public void testFields() throws Exception {
+        WorkflowJobBean wf = TestJsonWorkflowJob.createWorkflow();
+        wf.setActions(Arrays.asList(TestJsonWorkflowAction.createNode()));
+        JSONObject json = (JSONObject) JSONValue.parse(stream(wf, JsonTags.WORKFLOW_ID + ", "
+                + JsonTags.WORKFLOW_STATUS));
+        assertEquals(2, json.size());
+        assertEquals("c", json.get(JsonTags.WORKFLOW_ID));
+        assertEquals("PREP", json.get(JsonTags.WORKFLOW_STATUS));
+
+        // the fields apply to the nested beans too
+        json = (JSONObject) JSONValue.parse(stream(wf, "id,status,actions"));
+        assertEquals(3, json.size());
+        JSONArray array = (JSONArray) json.get(JsonTags.WORKFLOW_ACTIONS);
+        assertEquals(1, array.size());
+        JSONObject action = (JSONObject) array.get(0);
+        assertEquals(2, action.size());
+        assertTrue(action.containsKey(JsonTags.WORKFLOW_ACTION_ID));
+        assertTrue(action.containsKey(JsonTags.WORKFLOW_ACTION_STATUS));
+    }
+
+    public void testEnclosingObject() throws Exception {
+        StringWriter out = new StringWriter();
+        JsonStreamWriter writer = new JsonStreamWriter(out, JsonStreamWriter.parseFields("id"));
+        writer.beginObject();
+        writer.write(JsonTags.WORKFLOWS_TOTAL, 2);
+        writer.write(JsonTags.WORKFLOWS_JOBS, Arrays.asList(TestJsonWorkflowJob.createWorkflow(),
+                TestJsonWorkflowJob.createWorkflow()), "GMT");
+        writer.write("empty", (List<JsonBean>) null, "GMT");
+        writer.endObject();
+        writer.flush();
+        JSONObject json = (JSONObject) JSONValue.parse(out.toString());
+        assertEquals(3, json.size());
+        assertEquals(2L, json.get(JsonTags.WORKFLOWS_TOTAL));
+        JSONArray jobs = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
+        assertEquals(2, jobs.size());
+        assertEquals("{\"id\":\"c\"}", ((JSONObject) jobs.get(0)).toJSONString());
+        assertEquals(0, ((JSONArray) json.get("empty")).size());
+    }
+
+    public void testParseFields() {
+        assertNull(JsonStreamWriter.parseFields(null));
+        assertNull(JsonStreamWriter.parseFields(" "));
+        assertEquals(2, JsonStreamWriter.parseFields("a, b,,").size());
+    }
+
+}
@@ -18,7 +18,10 @@
 
 package org.apache.oozie.command;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -3842,6 +3845,62 @@ public class TestPurgeXCommand extends XDataTestCase {
         }
     }
 
+    /**
+     * Test : purge resumes after the checkpoint of a previous run, in chunks of 'limit' workflows, and clears the checkpoint
+     * once all the workflows have been processed
+     *
+     * @throws Exception
+     */
+    public void testPurgeResumesFromCheckpoint() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(addRecordToWfJobTable(WorkflowJob.Status.SUCCEEDED, WorkflowInstance.Status.SUCCEEDED).getId());
+        }
+        Collections.sort(ids);
+
+        PurgeProgress progress = new PurgeProgress();
+        progress.setCheckpoint(PurgeProgress.Phase.WORKFLOWS, ids.get(0));
+        new PurgeXCommand(7, 1, 1, 1, false, progress).call();
+
+        jpaService.execute(new WorkflowJobGetJPAExecutor(ids.get(0)));
+        for (String id : ids.subList(1, ids.size())) {
+            try {
+                jpaService.execute(new WorkflowJobGetJPAExecutor(id));
+                fail("Workflow Job " + id + " should have been purged");
+            }
+            catch (JPAExecutorException je) {
+                assertEquals(ErrorCode.E0604, je.getErrorCode());
+            }
+        }
+        assertEquals("", progress.getCheckpoint(PurgeProgress.Phase.WORKFLOWS));
+    }
+
+    /**
+     * Test : purge progress reports the deleted jobs and an empty backlog after a run
+     *
+     * @throws Exception
+     */
+    public void testPurgeProgress() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.SUCCEEDED, WorkflowInstance.Status.SUCCEEDED);
+            addRecordToWfActionTable(job.getId(), "1", WorkflowAction.Status.OK);
+        }
+        addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+
+        PurgeProgress progress = new PurgeProgress();
+        new PurgeXCommand(7, 1, 1, 2, false, progress).call();
+        assertEquals(0, progress.getBacklog());
+        assertEquals(5, progress.getRunDeleted());
+        assertEquals(5, progress.getTotalDeleted());
+        assertTrue(progress.getDeleteRate() >= 0);
+
+        new PurgeXCommand(7, 1, 1, 2, false, progress).call();
+        assertEquals(0, progress.getRunDeleted());
+        assertEquals(5, progress.getTotalDeleted());
+    }
+
     protected WorkflowJobBean addRecordToWfJobTableForNegCase(WorkflowJob.Status jobStatus,
             WorkflowInstance.Status instanceStatus) throws Exception {
         WorkflowApp app =
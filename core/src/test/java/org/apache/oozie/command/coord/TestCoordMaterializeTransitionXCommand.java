@@ -48,6 +48,7 @@ import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.CoordJobGetActionsSubsetJPAExecutor;
 import org.apache.oozie.executor.jpa.SLAEventsGetForSeqIdJPAExecutor;
 import org.apache.oozie.local.LocalOozie;
+import org.apache.oozie.service.CoordMaterializeTriggerService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
@@ -151,6 +152,55 @@ public class TestCoordMaterializeTransitionXCommand extends XDataTestCase {
         }
     }
 
+    public void testActionMaterWithMaterializationThreads() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(CoordMaterializeTriggerService.CONF_MATERIALIZATION_THREADS, "3");
+        setSystemProperty(CoordMaterializeTransitionXCommand.CONF_MATERIALIZATION_INSERT_BATCH_SIZE, "2");
+        new Services().init();
+        assertNotNull(Services.get().get(CoordMaterializeTriggerService.class).getMaterializationExecutor());
+
+        Date startTime = DateUtils.parseDateOozieTZ("2013-07-18T00:00Z");
+        Date endTime = DateUtils.parseDateOozieTZ("2013-07-18T01:00Z");
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, startTime, endTime, null,
+                "10,20,30,40,50 * * * *");
+        new CoordMaterializeTransitionXCommand(job.getId(), 3600).call();
+        Date[] nominalTimes = new Date[] {DateUtils.parseDateOozieTZ("2013-07-18T00:10Z"),
+                DateUtils.parseDateOozieTZ("2013-07-18T00:20Z"), DateUtils.parseDateOozieTZ("2013-07-18T00:30Z"),
+                DateUtils.parseDateOozieTZ("2013-07-18T00:40Z"), DateUtils.parseDateOozieTZ("2013-07-18T00:50Z")};
+        checkCoordActionsNominalTime(job.getId(), 5, nominalTimes);
+        for (int i = 1; i <= nominalTimes.length; i++) {
+            checkCoordAction(job.getId() + "@" + i);
+        }
+
+        job = CoordJobQueryExecutor.getInstance().get(CoordJobQuery.GET_COORD_JOB, job.getId());
+        assertTrue(job.isDoneMaterialization());
+        assertEquals(5, job.getLastActionNumber());
+    }
+
+    public void testActionMaterInChunks() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(CoordMaterializeTransitionXCommand.CONF_MATERIALIZATION_INSERT_BATCH_SIZE, "2");
+        new Services().init();
+        assertNull(Services.get().get(CoordMaterializeTriggerService.class).getMaterializationExecutor());
+
+        Date startTime = DateUtils.parseDateOozieTZ("2013-07-18T00:00Z");
+        Date endTime = DateUtils.parseDateOozieTZ("2013-07-18T01:00Z");
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, startTime, endTime, null,
+                "10,20,30,40,50 * * * *");
+        new CoordMaterializeTransitionXCommand(job.getId(), 3600).call();
+        Date[] nominalTimes = new Date[] {DateUtils.parseDateOozieTZ("2013-07-18T00:10Z"),
+                DateUtils.parseDateOozieTZ("2013-07-18T00:20Z"), DateUtils.parseDateOozieTZ("2013-07-18T00:30Z"),
+                DateUtils.parseDateOozieTZ("2013-07-18T00:40Z"), DateUtils.parseDateOozieTZ("2013-07-18T00:50Z")};
+        checkCoordActionsNominalTime(job.getId(), 5, nominalTimes);
+        for (int i = 1; i <= nominalTimes.length; i++) {
+            checkCoordAction(job.getId() + "@" + i);
+        }
+
+        job = CoordJobQueryExecutor.getInstance().get(CoordJobQuery.GET_COORD_JOB, job.getId());
+        assertTrue(job.isDoneMaterialization());
+        assertEquals(5, job.getLastActionNumber());
+    }
+
     public void testActionMaterWithCronFrequency2() throws Exception {
         Date startTime = DateUtils.parseDateOozieTZ("2013-07-18T00:00Z");
         Date endTime = DateUtils.parseDateOozieTZ("2013-07-18T01:00Z");
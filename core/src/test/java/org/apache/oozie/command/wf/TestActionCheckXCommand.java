@@ -20,7 +20,9 @@ package org.apache.oozie.command.wf;
 
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.hadoop.fs.FileSystem;
@@ -325,6 +327,108 @@ public class TestActionCheckXCommand extends XDataTestCase {
         }
     }
 
+    private static class AdaptiveCheckActionExecutor extends ActionExecutor {
+        public static final String EXTERNAL_ID = "adaptive-external-id";
+        private static volatile boolean complete = false;
+
+        protected AdaptiveCheckActionExecutor() {
+            super("map-reduce");
+        }
+
+        @Override
+        public void start(Context context, WorkflowAction action) throws ActionExecutorException {
+            context.setStartData(EXTERNAL_ID, "tracker", "console");
+        }
+
+        @Override
+        public void end(Context context, WorkflowAction action) throws ActionExecutorException {}
+
+        @Override
+        public void check(Context context, WorkflowAction action) throws ActionExecutorException {
+            if (complete) {
+                context.setExecutionData("ok", null);
+            }
+        }
+
+        @Override
+        public void kill(Context context, WorkflowAction action) throws ActionExecutorException {}
+
+        @Override
+        public boolean isCompleted(String externalStatus) {
+            return false;
+        }
+    }
+
+    /**
+     * Test : the start of an action begins its chain of adaptive checks, which goes on while the action runs and
+     * stops once it completes or its external id changes.
+     *
+     * @throws Exception
+     */
+    public void testAdaptiveCheckChain() throws Exception {
+        setSystemProperty(ActionCheckerService.CONF_ADAPTIVE_ENABLED, "true");
+        services.destroy();
+        services = new Services();
+        services.init();
+        services.get(ActionService.class).registerAndInitExecutor(AdaptiveCheckActionExecutor.class);
+        AdaptiveCheckActionExecutor.complete = false;
+
+        WorkflowJobBean job = this.addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        WorkflowActionBean action = this.addRecordToWfActionTable(job.getId(), "1", WorkflowAction.Status.PREP);
+        final List<XCommand<?>> queued = new ArrayList<XCommand<?>>();
+        new ActionStartXCommand(action.getId(), "map-reduce") {
+            @Override
+            protected void queue(XCommand<?> command, long msDelay) {
+                queued.add(command);
+                super.queue(command, msDelay);
+            }
+        }.call();
+        assertEquals(1, countAdaptiveChecks(queued));
+
+        // the action keeps running, the check schedules the next one
+        queued.clear();
+        new QueueRecordingCheckXCommand(action.getId(), AdaptiveCheckActionExecutor.EXTERNAL_ID, queued).call();
+        assertEquals(1, countAdaptiveChecks(queued));
+
+        // the action was restarted with another external id, the chain of the previous one stops
+        queued.clear();
+        new QueueRecordingCheckXCommand(action.getId(), "previous-external-id", queued).call();
+        assertEquals(0, countAdaptiveChecks(queued));
+
+        // the action completed, the chain stops
+        AdaptiveCheckActionExecutor.complete = true;
+        queued.clear();
+        new QueueRecordingCheckXCommand(action.getId(), AdaptiveCheckActionExecutor.EXTERNAL_ID, queued).call();
+        assertEquals(0, countAdaptiveChecks(queued));
+        action = Services.get().get(JPAService.class).execute(new WorkflowActionGetJPAExecutor(action.getId()));
+        assertEquals("ok", action.getExternalStatus());
+    }
+
+    private static int countAdaptiveChecks(List<XCommand<?>> commands) {
+        int count = 0;
+        for (XCommand<?> command : commands) {
+            if (command instanceof ActionCheckXCommand && command.getKey().endsWith("_adaptive")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static class QueueRecordingCheckXCommand extends ActionCheckXCommand {
+        private final List<XCommand<?>> queued;
+
+        QueueRecordingCheckXCommand(String actionId, String externalId, List<XCommand<?>> queued) {
+            super(actionId, externalId);
+            this.queued = queued;
+        }
+
+        @Override
+        protected void queue(XCommand<?> command, long msDelay) {
+            queued.add(command);
+            super.queue(command, msDelay);
+        }
+    }
+
     public void testActionCheckErrorNoUserRetry() throws Exception {
         WorkflowActionBean action = _testActionCheckError();
         assertEquals(WorkflowAction.Status.FAILED, action.getStatus());
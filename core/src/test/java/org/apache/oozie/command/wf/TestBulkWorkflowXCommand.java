@@ -25,6 +25,7 @@ import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.executor.jpa.WorkflowActionQueryExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor;
+import org.apache.oozie.service.BulkOperationService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.workflow.WorkflowInstance;
@@ -96,6 +97,28 @@ public class TestBulkWorkflowXCommand extends XDataTestCase {
         verifyActionStatus(action2.getId(), WorkflowAction.Status.KILLED);
     }
 
+    public void testbulkWfKillAsync() throws Exception {
+        WorkflowJobBean job1 = this.addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        WorkflowJobBean job2 = this.addRecordToWfJobTable(WorkflowJob.Status.KILLED, WorkflowInstance.Status.KILLED);
+
+        Map<String, List<String>> map = new HashMap<String, List<String>>();
+        List<String> names = new ArrayList<String>();
+        names.add("testApp");
+        map.put("name", names);
+
+        BulkWorkflowXCommand command = new BulkWorkflowXCommand(map, 1, 50, OperationType.Kill, true);
+        assertEquals(2, command.call().getWorkflows().size());
+        BulkOperationService.Operation operation = command.getBulkOperation();
+        assertEquals(1, operation.getTotal());
+        assertEquals(job1.getId(), operation.getJobIds().get(0));
+        operation.join();
+        assertEquals("SUCCEEDED", operation.getStatus());
+        assertEquals(1, operation.getCompleted());
+        assertSame(operation, services.get(BulkOperationService.class).getOperation(operation.getId()));
+        verifyJobStatus(job1.getId(), WorkflowJob.Status.KILLED);
+        verifyJobStatus(job2.getId(), WorkflowJob.Status.KILLED);
+    }
+
     public void testbulkWfKillNoOp() throws Exception {
         WorkflowJobBean job1 = this.addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
         WorkflowActionBean action1 = this.addRecordToWfActionTable(job1.getId(), "1", WorkflowAction.Status.RUNNING);
@@ -106,6 +106,27 @@ public class TestCoordELEvaluator extends XTestCase {
         assertEquals(expr, CoordELFunctions.evalAndWrap(eval, expr));
     }
 
+    public void testCurrentConfigVariables() throws Exception {
+        Configuration conf = new XConfiguration(new StringReader(getConfString()));
+        CoordELEvaluator.ConfigVariables configVariables = new CoordELEvaluator.ConfigVariables(conf);
+        CoordELEvaluator.setCurrentConfigVariables(configVariables);
+        try {
+            // the variables are read once, the configuration is not read again for its evaluators
+            conf.set("start", "2010-01-01T00:00Z");
+            ELEvaluator eval = CoordELEvaluator.createELEvaluatorForGroup(conf, "coord-job-submit-freq");
+            assertEquals("2009-02-01T01:00Z", CoordELFunctions.evalAndWrap(eval, "${start}"));
+
+            // the variables are not used for another configuration
+            eval = CoordELEvaluator.createELEvaluatorForGroup(new XConfiguration(conf), "coord-job-submit-freq");
+            assertEquals("2010-01-01T00:00Z", CoordELFunctions.evalAndWrap(eval, "${start}"));
+        }
+        finally {
+            CoordELEvaluator.setCurrentConfigVariables(null);
+        }
+        ELEvaluator eval = CoordELEvaluator.createELEvaluatorForGroup(conf, "coord-job-submit-freq");
+        assertEquals("2010-01-01T00:00Z", CoordELFunctions.evalAndWrap(eval, "${start}"));
+    }
+
     public void testCreateURIELEvaluator() throws Exception {
         ELEvaluator eval = CoordELEvaluator
                 .createURIELEvaluator("2009-08-09T23:59Z");
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.dependency.fs;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.test.XTestCase;
+
+public class TestHDFSInotifyEventSource extends XTestCase {
+
+    private static final String NAMENODE = "hdfs://nn1.domain.com:8020";
+
+    private TestEventSource eventSource;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        eventSource = new TestEventSource();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        eventSource.destroy();
+        super.tearDown();
+    }
+
+    private void init(long retryInterval) {
+        Configuration conf = new Configuration(false);
+        conf.setLong(HDFSInotifyEventSource.POLL_TIMEOUT, 1);
+        conf.setLong(HDFSInotifyEventSource.RETRY_INTERVAL, retryInterval);
+        eventSource.init(conf);
+    }
+
+    public void testSupportedOnceStreamOpened() throws Exception {
+        init(60);
+        assertTrue(eventSource.isSupported(new URI(NAMENODE + "/data/2016/01/01/_SUCCESS")));
+        assertTrue(eventSource.isWatching(NAMENODE));
+        // The stream is opened once per NameNode
+        assertTrue(eventSource.isSupported(new URI(NAMENODE + "/data/2016/01/02/_SUCCESS")));
+        assertEquals(1, eventSource.opened.get());
+
+        assertFalse(eventSource.isSupported(new URI("file:///data/2016/01/01/_SUCCESS")));
+        assertFalse(eventSource.isSupported(new URI("hdfs:///data/2016/01/01/_SUCCESS")));
+    }
+
+    public void testNotSupportedIfStreamCannotBeOpened() throws Exception {
+        eventSource.failOpen = true;
+        init(60);
+        URI uri = new URI(NAMENODE + "/data/2016/01/01/_SUCCESS");
+        assertFalse(eventSource.isSupported(uri));
+        assertFalse(eventSource.isWatching(NAMENODE));
+        // Not opened again before the retry interval
+        assertFalse(eventSource.isSupported(uri));
+        assertEquals(1, eventSource.opened.get());
+    }
+
+    public void testRetriedAfterRetryInterval() throws Exception {
+        eventSource.failOpen = true;
+        init(0);
+        URI uri = new URI(NAMENODE + "/data/2016/01/01/_SUCCESS");
+        assertFalse(eventSource.isSupported(uri));
+        eventSource.failOpen = false;
+        assertTrue(eventSource.isSupported(uri));
+        assertTrue(eventSource.isWatching(NAMENODE));
+        assertEquals(2, eventSource.opened.get());
+    }
+
+    public void testInotifyNotAvailable() throws Exception {
+        eventSource.available = false;
+        init(60);
+        assertFalse(eventSource.isSupported(new URI(NAMENODE + "/data/2016/01/01/_SUCCESS")));
+        assertEquals(0, eventSource.opened.get());
+    }
+
+    private static class TestEventSource extends HDFSInotifyEventSource {
+        private volatile boolean available = true;
+        private volatile boolean failOpen = false;
+        private final AtomicInteger opened = new AtomicInteger();
+
+        @Override
+        protected boolean isInotifyAvailable() {
+            return available;
+        }
+
+        @Override
+        protected Object openStream(String nameNode, long lastReadTxid) throws Exception {
+            opened.incrementAndGet();
+            if (failOpen) {
+                throw new IOException("Access denied for user oozie. Superuser privilege is required");
+            }
+            return new FakeStream();
+        }
+    }
+
+    public static class FakeStream {
+        public Object poll(long time, TimeUnit unit) throws InterruptedException {
+            unit.sleep(time);
+            return null;
+        }
+    }
+}
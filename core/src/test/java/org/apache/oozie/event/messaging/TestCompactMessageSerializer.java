@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.event.messaging;
+
+import java.util.Date;
+
+import org.apache.oozie.AppType;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.event.JobEvent.EventStatus;
+import org.apache.oozie.client.event.SLAEvent;
+import org.apache.oozie.client.event.jms.CompactMessageDeserializer;
+import org.apache.oozie.client.event.jms.JSONMessageDeserializer;
+import org.apache.oozie.client.event.message.CoordinatorActionMessage;
+import org.apache.oozie.client.event.message.EventMessage;
+import org.apache.oozie.client.event.message.SLAMessage;
+import org.apache.oozie.client.event.message.WorkflowJobMessage;
+import org.apache.oozie.test.XTestCase;
+
+public class TestCompactMessageSerializer extends XTestCase {
+
+    private final CompactMessageSerializer compact = new CompactMessageSerializer();
+    private final JSONMessageSerializer json = new JSONMessageSerializer();
+
+    private WorkflowJobMessage createWorkflowJobMessage() {
+        return new WorkflowJobMessage(EventStatus.FAILURE, "0000012-140101000000000-oozie-oozi-W",
+                "0000011-140101000000000-oozie-oozi-C@12", new Date(1388534400000L), new Date(1388538000000L),
+                WorkflowJob.Status.FAILED, "user1", "wf-app-name1", "JA018", "Main class exit code [1]");
+    }
+
+    public void testWorkflowJobMessage() {
+        WorkflowJobMessage msg = createWorkflowJobMessage();
+        WorkflowJobMessage decoded = new CompactMessageDeserializer().getDeserializedObject(
+                compact.getSerializedBytes(msg), WorkflowJobMessage.class);
+        assertEquals(msg.getId(), decoded.getId());
+        assertEquals(msg.getParentId(), decoded.getParentId());
+        assertEquals(msg.getStartTime(), decoded.getStartTime());
+        assertEquals(msg.getEndTime(), decoded.getEndTime());
+        assertEquals(WorkflowJob.Status.FAILED, decoded.getStatus());
+        assertEquals("JA018", decoded.getErrorCode());
+        assertEquals("Main class exit code [1]", decoded.getErrorMessage());
+    }
+
+    public void testCoordinatorActionMessageWithNulls() {
+        CoordinatorActionMessage msg = new CoordinatorActionMessage(EventStatus.WAITING,
+                "0000011-140101000000000-oozie-oozi-C@12", "0000011-140101000000000-oozie-oozi-C",
+                new Date(1388534400000L), null, new Date(1388534400000L), CoordinatorAction.Status.WAITING, "user1",
+                "coord-app-name1", "hdfs://nn/data/2014/01/01/_SUCCESS", null, null);
+        CoordinatorActionMessage decoded = new CompactMessageDeserializer().getDeserializedObject(
+                compact.getSerializedBytes(msg), CoordinatorActionMessage.class);
+        assertEquals(msg.getId(), decoded.getId());
+        assertEquals(msg.getParentId(), decoded.getParentId());
+        assertEquals(msg.getStartTime(), decoded.getStartTime());
+        assertNull(decoded.getEndTime());
+        assertEquals(msg.getNominalTime(), decoded.getNominalTime());
+        assertEquals(CoordinatorAction.Status.WAITING, decoded.getStatus());
+        assertEquals(msg.getMissingDependency(), decoded.getMissingDependency());
+        assertNull(decoded.getErrorCode());
+        assertNull(decoded.getErrorMessage());
+    }
+
+    public void testSLAMessage() {
+        SLAMessage msg = new SLAMessage(SLAEvent.EventStatus.END_MISS, SLAEvent.SLAStatus.MISS,
+                AppType.WORKFLOW_JOB, "wf-app-name1", "user1", "0000012-140101000000000-oozie-oozi-W", null,
+                new Date(1388534400000L), new Date(1388534400000L), new Date(1388534460000L),
+                new Date(1388538000000L), null, 3600000L, -1L, "notification", "upstream");
+        SLAMessage decoded = new CompactMessageDeserializer().getDeserializedObject(compact.getSerializedBytes(msg),
+                SLAMessage.class);
+        assertEquals(msg.getId(), decoded.getId());
+        assertNull(decoded.getParentId());
+        assertEquals(msg.getNominalTime(), decoded.getNominalTime());
+        assertEquals(msg.getExpectedStartTime(), decoded.getExpectedStartTime());
+        assertEquals(msg.getActualStartTime(), decoded.getActualStartTime());
+        assertEquals(msg.getExpectedEndTime(), decoded.getExpectedEndTime());
+        assertNull(decoded.getActualEndTime());
+        assertEquals(3600000L, decoded.getExpectedDuration());
+        assertEquals(-1L, decoded.getActualDuration());
+        assertEquals("notification", decoded.getNotificationMessage());
+        assertEquals("upstream", decoded.getUpstreamApps());
+    }
+
+    public void testWrongMessageClass() {
+        byte[] body = compact.getSerializedBytes(createWorkflowJobMessage());
+        try {
+            new CompactMessageDeserializer().getDeserializedObject(body, SLAMessage.class);
+            fail("Expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            new CompactMessageDeserializer().getDeserializedObject(new byte[] { 1, 2 }, WorkflowJobMessage.class);
+            fail("Expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    public void testSameMessageAsJson() {
+        EventMessage msg = createWorkflowJobMessage();
+        byte[] compactBody = compact.getSerializedBytes(msg);
+        String jsonBody = json.getSerializedObject(msg);
+        assertTrue(compactBody.length < jsonBody.getBytes().length);
+
+        // user, application name and event status are message properties, not part of the JSON body
+        WorkflowJobMessage fromJson = new JSONMessageDeserializer().getDeserializedObject(jsonBody,
+                WorkflowJobMessage.class);
+        WorkflowJobMessage fromCompact = new CompactMessageDeserializer().getDeserializedObject(compactBody,
+                WorkflowJobMessage.class);
+        assertEquals(fromJson.getId(), fromCompact.getId());
+        assertEquals(fromJson.getParentId(), fromCompact.getParentId());
+        assertEquals(fromJson.getStartTime(), fromCompact.getStartTime());
+        assertEquals(fromJson.getEndTime(), fromCompact.getEndTime());
+        assertEquals(fromJson.getStatus(), fromCompact.getStatus());
+        assertEquals(fromJson.getErrorCode(), fromCompact.getErrorCode());
+        assertEquals(fromJson.getErrorMessage(), fromCompact.getErrorMessage());
+    }
+}
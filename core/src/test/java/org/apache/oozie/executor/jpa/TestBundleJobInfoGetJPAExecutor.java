@@ -36,6 +36,7 @@ import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.JobsCursor;
 
 public class TestBundleJobInfoGetJPAExecutor extends XDataTestCase {
     Services services;
@@ -366,6 +367,35 @@ public class TestBundleJobInfoGetJPAExecutor extends XDataTestCase {
         compareBundleJobs(bundleJob1, ret.getBundleJobs().get(0));
     }
 
+    public void testBundleJobsCursor() throws Exception {
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 5; i++) {
+            BundleJobBean bundleJob = addRecordToBundleJobTable(Job.Status.RUNNING, false);
+            // the first two jobs have no creation time
+            bundleJob.setCreatedTime((i >= 2) ? DateUtils.parseDateUTC("2012-01-0" + (i + 1) + "T10:00Z") : null);
+            BundleJobQueryExecutor.getInstance().executeUpdate(BundleJobQueryExecutor.BundleJobQuery.UPDATE_BUNDLE_JOB,
+                    bundleJob);
+            ids.add(bundleJob.getId());
+        }
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        Map<String, List<String>> filter = new HashMap<String, List<String>>();
+        List<String> listed = new ArrayList<String>();
+        JobsCursor cursor = JobsCursor.START;
+        do {
+            BundleJobInfo ret = jpaService.execute(new BundleJobInfoGetJPAExecutor(filter, cursor, 2, true));
+            assertEquals(5, ret.getTotal());
+            for (BundleJobBean bean : ret.getBundleJobs()) {
+                listed.add(bean.getId());
+            }
+            cursor = (ret.getNextCursor() == null) ? null : JobsCursor.parse(ret.getNextCursor().toString());
+        } while (cursor != null);
+        // the jobs without creation time come last, by descending id
+        String first = (ids.get(0).compareTo(ids.get(1)) > 0) ? ids.get(0) : ids.get(1);
+        String last = (first.equals(ids.get(0))) ? ids.get(1) : ids.get(0);
+        assertEquals(Arrays.asList(ids.get(4), ids.get(3), ids.get(2), first, last), listed);
+    }
+
     private void compareBundleJobs(BundleJobBean bundleJobBean, BundleJobBean retBundleJobBean) {
         assertEquals(bundleJobBean.getId(), retBundleJobBean.getId());
         assertEquals(bundleJobBean.getCreatedTime(), retBundleJobBean.getCreatedTime());
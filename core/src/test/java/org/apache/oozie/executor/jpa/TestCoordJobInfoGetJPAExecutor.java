@@ -35,6 +35,7 @@ import org.apache.oozie.service.Services;
 import org.apache.oozie.store.StoreStatusFilter;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.ErrorCode;
 
 public class TestCoordJobInfoGetJPAExecutor extends XDataTestCase {
@@ -452,6 +453,51 @@ public class TestCoordJobInfoGetJPAExecutor extends XDataTestCase {
         compareCoordJobs(coordinatorJob1, ret.getCoordJobs().get(0));
     }
 
+    public void testCoordJobsCursor() throws Exception {
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 5; i++) {
+            CoordinatorJobBean coordJob = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+            // the last two jobs have no modification time
+            coordJob.setLastModifiedTime((i < 3) ? DateUtils.parseDateUTC("2012-01-0" + (i + 1) + "T10:00Z") : null);
+            CoordJobQueryExecutor.getInstance().executeUpdate(CoordJobQueryExecutor.CoordJobQuery.UPDATE_COORD_JOB,
+                    coordJob);
+            ids.add(coordJob.getId());
+        }
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        Map<String, List<String>> filter = new HashMap<String, List<String>>();
+        filter.put(OozieClient.FILTER_SORT_BY, new ArrayList<String>(Arrays.asList("lastModifiedTime")));
+        List<String> listed = new ArrayList<String>();
+        JobsCursor cursor = JobsCursor.START;
+        int pages = 0;
+        do {
+            CoordinatorJobInfo ret = jpaService.execute(new CoordJobInfoGetJPAExecutor(filter, cursor, 2, false));
+            assertEquals(-1, ret.getTotal());
+            for (CoordinatorJobBean bean : ret.getCoordJobs()) {
+                listed.add(bean.getId());
+            }
+            cursor = (ret.getNextCursor() == null) ? null : JobsCursor.parse(ret.getNextCursor().toString());
+            pages++;
+        } while (cursor != null);
+        // the jobs without modification time come last, by descending id
+        String first = (ids.get(3).compareTo(ids.get(4)) > 0) ? ids.get(3) : ids.get(4);
+        String last = (first.equals(ids.get(3))) ? ids.get(4) : ids.get(3);
+        assertEquals(Arrays.asList(ids.get(2), ids.get(1), ids.get(0), first, last), listed);
+        assertEquals(3, pages);
+
+        // a cursor is only valid with the sort column it was returned for
+        filter.clear();
+        try {
+            jpaService.execute(new CoordJobInfoGetJPAExecutor(filter,
+                    JobsCursor.after(OozieClient.SORT_BY.lastModifiedTime.getFullname(), new Date(), ids.get(0)), 2,
+                    false));
+            fail();
+        }
+        catch (JPAExecutorException ex) {
+            assertEquals(ErrorCode.E0302, ex.getErrorCode());
+        }
+    }
+
     private void compareCoordJobs(CoordinatorJobBean coordBean, CoordinatorJobBean retCoordBean) {
         assertEquals(coordBean.getId(), retCoordBean.getId());
         assertEquals(coordBean.getStatusStr(), retCoordBean.getStatusStr());
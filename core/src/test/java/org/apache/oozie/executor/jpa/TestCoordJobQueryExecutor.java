@@ -306,6 +306,41 @@ public class TestCoordJobQueryExecutor extends XDataTestCase {
         assertEquals(bean2.getStatus(), retBeans.get(1).getStatus());
     }
 
+    public void testGetListOlderForMaterialization() throws Exception {
+        long now = System.currentTimeMillis();
+        Date end = new Date(now + 5 * 3600 * 1000);
+        CoordinatorJobBean bean1 = createCoordJob(CoordinatorJob.Status.RUNNING, new Date(now - 5 * 3600 * 1000), end,
+                false, false, 1);
+        bean1.setNextMaterializedTime(new Date(now - 3600 * 1000));
+        CoordJobQueryExecutor.getInstance().insert(bean1);
+        // not materialized yet, due at its start time
+        CoordinatorJobBean bean2 = createCoordJob(CoordinatorJob.Status.PREP, new Date(now - 90 * 60 * 1000), end,
+                false, false, 0);
+        CoordJobQueryExecutor.getInstance().insert(bean2);
+        CoordinatorJobBean bean3 = createCoordJob(CoordinatorJob.Status.RUNNING, new Date(now - 10 * 3600 * 1000), end,
+                false, false, 1);
+        bean3.setNextMaterializedTime(new Date(now - 2 * 3600 * 1000));
+        CoordJobQueryExecutor.getInstance().insert(bean3);
+
+        // GET_COORD_JOBS_OLDER_FOR_MATERIALIZATION, ordered by next materialized time or start time
+        List<CoordinatorJobBean> retBeans = CoordJobQueryExecutor.getInstance().getList(
+                CoordJobQuery.GET_COORD_JOBS_OLDER_FOR_MATERIALIZATION, new Date(now), 0);
+        assertEquals(3, retBeans.size());
+        assertEquals(bean3.getId(), retBeans.get(0).getId());
+        assertEquals(bean3.getNextMaterializedTime(), retBeans.get(0).getNextMaterializedTime());
+        assertEquals(bean3.getStartTime(), retBeans.get(0).getStartTime());
+        assertEquals(bean2.getId(), retBeans.get(1).getId());
+        assertNull(retBeans.get(1).getNextMaterializedTime());
+        assertEquals(bean1.getId(), retBeans.get(2).getId());
+
+        // the limit keeps the most overdue jobs
+        retBeans = CoordJobQueryExecutor.getInstance().getList(
+                CoordJobQuery.GET_COORD_JOBS_OLDER_FOR_MATERIALIZATION, new Date(now), 2);
+        assertEquals(2, retBeans.size());
+        assertEquals(bean3.getId(), retBeans.get(0).getId());
+        assertEquals(bean2.getId(), retBeans.get(1).getId());
+    }
+
     public void testInsert() throws Exception {
         CoordinatorJobBean bean = new CoordinatorJobBean();
         bean.setId("test-oozie");
@@ -21,6 +21,7 @@ package org.apache.oozie.executor.jpa;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -36,6 +37,7 @@ import org.apache.oozie.service.LiteWorkflowStoreService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.workflow.WorkflowApp;
 import org.apache.oozie.workflow.WorkflowInstance;
 import org.apache.oozie.workflow.lite.LiteWorkflowApp;
@@ -115,6 +117,46 @@ public class TestWorkflowsJobGetJPAExecutor extends XDataTestCase {
         assertEquals(wfBean.getParentId(), retBean.getParentId());
     }
 
+    public void testWfJobsCursor() throws Exception {
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 7; i++) {
+            WorkflowJobBean workflowJob = addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
+            // pairs of jobs created at the same time, ordered by id
+            workflowJob.setCreatedTime(DateUtils.parseDateUTC("2012-01-0" + (1 + i / 2) + "T10:00Z"));
+            WorkflowJobQueryExecutor.getInstance().executeUpdate(WorkflowJobQuery.UPDATE_WORKFLOW, workflowJob);
+            ids.add(workflowJob.getId());
+        }
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        Map<String, List<String>> filter = new HashMap<String, List<String>>();
+        List<String> listed = new ArrayList<String>();
+        JobsCursor cursor = JobsCursor.START;
+        int pages = 0;
+        do {
+            WorkflowsInfo wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, cursor, 3, false));
+            assertEquals(-1, wfInfo.getTotal());
+            assertTrue(wfInfo.getWorkflows().size() <= 3);
+            for (WorkflowJobBean bean : wfInfo.getWorkflows()) {
+                listed.add(bean.getId());
+            }
+            cursor = (wfInfo.getNextCursor() == null) ? null : JobsCursor.parse(wfInfo.getNextCursor().toString());
+            pages++;
+        } while (cursor != null);
+        assertEquals(3, pages);
+        assertEquals(7, listed.size());
+        assertEquals(7, new HashSet<String>(listed).size());
+        assertTrue(listed.containsAll(ids));
+        for (int i = 1; i < listed.size(); i++) {
+            int previous = ids.indexOf(listed.get(i - 1));
+            int current = ids.indexOf(listed.get(i));
+            assertTrue(previous / 2 > current / 2 || (previous / 2 == current / 2
+                    && listed.get(i - 1).compareTo(listed.get(i)) > 0));
+        }
+
+        WorkflowsInfo wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, JobsCursor.START, 3, true));
+        assertEquals(7, wfInfo.getTotal());
+    }
+
     public void testWfJobsSortBy() throws Exception {
         WorkflowJobBean workflowJob1 = addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
         WorkflowJobBean workflowJob2 = addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
@@ -22,6 +22,8 @@ import java.text.ParseException;
 import java.util.Date;
 import java.util.Random;
 
+import javax.jms.BytesMessage;
+import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.Session;
 import javax.jms.TextMessage;
@@ -38,6 +40,8 @@ import org.apache.oozie.client.event.jms.JMSHeaderConstants;
 import org.apache.oozie.client.event.message.CoordinatorActionMessage;
 import org.apache.oozie.client.event.message.WorkflowJobMessage;
 import org.apache.oozie.event.*;
+import org.apache.oozie.event.messaging.CompactMessageSerializer;
+import org.apache.oozie.event.messaging.MessageFactory;
 import org.apache.oozie.jms.ConnectionContext;
 import org.apache.oozie.jms.JMSConnectionInfo;
 import org.apache.oozie.jms.JMSJobEventListener;
@@ -567,6 +571,44 @@ public class TestJMSJobEventListener extends XTestCase {
         }
     }
 
+    @Test
+    public void testCompactMessageFormat() throws ParseException {
+        JMSJobEventListener wfEventListener = new JMSJobEventListener();
+        wfEventListener.init(conf);
+        Date startDate = DateUtils.parseDateUTC("2012-07-22T00:00Z");
+        WorkflowJobEvent wfe = new WorkflowJobEvent("wfId1", "caId1", WorkflowJob.Status.RUNNING, "user1",
+                "wf-app-name1", startDate, null);
+        ConnectionContext jmsContext = getConnectionContext();
+        try {
+            Session session = jmsContext.createSession(Session.AUTO_ACKNOWLEDGE);
+            MessageConsumer consumer = jmsContext.createConsumer(session, wfEventListener.getTopic(wfe));
+            WorkflowJobMessage wfJobMessage = MessageFactory.createWorkflowJobMessage(wfe);
+            CompactMessageSerializer serializer = new CompactMessageSerializer();
+            byte[] body = serializer.getSerializedBytes(wfJobMessage);
+            wfEventListener.sendMessage(wfJobMessage.getMessageProperties(), body, wfEventListener.getTopic(wfe),
+                    serializer.getMessageFormat());
+            Message message = consumer.receive(5000);
+            assertTrue(message instanceof BytesMessage);
+            assertEquals(CompactMessageSerializer.MESSAGE_FORMAT,
+                    message.getStringProperty(JMSHeaderConstants.MESSAGE_FORMAT));
+            WorkflowJobMessage wfStartMessage = JMSMessagingUtils.getEventMessage(message);
+            assertEquals(WorkflowJob.Status.RUNNING, wfStartMessage.getStatus());
+            assertEquals(startDate, wfStartMessage.getStartTime());
+            assertNull(wfStartMessage.getEndTime());
+            assertEquals("wfId1", wfStartMessage.getId());
+            assertEquals("caId1", wfStartMessage.getParentId());
+            assertEquals(AppType.WORKFLOW_JOB, wfStartMessage.getAppType());
+            assertEquals(EventStatus.STARTED, wfStartMessage.getEventStatus());
+            assertEquals("user1", wfStartMessage.getUser());
+            assertEquals("wf-app-name1", wfStartMessage.getAppName());
+            wfEventListener.destroy();
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
     private ConnectionContext getConnectionContext() {
         Configuration conf = services.getConf();
         String jmsProps = conf.get(JMSJobEventListener.JMS_CONNECTION_PROPERTIES);
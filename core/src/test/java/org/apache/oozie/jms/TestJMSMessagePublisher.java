@@ -0,0 +1,240 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.jms;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.client.event.jms.CompactMessageDeserializer;
+import org.apache.oozie.client.event.jms.JMSHeaderConstants;
+import org.apache.oozie.event.messaging.CompactMessageSerializer;
+import org.apache.oozie.event.messaging.JSONMessageSerializer;
+import org.apache.oozie.event.messaging.MessageSerializer;
+import org.apache.oozie.service.JMSAccessorService;
+import org.apache.oozie.service.JMSTopicService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XTestCase;
+
+public class TestJMSMessagePublisher extends XTestCase {
+    private static final String TOPIC = "publisher-test";
+    private static final Map<String, String> PROPERTIES = Collections.singletonMap(JMSHeaderConstants.USER, "user1");
+
+    private Services services;
+    private JMSConnectionInfo connInfo;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        Configuration conf = services.getConf();
+        conf.set(Services.CONF_SERVICE_EXT_CLASSES,
+                JMSAccessorService.class.getName() + "," + JMSTopicService.class.getName());
+        String jmsProps = "java.naming.factory.initial#" + ActiveMQConnFactory + ";" + "java.naming.provider.url#"
+                + localActiveMQBroker + ";connectionFactoryNames#" + "ConnectionFactory";
+        conf.set(JMSJobEventListener.JMS_CONNECTION_PROPERTIES, jmsProps);
+        services.init();
+        connInfo = new JMSConnectionInfo(jmsProps);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private JMSMessagePublisher createPublisher(int batchSize, long batchInterval) {
+        return new JMSMessagePublisher(services.get(JMSAccessorService.class), connInfo, Session.AUTO_ACKNOWLEDGE,
+                DeliveryMode.NON_PERSISTENT, 0, batchSize, batchInterval);
+    }
+
+    private MessageConsumer createConsumer() throws Exception {
+        ConnectionContext jmsContext = services.get(JMSAccessorService.class).createProducerConnectionContext(connInfo);
+        Session session = jmsContext.createSession(Session.AUTO_ACKNOWLEDGE);
+        return jmsContext.createConsumer(session, TOPIC);
+    }
+
+    public void testUnbatchedPublish() throws Exception {
+        JMSMessagePublisher publisher = createPublisher(1, 1000);
+        MessageConsumer consumer = createConsumer();
+        assertTrue(publisher.publish(TOPIC, "m1", PROPERTIES));
+        TextMessage message = (TextMessage) consumer.receive(5000);
+        assertEquals("m1", message.getText());
+        assertEquals("user1", message.getStringProperty(JMSHeaderConstants.USER));
+        assertEquals(0, publisher.getPending());
+        publisher.close();
+    }
+
+    public void testUnbatchedPublishSessionPerThread() throws Exception {
+        final JMSMessagePublisher publisher = createPublisher(1, 1000);
+        MessageConsumer consumer = createConsumer();
+        final AtomicInteger published = new AtomicInteger();
+        Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            final String body = "m" + i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        if (publisher.publish(TOPIC, body, PROPERTIES)) {
+                            published.incrementAndGet();
+                        }
+                    }
+                    catch (JMSException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threads.length, published.get());
+        // the sending threads do not share a session, they do not wait on each other
+        assertEquals(threads.length, publisher.getThreadSessionCount());
+        Set<String> received = new HashSet<String>();
+        for (int i = 0; i < threads.length; i++) {
+            received.add(((TextMessage) consumer.receive(5000)).getText());
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("m0", "m1", "m2")), received);
+        publisher.close();
+        assertEquals(0, publisher.getThreadSessionCount());
+        assertFalse(publisher.publish(TOPIC, "m3", PROPERTIES));
+        consumer.close();
+    }
+
+    public void testBatchCommittedOnBatchSize() throws Exception {
+        JMSMessagePublisher publisher = createPublisher(5, 60 * 1000);
+        MessageConsumer consumer = createConsumer();
+        for (int i = 0; i < 4; i++) {
+            publisher.publish(TOPIC, "m" + i, PROPERTIES);
+        }
+        assertEquals(4, publisher.getPending());
+        assertNull(consumer.receive(500));
+        publisher.publish(TOPIC, "m4", PROPERTIES);
+        assertEquals(0, publisher.getPending());
+        for (int i = 0; i < 5; i++) {
+            TextMessage message = (TextMessage) consumer.receive(5000);
+            assertEquals("m" + i, message.getText());
+        }
+        publisher.close();
+    }
+
+    public void testBatchCommittedOnInterval() throws Exception {
+        JMSMessagePublisher publisher = createPublisher(100, 200);
+        MessageConsumer consumer = createConsumer();
+        publisher.publish(TOPIC, "m1", PROPERTIES);
+        TextMessage message = (TextMessage) consumer.receive(5000);
+        assertEquals("m1", message.getText());
+        assertEquals(0, publisher.getPending());
+        publisher.close();
+    }
+
+    public void testCloseCommitsPendingMessages() throws Exception {
+        JMSMessagePublisher publisher = createPublisher(100, 60 * 1000);
+        MessageConsumer consumer = createConsumer();
+        publisher.publish(TOPIC, "m1", PROPERTIES);
+        assertTrue(publisher.isFlushScheduled());
+        publisher.close();
+        assertFalse(publisher.isFlushScheduled());
+        assertEquals(0, publisher.getPending());
+        TextMessage message = (TextMessage) consumer.receive(5000);
+        assertEquals("m1", message.getText());
+        assertFalse(publisher.publish(TOPIC, "m2", PROPERTIES));
+    }
+
+    public void testUnbatchedPublisherHasNoScheduledFlush() throws Exception {
+        JMSMessagePublisher publisher = createPublisher(1, 1000);
+        assertFalse(publisher.isFlushScheduled());
+        publisher.close();
+    }
+
+    public void testPublishManyBatches() throws Exception {
+        JMSMessagePublisher publisher = createPublisher(100, 60 * 1000);
+        MessageConsumer consumer = createConsumer();
+        for (int i = 0; i < 250; i++) {
+            assertTrue(publisher.publish(TOPIC, "m" + i, PROPERTIES));
+        }
+        // two full batches are committed, the last one waits for the flush
+        assertEquals(50, publisher.getPending());
+        for (int i = 0; i < 200; i++) {
+            assertEquals("m" + i, ((TextMessage) consumer.receive(5000)).getText());
+        }
+        assertNull(consumer.receive(500));
+        publisher.flush();
+        assertEquals(0, publisher.getPending());
+        for (int i = 200; i < 250; i++) {
+            assertEquals("m" + i, ((TextMessage) consumer.receive(5000)).getText());
+        }
+        publisher.close();
+        consumer.close();
+    }
+
+    public void testCheckSerializer() throws Exception {
+        JMSMessagePublisher.checkSerializer(new JSONMessageSerializer());
+        JMSMessagePublisher.checkSerializer(new CompactMessageSerializer());
+        try {
+            JMSMessagePublisher.checkSerializer(new MessageSerializer() {
+                @Override
+                public String getSerializedObject(Object object) {
+                    return object.toString();
+                }
+
+                @Override
+                public String getMessageFormat() {
+                    return "broken";
+                }
+
+                @Override
+                public boolean isBinary() {
+                    return true;
+                }
+            });
+            fail("Expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException ex) {
+            // expected, the binary serializer does not implement getSerializedBytes
+        }
+
+        // a binary deserializer rejects text messages
+        ConnectionContext jmsContext = services.get(JMSAccessorService.class).createProducerConnectionContext(connInfo);
+        Session session = jmsContext.createSession(Session.AUTO_ACKNOWLEDGE);
+        TextMessage message = session.createTextMessage("{}");
+        message.setStringProperty(JMSHeaderConstants.MESSAGE_FORMAT, CompactMessageSerializer.MESSAGE_FORMAT);
+        try {
+            new CompactMessageDeserializer().getEventMessage(message);
+            fail("Expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException ex) {
+            // expected
+        }
+        session.close();
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.apache.oozie.lock;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -428,6 +430,81 @@ public class TestMemoryLocks extends XTestCase {
         assertTrue(oldHash == newHash);
     }
 
+    public void testResourceType() {
+        assertEquals("workflow", MemoryLocks.getResourceType("0000001-160101000000000-oozie-test-W"));
+        assertEquals("coordinator", MemoryLocks.getResourceType("0000001-160101000000000-oozie-test-C"));
+        assertEquals("bundle", MemoryLocks.getResourceType("0000001-160101000000000-oozie-test-B"));
+        assertEquals("workflow-action", MemoryLocks.getResourceType("0000001-160101000000000-oozie-test-W@java"));
+        assertEquals("coordinator-action", MemoryLocks.getResourceType("0000001-160101000000000-oozie-test-C@12"));
+        assertEquals("other", MemoryLocks.getResourceType("org.apache.oozie.service.StatusTransitService"));
+    }
+
+    public void testUnfairTypes() throws InterruptedException {
+        locks = new MemoryLocks(Collections.singleton(MemoryLocks.TYPE_COORDINATOR), 10);
+        String coordId = "0000001-160101000000000-oozie-test-C";
+        String wfId = "0000001-160101000000000-oozie-test-W";
+        locks.getLock(coordId, Type.WRITE, 0).release();
+        locks.getLock(wfId, Type.WRITE, 0).release();
+        assertFalse(locks.getLockMap().get(coordId).isFair());
+        assertTrue(locks.getLockMap().get(wfId).isFair());
+    }
+
+    public void testContentionSampled() throws InterruptedException {
+        locks = new MemoryLocks(Collections.<String>emptySet(), 2);
+        String[] resources = {"a", "b", "c"};
+        long[] waits = {200, 100, 50};
+        for (int i = 0; i < resources.length; i++) {
+            final String resource = resources[i];
+            final MemoryLocks.MemoryLockToken token = locks.getLock(resource, Type.WRITE, -1);
+            final long wait = waits[i];
+            Thread releaser = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(wait);
+                    }
+                    catch (InterruptedException ex) {
+                    }
+                    token.release();
+                }
+            };
+            releaser.start();
+            // waits on the lock until the other thread releases it
+            Thread waiter = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        locks.getLock(resource, Type.READ, -1).release();
+                    }
+                    catch (InterruptedException ex) {
+                    }
+                }
+            };
+            waiter.start();
+            waiter.join();
+            releaser.join();
+        }
+        // uncontended locks are not sampled
+        locks.getLock("d", Type.WRITE, 0).release();
+        assertEquals(3, locks.getContention().getContendedCount());
+        List<LockContention.Contention> contended = locks.getContention().getMostContended(10);
+        // bounded to 2 resources, the least recently contended one was dropped
+        assertEquals(2, contended.size());
+        assertEquals("b", contended.get(0).getResource());
+        assertEquals("c", contended.get(1).getResource());
+        assertEquals(1, contended.get(0).getWaits());
+        assertEquals(0, contended.get(0).getTimeouts());
+        assertTrue(contended.get(0).getMaxWaitTime() >= contended.get(1).getMaxWaitTime());
+        assertEquals(1, locks.getContention().getMostContended(1).size());
+        try {
+            locks.getContention().getMostContended(-1);
+            fail("negative len must be rejected");
+        }
+        catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
     private void checkLockRelease(String path, MemoryLocksService lockService) {
         if (lockService.getMemoryLocks().getLockMap().get(path) == null) {
             // good lock is removed from memory after gc.
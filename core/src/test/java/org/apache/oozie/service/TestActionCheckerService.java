@@ -46,6 +46,7 @@ import org.apache.oozie.service.Services;
 import org.apache.oozie.service.ActionService;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.IOUtils;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.workflow.WorkflowInstance;
@@ -250,5 +251,62 @@ public class TestActionCheckerService extends XDataTestCase {
         assertEquals(CoordinatorAction.Status.SUCCEEDED, recoveredAction.getStatus());
     }
 
+    /**
+     * Tests the delays of adaptive checks, before and after the duration learned from the previous runs of an action,
+     * and the detection lag variables.
+     *
+     * @throws Exception
+     */
+    public void testAdaptiveCheckDelay() throws Exception {
+        services.getConf().setBoolean(ActionCheckerService.CONF_ADAPTIVE_ENABLED, true);
+        services.getConf().setInt(ActionCheckerService.CONF_ADAPTIVE_MIN_DELAY, 5);
+        services.getConf().setInt(ActionCheckerService.CONF_ADAPTIVE_MAX_DELAY, 300);
+        ActionCheckerService checker = new ActionCheckerService();
+        checker.init(services);
+        Instrumentation instr = new Instrumentation();
+        checker.instrument(instr);
+        assertTrue(checker.isAdaptive());
+
+        WorkflowJobBean job = new WorkflowJobBean();
+        job.setAppPath("hdfs://nn/app");
+        long now = System.currentTimeMillis();
+
+        // no previous runs, backs off with the time the action has been running for, between min and max delay
+        assertEquals(5000, checker.getCheckDelay(job, createAction("1", now, null)));
+        long delay = checker.getCheckDelay(job, createAction("1", now - 40 * 1000, null));
+        assertTrue(delay >= 40 * 1000 && delay < 45 * 1000);
+        assertEquals(300 * 1000, checker.getCheckDelay(job, createAction("1", now - 1000 * 1000, null)));
+
+        // completion detected by a check, 10 seconds after the previous one, the action took 55 seconds
+        checker.actionCompleted(job, createAction("1", now - 60 * 1000, new Date(now - 10 * 1000)));
+        assertTrue(getVariable(instr, "detection_lag_poll_max_ms") >= 10 * 1000);
+        assertEquals(0, getVariable(instr, "detection_lag_callback_max_ms"));
+        assertEquals(1, getVariable(instr, "expected_durations"));
+
+        // the first check of the next run is at the learned duration, then it backs off from there
+        delay = checker.getCheckDelay(job, createAction("2", System.currentTimeMillis(), null));
+        assertTrue(delay > 50 * 1000 && delay <= 56 * 1000);
+        delay = checker.getCheckDelay(job, createAction("2", System.currentTimeMillis() - 80 * 1000, null));
+        assertTrue(delay >= 24 * 1000 && delay < 30 * 1000);
+
+        // completion detected after its callback
+        checker.callbackReceived("2");
+        checker.actionCompleted(job, createAction("2", System.currentTimeMillis() - 60 * 1000, null));
+        assertTrue(getVariable(instr, "detection_lag_callback_max_ms") < 10 * 1000);
+    }
+
+    private WorkflowActionBean createAction(String id, long startTime, Date lastCheckTime) {
+        WorkflowActionBean action = new WorkflowActionBean();
+        action.setId(id);
+        action.setName("action");
+        action.setStartTime(new Date(startTime));
+        action.setLastCheckTime(lastCheckTime);
+        return action;
+    }
 
+    @SuppressWarnings("unchecked")
+    private long getVariable(Instrumentation instr, String name) {
+        Object variable = instr.getVariables().get(ActionCheckerService.INSTRUMENTATION_GROUP).get(name);
+        return ((Instrumentation.Variable<Long>) variable).getValue();
+    }
 }
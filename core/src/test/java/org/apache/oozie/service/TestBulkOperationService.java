@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.command.XCommand;
+import org.apache.oozie.test.XTestCase;
+import org.json.simple.JSONObject;
+
+public class TestBulkOperationService extends XTestCase {
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.getConf().setInt(BulkOperationService.CONF_PARALLELISM, 4);
+        services.getConf().setInt(BulkOperationService.CONF_MAX_OPERATIONS, 2);
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    /**
+     * Command sleeping a while, or waiting for a gate to open, tracking the number of commands running concurrently.
+     */
+    private static class SleepXCommand extends XCommand<Void> {
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+        private final boolean fail;
+        private final CountDownLatch gate;
+
+        SleepXCommand(AtomicInteger running, AtomicInteger maxRunning, boolean fail, CountDownLatch gate) {
+            super("sleep", "sleep", 1);
+            this.running = running;
+            this.maxRunning = maxRunning;
+            this.fail = fail;
+            this.gate = gate;
+        }
+
+        @Override
+        protected boolean isLockRequired() {
+            return false;
+        }
+
+        @Override
+        public String getEntityKey() {
+            return null;
+        }
+
+        @Override
+        protected void loadState() throws CommandException {
+        }
+
+        @Override
+        protected void verifyPrecondition() throws CommandException, PreconditionException {
+        }
+
+        @Override
+        protected Void execute() throws CommandException {
+            int current = running.incrementAndGet();
+            synchronized (maxRunning) {
+                maxRunning.set(Math.max(maxRunning.get(), current));
+            }
+            try {
+                if (gate != null) {
+                    gate.await();
+                }
+                else {
+                    Thread.sleep(100);
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                running.decrementAndGet();
+            }
+            if (fail) {
+                throw new CommandException(ErrorCode.E0604, getName());
+            }
+            return null;
+        }
+    }
+
+    private Map<String, XCommand<?>> createCommands(int count, AtomicInteger maxRunning, int failing) {
+        return createCommands(count, new AtomicInteger(), maxRunning, failing, null);
+    }
+
+    private Map<String, XCommand<?>> createCommands(int count, AtomicInteger running, AtomicInteger maxRunning,
+            int failing, CountDownLatch gate) {
+        Map<String, XCommand<?>> commands = new LinkedHashMap<String, XCommand<?>>();
+        for (int i = 0; i < count; i++) {
+            commands.put("job-" + i, new SleepXCommand(running, maxRunning, i < failing, gate));
+        }
+        return commands;
+    }
+
+    public void testParallelExecution() throws Exception {
+        BulkOperationService bulkOperationService = services.get(BulkOperationService.class);
+        final AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch gate = new CountDownLatch(1);
+        BulkOperationService.Operation operation = bulkOperationService.submit("test", createCommands(20, running,
+                maxRunning, 0, gate));
+        assertEquals(20, operation.getTotal());
+        // the commands hold until several of them are running at the same time
+        waitFor(10000, new Predicate() {
+            @Override
+            public boolean evaluate() throws Exception {
+                return running.get() > 1;
+            }
+        });
+        assertTrue("concurrent commands " + running.get(), running.get() > 1);
+        assertFalse(operation.isDone());
+        gate.countDown();
+        operation.join();
+        assertTrue(operation.isDone());
+        assertEquals("SUCCEEDED", operation.getStatus());
+        assertEquals(20, operation.getCompleted());
+        assertEquals(0, operation.getFailed());
+        assertTrue("max concurrent commands " + maxRunning.get(), maxRunning.get() > 1);
+        // the queued workers and the joining thread
+        assertTrue("max concurrent commands " + maxRunning.get(), maxRunning.get() <= 5);
+    }
+
+    public void testFailures() throws Exception {
+        BulkOperationService bulkOperationService = services.get(BulkOperationService.class);
+        BulkOperationService.Operation operation = bulkOperationService.submit("test", createCommands(6,
+                new AtomicInteger(), 2));
+        try {
+            operation.join();
+            fail();
+        }
+        catch (CommandException ex) {
+            assertEquals(ErrorCode.E0604, ex.getErrorCode());
+        }
+        assertEquals("DONEWITHERROR", operation.getStatus());
+        assertEquals(6, operation.getCompleted());
+        assertEquals(2, operation.getFailed());
+        JSONObject json = operation.toJSONObject("GMT");
+        assertEquals(2, ((Map<?, ?>) json.get("errors")).size());
+        assertEquals(6, json.get("total"));
+    }
+
+    public void testEmptyOperation() throws Exception {
+        BulkOperationService bulkOperationService = services.get(BulkOperationService.class);
+        BulkOperationService.Operation operation = bulkOperationService.submit("test",
+                new LinkedHashMap<String, XCommand<?>>());
+        assertTrue(operation.isDone());
+        assertEquals("SUCCEEDED", operation.getStatus());
+        operation.join();
+    }
+
+    public void testFinishedOperationsPurged() throws Exception {
+        BulkOperationService bulkOperationService = services.get(BulkOperationService.class);
+        String[] ids = new String[3];
+        for (int i = 0; i < ids.length; i++) {
+            BulkOperationService.Operation operation = bulkOperationService.submit("test", createCommands(1,
+                    new AtomicInteger(), 0));
+            operation.join();
+            ids[i] = operation.getId();
+        }
+        bulkOperationService.submit("test", createCommands(1, new AtomicInteger(), 0)).join();
+        try {
+            bulkOperationService.getOperation(ids[0]);
+            fail();
+        }
+        catch (CommandException ex) {
+            assertEquals(ErrorCode.E1103, ex.getErrorCode());
+        }
+        assertEquals(ids[2], bulkOperationService.getOperation(ids[2]).getId());
+    }
+}
@@ -151,6 +151,35 @@ public class TestCoordMaterializeTriggerService extends XDataTestCase {
         assertEquals(CoordinatorJob.Status.PREP, job3.getStatus());
     }
 
+    public void testJobsPickedInDueTimeOrder() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(CoordMaterializeTriggerService.CONF_MATERIALIZATION_SYSTEM_LIMIT, "1");
+        services = new Services();
+        services.init();
+        jpaService = services.get(JPAService.class);
+
+        Date now = new Date();
+        Date end = new Date(now.getTime() + 3600 * 5 * 1000);
+        // job1 was submitted first but job2 is further behind its nominal time
+        CoordinatorJobBean job1 = addRecordToCoordJobTable(CoordinatorJob.Status.PREP, now, end, false, false, 0);
+        Date lateStart = new Date(now.getTime() - 3600 * 2 * 1000);
+        CoordinatorJobBean job2 = addRecordToCoordJobTable(CoordinatorJob.Status.PREP, lateStart, end, false, false, 0);
+
+        CoordMaterializeTriggerRunnable runnable = new CoordMaterializeTriggerRunnable(3600, 300);
+        runnable.run();
+        waitForStatus(10000, job2, CoordinatorJob.Status.RUNNING);
+
+        job2 = jpaService.execute(new CoordJobGetJPAExecutor(job2.getId()));
+        assertEquals(CoordinatorJob.Status.RUNNING, job2.getStatus());
+        job1 = jpaService.execute(new CoordJobGetJPAExecutor(job1.getId()));
+        assertEquals(CoordinatorJob.Status.PREP, job1.getStatus());
+
+        assertEquals(1, runnable.getJobsDue());
+        long maxLag = runnable.getMaxLagSeconds();
+        assertTrue("Unexpected lag " + maxLag, maxLag >= 3600 * 2 - 60);
+        assertEquals(maxLag, runnable.getAvgLagSeconds());
+    }
+
     public void testMaxMatThrottleNotPicked() throws Exception {
         Services.get().destroy();
         setSystemProperty(CoordMaterializeTriggerService.CONF_MATERIALIZATION_SYSTEM_LIMIT, "10");
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.dependency.URIHandler;
+import org.apache.oozie.dependency.URIHandler.DependencyType;
+import org.apache.oozie.dependency.fs.FSEventSource;
+import org.apache.oozie.test.XTestCase;
+
+/**
+ * Test class to test the addition, removal and available operations on the file system dependencies cache
+ * structure, using a fake event source instead of the HDFS inotify stream
+ */
+public class TestFSDependencyManagerService extends XTestCase {
+
+    private static final String NAMENODE = "hdfs://nn1.domain.com:8020";
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        Configuration conf = services.getConf();
+        conf.set(Services.CONF_SERVICE_EXT_CLASSES, FSDependencyManagerService.class.getName());
+        conf.set(FSDependencyManagerService.EVENT_SOURCE_IMPL, FakeFSEventSource.class.getName());
+        conf.setInt(FSDependencyManagerService.CACHE_PURGE_INTERVAL, 1000000);
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testFSDependency() throws Exception {
+        String actionId1 = "0000001-oozie-C@1";
+        String actionId2 = "0000001-oozie-C@2";
+        URI dep1 = new URI(NAMENODE + "/data/2016/01/01/_SUCCESS");
+        URI dep2 = new URI(NAMENODE + "/data//2016/01/02/_SUCCESS");
+        URI dep3 = new URI("hdfs://nn2.domain.com:8020/data/2016/01/01");
+
+        FSDependencyManagerService fsdms = services.get(FSDependencyManagerService.class);
+        fsdms.addMissingDependency(dep1, actionId1);
+        fsdms.addMissingDependency(dep1, actionId2);
+        fsdms.addMissingDependency(dep2, actionId2);
+        fsdms.addMissingDependency(dep3, actionId2);
+        // Duplicates are ignored
+        fsdms.addMissingDependency(dep3, actionId2);
+
+        FakeFSEventSource eventSource = (FakeFSEventSource) fsdms.getEventSource();
+        assertTrue(eventSource.isWatching(NAMENODE));
+        assertTrue(eventSource.isWatching("hdfs://nn2.domain.com:8020"));
+
+        assertEquals(new HashSet<String>(Arrays.asList(actionId1, actionId2)),
+                new HashSet<String>(fsdms.getWaitingActions(dep1)));
+        assertEquals(1, fsdms.getWaitingActions(dep3).size());
+
+        assertTrue(fsdms.removeMissingDependency(dep1, actionId1));
+        assertEquals(1, fsdms.getWaitingActions(dep1).size());
+        assertNull(fsdms.getAvailableDependencyURIs(actionId1));
+
+        // Events on unrelated paths or file systems do nothing
+        fsdms.pathAvailable(NAMENODE, "/data/2016/01/03/_SUCCESS", false);
+        fsdms.pathAvailable("hdfs://nn3.domain.com:8020", "/data/2016/01/01/_SUCCESS", false);
+        assertNull(fsdms.getAvailableDependencyURIs(actionId2));
+
+        fsdms.pathAvailable(NAMENODE, "/data/2016/01/01/_SUCCESS", false);
+        assertNull(fsdms.getWaitingActions(dep1));
+        assertEquals(Arrays.asList(dep1.toString()), fsdms.getAvailableDependencyURIs(actionId2));
+
+        // Paths are matched after normalization
+        fsdms.pathAvailable(NAMENODE, "/data/2016/01/02/_SUCCESS", false);
+        assertNull(fsdms.getWaitingActions(dep2));
+        assertEquals(2, fsdms.getAvailableDependencyURIs(actionId2).size());
+        assertTrue(fsdms.getAvailableDependencyURIs(actionId2).contains(dep2.toString()));
+
+        assertTrue(fsdms.removeAvailableDependencyURIs(actionId2, Arrays.asList(dep1.toString(), dep2.toString())));
+        assertNull(fsdms.getAvailableDependencyURIs(actionId2));
+        assertEquals(1, fsdms.getWaitingActions(dep3).size());
+    }
+
+    public void testRenamedDirectory() throws Exception {
+        String actionId1 = "0000001-oozie-C@1";
+        String actionId2 = "0000001-oozie-C@2";
+        URI dep1 = new URI(NAMENODE + "/data/2016/01/01/_SUCCESS");
+        URI dep2 = new URI(NAMENODE + "/data/2016/01/010/_SUCCESS");
+
+        FSDependencyManagerService fsdms = services.get(FSDependencyManagerService.class);
+        fsdms.addMissingDependency(dep1, actionId1);
+        fsdms.addMissingDependency(dep2, actionId2);
+
+        // A created directory does not make the files below it available
+        fsdms.pathAvailable(NAMENODE, "/data/2016/01/01", false);
+        assertNull(fsdms.getAvailableDependencyURIs(actionId1));
+
+        // A directory renamed into place does, but not the ones of a sibling sharing the name prefix
+        fsdms.pathAvailable(NAMENODE, "/data/2016/01/01", true);
+        assertEquals(Arrays.asList(dep1.toString()), fsdms.getAvailableDependencyURIs(actionId1));
+        assertNull(fsdms.getAvailableDependencyURIs(actionId2));
+        assertEquals(1, fsdms.getWaitingActions(dep2).size());
+    }
+
+    public void testPurgeNonWaitingActions() throws Exception {
+        String actionId = "0000001-oozie-C@1";
+        URI dep = new URI(NAMENODE + "/data/2016/01/01/_SUCCESS");
+        FSDependencyManagerService fsdms = services.get(FSDependencyManagerService.class);
+        fsdms.addMissingDependency(dep, actionId);
+        Set<String> actions = new HashSet<String>();
+        actions.add(actionId);
+        fsdms.getDependencyCache().removeNonWaitingCoordActions(actions);
+        assertNull(fsdms.getWaitingActions(dep));
+    }
+
+    public void testURIHandlerDependencyType() throws Exception {
+        URIHandlerService uriService = services.get(URIHandlerService.class);
+        URI pushURI = new URI(NAMENODE + "/data/2016/01/01/_SUCCESS");
+        URI pullURI = new URI("file:///tmp/data/2016/01/01/_SUCCESS");
+        URIHandler handler = uriService.getURIHandler(pushURI);
+        assertEquals(DependencyType.PUSH, handler.getDependencyType(pushURI));
+        assertEquals(DependencyType.PULL, handler.getDependencyType(pullURI));
+
+        String actionId = "0000001-oozie-C@1";
+        handler.registerForNotification(pushURI, new Configuration(), getTestUser(), actionId);
+        FSDependencyManagerService fsdms = services.get(FSDependencyManagerService.class);
+        assertTrue(fsdms.getWaitingActions(pushURI).contains(actionId));
+        assertTrue(handler.unregisterFromNotification(pushURI, actionId));
+        assertNull(fsdms.getWaitingActions(pushURI));
+    }
+
+    public static class FakeFSEventSource implements FSEventSource {
+        private Set<String> watched;
+
+        @Override
+        public void init(Configuration conf) {
+            watched = new HashSet<String>();
+        }
+
+        @Override
+        public boolean isSupported(URI uri) {
+            return "hdfs".equals(uri.getScheme());
+        }
+
+        @Override
+        public synchronized void watch(String nameNode) {
+            watched.add(nameNode);
+        }
+
+        @Override
+        public synchronized boolean isWatching(String nameNode) {
+            return watched.contains(nameNode);
+        }
+
+        @Override
+        public synchronized void destroy() {
+            watched.clear();
+        }
+    }
+}
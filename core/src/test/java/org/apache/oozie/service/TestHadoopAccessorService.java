@@ -22,11 +22,15 @@ import org.apache.oozie.test.XTestCase;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
 import org.apache.hadoop.io.Text;
 import org.apache.oozie.util.IOUtils;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
@@ -186,6 +190,88 @@ public class TestHadoopAccessorService extends XTestCase {
         }
     }
 
+    public void testFileSystemCacheDisabledByDefault() throws Exception {
+        assertNull(Services.get().get(HadoopAccessorService.class).getFileSystemCache());
+    }
+
+    public void testFileSystemCache() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(HadoopAccessorService.FS_CACHE_MAX_SIZE, "10");
+        new Services().init();
+        HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
+        FileSystemCache fsCache = has.getFileSystemCache();
+        assertNotNull(fsCache);
+        JobConf conf = has.createJobConf(getJobTrackerUri());
+        conf.set("fs.default.name", getNameNodeUri());
+
+        URI uri = new URI(getNameNodeUri());
+        long hits = fsCache.getHits();
+        FilterFileSystem fs1 = (FilterFileSystem) has.createFileSystem(getTestUser(), uri, conf);
+        FilterFileSystem fs2 = (FilterFileSystem) has.createFileSystem(getTestUser(),
+                new URI(getNameNodeUri() + "/some/path"), conf);
+        // each caller gets its own checkout of the cached instance
+        assertNotSame(fs1, fs2);
+        assertSame(fs1.getRawFileSystem(), fs2.getRawFileSystem());
+        assertEquals(hits + 1, fsCache.getHits());
+        // closing a checkout does not close the cached instance
+        fs1.close();
+        assertTrue(fs2.exists(new Path("/")));
+        // a different user gets its own instance
+        FilterFileSystem fs3 = (FilterFileSystem) has.createFileSystem(getTestUser2(), uri, conf);
+        assertNotSame(fs2.getRawFileSystem(), fs3.getRawFileSystem());
+    }
+
+    public void testFileSystemCacheEviction() throws Exception {
+        FileSystemCache.Creator creator = new FileSystemCache.Creator() {
+            @Override
+            public FileSystem create() {
+                return new ClosingAwareFileSystem();
+            }
+        };
+        FileSystemCache fsCache = new FileSystemCache(1, 0);
+        FilterFileSystem a1 = (FilterFileSystem) fsCache.get("a", creator);
+        ClosingAwareFileSystem fs1 = (ClosingAwareFileSystem) a1.getRawFileSystem();
+        FilterFileSystem a2 = (FilterFileSystem) fsCache.get("a", creator);
+        assertSame(fs1, a2.getRawFileSystem());
+        // the cache is full, "a" is evicted but not closed as it is checked out twice
+        FilterFileSystem b1 = (FilterFileSystem) fsCache.get("b", creator);
+        ClosingAwareFileSystem fs2 = (ClosingAwareFileSystem) b1.getRawFileSystem();
+        assertEquals(1, fsCache.size());
+        assertEquals(1, fsCache.getEvictions());
+        assertEquals(1, fsCache.getEvictedInUse());
+        assertFalse(fs1.closed);
+        FilterFileSystem a3 = (FilterFileSystem) fsCache.get("a", creator);
+        assertNotSame(fs1, a3.getRawFileSystem());
+        assertEquals(2, fsCache.getEvictions());
+
+        // the evicted instance is closed when its last checkout is returned, closing twice returns it once
+        a1.close();
+        a1.close();
+        assertFalse(fs1.closed);
+        a2.close();
+        assertTrue(fs1.closed);
+        assertEquals(1, fsCache.getEvictedInUse());
+
+        // with no idle timeout the cached instance is evicted, but it stays open while checked out
+        fsCache.evictIdle();
+        assertEquals(0, fsCache.size());
+        assertFalse(((ClosingAwareFileSystem) a3.getRawFileSystem()).closed);
+        b1.close();
+        assertTrue(fs2.closed);
+        fsCache.destroy();
+        assertTrue(((ClosingAwareFileSystem) a3.getRawFileSystem()).closed);
+    }
+
+    private static class ClosingAwareFileSystem extends RawLocalFileSystem {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
     public void testGetMRDelegationTokenRenewer() throws Exception {
         HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
         JobConf jobConf = new JobConf(false);
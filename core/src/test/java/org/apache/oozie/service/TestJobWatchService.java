@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.event.WorkflowJobEvent;
+import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor;
+import org.apache.oozie.executor.jpa.WorkflowJobQueryExecutor.WorkflowJobQuery;
+import org.apache.oozie.test.XDataTestCase;
+import org.apache.oozie.workflow.WorkflowInstance;
+
+public class TestJobWatchService extends XDataTestCase {
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.getConf().setInt(JobWatchService.CONF_MAX_JOBS, 3);
+        services.getConf().setInt(JobWatchService.CONF_MAX_WATCHES, 2);
+        services.getConf().setInt(JobWatchService.CONF_CHECK_INTERVAL, 1);
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testReachedStatusReturnedRightAway() throws Exception {
+        WorkflowJobBean running = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        WorkflowJobBean succeeded = addRecordToWfJobTable(WorkflowJob.Status.SUCCEEDED,
+                WorkflowInstance.Status.SUCCEEDED);
+        JobWatchService watchService = services.get(JobWatchService.class);
+        long start = System.currentTimeMillis();
+        Map<String, String> reached = watchService.watch(Arrays.asList(running.getId(), succeeded.getId()),
+                Collections.<String>emptyList(), 10000);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(Collections.singletonMap(succeeded.getId(), "SUCCEEDED"), reached);
+
+        reached = watchService.watch(Arrays.asList(running.getId()), Arrays.asList("RUNNING"), 10000);
+        assertEquals(Collections.singletonMap(running.getId(), "RUNNING"), reached);
+        assertEquals(0, watchService.getOpenWatches());
+    }
+
+    public void testTimeout() throws Exception {
+        WorkflowJobBean running = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        JobWatchService watchService = services.get(JobWatchService.class);
+        long start = System.currentTimeMillis();
+        assertTrue(watchService.watch(Arrays.asList(running.getId()), Collections.<String>emptyList(), 300)
+                .isEmpty());
+        assertTrue(System.currentTimeMillis() - start >= 300);
+        assertTrue(watchService.watch(Arrays.asList(running.getId()), Collections.<String>emptyList(), 0).isEmpty());
+    }
+
+    public void testWokenUpByEvent() throws Exception {
+        final WorkflowJobBean running = addRecordToWfJobTable(WorkflowJob.Status.RUNNING,
+                WorkflowInstance.Status.RUNNING);
+        final JobWatchService watchService = services.get(JobWatchService.class);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    while (watchService.getOpenWatches() == 0) {
+                        Thread.sleep(10);
+                    }
+                    Thread.sleep(100);
+                    watchService.onEvent(new WorkflowJobEvent(running.getId(), null, WorkflowJob.Status.KILLED,
+                            getTestUser(), "app", new Date(), new Date()));
+                }
+                catch (InterruptedException ex) {
+                    // the watch times out
+                }
+            }
+        };
+        thread.start();
+        long start = System.currentTimeMillis();
+        Map<String, String> reached = watchService.watch(Arrays.asList(running.getId()),
+                Collections.<String>emptyList(), 60000);
+        // the job status in the database is still RUNNING, the event woke the watch up
+        assertTrue(System.currentTimeMillis() - start < 30000);
+        assertEquals(Collections.singletonMap(running.getId(), "KILLED"), reached);
+        thread.join();
+    }
+
+    public void testStatusCheck() throws Exception {
+        final WorkflowJobBean running = addRecordToWfJobTable(WorkflowJob.Status.RUNNING,
+                WorkflowInstance.Status.RUNNING);
+        final JobWatchService watchService = services.get(JobWatchService.class);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(500);
+                    running.setStatus(WorkflowJob.Status.SUCCEEDED);
+                    running.setLastModifiedTime(new Date());
+                    WorkflowJobQueryExecutor.getInstance().executeUpdate(
+                            WorkflowJobQuery.UPDATE_WORKFLOW_STATUS_MODTIME, running);
+                }
+                catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+        thread.start();
+        // no event is generated, the status is read from the database
+        Map<String, String> reached = watchService.watch(Arrays.asList(running.getId()),
+                Collections.<String>emptyList(), 20000);
+        assertEquals(Collections.singletonMap(running.getId(), "SUCCEEDED"), reached);
+        thread.join();
+    }
+
+    public void testLimits() throws Exception {
+        WorkflowJobBean running = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        JobWatchService watchService = services.get(JobWatchService.class);
+        try {
+            watchService.watch(Arrays.asList("1-W", "2-W", "3-W", "4-W"), Collections.<String>emptyList(), 0);
+            fail();
+        }
+        catch (CommandException ex) {
+            assertEquals(ErrorCode.E1106, ex.getErrorCode());
+        }
+        try {
+            watchService.watch(Arrays.asList(running.getId(), "0000000-000000000000000-oozie-none-W"),
+                    Collections.<String>emptyList(), 0);
+            fail();
+        }
+        catch (CommandException ex) {
+            assertEquals(ErrorCode.E0604, ex.getErrorCode());
+        }
+        assertEquals(0, watchService.getOpenWatches());
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import org.apache.oozie.test.XTestCase;
+
+public class TestResponseCacheService extends XTestCase {
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.getConf().setInt(ResponseCacheService.CONF_MAX_ENTRIES, 3);
+        services.getConf().setInt(ResponseCacheService.CONF_MAX_ENTRY_SIZE, 10);
+        services.getConf().setInt(ResponseCacheService.CONF_TTL, 1);
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testPutGet() throws Exception {
+        ResponseCacheService cache = services.get(ResponseCacheService.class);
+        assertNull(cache.get("a"));
+        cache.put("a", "\"1\"", "SUCCEEDED", "body".getBytes());
+        ResponseCacheService.Entry entry = cache.get("a");
+        assertNotNull(entry);
+        assertEquals("\"1\"", entry.getETag());
+        assertEquals("SUCCEEDED", entry.getStatus());
+        assertEquals("body", new String(entry.getBody()));
+        cache.remove("a");
+        assertNull(cache.get("a"));
+    }
+
+    public void testNotCacheable() throws Exception {
+        ResponseCacheService cache = services.get(ResponseCacheService.class);
+        cache.put("running", "\"1\"", "RUNNING", "body".getBytes());
+        cache.put("large", "\"1\"", "KILLED", "a large response".getBytes());
+        assertNull(cache.get("running"));
+        assertNull(cache.get("large"));
+        assertEquals(0, cache.size());
+        assertTrue(ResponseCacheService.isTerminal("DONEWITHERROR"));
+        assertFalse(ResponseCacheService.isTerminal("SUSPENDED"));
+        assertFalse(ResponseCacheService.isTerminal(null));
+    }
+
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        ResponseCacheService cache = services.get(ResponseCacheService.class);
+        cache.put("a", "\"1\"", "SUCCEEDED", "a".getBytes());
+        cache.put("b", "\"2\"", "SUCCEEDED", "b".getBytes());
+        cache.put("c", "\"3\"", "SUCCEEDED", "c".getBytes());
+        assertNotNull(cache.get("a"));
+        cache.put("d", "\"4\"", "SUCCEEDED", "d".getBytes());
+        assertEquals(3, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("d"));
+    }
+
+    public void testExpiration() throws Exception {
+        ResponseCacheService cache = services.get(ResponseCacheService.class);
+        cache.put("a", "\"1\"", "FAILED", "a".getBytes());
+        assertNotNull(cache.get("a"));
+        Thread.sleep(1100);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.util.Properties;
+
+import javax.mail.Message;
+import javax.mail.Message.RecipientType;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.oozie.action.email.EmailActionExecutor.JavaMailAuthenticator;
+import org.apache.oozie.test.XTestCase;
+
+import com.icegreen.greenmail.util.GreenMail;
+
+public class TestSMTPTransportService extends XTestCase {
+
+    private GreenMail server;
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        server = new GreenMail();
+        server.start();
+        services = new Services();
+        services.getConf().setInt(SMTPTransportService.CONF_IDLE_TIMEOUT, 1);
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        server.stop();
+        super.tearDown();
+    }
+
+    private Session createSession() {
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.host", "localhost");
+        properties.setProperty("mail.smtp.port", String.valueOf(server.getSmtp().getPort()));
+        properties.setProperty("mail.smtp.auth", "false");
+        return Session.getInstance(properties);
+    }
+
+    private Message createMessage(Session session, int i) throws Exception {
+        Message message = new MimeMessage(session);
+        message.setFrom(new InternetAddress("oozie@localhost"));
+        message.addRecipient(RecipientType.TO, new InternetAddress("user" + (i % 5) + "@oozie.com"));
+        message.setSubject("sub" + i);
+        message.setText("body" + i);
+        return message;
+    }
+
+    public void testConnectionReused() throws Exception {
+        SMTPTransportService transportService = services.get(SMTPTransportService.class);
+        int count = 20;
+        for (int i = 0; i < count; i++) {
+            // a new session per mail, like the email action
+            Session session = createSession();
+            transportService.send(session, createMessage(session, i));
+        }
+        assertEquals(count, server.getReceivedMessages().length);
+        assertEquals(1, transportService.getConnectionCount());
+        assertEquals(count - 1, transportService.getReuseCount());
+        assertEquals(1, transportService.getIdleCount());
+    }
+
+    public void testConnectionsPooledPerAccount() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.host", "localhost");
+        properties.setProperty("mail.smtp.auth", "true");
+        properties.setProperty("mail.smtp.user", "user1");
+        String key = SMTPTransportService.getKey(
+                Session.getInstance(properties, new JavaMailAuthenticator("user1", "password1")));
+        assertEquals(key, SMTPTransportService.getKey(
+                Session.getInstance(properties, new JavaMailAuthenticator("user1", "password1"))));
+        assertFalse(key.contains("password1"));
+        assertFalse(key.equals(SMTPTransportService.getKey(
+                Session.getInstance(properties, new JavaMailAuthenticator("user1", "password2")))));
+        assertFalse(key.equals(SMTPTransportService.getKey(
+                Session.getInstance(properties, new JavaMailAuthenticator("user2", "password1")))));
+    }
+
+    public void testIdleConnectionClosed() throws Exception {
+        SMTPTransportService transportService = services.get(SMTPTransportService.class);
+        Session session = createSession();
+        transportService.send(session, createMessage(session, 0));
+        assertEquals(1, transportService.getIdleCount());
+        Thread.sleep(1100);
+        transportService.closeIdle();
+        assertEquals(0, transportService.getIdleCount());
+        transportService.send(session, createMessage(session, 1));
+        assertEquals(2, transportService.getConnectionCount());
+        assertEquals(2, server.getReceivedMessages().length);
+    }
+
+    public void testReconnectAfterServerRestart() throws Exception {
+        SMTPTransportService transportService = services.get(SMTPTransportService.class);
+        Session session = createSession();
+        transportService.send(session, createMessage(session, 0));
+        server.stop();
+        server = new GreenMail();
+        server.start();
+        transportService.send(session, createMessage(session, 1));
+        assertEquals(1, server.getReceivedMessages().length);
+        assertEquals(2, transportService.getConnectionCount());
+    }
+
+    public void testPoolingDisabled() throws Exception {
+        services.destroy();
+        services = new Services();
+        services.getConf().setInt(SMTPTransportService.CONF_POOL_SIZE, 0);
+        services.init();
+        SMTPTransportService transportService = services.get(SMTPTransportService.class);
+        int count = 5;
+        Session session = createSession();
+        for (int i = 0; i < count; i++) {
+            transportService.send(session, createMessage(session, i));
+        }
+        assertEquals(count, server.getReceivedMessages().length);
+        assertEquals(count, transportService.getConnectionCount());
+        assertEquals(0, transportService.getReuseCount());
+        assertEquals(0, transportService.getIdleCount());
+    }
+}
@@ -24,11 +24,14 @@ import java.io.PrintWriter;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.filecache.DistributedCache;
@@ -669,6 +672,12 @@ public class TestShareLibService extends XFsTestCase {
                 assertEquals(shareLibService.getShareLibJars("hive_conf").size(), 1);
                 new HadoopShims(fs).createSymlink(basePath1, symlink, true);
                 new HadoopShims(fs).createSymlink(hive_site1, symlink_hive_site, true);
+                // launches keep resolving from the current snapshot until the symlinks are refreshed
+                long generation = shareLibService.getShareLibGeneration();
+                assertEquals(shareLibService.getShareLibJars("pig").size(), 2);
+                assertTrue(shareLibService.refreshSymlinks());
+                assertTrue(shareLibService.getShareLibGeneration() != generation);
+                assertFalse(shareLibService.refreshSymlinks());
                 assertEquals(new HadoopShims(fs).getSymLinkTarget(shareLibService.getShareLibJars("hive_conf").get(0)),
                         hive_site1);
                 assertEquals(shareLibService.getShareLibJars("pig").size(), 3);
@@ -723,7 +732,131 @@ public class TestShareLibService extends XFsTestCase {
         }
     }
 
+    @Test
+    public void testConsolidatedArchives() throws Exception {
+        services = new Services();
+        setSystemProps();
+        FileSystem fs = getFileSystem();
+        Path basePath = new Path(services.get(ConfigurationService.class).getConf()
+                .get(WorkflowAppService.SYSTEM_LIB_PATH));
+        Configuration conf = services.get(ConfigurationService.class).getConf();
+        conf.setBoolean(ShareLibService.CONSOLIDATED_ARCHIVES, true);
+
+        Date time = new Date(System.currentTimeMillis());
+        Path libpath = new Path(basePath, ShareLibService.SHARE_LIB_PREFIX + ShareLibService.dateFormat.format(time));
+        Path pigPath = new Path(libpath.toString() + Path.SEPARATOR + "pig");
+        createDirs(fs, pigPath);
+        createFile(new Path(pigPath, "pig.jar"));
+        createFile(new Path(pigPath, "hive.jar"));
+
+        try {
+            Configuration jobConf = setUpPigJobConf(true);
+            ShareLibService shareLibService = services.get(ShareLibService.class);
+            Path archive = shareLibService.getConsolidatedArchive("pig");
+            assertNotNull(archive);
+            assertTrue(fs.exists(archive));
+            assertEquals(Arrays.asList("hive.jar", "pig.jar"), getArchiveEntries(fs, archive));
+            // the sharelib still lists the jars
+            assertEquals(2, shareLibService.getShareLibJars("pig").size());
+
+            // the jars are shipped in the archive, and added to the classpath from it
+            for (URI file : DistributedCache.getCacheFiles(jobConf)) {
+                assertFalse(file.toString(),
+                        file.getPath().endsWith("/pig.jar") || file.getPath().endsWith("/hive.jar"));
+            }
+            URI[] archives = DistributedCache.getCacheArchives(jobConf);
+            assertEquals(1, archives.length);
+            assertEquals(archive.toUri().getPath(), archives[0].getPath());
+            String linkName = archives[0].getFragment();
+            assertTrue(jobConf.get(JavaActionExecutor.HADOOP_MAP_JAVA_ENV)
+                    .contains("CLASSPATH=$PWD/" + linkName + "/*"));
+
+            // reused as long as the jars do not change, rebuilt when they do
+            shareLibService.updateShareLib();
+            assertEquals(archive, shareLibService.getConsolidatedArchive("pig"));
+            createFile(new Path(pigPath, "pig-udf.jar"));
+            shareLibService.updateShareLib();
+            Path newArchive = shareLibService.getConsolidatedArchive("pig");
+            assertFalse(archive.equals(newArchive));
+            assertEquals(Arrays.asList("hive.jar", "pig-udf.jar", "pig.jar"), getArchiveEntries(fs, newArchive));
+        }
+        finally {
+            services.destroy();
+        }
+    }
+
+    // Archives are purged by modification time like sharelib directories, keeping the latest old archive of each key
+    @Test
+    public void testPurgeConsolidatedArchives() throws Exception {
+        services = new Services();
+        setSystemProps();
+        Configuration conf = services.get(ConfigurationService.class).getConf();
+        conf.setBoolean(ShareLibService.CONSOLIDATED_ARCHIVES, true);
+        final FileSystem fs = getFileSystem();
+        long expiryTime = System.currentTimeMillis() - TimeUnit.MILLISECONDS.convert(
+                conf.getInt(ShareLibService.LAUNCHERJAR_LIB_RETENTION, 7), TimeUnit.DAYS);
+        long day = TimeUnit.MILLISECONDS.convert(1, TimeUnit.DAYS);
+
+        Path basePath = new Path(conf.get(WorkflowAppService.SYSTEM_LIB_PATH));
+        Path pigPath = new Path(new Path(basePath, ShareLibService.SHARE_LIB_PREFIX
+                + ShareLibService.dateFormat.format(new Date())), "pig");
+        createDirs(fs, pigPath);
+        createFile(new Path(pigPath, "pig.jar"));
+        createFile(new Path(pigPath, "hive.jar"));
+
+        Path archiveDir = new Path(basePath, ShareLibService.CONSOLIDATED_LIB_DIR);
+        final Path expired = new Path(archiveDir, "pig-0001.zip");
+        Path latestExpired = new Path(archiveDir, "pig-0002.zip");
+        Path notExpired = new Path(archiveDir, "pig-0003.zip");
+        Path otherKeyExpired = new Path(archiveDir, "hive-0004.zip");
+        createFile(expired, latestExpired, notExpired, otherKeyExpired);
+        fs.setTimes(expired, expiryTime - 2 * day, -1);
+        fs.setTimes(latestExpired, expiryTime - day, -1);
+        fs.setTimes(notExpired, expiryTime + day, -1);
+        fs.setTimes(otherKeyExpired, expiryTime - 2 * day, -1);
+        try {
+            services.init();
+            // Wait for the scheduled purge runnable to complete
+            waitFor(20 * 1000, new Predicate() {
+                @Override
+                public boolean evaluate() throws Exception {
+                    return !fs.exists(expired);
+                }
+            });
+            assertFalse(fs.exists(expired));
+            assertTrue(fs.exists(latestExpired));
+            assertTrue(fs.exists(notExpired));
+            assertTrue(fs.exists(otherKeyExpired));
+            // the archive of the loaded sharelib is kept, whatever the local snapshot of other servers
+            Path archive = services.get(ShareLibService.class).getConsolidatedArchive("pig");
+            assertNotNull(archive);
+            assertTrue(fs.exists(archive));
+            assertTrue(fs.getFileStatus(archive).getModificationTime() > expiryTime);
+        }
+        finally {
+            services.destroy();
+        }
+    }
+
+    private List<String> getArchiveEntries(FileSystem fs, Path archive) throws IOException {
+        List<String> entries = new ArrayList<String>();
+        ZipInputStream zis = new ZipInputStream(fs.open(archive));
+        try {
+            for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+                entries.add(entry.getName());
+            }
+        }
+        finally {
+            zis.close();
+        }
+        return entries;
+    }
+
     private URI[] setUpPigJob(boolean useSystemSharelib) throws Exception {
+        return DistributedCache.getCacheFiles(setUpPigJobConf(useSystemSharelib));
+    }
+
+    private Configuration setUpPigJobConf(boolean useSystemSharelib) throws Exception {
         services.init();
         String actionXml = "<pig>" + "<job-tracker>" + getJobTrackerUri() + "</job-tracker>" + "<name-node>"
                 + getNameNodeUri() + "</name-node></pig>";
@@ -740,7 +873,7 @@ public class TestShareLibService extends XFsTestCase {
         Configuration jobConf = ae.createBaseHadoopConf(context, eActionXml);
         jobConf.set("oozie.action.sharelib.for.pig", "pig");
         ae.setLibFilesArchives(context, eActionXml, new Path("hdfs://dummyAppPath"), jobConf);
-        return DistributedCache.getCacheFiles(jobConf);
+        return jobConf;
     }
 
     private void createFile(String... filenames) throws IOException {
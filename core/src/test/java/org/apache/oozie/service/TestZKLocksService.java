@@ -18,8 +18,13 @@
 
 package org.apache.oozie.service;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.oozie.lock.LockContention;
 import org.apache.oozie.lock.LockToken;
 import org.apache.oozie.lock.TestMemoryLocks;
 import org.apache.oozie.service.ZKLocksService.ZKLockToken;
@@ -551,6 +556,229 @@ public class TestZKLocksService extends ZKXTestCase {
         }
     }
 
+    public void testLeasedLocksStayLocal() throws Exception {
+        String jobId = "0000001-160101000000000-oozie-test-W";
+        ZKLocksService zkls = new ZKLocksService();
+        try {
+            zkls.init(Services.get());
+            LockToken lock = zkls.getWriteLock(jobId, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT);
+            assertFalse(lock instanceof ZKLockToken);
+            assertTrue(zkls.getLeasedResources().contains(jobId));
+            lock.release();
+            for (int i = 0; i < 10; i++) {
+                lock = zkls.getReadLock(jobId, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT);
+                lock.release();
+            }
+            // only the lease is on the ZNode, the locks were taken in memory
+            assertEquals(1, getClient().getChildren().forPath(ZKLocksService.LOCKS_NODE + "/" + jobId).size());
+            assertTrue(zkls.getLocks().get(jobId).writeLock().isAcquiredInThisProcess());
+            // resources that are not job ids always take ZooKeeper locks
+            lock = zkls.getWriteLock("oozlock", TestMemoryLocks.DEFAULT_LOCK_TIMEOUT);
+            assertTrue(lock instanceof ZKLockToken);
+            lock.release();
+        }
+        finally {
+            zkls.destroy();
+        }
+    }
+
+    public void testLeaseGivenUpForOtherOozie() throws Exception {
+        ConfigurationService.set(ZKLocksService.LEASE_CHECK_INTERVAL, "1");
+        String jobId = "0000002-160101000000000-oozie-test-W";
+        ZKLocksService zkls1 = new ZKLocksService();
+        ZKLocksService zkls2 = new ZKLocksService();
+        try {
+            zkls1.init(Services.get());
+            zkls2.init(Services.get());
+            zkls1.getWriteLock(jobId, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT).release();
+            assertTrue(zkls1.getLeasedResources().contains(jobId));
+            // the lease is held, the second Oozie server waits on the ZooKeeper lock until the lease is given up
+            LockToken lock = zkls2.getWriteLock(jobId, 10000);
+            assertTrue(lock instanceof ZKLockToken);
+            assertFalse(zkls1.getLeasedResources().contains(jobId));
+            lock.release();
+        }
+        finally {
+            zkls1.destroy();
+            zkls2.destroy();
+        }
+    }
+
+    public void testBusyLeaseGivenUpForOtherOozie() throws Exception {
+        ConfigurationService.set(ZKLocksService.LEASE_CHECK_INTERVAL, "1");
+        final String jobId = "0000005-160101000000000-oozie-test-W";
+        final ZKLocksService zkls1 = new ZKLocksService();
+        ZKLocksService zkls2 = new ZKLocksService();
+        final AtomicBoolean stop = new AtomicBoolean(false);
+        final AtomicInteger distributed = new AtomicInteger();
+        Thread[] busy = new Thread[2];
+        try {
+            zkls1.init(Services.get());
+            zkls2.init(Services.get());
+            zkls1.getWriteLock(jobId, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT).release();
+            assertTrue(zkls1.getLeasedResources().contains(jobId));
+            // two threads of the first Oozie server overlap their read locks, the lease is never idle nor unused
+            final CountDownLatch started = new CountDownLatch(busy.length);
+            for (int i = 0; i < busy.length; i++) {
+                busy[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        started.countDown();
+                        while (!stop.get()) {
+                            try {
+                                LockToken lock = zkls1.getReadLock(jobId, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT);
+                                if (lock != null) {
+                                    if (lock instanceof ZKLockToken) {
+                                        distributed.incrementAndGet();
+                                    }
+                                    Thread.sleep(50);
+                                    lock.release();
+                                }
+                            }
+                            catch (InterruptedException ex) {
+                                return;
+                            }
+                        }
+                    }
+                };
+                busy[i].start();
+            }
+            started.await();
+            // the second Oozie server gets the lock once the current holders are done, not once the job is idle
+            LockToken lock = zkls2.getWriteLock(jobId, 10000);
+            assertNotNull(lock);
+            assertTrue(lock instanceof ZKLockToken);
+            assertFalse(zkls1.getLeasedResources().contains(jobId));
+            lock.release();
+            stop.set(true);
+            for (Thread thread : busy) {
+                thread.join();
+            }
+            // the first Oozie server took ZooKeeper locks while the lease was revoked
+            assertTrue(distributed.get() > 0);
+        }
+        finally {
+            stop.set(true);
+            for (Thread thread : busy) {
+                if (thread != null) {
+                    thread.interrupt();
+                    thread.join();
+                }
+            }
+            zkls1.destroy();
+            zkls2.destroy();
+        }
+    }
+
+    public void testInvalidatedLeasesGrantNoLocalLocks() throws Exception {
+        final String jobId = "0000006-160101000000000-oozie-test-W";
+        final ZKLocksService zkls = new ZKLocksService();
+        try {
+            zkls.init(Services.get());
+            LockToken lock = zkls.getWriteLock(jobId, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT);
+            assertFalse(lock instanceof ZKLockToken);
+            // as on a suspended ZooKeeper connection, the lease is given up even if it is in use
+            zkls.invalidateLeases();
+            waitFor(10000, new Predicate() {
+                @Override
+                public boolean evaluate() throws Exception {
+                    return zkls.getLeasedResources().isEmpty();
+                }
+            });
+            assertTrue(zkls.getLeasedResources().isEmpty());
+            assertFalse(zkls.getLocks().get(jobId).writeLock().isAcquiredInThisProcess());
+            lock.release();
+        }
+        finally {
+            zkls.destroy();
+        }
+    }
+
+    public void testIdleLeaseReleased() throws Exception {
+        ConfigurationService.set(ZKLocksService.LEASE_IDLE_TIMEOUT, "1");
+        ConfigurationService.set(ZKLocksService.LEASE_CHECK_INTERVAL, "1");
+        final String jobId = "0000003-160101000000000-oozie-test-W";
+        final ZKLocksService zkls = new ZKLocksService();
+        try {
+            zkls.init(Services.get());
+            zkls.getWriteLock(jobId, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT).release();
+            assertTrue(zkls.getLeasedResources().contains(jobId));
+            waitFor(10000, new Predicate() {
+                @Override
+                public boolean evaluate() throws Exception {
+                    return zkls.getLeasedResources().isEmpty();
+                }
+            });
+            assertTrue(zkls.getLeasedResources().isEmpty());
+            // the ZNode of the lease is deleted with it, without waiting for the ChildReaper
+            assertNull(getClient().checkExists().forPath(ZKLocksService.LOCKS_NODE + "/" + jobId));
+        }
+        finally {
+            zkls.destroy();
+        }
+    }
+
+    public void testRepeatedLocksUseOneLease() throws Exception {
+        String jobId = "0000004-160101000000000-oozie-test-W";
+        String resource = UUID.randomUUID().toString();
+        int count = 100;
+        ZKLocksService zkls = new ZKLocksService();
+        try {
+            zkls.init(Services.get());
+            for (int i = 0; i < count; i++) {
+                LockToken lock = zkls.getWriteLock(resource, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT);
+                assertTrue(lock instanceof ZKLockToken);
+                lock.release();
+            }
+            for (int i = 0; i < count; i++) {
+                LockToken lock = zkls.getWriteLock(jobId, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT);
+                assertFalse(lock instanceof ZKLockToken);
+                lock.release();
+                lock = zkls.getReadLock(jobId, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT);
+                assertFalse(lock instanceof ZKLockToken);
+                lock.release();
+            }
+            // the job locks were all taken under the single lease taken by the first of them
+            assertEquals(1, zkls.getLeasedResources().size());
+            assertEquals(1, getClient().getChildren().forPath(ZKLocksService.LOCKS_NODE + "/" + jobId).size());
+        }
+        finally {
+            zkls.destroy();
+        }
+    }
+
+    public void testContentionSampled() throws Exception {
+        // failed acquisitions are sampled even when they took less than the threshold
+        ConfigurationService.set(ZKLocksService.CONTENTION_THRESHOLD, "1000");
+        String resource = UUID.randomUUID().toString();
+        ZKLocksService zkls1 = new ZKLocksService();
+        ZKLocksService zkls2 = new ZKLocksService();
+        try {
+            zkls1.init(Services.get());
+            zkls2.init(Services.get());
+            LockToken lock = zkls1.getWriteLock(resource, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT);
+            assertNotNull(lock);
+            assertEquals(0, zkls1.getContendedCount());
+            // the second Oozie server cannot take the ZooKeeper lock, with or without waiting
+            assertNull(zkls2.getWriteLock(resource, 0));
+            assertNull(zkls2.getReadLock(resource, 100));
+            lock.release();
+            assertEquals(2, zkls2.getContendedCount());
+            List<LockContention.Contention> contended = zkls2.getMostContended(10);
+            assertEquals(1, contended.size());
+            assertEquals(resource, contended.get(0).getResource());
+            assertEquals(2, contended.get(0).getWaits());
+            assertEquals(2, contended.get(0).getTimeouts());
+            // locks acquired faster than the threshold are not sampled
+            zkls2.getWriteLock(resource, TestMemoryLocks.DEFAULT_LOCK_TIMEOUT).release();
+            assertEquals(2, zkls2.getContendedCount());
+        }
+        finally {
+            zkls1.destroy();
+            zkls2.destroy();
+        }
+    }
+
     private void checkLockRelease(String path, ZKLocksService zkls) {
         if (zkls.getLocks().get(path) == null) {
             // good, lock is removed from memory after gc.
@@ -19,7 +19,10 @@ package org.apache.oozie.service;
 
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.oozie.BulkResponseInfo;
@@ -85,6 +88,7 @@ public class TestZKUUIDService extends ZKXTestCase {
 
         try {
             setSystemProperty(UUIDService.CONF_GENERATOR, "counter");
+            Services.get().getConf().setInt(ZKUUIDService.CONF_SEQUENCE_BLOCK_SIZE, 1);
             uuid1.init(Services.get());
             uuid2.init(Services.get());
             for (int i = 0; i < 1000; i += 2) {
@@ -101,6 +105,103 @@ public class TestZKUUIDService extends ZKXTestCase {
 
     }
 
+    public void testMultipleIDGenerationWithBlocks() throws Exception {
+        ZKUUIDService uuid1 = new ZKUUIDService();
+        ZKUUIDService uuid2 = new ZKUUIDService();
+
+        try {
+            setSystemProperty(UUIDService.CONF_GENERATOR, "counter");
+            Services.get().getConf().setInt(ZKUUIDService.CONF_SEQUENCE_BLOCK_SIZE, 100);
+            uuid1.init(Services.get());
+            uuid2.init(Services.get());
+            for (int i = 0; i < 150; i++) {
+                String id1 = uuid1.generateId(ApplicationType.WORKFLOW);
+                String id2 = uuid2.generateId(ApplicationType.WORKFLOW);
+                // each service hands out the numbers of its block, then leases the next free block
+                assertEquals(i < 100 ? i : 200 + i - 100, Integer.parseInt(id1.substring(0, 7)));
+                assertEquals(i < 100 ? 100 + i : 300 + i - 100, Integer.parseInt(id2.substring(0, 7)));
+            }
+        }
+        finally {
+            uuid1.destroy();
+            uuid2.destroy();
+        }
+    }
+
+    public void testStartTimeLeasedWithBlock() throws Exception {
+        ZKUUIDService uuid = new ZKUUIDService();
+        try {
+            setSystemProperty(UUIDService.CONF_GENERATOR, "counter");
+            Services.get().getConf().setInt(ZKUUIDService.CONF_SEQUENCE_BLOCK_SIZE, 10);
+            uuid.init(Services.get());
+            String id1 = uuid.generateId(ApplicationType.WORKFLOW);
+            // another thread resetting the start time must not change the start time of the leased block
+            uuid.startTime = "000000000000000";
+            for (int i = 1; i < 10; i++) {
+                String id = uuid.generateId(ApplicationType.WORKFLOW);
+                assertEquals(i, Integer.parseInt(id.substring(0, 7)));
+                assertEquals(id1.substring(8, 23), id.substring(8, 23));
+            }
+            // the next block is leased with the start time in effect then
+            String id = uuid.generateId(ApplicationType.WORKFLOW);
+            assertEquals(10, Integer.parseInt(id.substring(0, 7)));
+            assertEquals("000000000000000", id.substring(8, 23));
+        }
+        finally {
+            uuid.destroy();
+        }
+    }
+
+    public void testConcurrentIDGenerationWithBlocks() throws Exception {
+        setSystemProperty(UUIDService.CONF_GENERATOR, "counter");
+        Services.get().getConf().setInt(ZKUUIDService.CONF_SEQUENCE_BLOCK_SIZE, 100);
+        final int servers = 3;
+        final int threadsPerServer = 2;
+        final int count = 150;
+        final ZKUUIDService[] uuids = new ZKUUIDService[servers];
+        Thread[] threads = new Thread[servers * threadsPerServer];
+        final Set<Integer> sequences = Collections.synchronizedSet(new HashSet<Integer>());
+        final AtomicInteger generated = new AtomicInteger();
+        try {
+            for (int i = 0; i < servers; i++) {
+                uuids[i] = new ZKUUIDService();
+                uuids[i].init(Services.get());
+                final ZKUUIDService uuid = uuids[i];
+                for (int j = 0; j < threadsPerServer; j++) {
+                    threads[i * threadsPerServer + j] = new Thread() {
+                        @Override
+                        public void run() {
+                            for (int k = 0; k < count; k++) {
+                                String id = uuid.generateId(ApplicationType.WORKFLOW);
+                                sequences.add(Integer.parseInt(id.substring(0, 7)));
+                                generated.incrementAndGet();
+                            }
+                        }
+                    };
+                }
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        finally {
+            for (ZKUUIDService uuid : uuids) {
+                if (uuid != null) {
+                    uuid.destroy();
+                }
+            }
+        }
+        // each server uses up exactly 3 blocks, a block is leased only once even when threads race for it
+        assertEquals(servers * threadsPerServer * count, generated.get());
+        assertEquals(servers * threadsPerServer * count, sequences.size());
+        for (int i = 0; i < servers * threadsPerServer * count; i++) {
+            assertTrue("missing sequence " + i, sequences.contains(i));
+        }
+    }
+
     public void testMultipleIDGeneration_withMultiThread() throws Exception {
         final int size = 10000;
         final boolean[] result = new boolean[size];
@@ -314,7 +415,7 @@ class ZKUUIDServiceWithException extends ZKUUIDService {
     }
 
     @Override
-    protected long getZKSequence() throws Exception {
+    protected ZKSequence getZKSequence() throws Exception {
         if (throwEx) {
             throw new Exception("Can't generate UUID");
         }
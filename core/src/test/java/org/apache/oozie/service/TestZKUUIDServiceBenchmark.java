@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.service;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.oozie.service.UUIDService.ApplicationType;
+import org.apache.oozie.test.ZKXTestCase;
+
+/**
+ * Times job id generation on the test ZooKeeper with 1 to 4 simulated Oozie servers, for sequence blocks of 1 and
+ * 1000 ids. It is not run by default, use <code>-Dtest=TestZKUUIDServiceBenchmark</code> to run it.
+ */
+public class TestZKUUIDServiceBenchmark extends ZKXTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ZKUUIDService.setMaxSequence(9999990L);
+    }
+
+    public void testIDGenerationThroughput() throws Exception {
+        setSystemProperty(UUIDService.CONF_GENERATOR, "counter");
+        for (int blockSize : new int[]{1, 1000}) {
+            for (int servers = 1; servers <= 4; servers++) {
+                final int count = (blockSize == 1) ? 200 : 10000;
+                Services.get().getConf().setInt(ZKUUIDService.CONF_SEQUENCE_BLOCK_SIZE, blockSize);
+                final ZKUUIDService[] uuids = new ZKUUIDService[servers];
+                Thread[] threads = new Thread[servers];
+                final Set<String> ids = Collections.synchronizedSet(new HashSet<String>());
+                for (int i = 0; i < servers; i++) {
+                    uuids[i] = new ZKUUIDService();
+                    uuids[i].init(Services.get());
+                    final ZKUUIDService uuid = uuids[i];
+                    threads[i] = new Thread() {
+                        @Override
+                        public void run() {
+                            for (int j = 0; j < count; j++) {
+                                ids.add(uuid.generateId(ApplicationType.WORKFLOW));
+                            }
+                        }
+                    };
+                }
+                try {
+                    long start = System.currentTimeMillis();
+                    for (Thread thread : threads) {
+                        thread.start();
+                    }
+                    for (Thread thread : threads) {
+                        thread.join();
+                    }
+                    long time = Math.max(1, System.currentTimeMillis() - start);
+                    assertEquals(servers * count, ids.size());
+                    System.out.println("ZK job ids/sec, block size " + blockSize + ", " + servers + " server(s): "
+                            + (servers * count * 1000L / time));
+                }
+                finally {
+                    for (ZKUUIDService uuid : uuids) {
+                        uuid.destroy();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.client.rest.JMSConnectionInfoBean;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.service.DagEngineService;
+import org.apache.oozie.util.JobsCursor;
 import org.apache.oozie.util.XmlUtils;
 
 public class MockDagEngineService extends DagEngineService {
@@ -53,6 +54,7 @@ public class MockDagEngineService extends DagEngineService {
 
     public static Configuration submittedConf;
     public static String did = null;
+    public static int versions = 0;
     public static String user = null;
     public static Properties properties;
     public static List<WorkflowJob> workflows;
@@ -66,6 +68,7 @@ public class MockDagEngineService extends DagEngineService {
     public static void reset() {
         user = null;
         did = null;
+        versions = 0;
         properties = null;
         workflows = new ArrayList<WorkflowJob>();
         started = new ArrayList<Boolean>();
@@ -228,6 +231,34 @@ public class MockDagEngineService extends DagEngineService {
             return new WorkflowsInfo((List) workflows, start, len, workflows.size());
         }
 
+        @Override
+        @SuppressWarnings("unchecked")
+        public WorkflowsInfo getJobs(String filter, JobsCursor cursor, int len, boolean count)
+                throws DagEngineException {
+            parseFilter(filter);
+            did = RestConstants.JOBS_CURSOR_PARAM;
+            int start = 0;
+            for (int i = 0; !cursor.isStart() && i < workflows.size(); i++) {
+                if (workflows.get(i).getId().equals(cursor.getId())) {
+                    start = i + 1;
+                }
+            }
+            int end = Math.min(start + len, workflows.size());
+            WorkflowsInfo info = new WorkflowsInfo((List) workflows.subList(start, end), 1, len,
+                    (count) ? workflows.size() : -1);
+            if (end - start == len) {
+                info.setNextCursor(JobsCursor.after("createdTimestamp", null, workflows.get(end - 1).getId()));
+            }
+            return info;
+        }
+
+        @Override
+        public String getJobsVersion(String filter) throws DagEngineException {
+            parseFilter(filter);
+            versions++;
+            return String.valueOf(workflows.size());
+        }
+
         @Override
         public String getJobIdForExternalId(String externalId) throws DagEngineException {
             did = RestConstants.JOBS_EXTERNAL_ID_PARAM;
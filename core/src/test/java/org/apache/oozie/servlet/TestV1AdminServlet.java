@@ -33,6 +33,8 @@ import org.apache.oozie.BuildInfo;
 import org.apache.oozie.client.OozieClient.SYSTEM_MODE;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.lock.LockToken;
+import org.apache.oozie.service.MemoryLocksService;
 import org.apache.oozie.service.Services;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -242,6 +244,55 @@ public class TestV1AdminServlet extends DagServletTestCase {
 
     }
     
+    public void testLocks() throws Exception {
+        runTest("/v1/admin/*", V1AdminServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                final String jobId = "0000001-160101000000000-oozie-test-C";
+                final MemoryLocksService locksService = Services.get().get(MemoryLocksService.class);
+                LockToken lock = locksService.getWriteLock(jobId, 1000);
+                Thread thread = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            assertNull(locksService.getWriteLock(jobId, 50));
+                        }
+                        catch (InterruptedException ex) {
+                            throw new RuntimeException(ex);
+                        }
+                    }
+                };
+                thread.start();
+                thread.join();
+                lock.release();
+
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(RestConstants.LEN_PARAM, "10");
+                URL url = createURL(RestConstants.ADMIN_LOCKS_RESOURCE, params);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertTrue(conn.getHeaderField("content-type").startsWith(RestConstants.JSON_CONTENT_TYPE));
+                JSONObject json = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                JSONArray locks = (JSONArray) json.get(JsonTags.LOCKS);
+                assertEquals(1, locks.size());
+                JSONObject contention = (JSONObject) locks.get(0);
+                assertEquals(jobId, contention.get(JsonTags.LOCK_RESOURCE));
+                assertEquals("coordinator", contention.get(JsonTags.LOCK_TYPE));
+                assertEquals(1L, contention.get(JsonTags.LOCK_WAITS));
+                assertEquals(1L, contention.get(JsonTags.LOCK_TIMEOUTS));
+                assertTrue((Long) contention.get(JsonTags.LOCK_MAX_WAIT_TIME) >= 40);
+                assertEquals(1L, json.get(JsonTags.LOCKS_CONTENDED));
+
+                params.put(RestConstants.LEN_PARAM, "-1");
+                url = createURL(RestConstants.ADMIN_LOCKS_RESOURCE, params);
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_BAD_REQUEST, conn.getResponseCode());
+                return null;
+            }
+        });
+    }
+
     public void testAvailableTimeZones() throws Exception {
         runTest("/v1/admin/*", V1AdminServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
             public Void call() throws Exception {
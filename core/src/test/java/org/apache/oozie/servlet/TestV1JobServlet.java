@@ -19,6 +19,7 @@
 package org.apache.oozie.servlet;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.rest.RestConstants;
@@ -34,6 +35,7 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -262,6 +264,40 @@ public class TestV1JobServlet extends DagServletTestCase {
         });
     }
 
+    public void testJobInfoNotModified() throws Exception {
+        runTest("/v1/job/*", V1JobServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                MockCoordinatorEngineService.reset();
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(RestConstants.JOB_SHOW_PARAM, RestConstants.JOB_SHOW_INFO);
+                URL url = createURL(MockCoordinatorEngineService.JOB_ID + 1, params);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                String eTag = conn.getHeaderField(RestConstants.ETAG_HEADER);
+                assertNotNull(eTag);
+
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, eTag);
+                assertEquals(HttpServletResponse.SC_NOT_MODIFIED, conn.getResponseCode());
+                assertEquals(eTag, conn.getHeaderField(RestConstants.ETAG_HEADER));
+
+                // the job changed
+                CoordinatorJobBean coordJob = (CoordinatorJobBean) MockCoordinatorEngineService.coordJobs.get(1);
+                coordJob.setLastModifiedTime(new Date(coordJob.getLastModifiedTime().getTime() + 1000));
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, eTag);
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertFalse(eTag.equals(conn.getHeaderField(RestConstants.ETAG_HEADER)));
+                JSONObject obj = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                assertEquals(MockCoordinatorEngineService.JOB_ID + 1, obj.get(JsonTags.COORDINATOR_JOB_ID));
+                return null;
+            }
+        });
+    }
+
     public void testCoordChange() throws Exception {
         runTest("/v1/job/*", V1JobServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
             public Void call() throws Exception {
@@ -22,9 +22,13 @@ import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.zip.GZIPInputStream;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -170,6 +174,142 @@ public class TestV1JobsServlet extends DagServletTestCase {
         });
     }
 
+    public void testJobsGzip() throws Exception {
+        runTest("/v1/jobs", V1JobsServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                MockDagEngineService.reset();
+
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(RestConstants.JOBS_FILTER_PARAM, "name=x");
+                URL url = createURL("", params);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty("Accept-Encoding", "gzip");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertEquals("gzip", conn.getContentEncoding());
+                JSONObject json = (JSONObject) JSONValue.parse(
+                        new InputStreamReader(new GZIPInputStream(conn.getInputStream())));
+                JSONArray array = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
+                assertEquals(MockDagEngineService.INIT_WF_COUNT, array.size());
+
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty("Accept-Encoding", "gzip;q=0");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertNull(conn.getContentEncoding());
+                json = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                array = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
+                assertEquals(MockDagEngineService.INIT_WF_COUNT, array.size());
+                return null;
+            }
+        });
+    }
+
+    public void testJobsNotModified() throws Exception {
+        runTest("/v1/jobs", V1JobsServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                MockDagEngineService.reset();
+
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(RestConstants.JOBS_FILTER_PARAM, "name=x");
+                URL url = createURL("", params);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertEquals(RestConstants.JOBS_FILTER_PARAM, MockDagEngineService.did);
+                // a plain request doesn't compute the version of the listing
+                assertNull(conn.getHeaderField(RestConstants.ETAG_HEADER));
+                assertEquals(0, MockDagEngineService.versions);
+
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, RestConstants.NO_ETAG);
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                String eTag = conn.getHeaderField(RestConstants.ETAG_HEADER);
+                assertNotNull(eTag);
+                assertEquals(1, MockDagEngineService.versions);
+
+                // the listing did not change, it is not loaded
+                MockDagEngineService.did = null;
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, eTag);
+                assertEquals(HttpServletResponse.SC_NOT_MODIFIED, conn.getResponseCode());
+                assertEquals(eTag, conn.getHeaderField(RestConstants.ETAG_HEADER));
+                assertNull(MockDagEngineService.did);
+
+                // the entity tag is weak, the same for the gzip compressed listing
+                assertTrue(eTag.startsWith("W/"));
+                assertEquals("Accept-Encoding", conn.getHeaderField("Vary"));
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty("Accept-Encoding", "gzip");
+                conn.setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, RestConstants.NO_ETAG);
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertEquals("gzip", conn.getContentEncoding());
+                assertEquals("Accept-Encoding", conn.getHeaderField("Vary"));
+                assertEquals(eTag, conn.getHeaderField(RestConstants.ETAG_HEADER));
+                MockDagEngineService.did = null;
+
+                // another page of the listing has another entity tag
+                params.put(RestConstants.OFFSET_PARAM, "2");
+                conn = (HttpURLConnection) createURL("", params).openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, eTag);
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertFalse(eTag.equals(conn.getHeaderField(RestConstants.ETAG_HEADER)));
+
+                // the listing changed
+                MockDagEngineService.workflows.remove(MockDagEngineService.workflows.size() - 1);
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty(RestConstants.IF_NONE_MATCH_HEADER, eTag);
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertFalse(eTag.equals(conn.getHeaderField(RestConstants.ETAG_HEADER)));
+                JSONObject json = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                JSONArray array = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
+                assertEquals(MockDagEngineService.INIT_WF_COUNT - 1, array.size());
+                return null;
+            }
+        });
+    }
+
+    public void testJobsCursor() throws Exception {
+        runTest("/v1/jobs", V1JobsServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                MockDagEngineService.reset();
+
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(RestConstants.JOBS_FILTER_PARAM, "name=x");
+                params.put(RestConstants.LEN_PARAM, "3");
+                params.put(RestConstants.JOBS_CURSOR_PARAM, "");
+                List<String> listed = new ArrayList<String>();
+                String cursor;
+                do {
+                    HttpURLConnection conn = (HttpURLConnection) createURL("", params).openConnection();
+                    conn.setRequestMethod("GET");
+                    assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                    assertEquals(RestConstants.JOBS_CURSOR_PARAM, MockDagEngineService.did);
+                    JSONObject json = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                    assertEquals(-1L, json.get(JsonTags.WORKFLOWS_TOTAL));
+                    for (Object job : (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS)) {
+                        listed.add((String) ((JSONObject) job).get(JsonTags.WORKFLOW_ID));
+                    }
+                    cursor = (String) json.get(JsonTags.JOBS_NEXT_CURSOR);
+                    params.put(RestConstants.JOBS_CURSOR_PARAM, cursor);
+                } while (cursor != null);
+                assertEquals(MockDagEngineService.INIT_WF_COUNT, listed.size());
+                assertEquals(MockDagEngineService.INIT_WF_COUNT, new HashSet<String>(listed).size());
+
+                params.put(RestConstants.JOBS_CURSOR_PARAM, "not-a-cursor");
+                HttpURLConnection conn = (HttpURLConnection) createURL("", params).openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_BAD_REQUEST, conn.getResponseCode());
+                return null;
+            }
+        });
+    }
+
     public void testJobs() throws Exception {
         runTest("/v1/jobs", V1JobsServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
             public Void call() throws Exception {
@@ -428,6 +428,71 @@ public class TestSLAEmailEventListener extends XTestCase {
         assertEquals(msgs.length, 1);
     }
 
+    public void testDigest() throws Exception {
+        Configuration digestConf = new Configuration(conf);
+        digestConf.set(SLAEmailEventListener.DIGEST_WINDOW, "3600");
+        SLAEmailEventListener digestListener = new SLAEmailEventListener();
+        digestListener.init(digestConf);
+        for (int i = 1; i <= 3; i++) {
+            digestListener.onEndMiss(_createEndMissEvent("0000000-000000000000001-oozie-wrkf-C@" + i,
+                    "alert-receiver1@oozie.com"));
+        }
+        digestListener.onEndMiss(_createEndMissEvent("0000000-000000000000001-oozie-wrkf-C@4",
+                "alert-receiver2@oozie.com"));
+        assertEquals(0, greenMail.getReceivedMessages().length);
+
+        digestListener.sendDigests();
+        MimeMessage[] msgs = greenMail.getReceivedMessages();
+        assertEquals(2, msgs.length);
+        MimeMessage digestMsg = msgs[0].getRecipients(RecipientType.TO)[0].toString()
+                .equals("alert-receiver1@oozie.com") ? msgs[0] : msgs[1];
+        MimeMessage singleMsg = digestMsg == msgs[0] ? msgs[1] : msgs[0];
+        assertEquals("OOZIE - SLA alert digest (3 alerts)", digestMsg.getSubject());
+        String digestBody = digestMsg.getContent().toString();
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(digestBody.contains("OOZIE - SLA " + EventStatus.END_MISS
+                    + " (AppName=Test-SLA-End-Miss, JobID=0000000-000000000000001-oozie-wrkf-C@" + i + ")"));
+        }
+        assertEquals("OOZIE - SLA " + EventStatus.END_MISS
+                + " (AppName=Test-SLA-End-Miss, JobID=0000000-000000000000001-oozie-wrkf-C@4)", singleMsg.getSubject());
+
+        // nothing left to send
+        digestListener.sendDigests();
+        assertEquals(2, greenMail.getReceivedMessages().length);
+    }
+
+    public void testDigestQueueBounded() throws Exception {
+        Configuration digestConf = new Configuration(conf);
+        digestConf.set(SLAEmailEventListener.DIGEST_WINDOW, "3600");
+        digestConf.set(SLAEmailEventListener.DIGEST_MAX_PENDING, "2");
+        SLAEmailEventListener digestListener = new SLAEmailEventListener();
+        digestListener.init(digestConf);
+        for (int i = 1; i <= 3; i++) {
+            digestListener.onEndMiss(_createEndMissEvent("0000000-000000000000001-oozie-wrkf-C@" + i,
+                    "alert-receiver@oozie.com"));
+        }
+        // the third alert does not fit in the queue and is sent right away
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertTrue(digestListener.isDigestScheduled());
+        digestListener.destroy();
+        assertFalse(digestListener.isDigestScheduled());
+        MimeMessage[] msgs = greenMail.getReceivedMessages();
+        assertEquals(2, msgs.length);
+        assertEquals("OOZIE - SLA alert digest (2 alerts)", msgs[1].getSubject());
+    }
+
+    private SLACalcStatus _createEndMissEvent(String id, String alertContact) throws Exception {
+        SLACalcStatus event = _createSLACalcStatus(id);
+        SLARegistrationBean eventBean = event.getSLARegistrationBean();
+        event.setEventStatus(EventStatus.END_MISS);
+        event.setId(id);
+        eventBean.setAppName("Test-SLA-End-Miss");
+        eventBean.setUser("dummyuser");
+        eventBean.setExpectedEnd(DateUtils.parseDateUTC("2013-01-01T00:00Z"));
+        eventBean.setAlertContact(alertContact);
+        return event;
+    }
+
     private SLACalcStatus _createSLACalcStatus(String actionId) {
         SLARegistrationBean reg = new SLARegistrationBean();
         reg.setId(actionId);
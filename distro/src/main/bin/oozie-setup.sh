@@ -40,9 +40,9 @@ function printUsage() {
   echo "                                                                  is no existing sharelib installed in HDFS)"
   echo "          db create|upgrade|postupgrade -run [-sqlfile <FILE>] (create, upgrade or postupgrade oozie db with an"
   echo "                                                                optional sql File)"
-  echo "          export <file>                                         exports the oozie database to the specified"
+  echo "          export [-threads <N>] [-format json|binary] <file>    exports the oozie database to the specified"
   echo "                                                                file in zip format"
-  echo "          import <file>                                         imports the oozie database from the zip file"
+  echo "          import [-threads <N>] [-batch <N>] <file>             imports the oozie database from the zip file"
   echo "                                                                created by export"
   echo "          (without options prints this usage information)"
   echo
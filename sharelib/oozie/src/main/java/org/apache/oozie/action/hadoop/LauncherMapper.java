@@ -19,12 +19,16 @@
 package org.apache.oozie.action.hadoop;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -35,7 +39,6 @@ import java.text.MessageFormat;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -43,8 +46,6 @@ import java.util.concurrent.TimeUnit;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.io.SequenceFile;
-import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.Mapper;
 import org.apache.hadoop.mapred.OutputCollector;
@@ -74,7 +75,11 @@ public class LauncherMapper<K1, V1, K2, V2> implements Mapper<K1, V1, K2, V2>, R
     static final String OOZIE_ACTION_DIR_PATH = ACTION_PREFIX + "dir.path";
     static final String ACTION_CONF_XML = "action.xml";
     static final String ACTION_PREPARE_XML = "oozie.action.prepare.xml";
-    static final String ACTION_DATA_SEQUENCE_FILE = "action-data.seq"; // COMBO FILE
+    static final String ACTION_DATA_FILE = "action-data.bin"; // COMBO FILE
+    static final String ACTION_DATA_SEQUENCE_FILE = "action-data.seq"; // COMBO FILE, written by older launchers
+    static final int ACTION_DATA_FILE_MAGIC = 0x4F414400;
+    static final int ACTION_DATA_FILE_VERSION = 1;
+    private static final String UTF_8 = "UTF-8";
     static final String ACTION_DATA_EXTERNAL_CHILD_IDS = "externalChildIDs";
     static final String ACTION_DATA_OUTPUT_PROPS = "output.properties";
     static final String ACTION_DATA_STATS = "stats.properties";
@@ -420,38 +425,97 @@ public class LauncherMapper<K1, V1, K2, V2> implements Mapper<K1, V1, K2, V2>, R
     }
 
     private void uploadActionDataToHDFS() throws IOException {
-        if (!actionData.isEmpty()) {
-            Path finalPath = new Path(actionDir, ACTION_DATA_SEQUENCE_FILE);
-            FileSystem fs = FileSystem.get(finalPath.toUri(), getJobConf());
-            // upload into sequence file
-            System.out.println("Oozie Launcher, uploading action data to HDFS sequence file: "
-                    + new Path(actionDir, ACTION_DATA_SEQUENCE_FILE).toUri());
-
-            SequenceFile.Writer wr = null;
-            try {
-                wr = SequenceFile.createWriter(fs, getJobConf(), finalPath, Text.class, Text.class);
-                if (wr != null) {
-                    Set<String> keys = actionData.keySet();
-                    for (String propsKey : keys) {
-                        wr.append(new Text(propsKey), new Text(actionData.get(propsKey)));
-                    }
-                }
-                else {
-                    throw new IOException("SequenceFile.Writer is null for " + finalPath);
+        Path finalPath = new Path(actionDir, ACTION_DATA_FILE);
+        FileSystem fs = FileSystem.get(finalPath.toUri(), getJobConf());
+        // the file is written even if there is no action data, so Oozie server can always read it with a single open
+        System.out.println("Oozie Launcher, uploading action data to HDFS file: " + finalPath.toUri());
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writeActionData(buffer, actionData);
+        OutputStream os = null;
+        try {
+            os = fs.create(finalPath, true);
+            buffer.writeTo(os);
+            os.close();
+            os = null;
+        }
+        catch(IOException e) {
+            e.printStackTrace();
+            throw e;
+        }
+        finally {
+            if (os != null) {
+                try {
+                    os.close();
                 }
-            }
-            catch(IOException e) {
-                e.printStackTrace();
-                throw e;
-            }
-            finally {
-                if (wr != null) {
-                    wr.close();
+                catch (IOException ex) {
+                    // ignore, the write already failed
                 }
             }
         }
     }
 
+    /**
+     * Write action data in the action data file format: a magic number and version, the number of entries, then
+     * every key and its value as UTF-8 bytes, each prefixed with its length.
+     *
+     * @param os stream to write to, it is not closed.
+     * @param data action data.
+     * @throws IOException thrown if the data could not be written.
+     */
+    static void writeActionData(OutputStream os, Map<String, String> data) throws IOException {
+        DataOutputStream dos = new DataOutputStream(os);
+        dos.writeInt(ACTION_DATA_FILE_MAGIC);
+        dos.writeByte(ACTION_DATA_FILE_VERSION);
+        dos.writeInt(data.size());
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            writeActionDataString(dos, entry.getKey());
+            writeActionDataString(dos, entry.getValue());
+        }
+        dos.flush();
+    }
+
+    /**
+     * Read action data written by {@link #writeActionData(OutputStream, Map)}.
+     *
+     * @param is stream to read from, it is not closed.
+     * @return the action data.
+     * @throws IOException thrown if the data could not be read or is not in the action data file format.
+     */
+    static Map<String, String> readActionData(InputStream is) throws IOException {
+        DataInputStream dis = new DataInputStream(is);
+        if (dis.readInt() != ACTION_DATA_FILE_MAGIC) {
+            throw new IOException("Not an action data file");
+        }
+        int version = dis.readUnsignedByte();
+        if (version != ACTION_DATA_FILE_VERSION) {
+            throw new IOException("Unsupported action data file version [" + version + "]");
+        }
+        int count = dis.readInt();
+        Map<String, String> data = new HashMap<String, String>();
+        for (int i = 0; i < count; i++) {
+            String key = readActionDataString(dis);
+            data.put(key, readActionDataString(dis));
+        }
+        return data;
+    }
+
+    private static void writeActionDataString(DataOutputStream dos, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    private static String readActionDataString(DataInputStream dis) throws IOException {
+        int length = dis.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid action data entry length [" + length + "]");
+        }
+        byte[] bytes = new byte[length];
+        dis.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
     private void setupMainConfiguration() throws IOException {
         Path pathNew = new Path(new Path(actionDir, ACTION_CONF_XML),
                 new Path(new File(ACTION_CONF_XML).getAbsolutePath()));
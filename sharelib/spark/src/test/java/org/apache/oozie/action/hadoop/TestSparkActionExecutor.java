@@ -19,6 +19,7 @@
 package org.apache.oozie.action.hadoop;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.filecache.DistributedCache;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.JobClient;
@@ -27,10 +28,12 @@ import org.apache.hadoop.mapred.JobID;
 import org.apache.hadoop.mapred.RunningJob;
 import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.ShareLibService;
 import org.apache.oozie.service.SparkConfigurationService;
 import org.apache.oozie.service.WorkflowAppService;
 import org.apache.oozie.util.IOUtils;
@@ -47,8 +50,10 @@ import java.io.OutputStream;
 import java.io.Writer;
 
 import java.text.MessageFormat;
+import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -148,6 +153,44 @@ public class TestSparkActionExecutor extends ActionExecutorTestCase {
         assertEquals(sparkOpts.size(), count);
     }
 
+    public void testConsolidatedArchivesNotUsed() throws Exception {
+        WorkflowAppService wps = Services.get().get(WorkflowAppService.class);
+        Path systemLibPath = new Path(wps.getSystemLibPath(), ShareLibService.SHARE_LIB_PREFIX
+                + new SimpleDateFormat("yyyyMMddHHmmss").format(new Date()));
+        Path sparkShareLibPath = new Path(systemLibPath, "spark");
+        getFileSystem().mkdirs(sparkShareLibPath);
+        Path sparkCorePath = new Path(sparkShareLibPath, "spark-core.jar");
+        getFileSystem().create(sparkCorePath).close();
+        Path sparkYarnPath = new Path(sparkShareLibPath, "spark-yarn.jar");
+        getFileSystem().create(sparkYarnPath).close();
+        Path launcherPath = new Path(systemLibPath, "oozie");
+        getFileSystem().mkdirs(launcherPath);
+        getFileSystem().create(new Path(launcherPath, "oozie-sharelib-oozie.jar")).close();
+
+        ConfigurationService.setBoolean(ShareLibService.CONSOLIDATED_ARCHIVES, true);
+        Services.get().setService(ShareLibService.class);
+        assertNotNull(Services.get().get(ShareLibService.class).getConsolidatedArchive("spark"));
+
+        Element actionXml = XmlUtils.parseXml(getActionXml());
+        Context context = createContext(getActionXml());
+        XConfiguration wfConf = new XConfiguration();
+        wfConf.set(WorkflowAppService.HADOOP_USER, getTestUser());
+        wfConf.set(OozieClient.APP_PATH, new Path(getAppPath(), "workflow.xml").toString());
+        wfConf.setBoolean(OozieClient.USE_SYSTEM_LIBPATH, true);
+        ((WorkflowJobBean) context.getWorkflow()).setConf(XmlUtils.prettyPrint(wfConf).toString());
+
+        // SparkMain needs the spark jars as cache files, for --files and to find the spark-yarn jar
+        SparkActionExecutor ae = new SparkActionExecutor();
+        Configuration jobConf = ae.createBaseHadoopConf(context, actionXml);
+        ae.setupLauncherConf(jobConf, actionXml, getAppPath(), context);
+        ae.setLibFilesArchives(context, actionXml, getAppPath(), jobConf);
+        String cacheFiles = Arrays.toString(DistributedCache.getCacheFiles(jobConf));
+        assertTrue(cacheFiles, cacheFiles.contains(sparkCorePath.toString()));
+        assertTrue(cacheFiles, cacheFiles.contains(sparkYarnPath.toString()));
+        String cacheArchives = Arrays.toString(DistributedCache.getCacheArchives(jobConf));
+        assertFalse(cacheArchives, cacheArchives.contains("/" + ShareLibService.CONSOLIDATED_LIB_DIR + "/"));
+    }
+
     private String getActionXml() {
         String script = "<spark xmlns=''uri:oozie:spark-action:0.1''>" +
                 "<job-tracker>{0}</job-tracker>" +
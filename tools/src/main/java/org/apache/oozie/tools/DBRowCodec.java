@@ -0,0 +1,365 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.tools;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * Compact binary format of database rows, an alternative to the JSON entries of the database dump.
+ * <p>
+ * An entry starts with a magic byte, a version and the names and JDBC types of the columns of the table. Each row
+ * follows as a row marker and its values, in column order: length-prefixed UTF-8 strings and bytes, and zig-zag varint
+ * numbers and times. A zero marker ends the entry. Rows are copied at the JDBC level, without going through the beans.
+ */
+class DBRowCodec {
+
+    static final byte MAGIC = (byte) 0x52;
+    static final byte VERSION = 1;
+
+    private static final byte ROW = 1;
+    private static final byte END = 0;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private DBRowCodec() {
+    }
+
+    /**
+     * Writes the rows of a table.
+     */
+    static class Writer {
+        private final DataOutputStream out;
+        private final int[] types;
+
+        /**
+         * Create a writer, writing the header of the entry with the columns of a result set.
+         *
+         * @param out output stream of the entry.
+         * @param metaData metadata of the rows to write.
+         * @throws IOException thrown if the header could not be written.
+         * @throws SQLException thrown if the metadata could not be read.
+         */
+        Writer(OutputStream out, ResultSetMetaData metaData) throws IOException, SQLException {
+            this.out = new DataOutputStream(out);
+            types = new int[metaData.getColumnCount()];
+            this.out.writeByte(MAGIC);
+            this.out.writeByte(VERSION);
+            writeVarLong(this.out, types.length);
+            for (int i = 0; i < types.length; i++) {
+                types[i] = metaData.getColumnType(i + 1);
+                writeString(this.out, metaData.getColumnName(i + 1));
+                writeVarLong(this.out, zigZag(types[i]));
+            }
+        }
+
+        /**
+         * Write the current row of a result set.
+         *
+         * @param rs result set positioned on the row.
+         * @throws IOException thrown if the row could not be written.
+         * @throws SQLException thrown if the row could not be read.
+         */
+        void write(ResultSet rs) throws IOException, SQLException {
+            out.writeByte(ROW);
+            for (int i = 0; i < types.length; i++) {
+                int column = i + 1;
+                switch (getKind(types[i])) {
+                    case NUMBER: {
+                        long value = rs.getLong(column);
+                        writeVarLong(out, rs.wasNull() ? 0 : zigZag(value) + 1);
+                        break;
+                    }
+                    case TIME: {
+                        Timestamp value = rs.getTimestamp(column);
+                        writeVarLong(out, value == null ? 0 : zigZag(value.getTime()) + 1);
+                        break;
+                    }
+                    case BYTES: {
+                        byte[] value;
+                        if (types[i] == Types.BLOB) {
+                            Blob blob = rs.getBlob(column);
+                            value = (blob == null) ? null : blob.getBytes(1, (int) blob.length());
+                        }
+                        else {
+                            value = rs.getBytes(column);
+                        }
+                        writeBytes(out, value);
+                        break;
+                    }
+                    default: {
+                        String value;
+                        if (types[i] == Types.CLOB) {
+                            Clob clob = rs.getClob(column);
+                            value = (clob == null) ? null : clob.getSubString(1, (int) clob.length());
+                        }
+                        else {
+                            value = rs.getString(column);
+                        }
+                        writeString(out, value);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Write the end of the entry.
+         *
+         * @throws IOException thrown if the end could not be written.
+         */
+        void close() throws IOException {
+            out.writeByte(END);
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads the rows of a table.
+     */
+    static class Reader {
+        private final DataInputStream in;
+        private final String[] columns;
+        private final int[] types;
+
+        /**
+         * Create a reader, reading the header of the entry.
+         *
+         * @param in input stream of the entry.
+         * @throws IOException thrown if the header could not be read or is not valid.
+         */
+        Reader(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            if (this.in.readByte() != MAGIC) {
+                throw new IOException("Not a binary rows entry");
+            }
+            byte version = this.in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary rows version [" + version + "]");
+            }
+            int count = (int) readVarLong(this.in);
+            columns = new String[count];
+            types = new int[count];
+            for (int i = 0; i < count; i++) {
+                columns[i] = readString(this.in);
+                types[i] = (int) unZigZag(readVarLong(this.in));
+            }
+        }
+
+        /**
+         * Return the names of the columns of the rows.
+         *
+         * @return the column names.
+         */
+        String[] getColumns() {
+            return columns;
+        }
+
+        /**
+         * Return the JDBC types of the columns of the rows.
+         *
+         * @return the column types.
+         */
+        int[] getTypes() {
+            return types;
+        }
+
+        /**
+         * Read the next row.
+         *
+         * @return the values of the row, in column order, <code>null</code> at the end of the entry.
+         * @throws IOException thrown if the row could not be read.
+         */
+        Object[] read() throws IOException {
+            if (in.readByte() == END) {
+                return null;
+            }
+            Object[] values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                switch (getKind(types[i])) {
+                    case NUMBER: {
+                        long value = readVarLong(in);
+                        values[i] = (value == 0) ? null : unZigZag(value - 1);
+                        break;
+                    }
+                    case TIME: {
+                        long value = readVarLong(in);
+                        values[i] = (value == 0) ? null : new Timestamp(unZigZag(value - 1));
+                        break;
+                    }
+                    case BYTES:
+                        values[i] = readBytes(in);
+                        break;
+                    default:
+                        values[i] = readString(in);
+                }
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Return the insert statement of the rows of a table.
+     *
+     * @param table table name.
+     * @param columns column names.
+     * @return the insert statement.
+     */
+    static String getInsertStatement(String table, String[] columns) {
+        StringBuilder sb = new StringBuilder("insert into ").append(table).append(" (");
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+                values.append(", ");
+            }
+            sb.append(columns[i]);
+            values.append("?");
+        }
+        return sb.append(") values (").append(values).append(")").toString();
+    }
+
+    /**
+     * Set the values of a row as the parameters of an insert statement.
+     *
+     * @param ps insert statement.
+     * @param types JDBC types of the columns.
+     * @param values values of the row.
+     * @throws SQLException thrown if a parameter could not be set.
+     */
+    static void setParameters(PreparedStatement ps, int[] types, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            int parameter = i + 1;
+            if (values[i] == null) {
+                ps.setNull(parameter, types[i]);
+            }
+            else if (values[i] instanceof Long) {
+                ps.setLong(parameter, (Long) values[i]);
+            }
+            else if (values[i] instanceof Timestamp) {
+                ps.setTimestamp(parameter, (Timestamp) values[i]);
+            }
+            else if (values[i] instanceof byte[]) {
+                ps.setBytes(parameter, (byte[]) values[i]);
+            }
+            else {
+                ps.setString(parameter, (String) values[i]);
+            }
+        }
+    }
+
+    private enum Kind {
+        NUMBER, TIME, BYTES, TEXT
+    }
+
+    private static Kind getKind(int type) {
+        switch (type) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return Kind.NUMBER;
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+                return Kind.TIME;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return Kind.BYTES;
+            default:
+                // text, and DECIMAL or NUMERIC which are kept exact as strings
+                return Kind.TEXT;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, (value == null) ? null : value.getBytes(UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return (bytes == null) ? null : new String(bytes, UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+        }
+        else {
+            writeVarLong(out, value.length + 1);
+            out.write(value);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > Integer.MAX_VALUE) {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+}
@@ -26,8 +26,10 @@ import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.BuildInfo;
 import org.apache.oozie.cli.CLIParser;
+import org.apache.oozie.command.SchemaCheckXCommand;
 import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.PurgeService;
 import org.apache.oozie.service.Services;
 
 import java.io.ByteArrayInputStream;
@@ -42,9 +44,14 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -57,8 +64,14 @@ public class OozieDBCLI {
     public static final String CREATE_CMD = "create";
     public static final String UPGRADE_CMD = "upgrade";
     public static final String POST_UPGRADE_CMD = "postupgrade";
+    public static final String PARTITION_CMD = "partition";
+    public static final String DROP_PARTITIONS_CMD = "droppartitions";
     public static final String SQL_FILE_OPT = "sqlfile";
     public static final String RUN_OPT = "run";
+    public static final String MONTHS_OPT = "months";
+    public static final String OLDER_THAN_OPT = "olderthan";
+    public static final String ARCHIVE_OPT = "archive";
+    private final static int DEFAULT_FUTURE_MONTHS = 3;
     private final static String DB_VERSION_PRE_4_0 = "1";
     private final static String DB_VERSION_FOR_4_0 = "2";
     final static String DB_VERSION_FOR_5_0 = "3";
@@ -91,6 +104,22 @@ public class OozieDBCLI {
         return options;
     }
 
+    protected Options createPartitionOptions() {
+        Options options = createUpgradeOptions();
+        options.addOption(new Option(MONTHS_OPT, true, "Number of coming months to create partitions for (default "
+                + DEFAULT_FUTURE_MONTHS + ")"));
+        return options;
+    }
+
+    protected Options createDropPartitionsOptions() {
+        Options options = createUpgradeOptions();
+        Option olderThan = new Option(OLDER_THAN_OPT, true, "Drop the months older than this number of days");
+        olderThan.setRequired(true);
+        options.addOption(olderThan);
+        options.addOption(new Option(ARCHIVE_OPT, true, "Directory to archive the rows of the dropped months to"));
+        return options;
+    }
+
     public synchronized int run(String[] args) {
         if (used) {
             throw new IllegalStateException("CLI instance already used");
@@ -103,6 +132,10 @@ public class OozieDBCLI {
         parser.addCommand(CREATE_CMD, "", "create Oozie DB schema", createUpgradeOptions(), false);
         parser.addCommand(UPGRADE_CMD, "", "upgrade Oozie DB", createUpgradeOptions(), false);
         parser.addCommand(POST_UPGRADE_CMD, "", "post upgrade Oozie DB", createUpgradeOptions(), false);
+        parser.addCommand(PARTITION_CMD, "", "partition the Oozie DB job history tables by month",
+                createPartitionOptions(), false);
+        parser.addCommand(DROP_PARTITIONS_CMD, "", "archive and drop the months of job history older than a retention",
+                createDropPartitionsOptions(), false);
 
         try {
             System.out.println();
@@ -135,6 +168,14 @@ public class OozieDBCLI {
                 if (command.getName().equals(POST_UPGRADE_CMD)) {
                     postUpgradeDB(sqlFile, run);
                 }
+                if (command.getName().equals(PARTITION_CMD)) {
+                    partitionDB(sqlFile, run, Integer.parseInt(commandLine.getOptionValue(MONTHS_OPT,
+                            String.valueOf(DEFAULT_FUTURE_MONTHS))));
+                }
+                if (command.getName().equals(DROP_PARTITIONS_CMD)) {
+                    dropPartitions(sqlFile, run, Integer.parseInt(commandLine.getOptionValue(OLDER_THAN_OPT)),
+                            commandLine.getOptionValue(ARCHIVE_OPT));
+                }
                 System.out.println();
                 System.out.println("The SQL commands have been written to: " + sqlFile);
                 if (!run) {
@@ -1109,6 +1150,517 @@ public class OozieDBCLI {
         System.out.println("DONE");
     }
 
+    private final static String GET_PARTITIONS_LAYOUT =
+        "select data from OOZIE_SYS where name = '" + SchemaCheckXCommand.OOZIE_SYS_PARTITIONS + "'";
+
+    private final static String LIVE_JOB_STATUSES = "('PREP', 'RUNNING', 'RUNNINGWITHERROR', 'SUSPENDED', "
+            + "'SUSPENDEDWITHERROR', 'PREPSUSPENDED', 'PAUSED', 'PAUSEDWITHERROR', 'PREPPAUSED')";
+
+    private final static String[] LIVE_ROWS_QUERIES = {
+        "select count(*) from WF_JOBS where created_time >= ? and created_time < ? " +
+        "and status in ('PREP', 'RUNNING', 'SUSPENDED')",
+        "select count(*) from WF_JOBS w, WF_JOBS p where w.parent_id = p.id and w.created_time >= ? " +
+        "and w.created_time < ? and p.status in ('PREP', 'RUNNING', 'SUSPENDED')",
+        "select count(*) from WF_ACTIONS a, WF_JOBS w where a.wf_id = w.id and a.created_time >= ? " +
+        "and a.created_time < ? and w.status in ('PREP', 'RUNNING', 'SUSPENDED')",
+        "select count(*) from COORD_ACTIONS where created_time >= ? and created_time < ? " +
+        "and status in ('WAITING', 'READY', 'SUBMITTED', 'RUNNING', 'SUSPENDED')",
+        "select count(*) from SLA_SUMMARY where created_time >= ? and created_time < ? " +
+        "and sla_status in ('NOT_STARTED', 'IN_PROCESS')"};
+
+    // the coordinator actions, and their workflows, are kept as long as their coordinator is, unless
+    // oozie.service.PurgeService.purge.old.coord.action is set, as the PurgeService does
+    private final static String[] LIVE_COORD_ROWS_QUERIES = {
+        "select count(*) from COORD_ACTIONS a, COORD_JOBS c where a.job_id = c.id and a.created_time >= ? " +
+        "and a.created_time < ? and c.status in " + LIVE_JOB_STATUSES,
+        "select count(*) from COORD_ACTIONS a, COORD_JOBS c, BUNDLE_JOBS b where a.job_id = c.id " +
+        "and c.bundle_id = b.id and a.created_time >= ? and a.created_time < ? and b.status in " + LIVE_JOB_STATUSES,
+        "select count(*) from WF_JOBS w, COORD_ACTIONS a, COORD_JOBS c where w.parent_id = a.id " +
+        "and a.job_id = c.id and w.created_time >= ? and w.created_time < ? and c.status in " + LIVE_JOB_STATUSES,
+        "select count(*) from WF_JOBS w, COORD_ACTIONS a, COORD_JOBS c, BUNDLE_JOBS b where w.parent_id = a.id " +
+        "and a.job_id = c.id and c.bundle_id = b.id and w.created_time >= ? and w.created_time < ? " +
+        "and b.status in " + LIVE_JOB_STATUSES};
+
+    // the SLA registrations aren't partitioned and the SLA summaries can be created in another month than their job
+    private final static String[] SLA_TABLES = {"SLA_REGISTRATION", "SLA_SUMMARY"};
+
+    // the columns an unset creation time is backfilled from, so old rows don't land in the current month
+    private final static Map<String, String> BACKFILL_COLUMNS = new HashMap<String, String>();
+
+    static {
+        BACKFILL_COLUMNS.put("WF_JOBS", "last_modified_time, end_time");
+        BACKFILL_COLUMNS.put("WF_ACTIONS", "end_time, last_check_time, start_time");
+        BACKFILL_COLUMNS.put("COORD_ACTIONS", "last_modified_time, nominal_time");
+        BACKFILL_COLUMNS.put("SLA_SUMMARY", "last_modified, actual_end");
+    }
+
+    private final static String GET_MYSQL_PARTITION_NAMES =
+        "select partition_name from information_schema.PARTITIONS " +
+        "where table_schema = database() and table_name = ? and partition_name is not null";
+
+    private final static String MYSQL_MAX_PARTITION = "pmax";
+
+    private final static String PARTITION_COLUMN = SchemaCheckXCommand.PARTITION_COLUMN;
+
+    /**
+     * Partition the job history tables by month of creation, so that the expired months can be dropped as a whole.
+     * <p>
+     * MySQL partitions are created for the past months and the coming ones, the command must be run again before they
+     * run out to add the next months; Oracle creates the monthly partitions itself. Other databases keep a logical
+     * layout, where the expired months are deleted by creation time range.
+     */
+    private void partitionDB(String sqlFile, boolean run, int futureMonths) throws Exception {
+        validateConnection();
+        if (!checkDBExists()) {
+            throw new Exception("Oozie DB doesn't exist");
+        }
+        verifyOozieSysTable(true);
+        String vendor = getDBVendor();
+        boolean nativePartitions = vendor.equals("mysql") || vendor.equals("oracle");
+        String newLayout = (nativePartitions) ? SchemaCheckXCommand.PARTITIONS_NATIVE
+                                              : SchemaCheckXCommand.PARTITIONS_LOGICAL;
+        PrintWriter writer = new PrintWriter(new FileWriter(sqlFile, true));
+        writer.println();
+        Connection conn = createConnection();
+        try {
+            conn.setAutoCommit(true);
+            String layout = getPartitionsLayout(conn);
+            List<String> statements = new ArrayList<String>();
+            Calendar nextMonth = truncateToMonth(new Date());
+            nextMonth.add(Calendar.MONTH, futureMonths + 1);
+            if (!nativePartitions) {
+                System.out.println("Partitioning is not supported for " + vendor + ", using the logical layout:");
+                System.out.println("expired months are deleted by creation time range");
+                if (!SchemaCheckXCommand.PARTITIONS_LOGICAL.equals(layout)) {
+                    for (String table : SchemaCheckXCommand.PARTITIONED_TABLES) {
+                        statements.add(getBackfillQuery(table));
+                    }
+                }
+            }
+            else if (!SchemaCheckXCommand.PARTITIONS_NATIVE.equals(layout)) {
+                Calendar firstMonth = getFirstMonth(conn);
+                for (String table : SchemaCheckXCommand.PARTITIONED_TABLES) {
+                    System.out.println("Partition " + table + " by month");
+                    // The partition column can't be null
+                    statements.add(getBackfillQuery(table));
+                    if (vendor.equals("mysql")) {
+                        statements.addAll(getMySqlPartitionQueries(table, firstMonth, nextMonth));
+                    }
+                    else {
+                        statements.add(getOraclePartitionQuery(table, firstMonth));
+                    }
+                }
+            }
+            else if (vendor.equals("mysql")) {
+                for (String table : SchemaCheckXCommand.PARTITIONED_TABLES) {
+                    String query = getMySqlAddPartitionsQuery(table, getMySqlPartitions(conn, table), nextMonth);
+                    if (query != null) {
+                        System.out.println("Add the coming months to the partitions of " + table);
+                        statements.add(query);
+                    }
+                }
+            }
+            else {
+                System.out.println("Oracle creates the partitions of the coming months itself");
+            }
+            if (layout == null) {
+                statements.add("insert into OOZIE_SYS (name, data) values ('" + SchemaCheckXCommand.OOZIE_SYS_PARTITIONS
+                        + "', '" + newLayout + "')");
+            }
+            else if (!layout.equals(newLayout)) {
+                statements.add("update OOZIE_SYS set data='" + newLayout + "' where name='"
+                        + SchemaCheckXCommand.OOZIE_SYS_PARTITIONS + "'");
+            }
+            executeStatements(writer, conn, statements, run);
+        }
+        catch (Exception ex) {
+            throw new Exception("Could not partition the Oozie DB: " + ex.toString(), ex);
+        }
+        finally {
+            writer.close();
+            conn.close();
+        }
+        System.out.println("DONE");
+    }
+
+    /**
+     * Drop the months of the job history tables older than a retention. A month is dropped only when all its jobs have
+     * completed; it is archived first, in the export format, when an archive directory is given.
+     */
+    private void dropPartitions(String sqlFile, boolean run, int olderThanDays, String archiveDir) throws Exception {
+        validateConnection();
+        if (!checkDBExists()) {
+            throw new Exception("Oozie DB doesn't exist");
+        }
+        verifyOozieSysTable(true);
+        String vendor = getDBVendor();
+        File archive = (archiveDir != null) ? new File(archiveDir) : null;
+        if (archive != null && !run) {
+            System.out.println("WARN: The months are only archived with the '-run' option");
+        }
+        if (archive != null && run && !archive.isDirectory() && !archive.mkdirs()) {
+            throw new Exception("Could not create the archive directory " + archive);
+        }
+        PrintWriter writer = new PrintWriter(new FileWriter(sqlFile, true));
+        writer.println();
+        // the JDBC configuration is read before starting the JPA service, reading it resets the services
+        Connection conn = createConnection();
+        Configuration oozieConf = new Services().getConf();
+        boolean purgeOldCoordActions = oozieConf.getBoolean(PurgeService.PURGE_OLD_COORD_ACTION, false);
+        int chunkSize = oozieConf.getInt(PurgeService.PURGE_LIMIT, 100);
+        Services services = null;
+        try {
+            conn.setAutoCommit(true);
+            String layout = getPartitionsLayout(conn);
+            if (layout == null) {
+                throw new Exception("Oozie DB is not partitioned, run '" + PARTITION_CMD + "' first");
+            }
+            boolean nativePartitions = layout.equals(SchemaCheckXCommand.PARTITIONS_NATIVE);
+            Map<String, List<String>> mySqlPartitions = new HashMap<String, List<String>>();
+            if (nativePartitions && vendor.equals("mysql")) {
+                for (String table : SchemaCheckXCommand.PARTITIONED_TABLES) {
+                    mySqlPartitions.put(table, getMySqlPartitions(conn, table));
+                }
+            }
+            if (archive != null && run) {
+                services = new Services();
+                services.getConf().set(Services.CONF_SERVICE_CLASSES, JPAService.class.getName());
+                services.getConf().set(Services.CONF_SERVICE_EXT_CLASSES, "");
+                services.init();
+            }
+            Calendar cutoff = Calendar.getInstance();
+            cutoff.add(Calendar.DAY_OF_MONTH, -olderThanDays);
+            Calendar month = getFirstMonth(conn);
+            Calendar end = (Calendar) month.clone();
+            end.add(Calendar.MONTH, 1);
+            Calendar droppedEnd = null;
+            while (!end.after(cutoff)) {
+                String name = formatPartitionName(month);
+                Map<String, Long> rows = countRows(conn, month.getTime(), end.getTime());
+                long live = countLiveRows(conn, month.getTime(), end.getTime(), purgeOldCoordActions);
+                if (rows.isEmpty()) {
+                    System.out.println("Month " + name + " is empty");
+                }
+                else if (live > 0) {
+                    System.out.println("SKIPPING month " + name + ", [" + live
+                            + "] rows belong to jobs not completed yet");
+                }
+                else {
+                    if (services != null) {
+                        File file = new File(archive, "oozie-archive-" + name.substring(1) + ".zip");
+                        long archived = OozieDBExportCLI.archiveCreatedBetween(file, month.getTime(), end.getTime());
+                        System.out.println("Archived [" + archived + "] rows of month " + name + " to " + file);
+                    }
+                    System.out.println("Drop month " + name);
+                    List<String> statements = new ArrayList<String>();
+                    List<String> deletes = new ArrayList<String>();
+                    for (String table : rows.keySet()) {
+                        boolean hasPartition = !vendor.equals("mysql") || mySqlPartitions.get(table).contains(name);
+                        if (!nativePartitions || !hasPartition) {
+                            deletes.add(table);
+                        }
+                        else if (vendor.equals("mysql")) {
+                            statements.add("ALTER TABLE " + table + " DROP PARTITION " + name);
+                        }
+                        else {
+                            statements.add("ALTER TABLE " + table + " DROP PARTITION FOR (TIMESTAMP '"
+                                    + formatPartitionBound(month) + "') UPDATE GLOBAL INDEXES");
+                        }
+                    }
+                    executeStatements(writer, conn, statements, run);
+                    for (String table : deletes) {
+                        deleteInChunks(writer, conn, table, getMonthCondition(month, end), chunkSize, run);
+                    }
+                    droppedEnd = (Calendar) end.clone();
+                }
+                month.add(Calendar.MONTH, 1);
+                end.add(Calendar.MONTH, 1);
+            }
+            if (droppedEnd != null) {
+                System.out.println("Delete the SLA rows of the dropped jobs");
+                for (String table : SLA_TABLES) {
+                    deleteInChunks(writer, conn, table, getOrphanSlaCondition(table, droppedEnd), chunkSize, run);
+                }
+            }
+        }
+        catch (Exception ex) {
+            throw new Exception("Could not drop the expired months: " + ex.toString(), ex);
+        }
+        finally {
+            writer.close();
+            conn.close();
+            if (services != null) {
+                services.destroy();
+            }
+        }
+        System.out.println("DONE");
+    }
+
+    private void executeStatements(PrintWriter writer, Connection conn, List<String> statements, boolean run)
+            throws Exception {
+        for (String statement : statements) {
+            if (statement.contains(";")) {
+                // compound statements, like the MySQL triggers, need another delimiter in the mysql client
+                writer.println("DELIMITER //");
+                writer.println(statement + " //");
+                writer.println("DELIMITER ;");
+            }
+            else {
+                writer.println(statement + ";");
+            }
+            if (run) {
+                Statement st = conn.createStatement();
+                try {
+                    st.executeUpdate(statement);
+                }
+                finally {
+                    st.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete the rows of a table matching a condition by chunks of primary keys. Auto-commit is on, so each chunk is
+     * committed on its own and the transactions stay small; the SQL script gets the plain delete.
+     */
+    private void deleteInChunks(PrintWriter writer, Connection conn, String table, String condition, int chunkSize,
+            boolean run) throws Exception {
+        writer.println("DELETE FROM " + table + " WHERE " + condition + ";");
+        if (!run) {
+            return;
+        }
+        String primaryKey = getPrimaryKey(table);
+        String select = "SELECT " + primaryKey + " FROM " + table + " WHERE " + condition;
+        int deleted;
+        do {
+            List<String> ids = new ArrayList<String>();
+            Statement st = conn.createStatement();
+            try {
+                st.setMaxRows(chunkSize);
+                ResultSet rs = st.executeQuery(select);
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+            finally {
+                st.close();
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            StringBuilder delete = new StringBuilder("DELETE FROM ").append(table).append(" WHERE ")
+                    .append(primaryKey).append(" IN (");
+            for (int i = 0; i < ids.size(); i++) {
+                delete.append((i == 0) ? "?" : ", ?");
+            }
+            delete.append(")");
+            PreparedStatement ps = conn.prepareStatement(delete.toString());
+            try {
+                for (int i = 0; i < ids.size(); i++) {
+                    ps.setString(i + 1, ids.get(i));
+                }
+                deleted = ps.executeUpdate();
+            }
+            finally {
+                ps.close();
+            }
+        } while (deleted > 0);
+    }
+
+    private String getPartitionsLayout(Connection conn) throws Exception {
+        Statement st = conn.createStatement();
+        try {
+            ResultSet rs = st.executeQuery(GET_PARTITIONS_LAYOUT);
+            return (rs.next()) ? rs.getString(1) : null;
+        }
+        finally {
+            st.close();
+        }
+    }
+
+    /**
+     * Return the first month with job history, or the current month if there is none.
+     */
+    private Calendar getFirstMonth(Connection conn) throws Exception {
+        Date first = new Date();
+        Statement st = conn.createStatement();
+        try {
+            for (String table : SchemaCheckXCommand.PARTITIONED_TABLES) {
+                ResultSet rs = st.executeQuery("select min(" + PARTITION_COLUMN + ") from " + table);
+                if (rs.next() && rs.getTimestamp(1) != null && rs.getTimestamp(1).before(first)) {
+                    first = rs.getTimestamp(1);
+                }
+                rs.close();
+            }
+        }
+        finally {
+            st.close();
+        }
+        return truncateToMonth(first);
+    }
+
+    private Map<String, Long> countRows(Connection conn, Date start, Date end) throws Exception {
+        Map<String, Long> rows = new LinkedHashMap<String, Long>();
+        for (String table : SchemaCheckXCommand.PARTITIONED_TABLES) {
+            long count = count(conn, "select count(*) from " + table + " where " + PARTITION_COLUMN
+                    + " >= ? and " + PARTITION_COLUMN + " < ?", start, end);
+            if (count > 0) {
+                rows.put(table, count);
+            }
+        }
+        return rows;
+    }
+
+    private long countLiveRows(Connection conn, Date start, Date end, boolean purgeOldCoordActions)
+            throws Exception {
+        long live = 0;
+        for (String query : LIVE_ROWS_QUERIES) {
+            live += count(conn, query, start, end);
+        }
+        if (!purgeOldCoordActions) {
+            for (String query : LIVE_COORD_ROWS_QUERIES) {
+                live += count(conn, query, start, end);
+            }
+        }
+        return live;
+    }
+
+    private long count(Connection conn, String query, Date start, Date end) throws Exception {
+        PreparedStatement ps = conn.prepareStatement(query);
+        try {
+            ps.setTimestamp(1, new Timestamp(start.getTime()));
+            ps.setTimestamp(2, new Timestamp(end.getTime()));
+            ResultSet rs = ps.executeQuery();
+            return (rs.next()) ? rs.getLong(1) : 0;
+        }
+        finally {
+            ps.close();
+        }
+    }
+
+    private List<String> getMySqlPartitions(Connection conn, String table) throws Exception {
+        List<String> partitions = new ArrayList<String>();
+        PreparedStatement ps = conn.prepareStatement(GET_MYSQL_PARTITION_NAMES);
+        try {
+            ps.setString(1, table);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        }
+        finally {
+            ps.close();
+        }
+        return partitions;
+    }
+
+    private List<String> getMySqlPartitionQueries(String table, Calendar firstMonth, Calendar endMonth) {
+        List<String> queries = new ArrayList<String>();
+        // MySQL wants the partition column in the primary key, and in any unique index
+        String primaryKey = getPrimaryKey(table);
+        queries.add("ALTER TABLE " + table + " DROP PRIMARY KEY, ADD PRIMARY KEY (" + primaryKey + ", "
+                + PARTITION_COLUMN + ")");
+        // so the uniqueness of the key alone is checked on insert, using the primary key index
+        queries.add("CREATE TRIGGER " + table + "_unique_key BEFORE INSERT ON " + table + " FOR EACH ROW BEGIN "
+                + "IF EXISTS (SELECT 1 FROM " + table + " WHERE " + primaryKey + " = NEW." + primaryKey + ") THEN "
+                + "SIGNAL SQLSTATE '23000' SET MESSAGE_TEXT = 'Duplicate entry for key " + primaryKey + "'; "
+                + "END IF; END");
+        queries.add("ALTER TABLE " + table + " PARTITION BY RANGE COLUMNS(" + PARTITION_COLUMN + ") ("
+                + getMySqlPartitionDefinitions(firstMonth, endMonth) + ")");
+        return queries;
+    }
+
+    private String getMySqlAddPartitionsQuery(String table, List<String> partitions, Calendar endMonth)
+            throws Exception {
+        String last = null;
+        for (String partition : partitions) {
+            if (!partition.equals(MYSQL_MAX_PARTITION) && (last == null || partition.compareTo(last) > 0)) {
+                last = partition;
+            }
+        }
+        if (last == null) {
+            throw new Exception("Table " + table + " is not partitioned");
+        }
+        Calendar month = Calendar.getInstance();
+        month.setTime(new SimpleDateFormat("yyyyMM").parse(last.substring(1)));
+        month.add(Calendar.MONTH, 1);
+        if (!month.before(endMonth)) {
+            return null;
+        }
+        return "ALTER TABLE " + table + " REORGANIZE PARTITION " + MYSQL_MAX_PARTITION + " INTO ("
+                + getMySqlPartitionDefinitions(month, endMonth) + ")";
+    }
+
+    /**
+     * Return the partitions of the months from the first month to the end month, exclusive, and the catch-all one.
+     */
+    private String getMySqlPartitionDefinitions(Calendar firstMonth, Calendar endMonth) {
+        StringBuilder definitions = new StringBuilder();
+        Calendar month = (Calendar) firstMonth.clone();
+        while (month.before(endMonth)) {
+            String name = formatPartitionName(month);
+            month.add(Calendar.MONTH, 1);
+            definitions.append("PARTITION ").append(name).append(" VALUES LESS THAN ('")
+                    .append(formatPartitionBound(month)).append("'), ");
+        }
+        definitions.append("PARTITION ").append(MYSQL_MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE)");
+        return definitions.toString();
+    }
+
+    private String getOraclePartitionQuery(String table, Calendar firstMonth) {
+        // the range partition stays empty, the monthly interval partitions are created on insert
+        return "ALTER TABLE " + table + " MODIFY PARTITION BY RANGE (" + PARTITION_COLUMN + ") "
+                + "INTERVAL (NUMTOYMINTERVAL(1, 'MONTH')) (PARTITION p_first VALUES LESS THAN (TIMESTAMP '"
+                + formatPartitionBound(firstMonth) + "')) ONLINE UPDATE INDEXES";
+    }
+
+    private String getMonthCondition(Calendar month, Calendar end) {
+        return PARTITION_COLUMN + " >= '" + formatPartitionBound(month) + "' AND " + PARTITION_COLUMN + " < '"
+                + formatPartitionBound(end) + "'";
+    }
+
+    /**
+     * Return the condition of the SLA rows created before the end of the last dropped month whose job is gone.
+     */
+    private String getOrphanSlaCondition(String table, Calendar end) {
+        return table + "." + PARTITION_COLUMN + " < '" + formatPartitionBound(end) + "' "
+                + "AND NOT EXISTS (SELECT 1 FROM WF_JOBS w WHERE w.id = " + table + ".job_id) "
+                + "AND NOT EXISTS (SELECT 1 FROM WF_ACTIONS a WHERE a.id = " + table + ".job_id) "
+                + "AND NOT EXISTS (SELECT 1 FROM COORD_ACTIONS c WHERE c.id = " + table + ".job_id)";
+    }
+
+    /**
+     * Return the update setting the unset creation times from the last modification or end time of the rows.
+     */
+    private String getBackfillQuery(String table) {
+        return "UPDATE " + table + " SET " + PARTITION_COLUMN + " = COALESCE(" + BACKFILL_COLUMNS.get(table)
+                + ", CURRENT_TIMESTAMP) WHERE " + PARTITION_COLUMN + " IS NULL";
+    }
+
+    private static String getPrimaryKey(String table) {
+        return (table.startsWith("SLA_")) ? "job_id" : "id";
+    }
+
+    private static Calendar truncateToMonth(Date date) {
+        Calendar month = Calendar.getInstance();
+        month.setTime(date);
+        month.set(Calendar.DAY_OF_MONTH, 1);
+        month.set(Calendar.HOUR_OF_DAY, 0);
+        month.set(Calendar.MINUTE, 0);
+        month.set(Calendar.SECOND, 0);
+        month.set(Calendar.MILLISECOND, 0);
+        return month;
+    }
+
+    private static String formatPartitionName(Calendar month) {
+        return "p" + new SimpleDateFormat("yyyyMM").format(month.getTime());
+    }
+
+    private static String formatPartitionBound(Calendar month) {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(month.getTime());
+    }
+
     private void showVersion() throws Exception {
         System.out.println("Oozie DB tool version: "
                            + BuildInfo.getBuildInfo().getProperty(BuildInfo.BUILD_VERSION));
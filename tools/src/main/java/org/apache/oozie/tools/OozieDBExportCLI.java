@@ -19,23 +19,53 @@
 package org.apache.oozie.tools;
 
 import com.google.gson.Gson;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.BundleActionBean;
+import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.cli.CLIParser;
+import org.apache.oozie.service.ConfigurationService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.sla.SLARegistrationBean;
+import org.apache.oozie.sla.SLASummaryBean;
 import org.apache.oozie.store.StoreException;
 import org.apache.oozie.util.IOUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.FlushModeType;
 import javax.persistence.Query;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -44,6 +74,7 @@ import java.util.zip.ZipOutputStream;
  * <p/>
  * <ul>
  * <li>Exports the data from the Oozie database to a specified target zip file</li>
+ * <li>Tables are exported in parallel, each one in pages of rows ordered by id, as JSON beans or binary rows</li>
  * <li>This class uses the current oozie configuration in oozie-site.xml</li>
  * </ul>
  * <p/>
@@ -61,15 +92,36 @@ public class OozieDBExportCLI {
     public static final String OOZIEDB_SLASUM_JSON = "ooziedb_slasum.json";
     public static final String OOZIEDB_SYS_INFO_JSON = "ooziedb_sysinfo.json";
 
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_BINARY = "binary";
+
+    static final String JSON_EXTENSION = ".json";
+    static final String BINARY_EXTENSION = ".bin";
+
+    /**
+     * Exported tables, in the order of the dump entries.
+     */
+    static final DBTable[] TABLES = {
+            new DBTable("WF_JOBS", OOZIEDB_WF_JSON, WorkflowJobBean.class, "id", "id"),
+            new DBTable("WF_ACTIONS", OOZIEDB_AC_JSON, WorkflowActionBean.class, "id", "id"),
+            new DBTable("COORD_JOBS", OOZIEDB_CJ_JSON, CoordinatorJobBean.class, "id", "id"),
+            new DBTable("COORD_ACTIONS", OOZIEDB_CA_JSON, CoordinatorActionBean.class, "id", "id"),
+            new DBTable("BUNDLE_JOBS", OOZIEDB_BNJ_JSON, BundleJobBean.class, "id", "id"),
+            new DBTable("BUNDLE_ACTIONS", OOZIEDB_BNA_JSON, BundleActionBean.class, "bundleActionId",
+                    "bundle_action_id"),
+            new DBTable("SLA_REGISTRATION", OOZIEDB_SLAREG_JSON, SLARegistrationBean.class, "jobId", "job_id"),
+            new DBTable("SLA_SUMMARY", OOZIEDB_SLASUM_JSON, SLASummaryBean.class, "jobId", "job_id")
+    };
+
     private static final String GET_DB_VERSION = "select name, data from OOZIE_SYS where name = 'db.version'";
-    private static final String GET_WORKFLOW_JOBS = "select OBJECT(w) from WorkflowJobBean w";
-    private static final String GET_WORKFLOW_ACTIONS = "select OBJECT(a) from WorkflowActionBean a";
-    private static final String GET_COORD_JOBS = "select OBJECT(w) from CoordinatorJobBean w";
-    private static final String GET_COORD_ACTIONS = "select OBJECT(w) from CoordinatorActionBean w";
-    private static final String GET_BUNDLE_JOBS = "select OBJECT(w) from BundleJobBean w";
-    private static final String GET_BUNDLE_ACIONS = "select OBJECT(w) from BundleActionBean w";
-    private static final String GET_SLA_REGISTRATIONS = "select OBJECT(w) from SLARegistrationBean w";
-    private static final String GET_SLA_SUMMARYS = "select OBJECT(w) from SLASummaryBean w";
+    private static final String GET_WORKFLOW_JOBS_CREATED_BETWEEN = "select OBJECT(w) from WorkflowJobBean w "
+            + "where w.createdTimestamp >= :start and w.createdTimestamp < :end order by w.id";
+    private static final String GET_WORKFLOW_ACTIONS_CREATED_BETWEEN = "select OBJECT(a) from WorkflowActionBean a "
+            + "where a.createdTimeTS >= :start and a.createdTimeTS < :end order by a.id";
+    private static final String GET_COORD_ACTIONS_CREATED_BETWEEN = "select OBJECT(w) from CoordinatorActionBean w "
+            + "where w.createdTimestamp >= :start and w.createdTimestamp < :end order by w.id";
+    private static final String GET_SLA_SUMMARYS_CREATED_BETWEEN = "select OBJECT(w) from SLASummaryBean w "
+            + "where w.createdTimeTS >= :start and w.createdTimeTS < :end order by w.jobId";
 
     private static final int LIMIT = 1000;
     private static final String[] HELP_INFO = {
@@ -78,6 +130,32 @@ public class OozieDBExportCLI {
     };
     private static final String HELP_CMD = "help";
     private static final String EXPORT_CMD = "export";
+    private static final String THREADS_OPT = "threads";
+    private static final String FORMAT_OPT = "format";
+    private static final int DEFAULT_THREADS = 4;
+
+    /**
+     * A table of the dump.
+     */
+    static final class DBTable {
+        final String table;
+        final String entry;
+        final Class<?> beanClass;
+        final String idField;
+        final String idColumn;
+
+        DBTable(String table, String entry, Class<?> beanClass, String idField, String idColumn) {
+            this.table = table;
+            this.entry = entry;
+            this.beanClass = beanClass;
+            this.idField = idField;
+            this.idColumn = idColumn;
+        }
+
+        String getBinaryEntry() {
+            return entry.substring(0, entry.length() - JSON_EXTENSION.length()) + BINARY_EXTENSION;
+        }
+    }
 
     public static void main(String[] args) {
 
@@ -85,7 +163,7 @@ public class OozieDBExportCLI {
         parser.addCommand(HELP_CMD, "", "display usage for all commands or specified command", new Options(), false);
         parser.addCommand(EXPORT_CMD, "",
                 "exports the contents of the Oozie database to the specified file",
-                new Options(), true);
+                getExportOptions(), true);
 
         try {
             CLIParser.Command command = parser.parse(args);
@@ -94,7 +172,15 @@ public class OozieDBExportCLI {
                 services.getConf().set(Services.CONF_SERVICE_CLASSES, JPAService.class.getName());
                 services.getConf().set(Services.CONF_SERVICE_EXT_CLASSES, "");
                 services.init();
-                queryAllDBTables(command.getCommandLine().getArgs()[0]);
+                CommandLine commandLine = command.getCommandLine();
+                int threads = Integer.parseInt(commandLine.getOptionValue(THREADS_OPT,
+                        String.valueOf(DEFAULT_THREADS)));
+                String format = commandLine.getOptionValue(FORMAT_OPT, FORMAT_JSON);
+                if (threads < 1 || !(format.equals(FORMAT_JSON) || format.equals(FORMAT_BINARY))) {
+                    throw new ParseException("-" + THREADS_OPT + " must be positive and -" + FORMAT_OPT + " one of "
+                            + FORMAT_JSON + ", " + FORMAT_BINARY);
+                }
+                queryAllDBTables(commandLine.getArgs()[0], threads, format.equals(FORMAT_BINARY));
             } else if (command.getName().equals(HELP_CMD)) {
                 parser.showHelp(command.getCommandLine());
             }
@@ -120,13 +206,33 @@ public class OozieDBExportCLI {
         }
     }
 
-    private static void queryAllDBTables(String filename) throws StoreException, IOException {
+    private static Options getExportOptions() {
+        Options options = new Options();
+        options.addOption(new Option(THREADS_OPT, true, "Number of tables to export in parallel (default "
+                + DEFAULT_THREADS + ")"));
+        options.addOption(new Option(FORMAT_OPT, true, "Format of the exported rows, " + FORMAT_JSON + " (default) or "
+                + FORMAT_BINARY));
+        return options;
+    }
+
+    private static void queryAllDBTables(String filename, int threads, boolean binary)
+            throws StoreException, IOException {
 
         EntityManager manager = null;
         ZipOutputStream zos = null;
         File file = null;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<File> parts = new ArrayList<File>();
         try {
             file = new File(filename);
+            // every table is exported to its own part file, the parts are added to the dump in the table order
+            File dir = file.getAbsoluteFile().getParentFile();
+            List<Future<Integer>> exports = new ArrayList<Future<Integer>>();
+            for (DBTable table : TABLES) {
+                File part = File.createTempFile("ooziedb-" + table.table + "-", ".part", dir);
+                parts.add(part);
+                exports.add(executor.submit(new TableExport(table, part, binary)));
+            }
             zos = new ZipOutputStream(new FileOutputStream(file));
             zos.setLevel(1);
             manager = Services.get().get(JPAService.class).getEntityManager();
@@ -135,47 +241,231 @@ public class OozieDBExportCLI {
             int infoSize = exportTableToJSON(manager.createNativeQuery(GET_DB_VERSION), zos, OOZIEDB_SYS_INFO_JSON);
             System.out.println(infoSize + " rows exported from OOZIE_SYS");
 
-            int wfjSize = exportTableToJSON(manager.createQuery(GET_WORKFLOW_JOBS), zos, OOZIEDB_WF_JSON);
-            System.out.println(wfjSize + " rows exported from WF_JOBS");
-
-            int wfaSize = exportTableToJSON(manager.createQuery(GET_WORKFLOW_ACTIONS), zos, OOZIEDB_AC_JSON);
-            System.out.println(wfaSize + " rows exported from WF_ACTIONS");
-
-            int cojSize = exportTableToJSON(manager.createQuery(GET_COORD_JOBS), zos, OOZIEDB_CJ_JSON);
-            System.out.println(cojSize + " rows exported from COORD_JOBS");
-
-            int coaSize = exportTableToJSON(manager.createQuery(GET_COORD_ACTIONS), zos, OOZIEDB_CA_JSON);
-            System.out.println(coaSize + " rows exported from COORD_ACTIONS");
-
-            int bnjSize = exportTableToJSON(manager.createQuery(GET_BUNDLE_JOBS), zos, OOZIEDB_BNJ_JSON);
-            System.out.println(bnjSize + " rows exported from BUNDLE_JOBS");
-
-            int bnaSize = exportTableToJSON(manager.createQuery(GET_BUNDLE_ACIONS), zos, OOZIEDB_BNA_JSON);
-            System.out.println(bnaSize + " rows exported from BUNDLE_ACTIONS");
-
-            int slaRegSize = exportTableToJSON(manager.createQuery(GET_SLA_REGISTRATIONS), zos, OOZIEDB_SLAREG_JSON);
-            System.out.println(slaRegSize + " rows exported from SLA_REGISTRATION");
-
-            int ssSize = exportTableToJSON(manager.createQuery(GET_SLA_SUMMARYS), zos, OOZIEDB_SLASUM_JSON);
-            System.out.println(ssSize + " rows exported from SLA_SUMMARY");
+            for (int i = 0; i < TABLES.length; i++) {
+                int size = getExported(TABLES[i], exports.get(i));
+                addEntry(zos, binary ? TABLES[i].getBinaryEntry() : TABLES[i].entry, parts.get(i));
+                parts.get(i).delete();
+                System.out.println(size + " rows exported from " + TABLES[i].table);
+            }
 
         } catch (Exception e){
             System.err.println("Error during dump creation: " + e.getMessage());
             System.err.println();
             e.printStackTrace(System.err);
             System.err.println();
+            executor.shutdownNow();
+            deleteFiles(parts);
             if (file != null) {
                 file.delete();
             }
             System.exit(1);
         } finally {
+            executor.shutdownNow();
+            deleteFiles(parts);
+            IOUtils.closeSafely(zos);
+            if (manager != null) {
+                manager.close();
+            }
+        }
+    }
+
+    /**
+     * Exports the rows of a table to a part file, in pages ordered by id. Each page starts after the last id of the
+     * previous one, so the database does not scan the rows of the previous pages again.
+     */
+    private static class TableExport implements Callable<Integer> {
+        private final DBTable table;
+        private final File part;
+        private final boolean binary;
+
+        TableExport(DBTable table, File part, boolean binary) {
+            this.table = table;
+            this.part = part;
+            this.binary = binary;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(part));
+            try {
+                return binary ? exportBinaryRows(table, out) : exportJSONRows(table, out);
+            }
+            finally {
+                out.close();
+            }
+        }
+    }
+
+    private static int exportJSONRows(DBTable table, OutputStream out) throws IOException {
+        EntityManager manager = Services.get().get(JPAService.class).getEntityManager();
+        try {
+            manager.setFlushMode(FlushModeType.COMMIT);
+            String id = "w." + table.idField;
+            Query query = manager.createQuery("select w, " + id + " from " + table.beanClass.getSimpleName()
+                    + " w where " + id + " > :lastId order by " + id);
+            query.setMaxResults(LIMIT);
+            Gson gson = new Gson();
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+            int exported = 0;
+            String lastId = "";
+            List<?> page;
+            do {
+                query.setParameter("lastId", lastId);
+                page = query.getResultList();
+                for (Object row : page) {
+                    Object[] values = (Object[]) row;
+                    gson.toJson(values[0], writer);
+                    writer.newLine();
+                    lastId = (String) values[1];
+                }
+                exported += page.size();
+                manager.clear();
+            } while (page.size() == LIMIT);
+            writer.flush();
+            return exported;
+        }
+        finally {
+            manager.close();
+        }
+    }
+
+    private static int exportBinaryRows(DBTable table, OutputStream out)
+            throws IOException, SQLException, ClassNotFoundException {
+        Connection conn = openConnection();
+        try {
+            PreparedStatement ps = conn.prepareStatement("select * from " + table.table + " where " + table.idColumn
+                    + " > ? order by " + table.idColumn);
+            ps.setMaxRows(LIMIT);
+            DBRowCodec.Writer writer = null;
+            int exported = 0;
+            int page;
+            String lastId = "";
+            do {
+                ps.setString(1, lastId);
+                ResultSet rs = ps.executeQuery();
+                try {
+                    if (writer == null) {
+                        writer = new DBRowCodec.Writer(out, rs.getMetaData());
+                    }
+                    page = 0;
+                    while (rs.next()) {
+                        writer.write(rs);
+                        lastId = rs.getString(table.idColumn);
+                        page++;
+                    }
+                }
+                finally {
+                    rs.close();
+                }
+                exported += page;
+            } while (page == LIMIT);
+            writer.close();
+            ps.close();
+            return exported;
+        }
+        finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * Open a JDBC connection to the Oozie database, with the settings of the {@link JPAService}.
+     *
+     * @return the connection, to be closed by the caller.
+     * @throws SQLException thrown if the connection could not be opened.
+     * @throws ClassNotFoundException thrown if the JDBC driver is not available.
+     */
+    static Connection openConnection() throws SQLException, ClassNotFoundException {
+        Configuration conf = Services.get().getConf();
+        Class.forName(ConfigurationService.get(conf, JPAService.CONF_DRIVER));
+        return DriverManager.getConnection(ConfigurationService.get(conf, JPAService.CONF_URL),
+                ConfigurationService.get(conf, JPAService.CONF_USERNAME),
+                ConfigurationService.getPassword(conf, JPAService.CONF_PASSWORD).trim());
+    }
+
+    private static int getExported(DBTable table, Future<Integer> export) throws IOException, InterruptedException {
+        try {
+            return export.get();
+        }
+        catch (ExecutionException ex) {
+            throw new IOException("Export failed from table " + table.table + ".", ex.getCause());
+        }
+    }
+
+    private static void addEntry(ZipOutputStream zos, String name, File part) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        InputStream in = new FileInputStream(part);
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                zos.write(buffer, 0, read);
+            }
+        }
+        finally {
+            in.close();
+        }
+        zos.closeEntry();
+    }
+
+    private static void deleteFiles(List<File> files) {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Archive the workflow jobs, workflow actions, coordinator actions and SLA summaries created in a time range to a
+     * zip file, in the export format. The archive can be loaded back with the import command.
+     * <p>
+     * The {@link JPAService} must be initialized.
+     *
+     * @param file archive file to create
+     * @param start start of the time range, inclusive
+     * @param end end of the time range, exclusive
+     * @return the number of archived rows
+     * @throws IOException thrown if the archive could not be written
+     */
+    public static long archiveCreatedBetween(File file, Date start, Date end) throws IOException {
+        EntityManager manager = null;
+        ZipOutputStream zos = null;
+        boolean done = false;
+        try {
+            zos = new ZipOutputStream(new FileOutputStream(file));
+            zos.setLevel(Deflater.BEST_COMPRESSION);
+            manager = Services.get().get(JPAService.class).getEntityManager();
+            manager.setFlushMode(FlushModeType.COMMIT);
+            exportTableToJSON(manager.createNativeQuery(GET_DB_VERSION), zos, OOZIEDB_SYS_INFO_JSON);
+            long archived = 0;
+            archived += exportTableToJSON(createRangeQuery(manager, GET_WORKFLOW_JOBS_CREATED_BETWEEN, start, end),
+                    zos, OOZIEDB_WF_JSON);
+            archived += exportTableToJSON(createRangeQuery(manager, GET_WORKFLOW_ACTIONS_CREATED_BETWEEN, start, end),
+                    zos, OOZIEDB_AC_JSON);
+            archived += exportTableToJSON(createRangeQuery(manager, GET_COORD_ACTIONS_CREATED_BETWEEN, start, end),
+                    zos, OOZIEDB_CA_JSON);
+            archived += exportTableToJSON(createRangeQuery(manager, GET_SLA_SUMMARYS_CREATED_BETWEEN, start, end),
+                    zos, OOZIEDB_SLASUM_JSON);
+            done = true;
+            return archived;
+        }
+        finally {
             IOUtils.closeSafely(zos);
             if (manager != null) {
                 manager.close();
             }
+            if (!done) {
+                file.delete();
+            }
         }
     }
 
+    private static Query createRangeQuery(EntityManager manager, String jpql, Date start, Date end) {
+        Query query = manager.createQuery(jpql);
+        query.setParameter("start", new Timestamp(start.getTime()));
+        query.setParameter("end", new Timestamp(end.getTime()));
+        return query;
+    }
+
     private static int exportTableToJSON(Query query, ZipOutputStream zipOutputStream, String filename) throws IOException {
         Gson gson = new Gson();
         ZipEntry zipEntry = new ZipEntry(filename);
@@ -19,32 +19,50 @@
 package org.apache.oozie.tools;
 
 import com.google.gson.Gson;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 
 import org.apache.commons.cli.ParseException;
-import org.apache.oozie.BundleActionBean;
-import org.apache.oozie.BundleJobBean;
-import org.apache.oozie.CoordinatorActionBean;
-import org.apache.oozie.CoordinatorJobBean;
-import org.apache.oozie.WorkflowActionBean;
-import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.cli.CLIParser;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
-import org.apache.oozie.sla.SLARegistrationBean;
-import org.apache.oozie.sla.SLASummaryBean;
 import org.apache.oozie.store.StoreException;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
 import javax.persistence.FlushModeType;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -55,6 +73,8 @@ import static org.apache.oozie.tools.OozieDBExportCLI.*;
  * <p/>
  * <ul>
  * <li>Imports the data from json files created by {@link OozieDBExportCLI} the specified target zip file</li>
+ * <li>Rows are written in chunks by parallel writers, JDBC batches for binary dumps, and the committed chunks are
+ * checkpointed so that an interrupted import can be resumed</li>
  * <li>This class uses the current oozie configuration in oozie-site.xml</li>
  * </ul>
  * <p/>
@@ -68,6 +88,13 @@ public class OozieDBImportCLI {
     };
     private static final String IMPORT_CMD = "import";
     private static final String HELP_CMD = "help";
+    private static final String THREADS_OPT = "threads";
+    private static final String BATCH_OPT = "batch";
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_BATCH = 1000;
+    private static final long PROGRESS_INTERVAL = 10;
+
+    static final String CHECKPOINT_EXTENSION = ".progress";
 
     public static void main(String[] args) throws ParseException {
 
@@ -76,7 +103,7 @@ public class OozieDBImportCLI {
         parser.addCommand(HELP_CMD, "", "display usage for all commands or specified command", new Options(), false);
         parser.addCommand(IMPORT_CMD, "",
                 "imports the contents of the Oozie database from the specified file",
-                new Options(), true);
+                getImportOptions(), true);
 
         try {
             CLIParser.Command command = parser.parse(args);
@@ -87,7 +114,14 @@ public class OozieDBImportCLI {
                 services.init();
                 System.out.println("==========================================================");
                 System.out.println(Arrays.toString(command.getCommandLine().getArgs()));
-                importAllDBTables(command.getCommandLine().getArgs()[0]);
+                CommandLine commandLine = command.getCommandLine();
+                int threads = Integer.parseInt(commandLine.getOptionValue(THREADS_OPT,
+                        String.valueOf(DEFAULT_THREADS)));
+                int batchSize = Integer.parseInt(commandLine.getOptionValue(BATCH_OPT, String.valueOf(DEFAULT_BATCH)));
+                if (threads < 1 || batchSize < 1) {
+                    throw new ParseException("-" + THREADS_OPT + " and -" + BATCH_OPT + " must be positive");
+                }
+                importAllDBTables(commandLine.getArgs()[0], threads, batchSize);
             } else if (command.getName().equals(HELP_CMD)) {
                 parser.showHelp(command.getCommandLine());
             }
@@ -113,26 +147,44 @@ public class OozieDBImportCLI {
         }
     }
 
-    private static void importAllDBTables(String zipFileName) throws StoreException, IOException, JPAExecutorException {
+    private static Options getImportOptions() {
+        Options options = new Options();
+        options.addOption(new Option(THREADS_OPT, true, "Number of parallel writers (default " + DEFAULT_THREADS
+                + ")"));
+        options.addOption(new Option(BATCH_OPT, true, "Number of rows committed together (default " + DEFAULT_BATCH
+                + ")"));
+        return options;
+    }
+
+    private static void importAllDBTables(String zipFileName, int threads, int batchSize)
+            throws StoreException, IOException, JPAExecutorException, InterruptedException {
 
         EntityManager entityManager = null;
         ZipFile zipFile = null;
+        ImportCheckpoint checkpoint = null;
+        TableImport tableImport = null;
         try {
 
             entityManager = Services.get().get(JPAService.class).getEntityManager();
             entityManager.setFlushMode(FlushModeType.COMMIT);
             zipFile = new ZipFile(zipFileName);
             checkDBVersion(entityManager, zipFile);
-            importFrom(entityManager, zipFile, "WF_JOBS", WorkflowJobBean.class, OOZIEDB_WF_JSON);
-            importFrom(entityManager, zipFile, "WF_ACTIONS", WorkflowActionBean.class, OOZIEDB_AC_JSON);
-            importFrom(entityManager, zipFile, "COORD_JOBS", CoordinatorJobBean.class, OOZIEDB_CJ_JSON);
-            importFrom(entityManager, zipFile, "COORD_ACTIONS", CoordinatorActionBean.class, OOZIEDB_CA_JSON);
-            importFrom(entityManager, zipFile, "BUNDLE_JOBS", BundleJobBean.class, OOZIEDB_BNJ_JSON);
-            importFrom(entityManager, zipFile, "BUNDLE_ACTIONS", BundleActionBean.class, OOZIEDB_BNA_JSON);
-            importFrom(entityManager, zipFile, "SLA_REGISTRATION", SLARegistrationBean.class, OOZIEDB_SLAREG_JSON);
-            importFrom(entityManager, zipFile, "SLA_SUMMARY", SLASummaryBean.class, OOZIEDB_SLASUM_JSON);
+            checkpoint = new ImportCheckpoint(new File(zipFileName + CHECKPOINT_EXTENSION), batchSize);
+            tableImport = new TableImport(zipFile, checkpoint, threads, batchSize);
+            for (DBTable table : TABLES) {
+                tableImport.importFrom(table);
+            }
+            checkpoint.close();
+            checkpoint.delete();
+            checkpoint = null;
 
         } finally {
+            if (tableImport != null) {
+                tableImport.close();
+            }
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
             if (entityManager != null) {
                 entityManager.close();
             }
@@ -178,37 +230,294 @@ public class OozieDBImportCLI {
         }
     }
 
-    private static void importFrom(EntityManager entityManager, ZipFile zipFile, String table,
-                                   Class<?> clazz, String fileName) throws JPAExecutorException, IOException {
-        EntityTransaction transaction = entityManager.getTransaction();
-        transaction.begin();
-        try {
-            int size = importFromJSONtoDB(entityManager, zipFile, fileName, clazz);
-            transaction.commit();
-            System.out.println(size + " rows imported to " + table);
-        } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
+    /**
+     * Imports the entries of a dump, split in chunks of rows written to the database by a pool of writer threads.
+     * <p>
+     * Binary rows are inserted with JDBC batches, a connection per writer thread. JSON beans are persisted with an
+     * {@link EntityManager} transaction per chunk. The chunks being read are bounded by twice the number of writer
+     * threads. Committed chunks are recorded in the checkpoint, and skipped when the import is run again. Once a chunk
+     * fails no more chunks are read, and the chunks not written yet are cancelled.
+     */
+    private static class TableImport {
+        private final ZipFile zipFile;
+        private final ImportCheckpoint checkpoint;
+        private final int batchSize;
+        private final ExecutorService writers;
+        private final Semaphore pending;
+        private final ThreadLocal<Connection> connection = new ThreadLocal<Connection>();
+        private final List<Connection> connections = Collections.synchronizedList(new ArrayList<Connection>());
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        private final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        private final long start = System.currentTimeMillis();
+
+        TableImport(ZipFile zipFile, ImportCheckpoint checkpoint, int threads, int batchSize) {
+            this.zipFile = zipFile;
+            this.checkpoint = checkpoint;
+            this.batchSize = batchSize;
+            writers = Executors.newFixedThreadPool(threads);
+            pending = new Semaphore(threads * 2);
+            reporter.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    long seconds = Math.max(1, (System.currentTimeMillis() - start) / 1000);
+                    System.out.println(imported.get() + " rows imported in " + seconds + " s, "
+                            + imported.get() / seconds + " rows/s");
+                }
+            }, PROGRESS_INTERVAL, PROGRESS_INTERVAL, TimeUnit.SECONDS);
+        }
+
+        void importFrom(DBTable table) throws IOException, InterruptedException {
+            List<Future<Integer>> chunks = new ArrayList<Future<Integer>>();
+            int skipped = 0;
+            try {
+                ZipEntry entry = zipFile.getEntry(table.getBinaryEntry());
+                if (entry != null) {
+                    skipped = readBinaryChunks(table, zipFile.getInputStream(entry), chunks);
+                }
+                else {
+                    entry = zipFile.getEntry(table.entry);
+                    if (entry != null) {
+                        skipped = readJSONChunks(table, zipFile.getInputStream(entry), chunks);
+                    }
+                }
+                int size = 0;
+                for (Future<Integer> chunk : chunks) {
+                    size += chunk.get();
+                }
+                System.out.println(size + " rows imported to " + table.table
+                        + (skipped > 0 ? ", " + skipped + " chunks imported before skipped" : ""));
+            }
+            catch (Exception e) {
+                for (Future<Integer> chunk : chunks) {
+                    chunk.cancel(false);
+                }
+                Throwable cause = (e instanceof ExecutionException) ? e.getCause() : e;
+                throw new RuntimeException("Import failed to table " + table.table + ".", cause);
+            }
+        }
+
+        private int readBinaryChunks(final DBTable table, InputStream in, List<Future<Integer>> chunks)
+                throws IOException, InterruptedException {
+            int skipped = 0;
+            try {
+                DBRowCodec.Reader reader = new DBRowCodec.Reader(new BufferedInputStream(in));
+                final String insert = DBRowCodec.getInsertStatement(table.table, reader.getColumns());
+                final int[] types = reader.getTypes();
+                int index = 0;
+                Object[] row = reader.read();
+                while (row != null && failure.get() == null) {
+                    final List<Object[]> rows = new ArrayList<Object[]>(batchSize);
+                    while (row != null && rows.size() < batchSize) {
+                        rows.add(row);
+                        row = reader.read();
+                    }
+                    final int chunk = index++;
+                    if (checkpoint.isDone(table.table, chunk)) {
+                        skipped++;
+                        continue;
+                    }
+                    chunks.add(submit(table, chunk, new Callable<Integer>() {
+                        @Override
+                        public Integer call() throws Exception {
+                            insertRows(insert, types, rows);
+                            return rows.size();
+                        }
+                    }));
+                }
+            }
+            finally {
+                in.close();
+            }
+            return skipped;
+        }
+
+        private int readJSONChunks(final DBTable table, InputStream in, List<Future<Integer>> chunks)
+                throws IOException, InterruptedException {
+            int skipped = 0;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+            try {
+                int index = 0;
+                String line = reader.readLine();
+                while (line != null && failure.get() == null) {
+                    final List<String> lines = new ArrayList<String>(batchSize);
+                    while (line != null && lines.size() < batchSize) {
+                        lines.add(line);
+                        line = reader.readLine();
+                    }
+                    final int chunk = index++;
+                    if (checkpoint.isDone(table.table, chunk)) {
+                        skipped++;
+                        continue;
+                    }
+                    chunks.add(submit(table, chunk, new Callable<Integer>() {
+                        @Override
+                        public Integer call() throws Exception {
+                            persistBeans(table.beanClass, lines);
+                            return lines.size();
+                        }
+                    }));
+                }
+            }
+            finally {
+                reader.close();
+            }
+            return skipped;
+        }
+
+        private Future<Integer> submit(final DBTable table, final int chunk, final Callable<Integer> write)
+                throws InterruptedException {
+            pending.acquire();
+            try {
+                return writers.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        try {
+                            // the chunks queued once a chunk failed are not written, they fail the same way
+                            Exception failed = failure.get();
+                            if (failed != null) {
+                                throw failed;
+                            }
+                            int size = write.call();
+                            checkpoint.done(table.table, chunk);
+                            imported.addAndGet(size);
+                            return size;
+                        }
+                        catch (Exception ex) {
+                            failure.compareAndSet(null, ex);
+                            throw ex;
+                        }
+                        finally {
+                            pending.release();
+                        }
+                    }
+                });
+            }
+            catch (RuntimeException ex) {
+                pending.release();
+                throw ex;
+            }
+        }
+
+        private void insertRows(String insert, int[] types, List<Object[]> rows) throws Exception {
+            Connection conn = connection.get();
+            if (conn == null) {
+                conn = OozieDBExportCLI.openConnection();
+                conn.setAutoCommit(false);
+                connections.add(conn);
+                connection.set(conn);
+            }
+            PreparedStatement ps = conn.prepareStatement(insert);
+            try {
+                for (Object[] row : rows) {
+                    DBRowCodec.setParameters(ps, types, row);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            }
+            catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+            finally {
+                ps.close();
+            }
+        }
+
+        private void persistBeans(Class<?> beanClass, List<String> lines) {
+            Gson gson = new Gson();
+            EntityManager entityManager = Services.get().get(JPAService.class).getEntityManager();
+            entityManager.setFlushMode(FlushModeType.COMMIT);
+            EntityTransaction transaction = entityManager.getTransaction();
+            try {
+                transaction.begin();
+                for (String line : lines) {
+                    entityManager.persist(gson.fromJson(line, beanClass));
+                }
+                transaction.commit();
+            }
+            finally {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                entityManager.close();
+            }
+        }
+
+        void close() throws InterruptedException {
+            reporter.shutdownNow();
+            writers.shutdown();
+            writers.awaitTermination(1, TimeUnit.MINUTES);
+            synchronized (connections) {
+                for (Connection conn : connections) {
+                    try {
+                        conn.close();
+                    }
+                    catch (SQLException ex) {
+                        System.err.println("Could not close connection: " + ex.getMessage());
+                    }
+                }
             }
-            throw new RuntimeException("Import failed to table " + table + ".", e);
         }
     }
 
-    private static <E> int importFromJSONtoDB(EntityManager entityManager, ZipFile zipFile, String filename, Class<E> clazz)
-            throws JPAExecutorException, IOException {
-        int wfjSize = 0;
-        Gson gson = new Gson();
-        ZipEntry entry = zipFile.getEntry(filename);
-        if (entry != null) {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(entry), "UTF-8"));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                E workflow = gson.fromJson(line, clazz);
-                entityManager.persist(workflow);
-                wfjSize++;
+    /**
+     * Checkpoint of an import, the chunks of each table committed to the database. The first line of the file holds
+     * the chunk size, a line is appended for every committed chunk.
+     */
+    static class ImportCheckpoint {
+        private static final String BATCH_PREFIX = "batch=";
+
+        private final File file;
+        private final Set<String> done = new HashSet<String>();
+        private final BufferedWriter writer;
+
+        ImportCheckpoint(File file, int batchSize) throws IOException {
+            this.file = file;
+            boolean exists = file.exists();
+            if (exists) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+                try {
+                    String header = reader.readLine();
+                    if (header != null && !header.equals(BATCH_PREFIX + batchSize)) {
+                        throw new IOException("Checkpoint " + file + " was written with " + header
+                                + ", import with the same batch size to resume");
+                    }
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        done.add(line);
+                    }
+                }
+                finally {
+                    reader.close();
+                }
+                System.out.println("Resuming import, " + done.size() + " chunks imported before");
             }
-            reader.close();
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), "UTF-8"));
+            if (!exists) {
+                writer.write(BATCH_PREFIX + batchSize);
+                writer.newLine();
+                writer.flush();
+            }
+        }
+
+        boolean isDone(String table, int chunk) {
+            return done.contains(table + ":" + chunk);
+        }
+
+        synchronized void done(String table, int chunk) throws IOException {
+            writer.write(table + ":" + chunk);
+            writer.newLine();
+            writer.flush();
+        }
+
+        synchronized void close() throws IOException {
+            writer.close();
+        }
+
+        void delete() {
+            file.delete();
         }
-        return wfjSize;
     }
-}
\ No newline at end of file
+}
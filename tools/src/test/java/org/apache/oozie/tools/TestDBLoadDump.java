@@ -33,7 +33,9 @@ import javax.persistence.Query;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FileWriter;
 import java.io.InputStreamReader;
+import java.io.Writer;
 import java.util.List;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -95,6 +97,58 @@ public class TestDBLoadDump extends XTestCase {
 
     }
 
+    @Test
+    public void testBinaryDump() throws Exception {
+        OozieDBImportCLI.main(new String[]{"import", zipDump.getAbsolutePath()});
+        File binaryDump = new File(getTestCaseDir(), "binaryDumpTest.zip");
+        OozieDBExportCLI.main(new String[]{"export", "-format", "binary", "-threads", "2",
+                binaryDump.getAbsolutePath()});
+        ZipFile zip = new ZipFile(binaryDump);
+        assertNotNull(zip.getEntry("ooziedb_sysinfo.json"));
+        assertNotNull(zip.getEntry("ooziedb_wf.bin"));
+        assertNull(zip.getEntry("ooziedb_wf.json"));
+        zip.close();
+
+        EntityManager entityManager = getEntityManager();
+        long actions = countRows(entityManager, "WF_ACTIONS");
+        assertTrue(actions > 0);
+        EntityTransaction t = entityManager.getTransaction();
+        t.begin();
+        for (OozieDBExportCLI.DBTable table : OozieDBExportCLI.TABLES) {
+            entityManager.createNativeQuery("delete from " + table.table).executeUpdate();
+        }
+        t.commit();
+        entityManager.close();
+
+        OozieDBImportCLI.main(new String[]{"import", "-threads", "2", "-batch", "1", binaryDump.getAbsolutePath()});
+        entityManager = getEntityManager();
+        List<WorkflowJobBean> wfjBeans = entityManager.createNamedQuery("GET_WORKFLOWS").getResultList();
+        assertEquals(1, wfjBeans.size());
+        assertEquals("0000003-160720041037822-oozie-oozi-W", wfjBeans.get(0).getId());
+        assertEquals("aggregator-wf", wfjBeans.get(0).getAppName());
+        assertEquals(actions, countRows(entityManager, "WF_ACTIONS"));
+        assertFalse(new File(binaryDump.getAbsolutePath() + OozieDBImportCLI.CHECKPOINT_EXTENSION).exists());
+    }
+
+    @Test
+    public void testImportResumesFromCheckpoint() throws Exception {
+        File checkpoint = new File(zipDump.getAbsolutePath() + OozieDBImportCLI.CHECKPOINT_EXTENSION);
+        Writer writer = new FileWriter(checkpoint);
+        writer.write("batch=1000\nWF_JOBS:0\n");
+        writer.close();
+
+        OozieDBImportCLI.main(new String[]{"import", zipDump.getAbsolutePath()});
+        EntityManager entityManager = getEntityManager();
+        assertEquals(0, entityManager.createNamedQuery("GET_WORKFLOWS").getResultList().size());
+        assertTrue(countRows(entityManager, "WF_ACTIONS") > 0);
+        assertFalse(checkpoint.exists());
+    }
+
+    private long countRows(EntityManager entityManager, String table) {
+        return ((Number) entityManager.createNativeQuery("select count(*) from " + table).getSingleResult())
+                .longValue();
+    }
+
     private void createOozieSysTable(EntityManager entityManager) throws Exception {
         String createDB = "create table OOZIE_SYS (name varchar(100), data varchar(100))";
         String insertDbVerion = "insert into OOZIE_SYS (name, data) values ('db.version', '3')";
@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.oozie.tools;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.client.WorkflowAction;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.event.SLAEvent;
+import org.apache.oozie.command.SchemaCheckXCommand;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.PurgeService;
+import org.apache.oozie.service.ServiceException;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.sla.SLARegistrationBean;
+import org.apache.oozie.sla.SLASummaryBean;
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.DateUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.util.Date;
+import java.util.zip.ZipFile;
+
+/**
+ * Test the partitioning of the job history tables, with the logical layout of the test database
+ */
+public class TestOozieDBCLIPartitions extends XTestCase {
+
+    private EntityManager getEntityManager() throws ServiceException {
+        Services services = Services.get();
+        if (services == null) {
+            Services s = new Services();
+            s.init();
+            services = Services.get();
+        }
+        return services.get(JPAService.class).getEntityManager();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        System.getProperties().remove("oozie.test.config.file");
+        super.setUp();
+        EntityManager entityManager = getEntityManager();
+        EntityTransaction t = entityManager.getTransaction();
+        t.begin();
+        entityManager.createNativeQuery("create table OOZIE_SYS (name varchar(100), data varchar(100))").executeUpdate();
+        entityManager.createNativeQuery("insert into OOZIE_SYS (name, data) values ('db.version', '3')").executeUpdate();
+        t.commit();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        EntityManager entityManager = getEntityManager();
+        EntityTransaction t = entityManager.getTransaction();
+        t.begin();
+        entityManager.createNativeQuery("drop table OOZIE_SYS").executeUpdate();
+        t.commit();
+        if (Services.get() != null) {
+            Services.get().destroy();
+        }
+        super.tearDown();
+    }
+
+    public void testDropPartitions() throws Exception {
+        Date january = DateUtils.parseDateOozieTZ("2010-01-15T10:00Z");
+        Date march = DateUtils.parseDateOozieTZ("2010-03-10T10:00Z");
+        WorkflowJobBean oldJob = createWorkflow("0000001-100115100000000-oozie-test-W", WorkflowJob.Status.SUCCEEDED,
+                january);
+        WorkflowActionBean oldAction = new WorkflowActionBean();
+        oldAction.setId(oldJob.getId() + "@a");
+        oldAction.setJobId(oldJob.getId());
+        oldAction.setStatus(WorkflowAction.Status.OK);
+        oldAction.setCreatedTime(january);
+        CoordinatorActionBean oldCoordAction = new CoordinatorActionBean();
+        oldCoordAction.setId("0000002-100115100000000-oozie-test-C@1");
+        oldCoordAction.setJobId("0000002-100115100000000-oozie-test-C");
+        oldCoordAction.setStatus(CoordinatorAction.Status.SUCCEEDED);
+        oldCoordAction.setCreatedTime(january);
+        SLASummaryBean oldSummary = new SLASummaryBean();
+        oldSummary.setId(oldJob.getId());
+        oldSummary.setSLAStatus(SLAEvent.SLAStatus.MET);
+        oldSummary.setCreatedTime(january);
+        // created before the creation time was set, backfilled from the last modification time
+        WorkflowJobBean untimedJob = createWorkflow("0000005-100115100000000-oozie-test-W",
+                WorkflowJob.Status.KILLED, null);
+        untimedJob.setLastModifiedTime(january);
+        SLARegistrationBean oldRegistration = new SLARegistrationBean();
+        oldRegistration.setId(oldJob.getId());
+        oldRegistration.setCreatedTime(january);
+        WorkflowJobBean runningJob = createWorkflow("0000003-100310100000000-oozie-test-W", WorkflowJob.Status.RUNNING,
+                march);
+        WorkflowJobBean recentJob = createWorkflow("0000004-100310100000000-oozie-test-W", WorkflowJob.Status.SUCCEEDED,
+                new Date());
+
+        EntityManager entityManager = getEntityManager();
+        EntityTransaction t = entityManager.getTransaction();
+        t.begin();
+        entityManager.persist(oldJob);
+        entityManager.persist(oldAction);
+        entityManager.persist(oldCoordAction);
+        entityManager.persist(oldSummary);
+        entityManager.persist(untimedJob);
+        entityManager.persist(oldRegistration);
+        entityManager.persist(runningJob);
+        entityManager.persist(recentJob);
+        t.commit();
+        entityManager.close();
+
+        assertEquals(0, new OozieDBCLI().run(new String[]{"partition", "-run"}));
+        entityManager = getEntityManager();
+        assertEquals(SchemaCheckXCommand.PARTITIONS_LOGICAL, entityManager.createNativeQuery(
+                "select data from OOZIE_SYS where name = '" + SchemaCheckXCommand.OOZIE_SYS_PARTITIONS + "'")
+                .getSingleResult());
+        entityManager.close();
+
+        File archiveDir = new File(getTestCaseDir(), "archive");
+        assertEquals(0, new OozieDBCLI().run(new String[]{"droppartitions", "-olderthan", "30", "-archive",
+                archiveDir.getAbsolutePath(), "-run"}));
+
+        entityManager = getEntityManager();
+        assertNull(entityManager.find(WorkflowJobBean.class, oldJob.getId()));
+        assertNull(entityManager.find(WorkflowActionBean.class, oldAction.getId()));
+        assertNull(entityManager.find(CoordinatorActionBean.class, oldCoordAction.getId()));
+        assertNull(entityManager.find(SLASummaryBean.class, oldSummary.getId()));
+        assertNull(entityManager.find(WorkflowJobBean.class, untimedJob.getId()));
+        assertNull(entityManager.find(SLARegistrationBean.class, oldRegistration.getId()));
+        // the month of a running job is kept, as well as the recent months
+        assertNotNull(entityManager.find(WorkflowJobBean.class, runningJob.getId()));
+        assertNotNull(entityManager.find(WorkflowJobBean.class, recentJob.getId()));
+        entityManager.close();
+
+        assertEquals(1, archiveDir.list().length);
+        ZipFile zip = new ZipFile(new File(archiveDir, "oozie-archive-201001.zip"));
+        try {
+            assertTrue(readFirstLine(zip, OozieDBExportCLI.OOZIEDB_WF_JSON).contains(oldJob.getId()));
+            assertTrue(readFirstLine(zip, OozieDBExportCLI.OOZIEDB_AC_JSON).contains(oldAction.getId()));
+            assertTrue(readFirstLine(zip, OozieDBExportCLI.OOZIEDB_CA_JSON).contains(oldCoordAction.getId()));
+            assertTrue(readFirstLine(zip, OozieDBExportCLI.OOZIEDB_SLASUM_JSON).contains(oldSummary.getId()));
+        }
+        finally {
+            zip.close();
+        }
+    }
+
+    public void testDropPartitionsKeepsActionsOfRunningCoordinators() throws Exception {
+        Date january = DateUtils.parseDateOozieTZ("2010-01-15T10:00Z");
+        CoordinatorJobBean coordJob = new CoordinatorJobBean();
+        coordJob.setId("0000001-100115100000000-oozie-test-C");
+        coordJob.setStatus(CoordinatorJob.Status.RUNNING);
+        CoordinatorActionBean coordAction = new CoordinatorActionBean();
+        coordAction.setId(coordJob.getId() + "@1");
+        coordAction.setJobId(coordJob.getId());
+        coordAction.setStatus(CoordinatorAction.Status.SUCCEEDED);
+        coordAction.setCreatedTime(january);
+        WorkflowJobBean actionJob = createWorkflow("0000002-100115100000000-oozie-test-W",
+                WorkflowJob.Status.SUCCEEDED, january);
+        actionJob.setParentId(coordAction.getId());
+
+        EntityManager entityManager = getEntityManager();
+        EntityTransaction t = entityManager.getTransaction();
+        t.begin();
+        entityManager.persist(coordJob);
+        entityManager.persist(coordAction);
+        entityManager.persist(actionJob);
+        t.commit();
+        entityManager.close();
+
+        assertEquals(0, new OozieDBCLI().run(new String[]{"partition", "-run"}));
+        assertEquals(0, new OozieDBCLI().run(new String[]{"droppartitions", "-olderthan", "30", "-run"}));
+        entityManager = getEntityManager();
+        assertNotNull(entityManager.find(CoordinatorActionBean.class, coordAction.getId()));
+        assertNotNull(entityManager.find(WorkflowJobBean.class, actionJob.getId()));
+        entityManager.close();
+
+        // as the PurgeService, the actions of running coordinators are dropped when asked to
+        setSystemProperty(PurgeService.PURGE_OLD_COORD_ACTION, "true");
+        assertEquals(0, new OozieDBCLI().run(new String[]{"droppartitions", "-olderthan", "30", "-run"}));
+        entityManager = getEntityManager();
+        assertNull(entityManager.find(CoordinatorActionBean.class, coordAction.getId()));
+        assertNull(entityManager.find(WorkflowJobBean.class, actionJob.getId()));
+        assertNotNull(entityManager.find(CoordinatorJobBean.class, coordJob.getId()));
+        entityManager.close();
+    }
+
+    public void testDropPartitionsNeedsPartitionLayout() throws Exception {
+        assertEquals(1, new OozieDBCLI().run(new String[]{"droppartitions", "-olderthan", "30", "-run"}));
+    }
+
+    private WorkflowJobBean createWorkflow(String id, WorkflowJob.Status status, Date createdTime) {
+        WorkflowJobBean job = new WorkflowJobBean();
+        job.setId(id);
+        job.setStatus(status);
+        job.setCreatedTime(createdTime);
+        return job;
+    }
+
+    private String readFirstLine(ZipFile zip, String entry) throws Exception {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(zip.getEntry(entry)),
+                "UTF-8"));
+        try {
+            return reader.readLine();
+        }
+        finally {
+            reader.close();
+        }
+    }
+}